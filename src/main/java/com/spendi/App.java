@@ -25,16 +25,21 @@ import java.util.Locale;
 /**
  * ! my imports
  */
+import com.spendi.config.AdmissionConfig;
 import com.spendi.config.ApiConfig;
 import com.spendi.config.AuthConfig;
+import com.spendi.config.BatchConfig;
 import com.spendi.config.ServerConfig;
 import com.spendi.core.base.server.JavalinServerAdapter;
 import com.spendi.core.base.server.MyExceptionMapper;
 import com.spendi.core.init.AppInitializer;
+import com.spendi.core.middleware.AdmissionControlMiddleware;
 import com.spendi.core.middleware.RequestLifecycleMiddleware;
 import com.spendi.core.router.NotFoundRouter;
 import com.spendi.core.router.PingRouter;
+import com.spendi.modules.admin.AdminRouter;
 import com.spendi.modules.auth.AuthRouter;
+import com.spendi.modules.batch.BatchRouter;
 import com.spendi.modules.files.FileRouter;
 import com.spendi.modules.user.UserRouter;
 import com.spendi.core.router.DocsRouter;
@@ -66,6 +71,8 @@ public class App {
 		System.out.println("✅ Loaded config for server: " + serverConfig);
 		System.out.println("✅ Loaded config api: " + apiConfig);
 		System.out.println("✅ Loaded config auth: " + authConfig);
+		System.out.println("✅ Loaded config admission: " + AdmissionConfig.getConfig());
+		System.out.println("✅ Loaded config batch: " + BatchConfig.getConfig());
 
 		// ? --- Инициализация модулей ------------------------------------------
 		// Централизованная инициализация зависимостей приложения: сервисов,
@@ -92,6 +99,12 @@ public class App {
 				"http://127.0.0.1:3000");
 
 		// ? --- --- --- Глобальные middleware --- --- ---
+		// AdmissionControlMiddleware (before + after):
+		// - держит адаптивный лимит одновременных запросов, лишние — сразу 503;
+		// - after-фаза освобождает место и передаёт время ответа в оценку лимита.
+		server.useBefore(AdmissionControlMiddleware.getInstance());
+		server.useAfter(AdmissionControlMiddleware.getInstance().release());
+
 		// RequestLifecycleMiddleware (after-фаза):
 		// - считает время обработки и выставляет X-Response-Time;
 		// - присваивает/прокидывает X-Request-Id для корреляции логов;
@@ -108,7 +121,10 @@ public class App {
 		// GET {prefix}/ping/version
 		server.registerRouter(new PingRouter(apiConfig.getApiPrefix()));
 
-		// ! admin router
+		// Администрирование: поиск по логам и прочие служебные операции
+		// GET {prefix}/admin/logs
+		server.registerRouter(new AdminRouter(apiConfig.getApiPrefix()));
+
 		// Файлы/загрузки/скачивание артефактов
 		server.registerRouter(new FileRouter(apiConfig.getApiPrefix()));
 
@@ -121,6 +137,10 @@ public class App {
 		// Пользователи
 		server.registerRouter(new UserRouter(apiConfig.getApiPrefix()));
 
+		// Пакет под-запросов: несколько вызовов API за один запрос
+		// POST {prefix}/batch
+		server.registerRouter(new BatchRouter(apiConfig.getApiPrefix()));
+
 		// Маршрут «не найдено» перехватывает несуществующие пути внутри {prefix}/* и
 		// выбрасывает RouterNotFoundException, чтобы клиент получил
 		// структурированный JSON, а не дефолтный ответ фреймворка.
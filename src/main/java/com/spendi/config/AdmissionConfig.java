@@ -0,0 +1,94 @@
+/**
+ * @file AdmissionConfig.java
+ * @module config
+ * @description
+ * Конфигурация адаптивного ограничения параллельных запросов (AdmissionControlMiddleware).
+ * Переменные окружения:
+ * - SPENDI_ADMISSION_ENABLED=true — выключатель
+ * - SPENDI_ADMISSION_INITIAL_LIMIT=64 — стартовый лимит одновременных запросов
+ * - SPENDI_ADMISSION_MIN_LIMIT=8 / SPENDI_ADMISSION_MAX_LIMIT=512 — границы адаптации
+ * - SPENDI_ADMISSION_PRIORITY_PATHS=/ping,/auth/logout — дешёвые маршруты (префиксы после
+ *   API-префикса), которым доступен весь лимит
+ * - SPENDI_ADMISSION_PRIORITY_RESERVE_PERCENT=10 — доля лимита, недоступная обычным маршрутам
+ * - SPENDI_ADMISSION_RETRY_AFTER_SEC=1 — Retry-After у ответа 503
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.config;
+
+/**
+ * ! java imports
+ */
+import java.util.Set;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.BaseConfig;
+
+public final class AdmissionConfig extends BaseConfig {
+	private static final AdmissionConfig INSTANCE = new AdmissionConfig();
+
+	private final boolean enabled;
+	private final int initialLimit;
+	private final int minLimit;
+	private final int maxLimit;
+	private final Set<String> priorityPaths;
+	private final int priorityReservePercent;
+	private final int retryAfterSeconds;
+
+	private AdmissionConfig() {
+		this.enabled = parseBool(getenv(this.dotenv, "SPENDI_ADMISSION_ENABLED", "true"), true);
+		this.minLimit = Math.max(1, parseInt(getenv(this.dotenv, "SPENDI_ADMISSION_MIN_LIMIT", "8"), 8));
+		this.maxLimit = Math.max(minLimit,
+				parseInt(getenv(this.dotenv, "SPENDI_ADMISSION_MAX_LIMIT", "512"), 512));
+		this.initialLimit = Math.max(minLimit,
+				Math.min(maxLimit, parseInt(getenv(this.dotenv, "SPENDI_ADMISSION_INITIAL_LIMIT", "64"), 64)));
+		this.priorityPaths = parseCsvSet(
+				getenv(this.dotenv, "SPENDI_ADMISSION_PRIORITY_PATHS", "/ping,/auth/logout"));
+		this.priorityReservePercent = Math.max(0, Math.min(90,
+				parseInt(getenv(this.dotenv, "SPENDI_ADMISSION_PRIORITY_RESERVE_PERCENT", "10"), 10)));
+		this.retryAfterSeconds = Math.max(1,
+				parseInt(getenv(this.dotenv, "SPENDI_ADMISSION_RETRY_AFTER_SEC", "1"), 1));
+	}
+
+	public static AdmissionConfig getConfig() {
+		return INSTANCE;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public int getInitialLimit() {
+		return initialLimit;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	public Set<String> getPriorityPaths() {
+		return priorityPaths;
+	}
+
+	public int getPriorityReservePercent() {
+		return priorityReservePercent;
+	}
+
+	public int getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+
+	@Override
+	public String toString() {
+		return "AdmissionConfig{enabled=%s, limit=%d [%d..%d], priorityPaths=%s, reserve=%d%%, retryAfter=%ds}"
+				.formatted(enabled, initialLimit, minLimit, maxLimit, priorityPaths, priorityReservePercent,
+						retryAfterSeconds);
+	}
+}
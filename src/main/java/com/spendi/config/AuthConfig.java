@@ -7,6 +7,11 @@
 
 package com.spendi.config;
 
+/**
+ * ! java imports
+ */
+import java.util.Set;
+
 /**
  * ! my imports
  */
@@ -25,6 +30,7 @@ public final class AuthConfig extends BaseConfig {
 	private final String cookieSameSite; // Lax|Strict|None
 	private final String cookiePath;
 	private final String cookieDomain; // nullable
+	private final Set<String> adminUserIds; // hex id пользователей с доступом к /admin
 
 	private AuthConfig() {
 		this.cookieName = getenv(this.dotenv, "SPENDI_AUTH_COOKIE", "spendi.sid");
@@ -37,6 +43,7 @@ public final class AuthConfig extends BaseConfig {
 		this.cookieSameSite = getenv(this.dotenv, "SPENDI_AUTH_COOKIE_SAMESITE", "Lax");
 		this.cookiePath = getenv(this.dotenv, "SPENDI_AUTH_COOKIE_PATH", "/");
 		this.cookieDomain = getenv(this.dotenv, "SPENDI_AUTH_COOKIE_DOMAIN", null);
+		this.adminUserIds = parseCsvSet(getenv(this.dotenv, "SPENDI_ADMIN_USER_IDS", ""));
 	}
 
 	public static AuthConfig getConfig() {
@@ -71,10 +78,14 @@ public final class AuthConfig extends BaseConfig {
 		return cookieDomain;
 	}
 
+	public Set<String> getAdminUserIds() {
+		return adminUserIds;
+	}
+
 	@Override
 	public String toString() {
-		return "AuthConfig{cookie='%s', ttl=%ds, secure=%s, httpOnly=%s, sameSite=%s}".formatted(
+		return "AuthConfig{cookie='%s', ttl=%ds, secure=%s, httpOnly=%s, sameSite=%s, admins=%d}".formatted(
 				cookieName,
-				sessionTtlSec, cookieSecure, cookieHttpOnly, cookieSameSite);
+				sessionTtlSec, cookieSecure, cookieHttpOnly, cookieSameSite, adminUserIds.size());
 	}
 }
@@ -0,0 +1,56 @@
+/**
+ * @file BatchConfig.java
+ * @module config
+ * @description
+ * Конфигурация пакетного эндпоинта POST /batch.
+ * Переменные окружения:
+ * - SPENDI_BATCH_MAX_ITEMS=20 — максимум под-запросов в одном пакете
+ * - SPENDI_BATCH_WORKERS=8 — потоки для параллельного выполнения под-запросов
+ * - SPENDI_BATCH_MAX_BODY_BYTES=262144 — предел бинарного тела одного ответа
+ *   (байты отдаются в base64; больше — 413 у этого под-запроса)
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.config;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.BaseConfig;
+
+public final class BatchConfig extends BaseConfig {
+	private static final BatchConfig INSTANCE = new BatchConfig();
+
+	private final int maxItems;
+	private final int workers;
+	private final long maxBodyBytes;
+
+	private BatchConfig() {
+		this.maxItems = Math.max(1, parseInt(getenv(this.dotenv, "SPENDI_BATCH_MAX_ITEMS", "20"), 20));
+		this.workers = Math.max(1, parseInt(getenv(this.dotenv, "SPENDI_BATCH_WORKERS", "8"), 8));
+		this.maxBodyBytes = Math.max(0,
+				parseLong(getenv(this.dotenv, "SPENDI_BATCH_MAX_BODY_BYTES", "262144"), 262144L));
+	}
+
+	public static BatchConfig getConfig() {
+		return INSTANCE;
+	}
+
+	public int getMaxItems() {
+		return maxItems;
+	}
+
+	public int getWorkers() {
+		return workers;
+	}
+
+	public long getMaxBodyBytes() {
+		return maxBodyBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchConfig{maxItems=%d, workers=%d, maxBodyBytes=%d}".formatted(maxItems, workers, maxBodyBytes);
+	}
+}
@@ -7,6 +7,12 @@
 
 package com.spendi.config;
 
+/**
+ * ! java imports
+ */
+import java.util.List;
+import java.util.TreeSet;
+
 /**
  * ! my imports
  */
@@ -19,10 +25,127 @@ public final class FileStorageConfig extends BaseConfig {
 	private final String tempDir;
 	/** Базовая директория постоянного хранилища. По умолчанию: ./storage/files */
 	private final String baseDir;
+	/**
+	 * Отдавать файлы потоком с диска (true) или читать целиком в память (false). По умолчанию: true
+	 */
+	private final boolean streamDownloads;
+	/**
+	 * Контентно-адресуемое хранение: один blob на SHA-256, ссылки считаются в БД. По умолчанию: false
+	 */
+	private final boolean contentAddressed;
+	/** Период сверки счётчиков ссылок blob'ов, минут (0 — не запускать). По умолчанию: 60 */
+	private final int reconcileIntervalMin;
+	/** Стороны квадратов превью аватаров, px (по возрастанию; пусто — превью не делаются). По умолчанию: 64,128,256 */
+	private final List<Integer> thumbnailSizes;
+	/** Потоков генерации превью. По умолчанию: 1 */
+	private final int thumbnailWorkers;
+	/** Потоков обработки частей multipart-загрузки (проверка, сохранение). По умолчанию: min(4, CPU) */
+	private final int uploadWorkers;
+	/** Раскладка новых файлов: dated (YYYY-MM-DD/HH) | sharded (ab/cd по хешу id). По умолчанию: dated */
+	private final String layout;
+	/** Переносить файлы старой раскладки в sharded в фоне. По умолчанию: false */
+	private final boolean layoutMigrate;
+	/** Записей на пачку переноса. По умолчанию: 200 */
+	private final int layoutMigrateBatch;
+	/** Пауза между пачками переноса, мс. По умолчанию: 500 */
+	private final long layoutMigratePauseMs;
+	/** Части не больше этого принимаются в память, без временного файла, байт (0 — всегда на диск). По умолчанию: 64 КБ */
+	private final int memoryUploadMaxBytes;
+	/** Сколько памяти всего могут занимать такие части одновременно, байт. По умолчанию: 8 МБ */
+	private final long memoryUploadPoolBytes;
+	/** Объём кэша горячих файлов в памяти, байт (0 — кэш выключен). По умолчанию: 32 МБ */
+	private final long cacheMaxBytes;
+	/** Файлы крупнее этого в кэш не попадают, байт. По умолчанию: 512 КБ */
+	private final long cacheMaxEntryBytes;
+	/** Держать содержимое кэша вне кучи (direct ByteBuffer). По умолчанию: false */
+	private final boolean cacheOffHeap;
+	/** Период сборки мусора хранилища, минут (0 — не запускать). По умолчанию: 360 */
+	private final int gcIntervalMin;
+	/** Файлы моложе этого не трогаются, минут. По умолчанию: 60 */
+	private final int gcGraceMin;
+	/** Что делать с осиротевшим содержимым: quarantine | delete. По умолчанию: quarantine */
+	private final String gcMode;
+	/** Сколько дней хранится карантин. По умолчанию: 7 */
+	private final int gcQuarantineDays;
+	/** Потоков обхода каталогов. По умолчанию: 2 */
+	private final int gcParallelism;
+	/** Предел операций с ФС в секунду (проверка + удаление) на весь проход. По умолчанию: 200 */
+	private final int gcOpsPerSec;
+	/** Где лежит содержимое: local | s3. По умолчанию: local */
+	private final String backend;
+	/** Адрес S3-совместимого хранилища. По умолчанию: https://s3.amazonaws.com */
+	private final String s3Endpoint;
+	/** Регион для подписи запросов. По умолчанию: us-east-1 */
+	private final String s3Region;
+	/** Бакет (обязателен для s3) */
+	private final String s3Bucket;
+	/** Ключ доступа (обязателен для s3) */
+	private final String s3AccessKey;
+	/** Секретный ключ (обязателен для s3) */
+	private final String s3SecretKey;
+	/** Префикс ключей внутри бакета. По умолчанию: пусто */
+	private final String s3Prefix;
+	/** Path-style адресация (endpoint/bucket/key), нужна MinIO. По умолчанию: true */
+	private final boolean s3PathStyle;
+	/** Размер части multipart upload, МБ (не меньше 5). По умолчанию: 8 */
+	private final int s3PartSizeMb;
+	/** Сколько частей отправляется параллельно (на весь процесс). По умолчанию: 4 */
+	private final int s3UploadParallelism;
 
 	private FileStorageConfig() {
 		this.baseDir = getenv(this.dotenv, "SPENDI_FILES_UPLOAD_DIR", "storage/files");
 		this.tempDir = getenv(this.dotenv, "SPENDI_FILES_TEMP_DIR", "uploads/temp");
+		this.streamDownloads = parseBool(getenv(this.dotenv, "SPENDI_FILES_STREAM_DOWNLOADS", null), true);
+		this.contentAddressed = parseBool(getenv(this.dotenv, "SPENDI_FILES_DEDUP", null), false);
+		this.reconcileIntervalMin = Math.max(0,
+				parseInt(getenv(this.dotenv, "SPENDI_FILES_REFCOUNT_RECONCILE_MIN", null), 60));
+		this.thumbnailSizes = parseSizes(getenv(this.dotenv, "SPENDI_FILES_THUMB_SIZES", "64,128,256"));
+		this.thumbnailWorkers = Math.max(1, parseInt(getenv(this.dotenv, "SPENDI_FILES_THUMB_WORKERS", null), 1));
+		this.uploadWorkers = Math.max(1, parseInt(getenv(this.dotenv, "SPENDI_FILES_UPLOAD_WORKERS", null),
+				Math.min(4, Runtime.getRuntime().availableProcessors())));
+		this.layout = getenv(this.dotenv, "SPENDI_FILES_LAYOUT", "dated").trim().toLowerCase();
+		this.layoutMigrate = parseBool(getenv(this.dotenv, "SPENDI_FILES_LAYOUT_MIGRATE", null), false);
+		this.layoutMigrateBatch = Math.max(1,
+				parseInt(getenv(this.dotenv, "SPENDI_FILES_LAYOUT_MIGRATE_BATCH", null), 200));
+		this.layoutMigratePauseMs = Math.max(0,
+				parseLong(getenv(this.dotenv, "SPENDI_FILES_LAYOUT_MIGRATE_PAUSE_MS", null), 500));
+		this.memoryUploadMaxBytes = Math.max(0,
+				parseInt(getenv(this.dotenv, "SPENDI_FILES_MEMORY_UPLOAD_KB", null), 64)) * 1024;
+		this.memoryUploadPoolBytes = Math.max(0,
+				parseLong(getenv(this.dotenv, "SPENDI_FILES_MEMORY_UPLOAD_POOL_MB", null), 8)) * 1024 * 1024;
+		this.cacheMaxBytes = Math.max(0,
+				parseLong(getenv(this.dotenv, "SPENDI_FILES_CACHE_BYTES", null), 32L * 1024 * 1024));
+		this.cacheMaxEntryBytes = Math.max(0,
+				parseLong(getenv(this.dotenv, "SPENDI_FILES_CACHE_MAX_ENTRY_BYTES", null), 512L * 1024));
+		this.cacheOffHeap = parseBool(getenv(this.dotenv, "SPENDI_FILES_CACHE_OFF_HEAP", null), false);
+		this.gcIntervalMin = Math.max(0, parseInt(getenv(this.dotenv, "SPENDI_FILES_GC_INTERVAL_MIN", null), 360));
+		this.gcGraceMin = Math.max(1, parseInt(getenv(this.dotenv, "SPENDI_FILES_GC_GRACE_MIN", null), 60));
+		this.gcMode = getenv(this.dotenv, "SPENDI_FILES_GC_MODE", "quarantine").trim().toLowerCase();
+		this.gcQuarantineDays = Math.max(0, parseInt(getenv(this.dotenv, "SPENDI_FILES_GC_QUARANTINE_DAYS", null), 7));
+		this.gcParallelism = Math.max(1, parseInt(getenv(this.dotenv, "SPENDI_FILES_GC_PARALLELISM", null), 2));
+		this.gcOpsPerSec = Math.max(1, parseInt(getenv(this.dotenv, "SPENDI_FILES_GC_OPS_PER_SEC", null), 200));
+		this.backend = getenv(this.dotenv, "SPENDI_FILES_BACKEND", "local").trim().toLowerCase();
+		this.s3Endpoint = getenv(this.dotenv, "SPENDI_FILES_S3_ENDPOINT", "https://s3.amazonaws.com");
+		this.s3Region = getenv(this.dotenv, "SPENDI_FILES_S3_REGION", "us-east-1");
+		this.s3Bucket = getenv(this.dotenv, "SPENDI_FILES_S3_BUCKET", null);
+		this.s3AccessKey = getenv(this.dotenv, "SPENDI_FILES_S3_ACCESS_KEY", null);
+		this.s3SecretKey = getenv(this.dotenv, "SPENDI_FILES_S3_SECRET_KEY", null);
+		this.s3Prefix = getenv(this.dotenv, "SPENDI_FILES_S3_PREFIX", "");
+		this.s3PathStyle = parseBool(getenv(this.dotenv, "SPENDI_FILES_S3_PATH_STYLE", null), true);
+		this.s3PartSizeMb = Math.max(5, parseInt(getenv(this.dotenv, "SPENDI_FILES_S3_PART_SIZE_MB", null), 8));
+		this.s3UploadParallelism = Math.max(1,
+				parseInt(getenv(this.dotenv, "SPENDI_FILES_S3_UPLOAD_PARALLELISM", null), 4));
+	}
+
+	/** "256, 64,128" → [64, 128, 256]; некорректные и неположительные значения отбрасываются. */
+	private static List<Integer> parseSizes(String csv) {
+		TreeSet<Integer> sizes = new TreeSet<>();
+		for (String s : parseCsvSet(csv)) {
+			int v = parseInt(s, -1);
+			if (v > 0 && v <= 4096)
+				sizes.add(v);
+		}
+		return List.copyOf(sizes);
 	}
 
 	public static FileStorageConfig getConfig() {
@@ -37,8 +160,139 @@ public final class FileStorageConfig extends BaseConfig {
 		return baseDir;
 	}
 
+	public boolean isStreamDownloads() {
+		return streamDownloads;
+	}
+
+	public boolean isContentAddressed() {
+		return contentAddressed;
+	}
+
+	public int getReconcileIntervalMin() {
+		return reconcileIntervalMin;
+	}
+
+	public List<Integer> getThumbnailSizes() {
+		return thumbnailSizes;
+	}
+
+	public int getThumbnailWorkers() {
+		return thumbnailWorkers;
+	}
+
+	public int getUploadWorkers() {
+		return uploadWorkers;
+	}
+
+	public String getLayout() {
+		return layout;
+	}
+
+	public boolean isShardedLayout() {
+		return "sharded".equals(layout);
+	}
+
+	public boolean isLayoutMigrate() {
+		return layoutMigrate;
+	}
+
+	public int getLayoutMigrateBatch() {
+		return layoutMigrateBatch;
+	}
+
+	public long getLayoutMigratePauseMs() {
+		return layoutMigratePauseMs;
+	}
+
+	public int getMemoryUploadMaxBytes() {
+		return memoryUploadMaxBytes;
+	}
+
+	public long getMemoryUploadPoolBytes() {
+		return memoryUploadPoolBytes;
+	}
+
+	public long getCacheMaxBytes() {
+		return cacheMaxBytes;
+	}
+
+	public long getCacheMaxEntryBytes() {
+		return cacheMaxEntryBytes;
+	}
+
+	public boolean isCacheOffHeap() {
+		return cacheOffHeap;
+	}
+
+	public int getGcIntervalMin() {
+		return gcIntervalMin;
+	}
+
+	public int getGcGraceMin() {
+		return gcGraceMin;
+	}
+
+	/** true — осиротевшее содержимое удаляется сразу, иначе переносится в карантин. */
+	public boolean isGcDelete() {
+		return "delete".equals(gcMode);
+	}
+
+	public int getGcQuarantineDays() {
+		return gcQuarantineDays;
+	}
+
+	public int getGcParallelism() {
+		return gcParallelism;
+	}
+
+	public int getGcOpsPerSec() {
+		return gcOpsPerSec;
+	}
+
+	public String getBackend() {
+		return backend;
+	}
+
+	public String getS3Endpoint() {
+		return s3Endpoint;
+	}
+
+	public String getS3Region() {
+		return s3Region;
+	}
+
+	public String getS3Bucket() {
+		return s3Bucket;
+	}
+
+	public String getS3AccessKey() {
+		return s3AccessKey;
+	}
+
+	public String getS3SecretKey() {
+		return s3SecretKey;
+	}
+
+	public String getS3Prefix() {
+		return s3Prefix;
+	}
+
+	public boolean isS3PathStyle() {
+		return s3PathStyle;
+	}
+
+	public int getS3PartSizeMb() {
+		return s3PartSizeMb;
+	}
+
+	public int getS3UploadParallelism() {
+		return s3UploadParallelism;
+	}
+
 	@Override
 	public String toString() {
-		return "FileStorageConfig{baseDir='%s', tempDir='%s'}".formatted(baseDir, tempDir);
+		return "FileStorageConfig{backend='%s', layout='%s', baseDir='%s', tempDir='%s', streamDownloads=%s, contentAddressed=%s, thumbnailSizes=%s, cacheMaxBytes=%d, s3Endpoint='%s', s3Bucket='%s'}"
+				.formatted(backend, layout, baseDir, tempDir, streamDownloads, contentAddressed, thumbnailSizes,
+						cacheMaxBytes, s3Endpoint, s3Bucket);
 	}
 }
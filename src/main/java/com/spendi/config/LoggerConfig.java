@@ -11,6 +11,15 @@
  * - SPENDI_LOG_FILE_ENABLED=true
  * - SPENDI_LOG_FILE_MAX_SIZE=1048576
  * - SPENDI_LOG_PATH=storage/logs
+ * - SPENDI_LOG_FORMAT=JSON|CBOR
+ * - SPENDI_LOG_ARCHIVE_ENABLED=true
+ * - SPENDI_LOG_RETENTION_DAYS=0 (0 — хранить бессрочно)
+ * - SPENDI_LOG_CONSOLE_FORMAT=PRETTY|JSON
+ * - SPENDI_LOG_COLORS=AUTO|ALWAYS|NEVER
+ * - SPENDI_LOG_SAMPLING_ENABLED=true
+ * - SPENDI_LOG_SAMPLING_RATE_<LEVEL>=20 (записей/сек на место логирования, 0 — без лимита)
+ * - SPENDI_LOG_SAMPLING_BURST_<LEVEL>=50
+ * - SPENDI_LOG_SAMPLING_SUMMARY_SEC=60
  * - SPENDI_LOG_WIDTH_LEVEL=5
  * - SPENDI_LOG_WIDTH_TIME=12
  * - SPENDI_LOG_WIDTH_TYPE=12
@@ -21,18 +30,80 @@
 
 package com.spendi.config;
 
+/**
+ * ! java imports
+ */
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * ! my imports
  */
 import com.spendi.core.base.BaseConfig;
+import com.spendi.core.logger.types.EColorMode;
+import com.spendi.core.logger.types.EConsoleFormat;
+import com.spendi.core.logger.types.ELogFormat;
 import com.spendi.core.logger.types.ELogLevel;
 
 public class LoggerConfig extends BaseConfig {
 	private static final LoggerConfig INSTANCE = new LoggerConfig();
 
-	public static record FileConfig(boolean enabled, long maxSize, String path) {}
+	/**
+	 * Файловое хранение логов.
+	 *
+	 * @param enabled включено ли сохранение
+	 * @param maxSize максимальный размер одного файла (байт)
+	 * @param path    корневая директория логов
+	 * @param format  формат записей на диске (NDJSON или бинарный CBOR)
+	 */
+	public static record FileConfig(boolean enabled, long maxSize, String path, ELogFormat format) {}
+
+	/**
+	 * Архивация закрытых часов в gzip-сегменты и срок хранения.
+	 *
+	 * @param enabled       сжимать ли закрытые часовые директории
+	 * @param retentionDays сколько дней хранить логи (0 — без ограничений)
+	 */
+	public static record ArchiveConfig(boolean enabled, int retentionDays) {}
+
+	/**
+	 * Консольный вывод.
+	 *
+	 * @param format PRETTY (колонки) или JSON (JSON-lines для контейнеров)
+	 * @param colors режим ANSI-подсветки (AUTO — только для TTY)
+	 */
+	public static record ConsoleConfig(EConsoleFormat format, EColorMode colors) {}
+
+	/**
+	 * Лимит сэмплирования для уровня: token bucket на место логирования.
+	 *
+	 * @param ratePerSec скорость пополнения (записей/сек), 0 — уровень не ограничивается
+	 * @param burst      ёмкость корзины
+	 */
+	public static record SamplingLimit(double ratePerSec, int burst) {
+		public boolean unlimited() {
+			return ratePerSec <= 0;
+		}
+	}
+
+	/**
+	 * Сэмплирование «горячих» мест логирования (LogOptions.sampled).
+	 *
+	 * @param enabled            включено ли сэмплирование
+	 * @param limits             лимиты по уровням (ERROR/FATAL не ограничиваются никогда)
+	 * @param summaryIntervalSec период сводок «Suppressed similar logs»
+	 */
+	public static record SamplingConfig(boolean enabled, Map<ELogLevel, SamplingLimit> limits,
+			int summaryIntervalSec) {
+		public SamplingLimit limitFor(ELogLevel level) {
+			return limits.getOrDefault(level, new SamplingLimit(0, 0));
+		}
+	}
 
 	private final FileConfig file;
+	private final ArchiveConfig archive;
+	private final ConsoleConfig console;
+	private final SamplingConfig sampling;
 	private final ELogLevel minLogLevel;
 	private final int maxLevelWidth;
 	private final int maxCurrentTimeWidth;
@@ -44,7 +115,28 @@ public class LoggerConfig extends BaseConfig {
 		boolean enabled = parseBool(getenv(dotenv, "SPENDI_LOG_FILE_ENABLED", "true"), true);
 		long maxSize = parseLong(getenv(dotenv, "SPENDI_LOG_FILE_MAX_SIZE", "1048576"), 1048576);
 		String path = getenv(dotenv, "SPENDI_LOG_PATH", "storage/logs");
-		this.file = new FileConfig(enabled, maxSize, path);
+		ELogFormat format = parseEnum(getenv(dotenv, "SPENDI_LOG_FORMAT", "JSON"), ELogFormat.JSON);
+		this.file = new FileConfig(enabled, maxSize, path, format);
+
+		// archive settings
+		boolean archiveEnabled = parseBool(getenv(dotenv, "SPENDI_LOG_ARCHIVE_ENABLED", "true"), true);
+		int retentionDays = Math.max(0, parseInt(getenv(dotenv, "SPENDI_LOG_RETENTION_DAYS", "0"), 0));
+		this.archive = new ArchiveConfig(archiveEnabled, retentionDays);
+
+		// console settings
+		EConsoleFormat consoleFormat = parseEnum(getenv(dotenv, "SPENDI_LOG_CONSOLE_FORMAT", "PRETTY"),
+				EConsoleFormat.PRETTY);
+		EColorMode colors = parseEnum(getenv(dotenv, "SPENDI_LOG_COLORS", "AUTO"), EColorMode.AUTO);
+		this.console = new ConsoleConfig(consoleFormat, colors);
+
+		// sampling settings
+		boolean samplingEnabled = parseBool(getenv(dotenv, "SPENDI_LOG_SAMPLING_ENABLED", "true"), true);
+		Map<ELogLevel, SamplingLimit> limits = new EnumMap<>(ELogLevel.class);
+		limits.put(ELogLevel.DEBUG, parseLimit("DEBUG", 10, 20));
+		limits.put(ELogLevel.INFO, parseLimit("INFO", 20, 50));
+		limits.put(ELogLevel.WARN, parseLimit("WARN", 0, 0));
+		int summarySec = Math.max(1, parseInt(getenv(dotenv, "SPENDI_LOG_SAMPLING_SUMMARY_SEC", "60"), 60));
+		this.sampling = new SamplingConfig(samplingEnabled, Map.copyOf(limits), summarySec);
 
 		// level and formatting widths
 		this.minLogLevel = parseEnum(getenv(dotenv, "SPENDI_LOG_LEVEL", "INFO"), ELogLevel.INFO);
@@ -54,6 +146,14 @@ public class LoggerConfig extends BaseConfig {
 		this.maxClassNameWidth = Integer.parseInt(getenv(dotenv, "SPENDI_LOG_WIDTH_NAME", "26"));
 	}
 
+	private SamplingLimit parseLimit(String level, double defRate, int defBurst) {
+		double rate = parseLong(getenv(dotenv, "SPENDI_LOG_SAMPLING_RATE_" + level, String.valueOf((long) defRate)),
+				(long) defRate);
+		int burst = parseInt(getenv(dotenv, "SPENDI_LOG_SAMPLING_BURST_" + level, String.valueOf(defBurst)),
+				defBurst);
+		return new SamplingLimit(Math.max(0, rate), Math.max(1, burst));
+	}
+
 	public static LoggerConfig getConfig() {
 		return INSTANCE;
 	}
@@ -68,6 +168,18 @@ public class LoggerConfig extends BaseConfig {
 		return file;
 	}
 
+	public ArchiveConfig archive() {
+		return archive;
+	}
+
+	public ConsoleConfig console() {
+		return console;
+	}
+
+	public SamplingConfig sampling() {
+		return sampling;
+	}
+
 	public ELogLevel getMinLogLevel() {
 		return minLogLevel;
 	}
@@ -93,7 +205,8 @@ public class LoggerConfig extends BaseConfig {
 
 	@Override
 	public String toString() {
-		return "LoggerConfig{file.enabled=%s,file.maxSize=%d,file.path='%s',level=%s}".formatted(file.enabled(),
-				file.maxSize(), file.path(), minLogLevel.name());
+		return "LoggerConfig{file.enabled=%s,file.maxSize=%d,file.path='%s',file.format=%s,archive.enabled=%s,archive.retentionDays=%d,console.format=%s,console.colors=%s,sampling.enabled=%s,level=%s}"
+				.formatted(file.enabled(), file.maxSize(), file.path(), file.format(), archive.enabled(), archive.retentionDays(),
+						console.format(), console.colors(), sampling.enabled(), minLogLevel.name());
 	}
 }
@@ -0,0 +1,85 @@
+/**
+ * @file RateLimitConfig.java
+ * @module config
+ * @description
+ * Конфигурация ограничения частоты запросов (RateLimitMiddleware).
+ * Переменные окружения:
+ * - SPENDI_RATELIMIT_ENABLED=true — выключатель для всех политик
+ * - SPENDI_RATELIMIT_MAX_KEYS=100000 — сколько ключей (IP/пользователей) отслеживает одна политика
+ * - SPENDI_RATELIMIT_TRUST_PROXY=false — брать IP клиента из X-Forwarded-For (только за доверенным прокси)
+ * - SPENDI_RATELIMIT_PROXY_HOPS=1 — сколько доверенных прокси перед сервером: IP клиента —
+ *   hops-я запись X-Forwarded-For с конца (левее — значения клиента, им не доверяем)
+ * - SPENDI_RATELIMIT_AUTH_PER_MIN=20 — /auth: запросов в минуту с одного IP (скользящее окно)
+ * - SPENDI_RATELIMIT_USER_PER_MIN=600 — /users, /files: запросов в минуту на пользователя (token bucket)
+ * - SPENDI_RATELIMIT_USER_BURST=60 — ёмкость bucket'а: сколько запросов можно сделать подряд
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.config;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.BaseConfig;
+
+public final class RateLimitConfig extends BaseConfig {
+	private static final RateLimitConfig INSTANCE = new RateLimitConfig();
+
+	private final boolean enabled;
+	private final int maxKeys;
+	private final boolean trustProxy;
+	private final int proxyHops;
+	private final int authPerMinute;
+	private final int userPerMinute;
+	private final int userBurst;
+
+	private RateLimitConfig() {
+		this.enabled = parseBool(getenv(this.dotenv, "SPENDI_RATELIMIT_ENABLED", "true"), true);
+		this.maxKeys = Math.max(1, parseInt(getenv(this.dotenv, "SPENDI_RATELIMIT_MAX_KEYS", "100000"), 100_000));
+		this.trustProxy = parseBool(getenv(this.dotenv, "SPENDI_RATELIMIT_TRUST_PROXY", "false"), false);
+		this.proxyHops = Math.max(1, parseInt(getenv(this.dotenv, "SPENDI_RATELIMIT_PROXY_HOPS", "1"), 1));
+		this.authPerMinute = Math.max(1, parseInt(getenv(this.dotenv, "SPENDI_RATELIMIT_AUTH_PER_MIN", "20"), 20));
+		this.userPerMinute = Math.max(1,
+				parseInt(getenv(this.dotenv, "SPENDI_RATELIMIT_USER_PER_MIN", "600"), 600));
+		this.userBurst = Math.max(1, parseInt(getenv(this.dotenv, "SPENDI_RATELIMIT_USER_BURST", "60"), 60));
+	}
+
+	public static RateLimitConfig getConfig() {
+		return INSTANCE;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public int getMaxKeys() {
+		return maxKeys;
+	}
+
+	public boolean isTrustProxy() {
+		return trustProxy;
+	}
+
+	public int getProxyHops() {
+		return proxyHops;
+	}
+
+	public int getAuthPerMinute() {
+		return authPerMinute;
+	}
+
+	public int getUserPerMinute() {
+		return userPerMinute;
+	}
+
+	public int getUserBurst() {
+		return userBurst;
+	}
+
+	@Override
+	public String toString() {
+		return "RateLimitConfig{enabled=%s, maxKeys=%d, trustProxy=%s, proxyHops=%d, authPerMin=%d, userPerMin=%d, userBurst=%d}"
+				.formatted(enabled, maxKeys, trustProxy, proxyHops, authPerMinute, userPerMinute, userBurst);
+	}
+}
@@ -1,4 +1,3 @@
-
 /**
  * @file ServerConfig.java
  * @module config
@@ -10,11 +9,24 @@
  * - SPENDI_SERVER_HOST=0.0.0.0
  * - SPENDI_SERVER_PORT=6070
  *
+ * Сжатие ответов (согласуется по Accept-Encoding):
+ * - SPENDI_SERVER_COMPRESSION=true — gzip (и brotli, если на classpath есть brotli4j)
+ * - SPENDI_SERVER_COMPRESSION_BROTLI=true — предпочитать brotli, когда он доступен
+ * - SPENDI_SERVER_COMPRESSION_LEVEL=6 — уровень gzip (1..9)
+ * - SPENDI_SERVER_COMPRESSION_MIN_BYTES=1024 — ответы меньше не сжимаются
+ * - SPENDI_SERVER_COMPRESSION_TYPES=application/json,text/ — какие Content-Type сжимать
+ *   (точный тип или префикс, оканчивающийся на '/')
+ *
  * @author Dmytro Shakh
  */
 
 package com.spendi.config;
 
+/**
+ * ! java imports
+ */
+import java.util.Set;
+
 /**
  * ! my imports
  */
@@ -25,9 +37,24 @@ public class ServerConfig extends BaseConfig {
 	private final String host;
 	private final int port;
 
+	private final boolean compression;
+	private final boolean compressionBrotli;
+	private final int compressionLevel;
+	private final int compressionMinBytes;
+	private final Set<String> compressionTypes;
+
 	private ServerConfig() {
 		this.host = getenv(this.dotenv, "SPENDI_SERVER_HOST", "0.0.0.0");
 		this.port = parseInt(getenv(dotenv, "SPENDI_SERVER_PORT", "6070"), 6070);
+
+		this.compression = parseBool(getenv(dotenv, "SPENDI_SERVER_COMPRESSION", "true"), true);
+		this.compressionBrotli = parseBool(getenv(dotenv, "SPENDI_SERVER_COMPRESSION_BROTLI", "true"), true);
+		this.compressionLevel = Math.max(1,
+				Math.min(9, parseInt(getenv(dotenv, "SPENDI_SERVER_COMPRESSION_LEVEL", "6"), 6)));
+		this.compressionMinBytes = Math.max(0,
+				parseInt(getenv(dotenv, "SPENDI_SERVER_COMPRESSION_MIN_BYTES", "1024"), 1024));
+		this.compressionTypes = parseCsvSet(getenv(dotenv, "SPENDI_SERVER_COMPRESSION_TYPES",
+				"application/json,application/javascript,application/xml,image/svg+xml,text/"));
 	}
 
 	public static ServerConfig getConfig() {
@@ -42,8 +69,45 @@ public class ServerConfig extends BaseConfig {
 		return port;
 	}
 
+	public boolean isCompression() {
+		return compression;
+	}
+
+	public boolean isCompressionBrotli() {
+		return compressionBrotli;
+	}
+
+	public int getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	public int getCompressionMinBytes() {
+		return compressionMinBytes;
+	}
+
+	public Set<String> getCompressionTypes() {
+		return compressionTypes;
+	}
+
+	/**
+	 * Подлежит ли ответ с данным Content-Type сжатию (параметры вроде charset игнорируются).
+	 */
+	public boolean isCompressible(String contentType) {
+		if (!compression || contentType == null)
+			return false;
+		int semi = contentType.indexOf(';');
+		String mime = (semi < 0 ? contentType : contentType.substring(0, semi)).trim().toLowerCase();
+		for (String t : compressionTypes) {
+			if (t.endsWith("/") ? mime.startsWith(t) : mime.equals(t))
+				return true;
+		}
+		return false;
+	}
+
 	@Override
 	public String toString() {
-		return "ServerConfig{host='%s', port=%d}".formatted(host, port);
+		return "ServerConfig{host='%s', port=%d, compression=%s, brotli=%s, level=%d, minBytes=%d, types=%s}"
+				.formatted(host, port, compression, compressionBrotli, compressionLevel, compressionMinBytes,
+						compressionTypes);
 	}
 }
@@ -0,0 +1,187 @@
+/**
+ * @file AdaptiveConcurrencyLimiter.java
+ * @module core/admission
+ *
+ * @description
+ * Адаптивный лимит одновременных запросов (градиентный, в духе Gradient2).
+ *
+ * Запрос допускается, если запросов в работе меньше лимита; обычным маршрутам
+ * доступен лимит за вычетом резерва, приоритетным — весь. Отказ — мгновенный,
+ * без очереди.
+ *
+ * По завершении запроса копится его время ответа. Раз в окно (WINDOW_NANOS,
+ * не меньше MIN_SAMPLES замеров) один поток пересчитывает лимит:
+ * - shortRtt — среднее за окно, longRtt — медленное EMA (базовая задержка);
+ * - gradient = clamp(TOLERANCE * longRtt / shortRtt, 0.5, 1) — задержка растёт,
+ *   значит впереди очередь (например, медленная Mongo), лимит падает;
+ * - новый лимит = limit * gradient + sqrt(limit) (запас на рост), сглаживается;
+ * - ответы 5xx в окне (таймауты БД) — мультипликативное снижение, как в AIMD;
+ * - пока в работе меньше половины лимита, он не растёт (нагрузку задаёт не сервер).
+ *
+ * Горячий путь — CAS по счётчику в работе и LongAdder'ы замеров.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.admission;
+
+/**
+ * ! java imports
+ */
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class AdaptiveConcurrencyLimiter {
+
+	/** Окно пересчёта лимита */
+	static final long WINDOW_NANOS = 250_000_000L;
+	/** Минимум замеров в окне, иначе окно продлевается */
+	static final int MIN_SAMPLES = 10;
+
+	/** Допустимый рост задержки относительно базовой до снижения лимита */
+	private static final double TOLERANCE = 1.5;
+	/** Вес окна в longRtt */
+	private static final double LONG_RTT_ALPHA = 0.05;
+	/** Вес нового значения лимита */
+	private static final double SMOOTHING = 0.2;
+	/** Снижение при ошибках 5xx */
+	private static final double BACKOFF = 0.9;
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final int reservePercent;
+
+	private volatile double limit;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger peakInFlight = new AtomicInteger();
+
+	private final LongAdder rttSum = new LongAdder();
+	private final LongAdder rttCount = new LongAdder();
+	private final LongAdder drops = new LongAdder();
+	private final AtomicLong nextUpdate;
+	private volatile double longRtt;
+
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder rejectedPriority = new LongAdder();
+
+	public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int reservePercent) {
+		this(initialLimit, minLimit, maxLimit, reservePercent, System.nanoTime());
+	}
+
+	AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int reservePercent, long now) {
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.reservePercent = reservePercent;
+		this.limit = initialLimit;
+		this.nextUpdate = new AtomicLong(now + WINDOW_NANOS);
+	}
+
+	/**
+	 * Занять место под запрос.
+	 *
+	 * @param priority дешёвый маршрут, которому доступен весь лимит
+	 * @return false — лимит исчерпан, запрос надо отклонить
+	 */
+	public boolean tryAcquire(boolean priority) {
+		int cap = priority ? this.getLimit() : this.normalLimit();
+		while (true) {
+			int n = inFlight.get();
+			if (n >= cap) {
+				(priority ? rejectedPriority : rejected).increment();
+				return false;
+			}
+			if (inFlight.compareAndSet(n, n + 1)) {
+				peakInFlight.accumulateAndGet(n + 1, Math::max);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Освободить место и учесть замер.
+	 *
+	 * @param rttNanos время обработки запроса
+	 * @param dropped  запрос завершился ошибкой сервера (5xx)
+	 */
+	public void release(long rttNanos, boolean dropped) {
+		this.release(rttNanos, dropped, System.nanoTime());
+	}
+
+	/**
+	 * Освободить место без замера — для приоритетных маршрутов: их время ответа
+	 * мало и размывало бы сигнал о задержке остальных.
+	 */
+	public void releaseUnsampled() {
+		inFlight.decrementAndGet();
+	}
+
+	void release(long rttNanos, boolean dropped, long now) {
+		inFlight.decrementAndGet();
+		rttSum.add(rttNanos);
+		rttCount.increment();
+		if (dropped)
+			drops.increment();
+
+		long due = nextUpdate.get();
+		if (now >= due && rttCount.sum() >= MIN_SAMPLES && nextUpdate.compareAndSet(due, now + WINDOW_NANOS)) {
+			this.update();
+		}
+	}
+
+	/** Пересчёт лимита; вызывается одним потоком (выигравшим CAS по nextUpdate). */
+	private void update() {
+		long count = rttCount.sumThenReset();
+		long sum = rttSum.sumThenReset();
+		long dropped = drops.sumThenReset();
+		int peak = peakInFlight.getAndSet(inFlight.get());
+		if (count == 0)
+			return;
+
+		double shortRtt = Math.max(1, (double) sum / count);
+		double base = longRtt == 0 ? shortRtt : longRtt * (1 - LONG_RTT_ALPHA) + shortRtt * LONG_RTT_ALPHA;
+		// задержка упала сильно ниже базовой — база устарела (после перегрузки), догоняем быстрее
+		if (base / shortRtt > 2)
+			base *= 0.95;
+		longRtt = base;
+
+		double current = limit;
+		double next;
+		if (dropped > 0) {
+			next = current * BACKOFF;
+		} else {
+			double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * base / shortRtt));
+			next = current * gradient + Math.sqrt(current);
+			if (peak < current / 2 && next > current)
+				next = current;
+		}
+		next = current * (1 - SMOOTHING) + next * SMOOTHING;
+		limit = Math.max(minLimit, Math.min(maxLimit, next));
+	}
+
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	/** Лимит для обычных маршрутов (без резерва приоритетных), не меньше 1. */
+	int normalLimit() {
+		return Math.max(1, (int) (limit * (100 - reservePercent) / 100));
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	public long getRejectedPriority() {
+		return rejectedPriority.sum();
+	}
+
+	/** Базовая задержка (longRtt), мс. */
+	public double getBaseRttMs() {
+		return longRtt / 1_000_000.0;
+	}
+}
@@ -300,7 +300,7 @@ public abstract class BaseRepository<TEntity> extends BaseClass {
 		if (entities == null || entities.isEmpty())
 			return;
 		List<Document> docs = entities.stream().map(this.mapper::toDocument).toList();
-		insertMany(docs);
+		insertManyDocs(docs);
 	}
 
 	/**
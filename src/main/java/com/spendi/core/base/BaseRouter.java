@@ -7,6 +7,7 @@
  * @see Route
  * @see Middleware
  * @see RouteHandler
+ * @see AsyncRouteHandler
  * 
  * @author Dmytro Shakh
  */
@@ -27,6 +28,7 @@ import com.spendi.core.types.EClassType;
 import com.spendi.core.http.HttpMethod;
 import com.spendi.core.base.router.Route;
 import com.spendi.core.base.server.HttpServerAdapter;
+import com.spendi.core.base.http.AsyncRouteHandler;
 import com.spendi.core.base.http.Middleware;
 import com.spendi.core.base.http.RouteHandler;
 
@@ -92,6 +94,16 @@ public abstract class BaseRouter extends BaseClass {
 		route(HttpMethod.DELETE, subPath, h, mw);
 	}
 
+	// Асинхронные хелперы: отдельные имена, чтобы лямбда/ссылка на метод,
+	// возвращающая CompletionStage, не стала синхронным RouteHandler
+	protected void getAsync(String subPath, AsyncRouteHandler h, Middleware... mw) {
+		route(HttpMethod.GET, subPath, h, mw);
+	}
+
+	protected void postAsync(String subPath, AsyncRouteHandler h, Middleware... mw) {
+		route(HttpMethod.POST, subPath, h, mw);
+	}
+
 	protected static String normalizeBase(String base) {
 		if (base == null || base.isBlank())
 			return "/";
@@ -0,0 +1,58 @@
+/**
+ * @file AsyncRouteHandler.java
+ * @module core/base/http
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.base.http;
+
+/**
+ * ! java imports
+ */
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Асинхронный обработчик маршрута: (ctx) -> CompletionStage.
+ *
+ * Ответ пишется в ctx.res() до завершения stage; значение stage игнорируется.
+ * Сервер не держит поток запроса, пока stage не завершится: after-мидлвары
+ * (RequestLifecycleMiddleware, AdmissionControlMiddleware) выполняются после
+ * завершения, ошибка stage маппится так же, как исключение синхронного обработчика.
+ *
+ * Локальные мидлвары маршрута завершаются вместе со stage: их код после
+ * chain.next() (возврат буферов multipart, удаление временных файлов) выполняется
+ * только после завершения stage. Для этого цепочка с локальными мидлварами идёт
+ * в виртуальном потоке, ожидающем stage (см. JavalinServerAdapter#runAsyncChain).
+ *
+ * Вне сервера (под-запросы POST /batch) обработчик вызывается через
+ * {@link #handle(HttpContext)} и дожидается stage в текущем потоке.
+ */
+@FunctionalInterface
+public interface AsyncRouteHandler extends RouteHandler {
+
+	CompletionStage<?> handleAsync(HttpContext ctx) throws Exception;
+
+	@Override
+	default void handle(HttpContext ctx) throws Exception {
+		try {
+			this.handleAsync(ctx).toCompletableFuture().get();
+		} catch (ExecutionException e) {
+			throw unwrap(e);
+		}
+	}
+
+	/** Исходная ошибка stage без обёрток CompletionException/ExecutionException. */
+	static Exception unwrap(Throwable e) {
+		Throwable t = e;
+		while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+			t = t.getCause();
+		}
+		if (t instanceof Error err) {
+			throw err;
+		}
+		return (Exception) t;
+	}
+}
@@ -24,8 +24,16 @@ import com.fasterxml.jackson.databind.JsonNode;
  * ! java imports
  */
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.List;
 
+/**
+ * ! my imports
+ */
+import com.spendi.core.http.ConditionalRequest;
+import com.spendi.core.http.HttpMethod;
+import com.spendi.core.http.HttpStatusCode;
+
 public interface HttpContext {
 
 	/** Доступ к запросу. */
@@ -82,4 +90,29 @@ public interface HttpContext {
 	/** Сущность «аутентифицированная сессия» (типизировано вызывающим кодом). */
 	SessionEntity getAuthSession();
 
+	/**
+	 * Условный GET по версии ресурса: ставит слабый ETag из {@code version} (и Last-Modified) и, если копия
+	 * клиента актуальна, отвечает 304 — после true обработчик ничего не отправляет, тело не строится вовсе.
+	 * Для не-GET запросов ничего не делает.
+	 *
+	 * @param version      строка, меняющаяся с каждым изменением ответа (например, id + updatedAt)
+	 * @param lastModified время изменения ресурса или null
+	 * @return true — ответ 304 уже выставлен
+	 */
+	default boolean notModified(String version, Instant lastModified) {
+		if (req().method() != HttpMethod.GET) {
+			return false;
+		}
+		String etag = ConditionalRequest.weakEtag(version);
+		res().header("ETag", etag);
+		if (lastModified != null) {
+			res().header("Last-Modified", ConditionalRequest.formatDate(lastModified));
+		}
+		if (ConditionalRequest.isNotModified(req().header("If-None-Match").orElse(null),
+				req().header("If-Modified-Since").orElse(null), etag, lastModified)) {
+			res().status(HttpStatusCode.NOT_MODIFIED.getCode());
+			return true;
+		}
+		return false;
+	}
 }
@@ -13,6 +13,7 @@ package com.spendi.core.base.http;
 /**
  * ! java imports
  */
+import java.io.InputStream;
 import java.util.Map;
 
 /**
@@ -61,6 +62,19 @@ public interface HttpResponse {
 	 */
 	void sendBytes(byte[] bytes);
 
+	/**
+	 * Отправить потоковый ответ. Адаптер читает поток уже после завершения
+	 * цепочки (заголовки after-мидлвар сохраняются) и закрывает его сам.
+	 * Content-Type задаётся заранее через header().
+	 */
+	void sendStream(InputStream stream);
+
+	/**
+	 * Отправить поток известной длины (файл). Content-Length выставляется явно,
+	 * сжатие ответа отключается — иначе длина не совпадёт с телом.
+	 */
+	void sendStream(InputStream stream, long contentLength);
+
 	/**
 	 * Отправить JSON-ответ. Конкретный адаптер сериализует объект.
 	 */
@@ -40,4 +40,16 @@ public final class RequestAttr {
 	 * Активная сессия (SessionEntity) после AuthMiddleware.
 	 */
 	public static final String AUTH_SESSION = "auth.session";
+
+	/**
+	 * Маршрут принимает условные GET (Boolean, см. ConditionalGetMiddleware):
+	 * JSON-ответ получает слабый ETag и 304 при совпадении.
+	 */
+	public static final String CONDITIONAL = "conditional";
+
+	/**
+	 * Допуск запроса AdmissionControlMiddleware (момент и приоритет); есть только
+	 * у допущенных — по нему место освобождается после ответа.
+	 */
+	public static final String ADMISSION = "admission";
 }
@@ -0,0 +1,125 @@
+/**
+ * @file RouteTable.java
+ * @module core/base/router
+ *
+ * @description
+ * Таблица смонтированных маршрутов для выполнения запросов внутри процесса
+ * (под-запросы POST /batch). Повторяет сопоставление веб-сервера:
+ * - маршрут — первый подходящий в порядке регистрации;
+ * - шаблон пути: "{name}" — один сегмент (path-параметр), "*" — остаток пути;
+ *   завершающий '/' не учитывается;
+ * - роутер-мидлвары — всех роутеров, чей basePath совпадает с путём или
+ *   является его префиксом ("/" — для всех путей), в порядке регистрации.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.base.router;
+
+/**
+ * ! java imports
+ */
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.http.Middleware;
+import com.spendi.core.http.HttpMethod;
+
+public final class RouteTable {
+
+	/**
+	 * Найденный маршрут.
+	 *
+	 * @param route             маршрут (локальные мидлвары и обработчик)
+	 * @param routerMiddlewares роутер-мидлвары, применимые к пути, по порядку
+	 * @param pathParams        значения path-параметров
+	 */
+	public record Match(Route route, List<Middleware> routerMiddlewares, Map<String, String> pathParams) {
+	}
+
+	private record Mount(String basePath, List<Middleware> middlewares) {
+	}
+
+	private record Entry(Route route, String[] segments) {
+	}
+
+	private final List<Mount> mounts = new CopyOnWriteArrayList<>();
+	private final List<Entry> entries = new CopyOnWriteArrayList<>();
+
+	/** Добавить роутер: его мидлвары и маршруты (с абсолютными путями). */
+	public void add(String basePath, List<Middleware> routerMiddlewares, List<Route> routes) {
+		if (routerMiddlewares != null && !routerMiddlewares.isEmpty()) {
+			mounts.add(new Mount(trimSlash(basePath), List.copyOf(routerMiddlewares)));
+		}
+		if (routes != null) {
+			for (Route r : routes) {
+				entries.add(new Entry(r, split(r.path())));
+			}
+		}
+	}
+
+	/**
+	 * @param path путь без query
+	 * @return маршрут или null, если ни один не подходит
+	 */
+	public Match match(HttpMethod method, String path) {
+		String[] segments = split(path);
+		for (Entry e : entries) {
+			if (e.route().method() != method)
+				continue;
+			Map<String, String> params = matchSegments(e.segments(), segments);
+			if (params != null) {
+				return new Match(e.route(), this.routerMiddlewares(trimSlash(path)), params);
+			}
+		}
+		return null;
+	}
+
+	private List<Middleware> routerMiddlewares(String path) {
+		List<Middleware> out = new ArrayList<>();
+		for (Mount m : mounts) {
+			String base = m.basePath();
+			if (base.isEmpty() || path.equals(base) || path.startsWith(base + "/"))
+				out.addAll(m.middlewares());
+		}
+		return out;
+	}
+
+	private static Map<String, String> matchSegments(String[] pattern, String[] path) {
+		Map<String, String> params = new LinkedHashMap<>();
+		for (int i = 0; i < pattern.length; i++) {
+			String p = pattern[i];
+			if (p.equals("*"))
+				return params;
+			if (i >= path.length)
+				return null;
+			if (p.startsWith("{") && p.endsWith("}")) {
+				params.put(p.substring(1, p.length() - 1), path[i]);
+			} else if (!p.equals(path[i])) {
+				return null;
+			}
+		}
+		return pattern.length == path.length ? params : null;
+	}
+
+	private static String[] split(String path) {
+		String p = trimSlash(path);
+		return p.isEmpty() ? new String[0] : p.substring(1).split("/");
+	}
+
+	/** Путь без завершающего '/' ("/" — пустая строка). */
+	private static String trimSlash(String path) {
+		if (path == null)
+			return "";
+		String p = path.startsWith("/") ? path : "/" + path;
+		while (p.endsWith("/"))
+			p = p.substring(0, p.length() - 1);
+		return p;
+	}
+}
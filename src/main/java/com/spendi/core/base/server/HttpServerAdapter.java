@@ -21,6 +21,7 @@ import java.util.List;
  */
 import com.spendi.core.base.http.Middleware;
 import com.spendi.core.base.router.Route;
+import com.spendi.core.base.server.local.LocalHttpContext;
 
 /**
  * Абстракция над конкретным web-сервером/фреймворком.
@@ -38,6 +39,14 @@ public interface HttpServerAdapter {
 	 */
 	void mount(List<Middleware> routerMiddlewares, List<Route> routes, String basePath, String name);
 
+	/**
+	 * Выполнить запрос внутри процесса так же, как внешний: глобальные before-,
+	 * роутер- и локальные мидлвары, обработчик, глобальные after-мидлвары;
+	 * исключения превращаются в ответ с ошибкой. Под-запрос проходит admission
+	 * control сам по себе — без места получает свой 503.
+	 */
+	void dispatch(LocalHttpContext ctx);
+
 	/** Запуск/остановка сервера. */
 	void start(int port);
 
@@ -18,6 +18,9 @@ package com.spendi.core.base.server;
  * ! lib imports
  */
 import io.javalin.Javalin;
+import io.javalin.compression.Brotli;
+import io.javalin.compression.CompressionStrategy;
+import io.javalin.compression.Gzip;
 import io.javalin.http.Context;
 import io.javalin.json.JavalinJackson;
 
@@ -30,26 +33,51 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * ! my imports
  */
+import com.spendi.config.ServerConfig;
 import com.spendi.core.base.BaseClass;
 import com.spendi.core.base.BaseRouter;
+import com.spendi.core.base.http.AsyncRouteHandler;
+import com.spendi.core.base.http.HttpContext;
 import com.spendi.core.base.http.Middleware;
 import com.spendi.core.base.http.MiddlewareChain;
 import com.spendi.core.base.http.RouteHandler;
 import com.spendi.core.base.router.Route;
+import com.spendi.core.base.router.RouteTable;
 import com.spendi.core.base.server.javalin.JavalinHttpContext;
+import com.spendi.core.base.server.local.LocalHttpContext;
 import com.spendi.core.exceptions.DomainException;
 import com.spendi.core.exceptions.ErrorCode;
+import com.spendi.core.exceptions.RateLimitException;
+import com.spendi.core.exceptions.RouterNotFoundException;
+import com.spendi.core.exceptions.ServiceUnavailableException;
 import com.spendi.core.http.HttpMethod;
+import com.spendi.core.logger.types.LogOptions;
 import com.spendi.core.response.ApiErrorResponse;
 import com.spendi.core.types.EClassType;
 
 public class JavalinServerAdapter extends BaseClass implements HttpServerAdapter {
+	/** Уровень brotli для динамических ответов (как у Javalin по умолчанию) */
+	private static final int BROTLI_LEVEL = 4;
+
+	/** Виртуальные потоки для цепочек асинхронных маршрутов с локальными мидлварами */
+	private static final ExecutorService ASYNC_CHAINS = Executors
+			.newThreadPerTaskExecutor(Thread.ofVirtual().name("async-chain-", 0).factory());
+
 	private final Javalin app;
-	private final List<Middleware> globalMiddleware = new ArrayList<>();
+	/** Глобальные мидлвары: применяются и к запросам, выполняемым внутри процесса (dispatch) */
+	private final List<Middleware> beforeMiddleware = new ArrayList<>();
+	private final List<Middleware> afterMiddleware = new ArrayList<>();
+	/** Те же маршруты для выполнения внутри процесса (dispatch) */
+	private final RouteTable routeTable = new RouteTable();
 
 	private ExceptionMapper exceptionMapper;
 
@@ -59,40 +87,53 @@ public class JavalinServerAdapter extends BaseClass implements HttpServerAdapter
 		ObjectMapper mapper = new ObjectMapper().findAndRegisterModules() // находим и регистрируем все модули
 				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
+		ServerConfig serverConfig = ServerConfig.getConfig();
+		CompressionStrategy compression = this.compressionStrategy(serverConfig);
+
 		this.app = Javalin.create(cfg -> {
 			cfg.jsonMapper(new JavalinJackson(mapper, false));
+			cfg.http.customCompression(compression);
 		});
 
-		app.exception(Exception.class, (e, jctx) -> {
-			var httpCtx = new JavalinHttpContext(jctx);
-			httpCtx.setSuccess(false);
+		// Сжимаются только типы из SPENDI_SERVER_COMPRESSION_TYPES: решение принимается после обработчика,
+		// когда Content-Type уже известен, а тело ещё не записано. Ответ, который может быть сжат,
+		// зависит от Accept-Encoding — это сообщается кэшам через Vary
+		if (serverConfig.isCompression()) {
+			app.after(ctx -> {
+				if (!serverConfig.isCompressible(ctx.res().getContentType())) {
+					ctx.disableCompression();
+				} else if (!ctx.res().containsHeader("Vary")) {
+					ctx.header("Vary", "Accept-Encoding");
+				}
+			});
+		}
 
-			DomainException domain = null;
+		app.exception(Exception.class, (e, jctx) -> handleException(e, new JavalinHttpContext(jctx)));
 
-			if (e instanceof DomainException de) {
-				// Уже готовый доменный эксепшен
-				domain = de;
-			} else if (exceptionMapper != null) {
-				domain = exceptionMapper.toDomainException(e);
-			}
+	}
 
-			if (domain == null) {
-				// Совсем неожиданный случай
-				domain = new DomainException("Internal server error", ErrorCode.INTERNAL_ERROR,
-						Map.of("exception", e.getClass().getName()), Map.of()) {};
-				logError(domain, "Unhandled exception", httpCtx.getRequestId());
+	/**
+	 * gzip (+ brotli, если есть brotli4j) с порогом SPENDI_SERVER_COMPRESSION_MIN_BYTES.
+	 * Ответы с уже выставленным Content-Encoding (предсжатые) Javalin не трогает.
+	 */
+	private CompressionStrategy compressionStrategy(ServerConfig serverConfig) {
+		if (!serverConfig.isCompression()) {
+			return CompressionStrategy.NONE;
+		}
+
+		Brotli brotli = null;
+		if (serverConfig.isCompressionBrotli()) {
+			if (CompressionStrategy.Companion.brotli4jPresent()) {
+				brotli = new Brotli(BROTLI_LEVEL);
 			} else {
-				// Ожидаемое бизнес-исключение
-				this.warn("Domain exception handled", httpCtx.getRequestId(),
-						detailsOf("errorCode", domain.getErrorCodeName(), "details", domain.getDetails(), "fieldErrors",
-								domain.getFieldErrors(), "message", domain.getMessage()),
-						true);
+				this.info("Brotli compression unavailable", "no-id",
+						detailsOf("reason", "brotli4j not on classpath", "fallback", "gzip"), true);
 			}
+		}
 
-			ApiErrorResponse body = domain.toErrorResponse(httpCtx.getRequestId());
-			httpCtx.res().error(body);
-		});
-
+		CompressionStrategy strategy = new CompressionStrategy(brotli, new Gzip(serverConfig.getCompressionLevel()));
+		strategy.setDefaultMinSizeForCompression(serverConfig.getCompressionMinBytes());
+		return strategy;
 	}
 
 	/** Удобный метод: пробросить себя в роутер и смонтировать его содержимое. */
@@ -114,7 +155,7 @@ public class JavalinServerAdapter extends BaseClass implements HttpServerAdapter
 		if (middleware == null) {
 			return;
 		}
-		this.globalMiddleware.add(middleware);
+		this.beforeMiddleware.add(middleware);
 
 		this.info("Register middleware", "no-id",
 				detailsOf("class", middleware.getClass().getSimpleName(), "type", "before", "scope", "global"), true);
@@ -129,7 +170,8 @@ public class JavalinServerAdapter extends BaseClass implements HttpServerAdapter
 				middleware.handle(httpCtx, chain);
 			} catch (Exception e) {
 				// Логируем и пробрасываем дальше — обработается в exceptionHandler'е
-				logError(e, "Global middleware error", httpCtx.getRequestId());
+				if (!isShedding(e))
+					logError(e, "Global middleware error", httpCtx.getRequestId());
 				throw e;
 			}
 		});
@@ -140,7 +182,7 @@ public class JavalinServerAdapter extends BaseClass implements HttpServerAdapter
 		if (middleware == null) {
 			return;
 		}
-		this.globalMiddleware.add(middleware);
+		this.afterMiddleware.add(middleware);
 
 		this.info("Register middleware", "no-id",
 				detailsOf("class", middleware.getClass().getSimpleName(), "type", "after", "scope", "global"), true);
@@ -183,6 +225,8 @@ public class JavalinServerAdapter extends BaseClass implements HttpServerAdapter
 			}
 		}
 
+		this.routeTable.add(basePath, routerMiddlewares, routes);
+
 		// Routes
 		if (routes != null) {
 			for (Route r : routes) {
@@ -194,6 +238,47 @@ public class JavalinServerAdapter extends BaseClass implements HttpServerAdapter
 		}
 	}
 
+	@Override
+	public void dispatch(LocalHttpContext ctx) {
+		var req = ctx.req();
+		try {
+			// Глобальные before-мидлвары — для каждого под-запроса (своё место в admission и т.п.)
+			for (Middleware mw : this.beforeMiddleware) {
+				mw.handle(ctx, new SingleMiddlewareChain(() -> {
+					/* next=ничего */ }));
+			}
+
+			RouteTable.Match match = this.routeTable.match(req.method(), req.path());
+			if (match == null) {
+				throw new RouterNotFoundException(req.path());
+			}
+			req.bindPathParams(match.pathParams());
+
+			this.info("Incoming request", ctx.getRequestId(), detailsOf("path", req.path(), "method", req.method(),
+					"query", req.queryParams(), "local", true), LogOptions.sampled(true));
+
+			// Роутер-мидлвары — как before-фильтры Javalin: по очереди, без next
+			for (Middleware mw : match.routerMiddlewares()) {
+				if (mw != null)
+					mw.handle(ctx, new SingleMiddlewareChain(() -> {
+						/* next=ничего */ }));
+			}
+			runChain(ctx, match.route().handler(), match.route().middlewares());
+		} catch (Exception e) {
+			this.handleException(e, ctx);
+		} finally {
+			// after-мидлвары выполняются и после ошибки — как after-фильтры Javalin
+			for (Middleware mw : this.afterMiddleware) {
+				try {
+					mw.handle(ctx, new SingleMiddlewareChain(() -> {
+						/* no-op */}));
+				} catch (Exception e) {
+					logError(e, "After middleware error", ctx.getRequestId());
+				}
+			}
+		}
+	}
+
 	@Override
 	public void start(int port) {
 
@@ -235,10 +320,51 @@ public class JavalinServerAdapter extends BaseClass implements HttpServerAdapter
 	private void handleWithChain(Context ctx, RouteHandler handler, List<Middleware> locals) throws Exception {
 		var httpCtx = new JavalinHttpContext(ctx);
 
-		// логируем входящий запрос
+		// логируем входящий запрос («горячее» место — сэмплируется)
 		this.info("Incoming request", httpCtx.getRequestId(), detailsOf("path", httpCtx.req().path(), "method",
-				httpCtx.req().method(), "query", httpCtx.req().queryParams()), true);
+				httpCtx.req().method(), "query", httpCtx.req().queryParams()), LogOptions.sampled(true));
+
+		// Асинхронный обработчик: поток запроса освобождается, Javalin ждёт future
+		// и только потом выполняет after-мидлвары (время ответа, admission)
+		if (handler instanceof AsyncRouteHandler async) {
+			ctx.future(() -> runAsyncChain(httpCtx, async, locals, ASYNC_CHAINS).handle((value, e) -> {
+				if (e != null) {
+					this.handleException(AsyncRouteHandler.unwrap(e), httpCtx);
+				}
+				return null;
+			}));
+			return;
+		}
+		runChain(httpCtx, handler, locals);
+	}
+
+	/**
+	 * Цепочка асинхронного маршрута; future завершается, когда завершилась вся цепочка.
+	 *
+	 * Без локальных мидлвар stage обработчика возвращается как есть. С ними цепочка
+	 * идёт в виртуальном потоке, который ждёт stage: код мидлвар после chain.next()
+	 * (finally с возвратом буферов, удалением временных файлов) выполняется только
+	 * после завершения stage, а поток запроса при этом свободен.
+	 */
+	static CompletableFuture<?> runAsyncChain(HttpContext httpCtx, AsyncRouteHandler handler, List<Middleware> locals,
+			Executor executor) {
+		if (locals == null || locals.isEmpty()) {
+			try {
+				return handler.handleAsync(httpCtx).toCompletableFuture();
+			} catch (Exception e) {
+				return CompletableFuture.failedFuture(e);
+			}
+		}
+		return CompletableFuture.runAsync(() -> {
+			try {
+				runChain(httpCtx, handler, locals);
+			} catch (Exception e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
 
+	private static void runChain(HttpContext httpCtx, RouteHandler handler, List<Middleware> locals) throws Exception {
 		// Выполняем локальные миддлы “по цепочке”, затем — handler
 		if (locals == null || locals.isEmpty()) {
 			handler.handle(httpCtx);
@@ -265,11 +391,49 @@ public class JavalinServerAdapter extends BaseClass implements HttpServerAdapter
 		try {
 			mw.handle(httpCtx, chain);
 		} catch (Exception e) {
-			logError(e, "Router middleware error", httpCtx.getRequestId());
+			if (!isShedding(e))
+				logError(e, "Router middleware error", httpCtx.getRequestId());
 			throw e;
 		}
 	}
 
+	/**
+	 * Исключение запроса -> ApiErrorResponse с HTTP-статусом доменной ошибки.
+	 */
+	private void handleException(Exception e, HttpContext httpCtx) {
+		httpCtx.setSuccess(false);
+
+		DomainException domain = null;
+
+		if (e instanceof DomainException de) {
+			// Уже готовый доменный эксепшен
+			domain = de;
+		} else if (exceptionMapper != null) {
+			domain = exceptionMapper.toDomainException(e);
+		}
+
+		if (domain == null) {
+			// Совсем неожиданный случай
+			domain = new DomainException("Internal server error", ErrorCode.INTERNAL_ERROR,
+					Map.of("exception", e.getClass().getName()), Map.of()) {};
+			logError(domain, "Unhandled exception", httpCtx.getRequestId());
+		} else {
+			// Ожидаемое бизнес-исключение; отказы по нагрузке сыплются пачками — сэмплируются
+			this.warn("Domain exception handled", httpCtx.getRequestId(),
+					detailsOf("errorCode", domain.getErrorCodeName(), "details", domain.getDetails(), "fieldErrors",
+							domain.getFieldErrors(), "message", domain.getMessage()),
+					isShedding(domain) ? LogOptions.sampled(true) : new LogOptions(true));
+		}
+
+		ApiErrorResponse body = domain.toErrorResponse(httpCtx.getRequestId());
+		httpCtx.res().error(body);
+	}
+
+	/** Отказ по нагрузке (429/503): залогируется обработчиком исключений, с сэмплированием. */
+	private static boolean isShedding(Exception e) {
+		return e instanceof RateLimitException || e instanceof ServiceUnavailableException;
+	}
+
 	private void logError(Throwable e, String message, String requestId) {
 		this.error(message, requestId,
 				Map.of("exception", e.getClass().getName(), "message", String.valueOf(e.getMessage())), true);
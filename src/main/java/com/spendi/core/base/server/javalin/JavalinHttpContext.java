@@ -61,7 +61,7 @@ public final class JavalinHttpContext implements HttpContext {
 
 		// Обёртки над запросом/ответом
 		this.request = new JavalinHttpRequest(jctx);
-		this.response = new JavalinHttpResponse(jctx);
+		this.response = new JavalinHttpResponse(jctx, this);
 	}
 
 	public Context raw() {
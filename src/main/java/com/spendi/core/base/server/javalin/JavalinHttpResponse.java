@@ -14,18 +14,32 @@ package com.spendi.core.base.server.javalin;
 /**
 * ! lib imports
 */
+import io.javalin.http.ContentType;
 import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+
+/**
+ * ! java imports
+ */
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * ! my imports
  */
+import com.spendi.core.base.http.HttpContext;
 import com.spendi.core.base.http.HttpResponse;
+import com.spendi.core.base.http.RequestAttr;
+import com.spendi.core.http.ConditionalRequest;
+import com.spendi.core.http.HttpStatusCode;
 
 public final class JavalinHttpResponse implements HttpResponse {
 	private final Context ctx;
+	private final HttpContext owner; // атрибуты запроса (RequestAttr)
 
-	public JavalinHttpResponse(Context ctx) {
+	public JavalinHttpResponse(Context ctx, HttpContext owner) {
 		this.ctx = ctx;
+		this.owner = owner;
 	}
 
 	@Override
@@ -55,9 +69,45 @@ public final class JavalinHttpResponse implements HttpResponse {
 		ctx.result(bytes);
 	}
 
+	@Override
+	public void sendStream(InputStream stream) {
+		ctx.result(stream);
+	}
+
+	@Override
+	public void sendStream(InputStream stream, long contentLength) {
+		ctx.header("Content-Length", Long.toString(contentLength));
+		ctx.disableCompression();
+		ctx.result(stream);
+	}
+
+	/**
+	 * На маршрутах с условными GET ({@link RequestAttr#CONDITIONAL}) успешный ответ сериализуется
+	 * здесь же: без ETag от обработчика ({@code HttpContext#notModified}) он считается по телу, и при
+	 * совпадении с If-None-Match уходит 304 без тела.
+	 */
 	@Override
 	public void sendJson(Object body) {
-		ctx.json(body);
+		if (!isConditional()) {
+			ctx.json(body);
+			return;
+		}
+
+		byte[] bytes = ctx.jsonMapper().toJsonString(body, body.getClass()).getBytes(StandardCharsets.UTF_8);
+		if (ctx.res().getHeader("ETag") == null) {
+			String etag = ConditionalRequest.weakEtag(bytes);
+			ctx.header("ETag", etag);
+			if (ConditionalRequest.isNotModified(ctx.header("If-None-Match"), null, etag, null)) {
+				ctx.status(HttpStatusCode.NOT_MODIFIED.getCode());
+				return;
+			}
+		}
+		ctx.contentType(ContentType.APPLICATION_JSON).result(bytes);
+	}
+
+	private boolean isConditional() {
+		return ctx.method() == HandlerType.GET && ctx.statusCode() == HttpStatusCode.OK.getCode()
+				&& Boolean.TRUE.equals(owner.getAttr(RequestAttr.CONDITIONAL, Boolean.class));
 	}
 
 	public Context raw() {
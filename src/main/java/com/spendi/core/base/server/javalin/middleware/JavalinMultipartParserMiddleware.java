@@ -11,9 +11,11 @@ package com.spendi.core.base.server.javalin.middleware;
 /**
  * ! java imports
  */
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +23,7 @@ import java.util.Map;
 /**
  * ! my imports
  */
+import com.spendi.config.FileStorageConfig;
 import com.spendi.core.base.BaseMiddleware;
 import com.spendi.core.base.http.HttpContext;
 import com.spendi.core.base.http.MiddlewareChain;
@@ -36,6 +39,10 @@ public class JavalinMultipartParserMiddleware extends BaseMiddleware {
 		super(JavalinMultipartParserMiddleware.class.getSimpleName());
 	}
 
+	private static Path tempDir() throws IOException {
+		return Files.createDirectories(Paths.get(FileStorageConfig.getConfig().getTempDir()).toAbsolutePath());
+	}
+
 	@Override
 	public void handle(HttpContext ctx, MiddlewareChain chain) throws Exception {
 
@@ -68,7 +75,8 @@ public class JavalinMultipartParserMiddleware extends BaseMiddleware {
 
 			String suffix = guessSuffix(originalName);
 
-			Path tmp = Files.createTempFile("upload_", suffix);
+			// в SPENDI_FILES_TEMP_DIR, а не в системный tmp: брошенные файлы подберёт FileGarbageCollector
+			Path tmp = Files.createTempFile(tempDir(), "upload_", suffix);
 			try (InputStream in = f.content()) {
 				Files.copy(in, tmp, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
 			} catch (Exception copyErr) {
@@ -0,0 +1,245 @@
+/**
+ * @file JavalinStreamingMultipartMiddleware.java
+ * @module core/base/server/javalin/middleware
+ *
+ * @description
+ * Потоковый приём multipart/form-data прямо в хранилище.
+ *
+ * В отличие от {@link JavalinMultipartParserMiddleware}, тело запроса не
+ * разбирается контейнером во временные файлы: каждая файловая часть пишется
+ * сразу в .part-файл внутри хранилища (FileStorage.createIncoming), по пути
+ * считаются размер и (если включено правилами) SHA-256.
+ *
+ * Части не больше SPENDI_FILES_MEMORY_UPLOAD_KB остаются в буфере из
+ * {@link UploadBufferPool}: проверяются из памяти и пишутся в хранилище один
+ * раз, без .part. Часть, переросшая буфер (или когда пул исчерпан), уходит на диск.
+ *
+ * Лимиты maxFiles / maxPerFileBytes / maxTotalBytes проверяются по мере
+ * поступления байт: при превышении приём обрывается сразу, остаток тела
+ * на диск не пишется, уже принятые .part удаляются.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.base.server.javalin.middleware;
+
+/**
+ * ! java imports
+ */
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.BaseMiddleware;
+import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.base.http.MiddlewareChain;
+import com.spendi.core.base.http.RequestAttr;
+import com.spendi.core.base.server.javalin.JavalinHttpContext;
+import com.spendi.core.exceptions.BadRequestException;
+import com.spendi.core.exceptions.PayloadTooLargeException;
+import com.spendi.core.exceptions.UnsupportedMediaTypeException;
+import com.spendi.core.files.FileStorage;
+import com.spendi.core.files.UploadBufferPool;
+import com.spendi.core.files.UploadedFile;
+import com.spendi.core.files.multipart.MultipartStreamReader;
+import com.spendi.core.files.multipart.MultipartStreamReader.MalformedMultipartException;
+import com.spendi.core.files.validation.FileValidationRules;
+
+public class JavalinStreamingMultipartMiddleware extends BaseMiddleware {
+
+	/** Размер порции копирования из тела запроса в файл */
+	private static final int CHUNK_SIZE = 64 * 1024;
+	/** Сколько обычных (не файловых) полей формы допускаем */
+	private static final int MAX_FORM_FIELDS = 32;
+
+	private final FileValidationRules rules;
+	private final FileStorage storage = FileStorage.getInstance();
+	private final UploadBufferPool buffers = UploadBufferPool.getInstance();
+
+	public JavalinStreamingMultipartMiddleware(FileValidationRules rules) {
+		super(JavalinStreamingMultipartMiddleware.class.getSimpleName());
+		this.rules = Objects.requireNonNull(rules);
+	}
+
+	@Override
+	public void handle(HttpContext ctx, MiddlewareChain chain) throws Exception {
+
+		if (!(ctx instanceof JavalinHttpContext jctx)) {
+			// Этот middleware заточен под Javalin-обёртку
+			chain.next();
+			return;
+		}
+
+		var raw = jctx.raw();
+
+		String actual = raw.contentType(); // может быть null
+		String base = stripParams(actual); // может вернуть null
+		if (!"multipart/form-data".equalsIgnoreCase(base)) {
+			throw new UnsupportedMediaTypeException(
+					actual == null ? "null" : actual,
+					"multipart/form-data");
+		}
+
+		String boundary = MultipartStreamReader.boundaryOf(actual);
+		if (boundary == null) {
+			throw new BadRequestException("Multipart boundary is missing", Map.of("contentType", actual));
+		}
+
+		List<UploadedFile> ours = new ArrayList<>();
+		List<Path> temps = new ArrayList<>();
+		List<byte[]> held = new ArrayList<>();
+
+		this.debug("start streaming upload");
+
+		try (MultipartStreamReader reader = new MultipartStreamReader(raw.req().getInputStream(), boundary)) {
+			long totalBytes = 0L;
+			int fields = 0;
+			byte[] chunk = null;
+
+			MultipartStreamReader.Part part;
+			while ((part = reader.next()) != null) {
+				if (!part.isFile()) {
+					// обычные поля формы не нужны — пропускаются при переходе к следующей части
+					if (++fields > MAX_FORM_FIELDS) {
+						throw new BadRequestException("Too many form fields", Map.of("max", MAX_FORM_FIELDS));
+					}
+					continue;
+				}
+
+				if (rules.getMaxFiles() > 0 && ours.size() >= rules.getMaxFiles()) {
+					throw new PayloadTooLargeException(ours.size() + 1, rules.getMaxFiles());
+				}
+
+				MessageDigest digest = rules.isComputeSha256() ? sha256() : null;
+				long size = 0L;
+
+				// Сначала в буфер из пула; не поместилось — на диск (.part) вместе с уже принятым
+				byte[] mem = buffers.tryAcquire();
+				int inMem = 0;
+				Path target = null;
+				OutputStream out = null;
+				try (InputStream in = part.getBody()) {
+					while (true) {
+						boolean toMemory = target == null && mem != null && inMem < mem.length;
+						if (!toMemory && chunk == null) {
+							chunk = new byte[CHUNK_SIZE];
+						}
+						int n = toMemory ? in.read(mem, inMem, mem.length - inMem) : in.read(chunk);
+						if (n <= 0) {
+							break;
+						}
+						size += n;
+						totalBytes += n;
+
+						// Лимиты — до записи очередной порции на диск
+						if (rules.getMaxPerFileBytes() > 0 && size > rules.getMaxPerFileBytes()) {
+							throw new PayloadTooLargeException(part.getFilename(), size, rules.getMaxPerFileBytes());
+						}
+						if (rules.getMaxTotalBytes() > 0 && totalBytes > rules.getMaxTotalBytes()) {
+							throw new PayloadTooLargeException(totalBytes, rules.getMaxTotalBytes());
+						}
+
+						if (toMemory) {
+							if (digest != null)
+								digest.update(mem, inMem, n);
+							inMem += n;
+							continue;
+						}
+
+						if (target == null) {
+							target = storage.createIncoming(ctx.getRequestId());
+							temps.add(target);
+							out = Files.newOutputStream(target);
+							if (mem != null) {
+								out.write(mem, 0, inMem);
+								buffers.release(mem);
+								mem = null;
+							}
+						}
+						if (digest != null)
+							digest.update(chunk, 0, n);
+						out.write(chunk, 0, n);
+					}
+				} catch (Exception e) {
+					buffers.release(mem);
+					throw e;
+				} finally {
+					if (out != null)
+						out.close();
+				}
+
+				String sha = digest == null ? null : HexFormat.of().formatHex(digest.digest());
+				if (target == null && mem != null) {
+					held.add(mem);
+					ours.add(new UploadedFile(part.getFilename(), part.getContentType(), mem, inMem, sha));
+				} else {
+					ours.add(new UploadedFile(part.getFilename(), part.getContentType(), size, target, sha));
+				}
+				buffers.record(target == null);
+			}
+		} catch (MalformedMultipartException e) {
+			deleteQuietly(temps, ctx.getRequestId());
+			held.forEach(buffers::release);
+			throw new BadRequestException("Malformed multipart body", Map.of("reason", e.getMessage()));
+		} catch (Exception e) {
+			deleteQuietly(temps, ctx.getRequestId());
+			held.forEach(buffers::release);
+			throw e;
+		}
+
+		if (ours.isEmpty()) {
+			throw new BadRequestException("No files in request", Map.of("expected", "at least one file"));
+		}
+
+		this.debug("streaming upload received", ctx.getRequestId(),
+				detailsOf("count", ours.size(), "sha256", rules.isComputeSha256()), false);
+
+		// Кладём в контекст (.part-файлы убирает TempFilesCleanupMiddleware, если их не сохранили)
+		ctx.setAttr(RequestAttr.FILES, ours);
+		ctx.setAttr(RequestAttr.TEMP_FILES, temps);
+
+		// Буферы частей в памяти возвращаются в пул после обработки запроса
+		try {
+			chain.next();
+		} finally {
+			held.forEach(buffers::release);
+		}
+	}
+
+	private void deleteQuietly(List<Path> paths, String requestId) {
+		for (Path p : paths) {
+			try {
+				Files.deleteIfExists(p);
+			} catch (Exception e) {
+				this.warn("Failed to delete incoming file", requestId,
+						detailsOf("path", p.toString(), "error", String.valueOf(e.getMessage())), true);
+			}
+		}
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static String stripParams(String contentType) {
+		if (contentType == null)
+			return null;
+		int i = contentType.indexOf(';');
+		return (i >= 0) ? contentType.substring(0, i).trim() : contentType.trim();
+	}
+}
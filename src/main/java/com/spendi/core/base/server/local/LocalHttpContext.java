@@ -0,0 +1,136 @@
+/**
+ * @file LocalHttpContext.java
+ * @module core/base/server/local
+ *
+ * Контекст запроса, выполняемого внутри процесса (см. HttpServerAdapter#dispatch):
+ * атрибуты — собственные, id запроса — id родителя с номером под-запроса.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.base.server.local;
+
+/**
+ * ! lib imports
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * ! java imports
+ */
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.base.http.RequestAttr;
+import com.spendi.core.files.UploadedFile;
+import com.spendi.modules.session.SessionEntity;
+
+public final class LocalHttpContext implements HttpContext {
+	private final LocalHttpRequest request;
+	private final LocalHttpResponse response;
+	private final Map<String, Object> attrs = new HashMap<>();
+
+	public LocalHttpContext(String requestId, LocalHttpRequest request, LocalHttpResponse response) {
+		this.request = request;
+		this.response = response;
+		attrs.put(RequestAttr.REQUEST_ID, requestId);
+		attrs.put(RequestAttr.START_NANOS, System.nanoTime());
+		attrs.put(RequestAttr.SUCCESS, Boolean.TRUE);
+	}
+
+	@Override
+	public LocalHttpRequest req() {
+		return request;
+	}
+
+	@Override
+	public LocalHttpResponse res() {
+		return response;
+	}
+
+	@Override
+	public void setAttr(String key, Object value) {
+		attrs.put(key, value);
+	}
+
+	@Override
+	public Object getAttr(String key) {
+		return attrs.get(key);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T getAttr(String key, Class<T> type) {
+		Object v = attrs.get(key);
+		return (v != null && type.isInstance(v)) ? (T) v : null;
+	}
+
+	@Override
+	public String getRequestId() {
+		return getAttr(RequestAttr.REQUEST_ID, String.class);
+	}
+
+	@Override
+	public long getStartNanos() {
+		Long v = getAttr(RequestAttr.START_NANOS, Long.class);
+		return (v != null) ? v : 0L;
+	}
+
+	@Override
+	public boolean isSuccess() {
+		return Boolean.TRUE.equals(getAttr(RequestAttr.SUCCESS, Boolean.class));
+	}
+
+	@Override
+	public void setSuccess(boolean success) {
+		setAttr(RequestAttr.SUCCESS, success);
+	}
+
+	@Override
+	public byte[] getRawBody() {
+		return getAttr(RequestAttr.RAW_BODY, byte[].class);
+	}
+
+	@Override
+	public JsonNode getRawJson() {
+		return getAttr(RequestAttr.RAW_JSON, JsonNode.class);
+	}
+
+	@Override
+	public <T> T getValidBody(Class<T> type) {
+		return getAttr(RequestAttr.VALID_BODY, type);
+	}
+
+	@Override
+	public <T> T getValidParams(Class<T> type) {
+		return getAttr(RequestAttr.VALID_PARAMS, type);
+	}
+
+	@Override
+	public <T> T getValidQuery(Class<T> type) {
+		return getAttr(RequestAttr.VALID_QUERY, type);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<UploadedFile> getFiles() {
+		return getAttr(RequestAttr.FILES, List.class);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Path> getTempFiles() {
+		return getAttr(RequestAttr.TEMP_FILES, List.class);
+	}
+
+	@Override
+	public SessionEntity getAuthSession() {
+		return getAttr(RequestAttr.AUTH_SESSION, SessionEntity.class);
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ * @file LocalHttpRequest.java
+ * @module core/base/server/local
+ *
+ * Запрос, выполняемый внутри процесса (под-запрос POST /batch): метод, путь,
+ * query, заголовки и тело заданы явно, path-параметры проставляет сервер при
+ * сопоставлении маршрута.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.base.server.local;
+
+/**
+ * ! java imports
+ */
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.http.HttpRequest;
+import com.spendi.core.http.HttpMethod;
+
+public final class LocalHttpRequest implements HttpRequest {
+	private final HttpMethod method;
+	private final String path;
+	private final Map<String, List<String>> query;
+	private final Map<String, String> headers; // без учёта регистра
+	private final byte[] body; // null — без тела
+	private final String remoteAddress;
+	private volatile Map<String, String> pathParams = Map.of();
+
+	public LocalHttpRequest(HttpMethod method, String path, Map<String, List<String>> query,
+			Map<String, String> headers, byte[] body, String remoteAddress) {
+		this.method = method;
+		this.path = path;
+		this.query = query == null ? Map.of() : Collections.unmodifiableMap(query);
+		TreeMap<String, String> h = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		if (headers != null)
+			h.putAll(headers);
+		this.headers = Collections.unmodifiableMap(h);
+		this.body = body;
+		this.remoteAddress = remoteAddress;
+	}
+
+	/** Проставить path-параметры найденного маршрута. */
+	public void bindPathParams(Map<String, String> params) {
+		this.pathParams = params == null ? Map.of() : Collections.unmodifiableMap(params);
+	}
+
+	@Override
+	public HttpMethod method() {
+		return method;
+	}
+
+	@Override
+	public String path() {
+		return path;
+	}
+
+	@Override
+	public Optional<String> pathParam(String name) {
+		return Optional.ofNullable(pathParams.get(name));
+	}
+
+	@Override
+	public Map<String, String> pathParams() {
+		return pathParams;
+	}
+
+	@Override
+	public Optional<String> queryParam(String name) {
+		List<String> values = query.get(name);
+		return values == null || values.isEmpty() ? Optional.empty() : Optional.ofNullable(values.get(0));
+	}
+
+	@Override
+	public Map<String, List<String>> queryParams() {
+		return query;
+	}
+
+	@Override
+	public Optional<String> header(String name) {
+		return Optional.ofNullable(headers.get(name));
+	}
+
+	@Override
+	public Map<String, String> headers() {
+		return headers;
+	}
+
+	@Override
+	public Optional<String> bodyAsString() {
+		return body == null ? Optional.empty() : Optional.of(new String(body, StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public Optional<byte[]> bodyAsBytes() {
+		return Optional.ofNullable(body);
+	}
+
+	@Override
+	public Optional<String> remoteAddress() {
+		return Optional.ofNullable(remoteAddress);
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * @file LocalHttpResponse.java
+ * @module core/base/server/local
+ *
+ * Ответ под-запроса, собираемый в памяти: статус, заголовки и тело. JSON
+ * хранится объектом (сериализуется вместе с ответом /batch), текст — строкой,
+ * бинарное тело и потоки — байтами не длиннее maxBodyBytes (иначе 413).
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.base.server.local;
+
+/**
+ * ! java imports
+ */
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.http.HttpResponse;
+import com.spendi.core.exceptions.PayloadTooLargeException;
+import com.spendi.core.http.HttpStatusCode;
+
+public final class LocalHttpResponse implements HttpResponse {
+
+	/** Вид тела ответа */
+	public enum BodyKind {
+		NONE, JSON, TEXT, BYTES
+	}
+
+	private final long maxBodyBytes;
+	private int status = HttpStatusCode.OK.getCode();
+	private final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+	private BodyKind kind = BodyKind.NONE;
+	private Object body;
+
+	public LocalHttpResponse(long maxBodyBytes) {
+		this.maxBodyBytes = maxBodyBytes;
+	}
+
+	@Override
+	public HttpResponse status(int statusCode) {
+		this.status = statusCode;
+		return this;
+	}
+
+	@Override
+	public int getStatus() {
+		return status;
+	}
+
+	@Override
+	public HttpResponse header(String name, String value) {
+		headers.put(name, value);
+		return this;
+	}
+
+	@Override
+	public void sendText(String text) {
+		this.set(BodyKind.TEXT, text);
+	}
+
+	@Override
+	public void sendBytes(byte[] bytes) {
+		if (bytes.length > maxBodyBytes)
+			throw new PayloadTooLargeException("response", bytes.length, maxBodyBytes);
+		this.set(BodyKind.BYTES, bytes);
+	}
+
+	@Override
+	public void sendStream(InputStream stream) {
+		try (InputStream in = stream) {
+			byte[] bytes = in.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, maxBodyBytes + 1));
+			this.sendBytes(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void sendStream(InputStream stream, long contentLength) {
+		if (contentLength > maxBodyBytes) {
+			try {
+				stream.close();
+			} catch (IOException ignore) {
+			}
+			throw new PayloadTooLargeException("response", contentLength, maxBodyBytes);
+		}
+		this.sendStream(stream);
+	}
+
+	@Override
+	public void sendJson(Object body) {
+		headers.putIfAbsent("Content-Type", "application/json");
+		this.set(BodyKind.JSON, body);
+	}
+
+	public Map<String, String> getHeaders() {
+		return Collections.unmodifiableMap(headers);
+	}
+
+	public BodyKind getBodyKind() {
+		return kind;
+	}
+
+	/** JSON-объект, String или byte[] — по {@link #getBodyKind()}; null — без тела. */
+	public Object getBody() {
+		return body;
+	}
+
+	private void set(BodyKind kind, Object body) {
+		this.kind = kind;
+		this.body = body;
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * @file ByteBoundedCache.java
+ * @module core/cache
+ *
+ * @description
+ * LRU-кэш, ограниченный суммарным весом записей в байтах, а не их числом:
+ * сто аватаров по 10 КБ и один PDF на 1 МБ занимают одинаково.
+ *
+ * - Вес записи считает переданная функция; запись тяжелее лимита не кладётся.
+ * - При переполнении вытесняются самые давно прочитанные записи.
+ * - Счётчики попаданий/промахов/вытеснений — для метрик.
+ *
+ * Потокобезопасен: операции над картой под одной блокировкой, все они O(1)
+ * (кроме {@link #invalidateIf}), счётчики — без блокировки.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.cache;
+
+/**
+ * ! java imports
+ */
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+public final class ByteBoundedCache<K, V> {
+
+	private final long maxBytes;
+	private final ToLongFunction<V> weigher;
+	/** accessOrder=true: порядок итерации — от давно прочитанных к недавним */
+	private final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<>(64, 0.75f, true);
+	private long residentBytes;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	private record Entry<V>(V value, long weight) {
+	}
+
+	/**
+	 * @param maxBytes суммарный вес записей, байт
+	 * @param weigher  вес одной записи, байт (не отрицательный)
+	 */
+	public ByteBoundedCache(long maxBytes, ToLongFunction<V> weigher) {
+		this.maxBytes = Math.max(0, maxBytes);
+		this.weigher = weigher;
+	}
+
+	/** Значение по ключу или null; учитывается в статистике попаданий. */
+	public V get(K key) {
+		Entry<V> e;
+		synchronized (this) {
+			e = map.get(key);
+		}
+		if (e == null) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return e.value();
+	}
+
+	/**
+	 * Положить значение, вытеснив давно прочитанные записи.
+	 *
+	 * @return false — запись тяжелее всего кэша и не сохранена
+	 */
+	public boolean put(K key, V value) {
+		long weight = weigher.applyAsLong(value);
+		if (weight > maxBytes) {
+			return false;
+		}
+		synchronized (this) {
+			Entry<V> old = map.put(key, new Entry<>(value, weight));
+			if (old != null) {
+				residentBytes -= old.weight();
+			}
+			residentBytes += weight;
+
+			Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+			while (residentBytes > maxBytes && it.hasNext()) {
+				Map.Entry<K, Entry<V>> eldest = it.next();
+				if (eldest.getKey().equals(key)) {
+					continue;
+				}
+				residentBytes -= eldest.getValue().weight();
+				it.remove();
+				evictions.increment();
+			}
+		}
+		return true;
+	}
+
+	/** Удалить запись по ключу. */
+	public synchronized void invalidate(K key) {
+		Entry<V> old = map.remove(key);
+		if (old != null) {
+			residentBytes -= old.weight();
+		}
+	}
+
+	/** Удалить все записи, ключи которых подходят под условие (проход по всей карте). */
+	public synchronized void invalidateIf(Predicate<? super K> predicate) {
+		Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<K, Entry<V>> e = it.next();
+			if (predicate.test(e.getKey())) {
+				residentBytes -= e.getValue().weight();
+				it.remove();
+			}
+		}
+	}
+
+	public synchronized void clear() {
+		map.clear();
+		residentBytes = 0;
+	}
+
+	// ? =================
+	// ? ==== METRICS ====
+	// ? =================
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public synchronized long getResidentBytes() {
+		return residentBytes;
+	}
+
+	public synchronized int size() {
+		return map.size();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/** Доля попаданий среди всех обращений (0, если обращений не было). */
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0.0 : (double) h / total;
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * @file SingleFlight.java
+ * @module core/concurrent
+ *
+ * @description
+ * Объединение одинаковых одновременных вычислений (single-flight): первый
+ * вызов по ключу выполняет вычисление, вызовы с тем же ключом, пришедшие до
+ * его завершения, ждут и получают тот же результат (или то же исключение).
+ * Результат не кэшируется — после завершения следующий вызов считает заново.
+ *
+ * Ключ должен однозначно определять результат, включая того, кому он виден:
+ * для чтений по HTTP — {@link #key(HttpContext, String)} (метод, путь, query и
+ * область доступа). Результат отдаётся нескольким запросам сразу, поэтому он
+ * должен быть неизменяемым (или не меняться читателями).
+ *
+ * Показатели: singleflight.&lt;name&gt;.leaders / .shared.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.concurrent;
+
+/**
+ * ! java imports
+ */
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.metrics.MetricsRegistry;
+
+public final class SingleFlight<V> {
+
+	/** Область доступа: ответ одинаков для любого пользователя */
+	public static final String PUBLIC = "public";
+
+	private final ConcurrentHashMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder leaders = new LongAdder();
+	private final LongAdder shared = new LongAdder();
+
+	/**
+	 * @param name имя для показателей (например, "users.byId")
+	 */
+	public SingleFlight(String name) {
+		MetricsRegistry m = MetricsRegistry.getInstance();
+		m.gauge("singleflight." + name + ".leaders", leaders::sum);
+		m.gauge("singleflight." + name + ".shared", shared::sum);
+	}
+
+	/**
+	 * Выполнить вычисление или присоединиться к уже идущему с тем же ключом.
+	 * Исключение вычисления пробрасывается всем участникам.
+	 */
+	public V run(String key, Supplier<V> computation) {
+		CompletableFuture<V> mine = new CompletableFuture<>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+		if (running != null) {
+			shared.increment();
+			return await(running);
+		}
+
+		leaders.increment();
+		V value;
+		try {
+			value = computation.get();
+		} catch (RuntimeException | Error e) {
+			inFlight.remove(key, mine);
+			mine.completeExceptionally(e);
+			throw e;
+		}
+		// ключ освобождается до выдачи результата: пришедшие позже не получат уже готовое значение
+		inFlight.remove(key, mine);
+		mine.complete(value);
+		return value;
+	}
+
+	/**
+	 * Ключ чтения по HTTP: метод, путь (с path-параметрами), query в
+	 * каноническом порядке и область доступа. Область — последний сегмент после
+	 * '#', значения query закодированы, поэтому ключи разных областей не совпадают.
+	 *
+	 * @param scope {@link #PUBLIC} или идентификатор того, кому виден ответ (например, "user:&lt;id&gt;")
+	 */
+	public static String key(HttpContext ctx, String scope) {
+		StringBuilder sb = new StringBuilder(64).append(ctx.req().method()).append(' ').append(ctx.req().path());
+		Map<String, List<String>> query = ctx.req().queryParams();
+		if (query != null && !query.isEmpty()) {
+			char sep = '?';
+			for (Map.Entry<String, List<String>> e : new TreeMap<>(query).entrySet()) {
+				for (String v : e.getValue()) {
+					sb.append(sep).append(encode(e.getKey())).append('=').append(encode(v));
+					sep = '&';
+				}
+			}
+		}
+		return sb.append('#').append(scope).toString();
+	}
+
+	/** Ключ чтения, видимого только пользователю userId. */
+	public static String userKey(HttpContext ctx, String userId) {
+		return key(ctx, "user:" + userId);
+	}
+
+	/** Значения кодируются, чтобы '&', '=' и '#' внутри них не давали чужой ключ. */
+	private static String encode(String s) {
+		return s == null ? "" : URLEncoder.encode(s, StandardCharsets.UTF_8);
+	}
+
+	/** Вычислений в процессе (для проверок). */
+	int inFlight() {
+		return inFlight.size();
+	}
+
+	private static <V> V await(CompletableFuture<V> running) {
+		try {
+			return running.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException re)
+				throw re;
+			if (cause instanceof Error err)
+				throw err;
+			throw e;
+		}
+	}
+}
@@ -46,6 +46,9 @@ public enum ErrorCode {
 	// --- 415 UNSUPPORTED MEDIA TYPE ---
 	UNSUPPORTED_MEDIA_TYPE("UNSUPPORTED_MEDIA_TYPE", HttpStatusCode.UNSUPPORTED_MEDIA_TYPE),
 
+	// --- 416 RANGE NOT SATISFIABLE ---
+	RANGE_NOT_SATISFIABLE("RANGE_NOT_SATISFIABLE", HttpStatusCode.RANGE_NOT_SATISFIABLE),
+
 	// --- 422 UNPROCESSABLE ENTITY ---
 	BUSINESS_RULE_VIOLATION("BUSINESS_RULE_VIOLATION", HttpStatusCode.UNPROCESSABLE_ENTITY),
 	VALIDATION_FAILED("VALIDATION_FAILED", HttpStatusCode.UNPROCESSABLE_ENTITY),
@@ -54,7 +57,10 @@ public enum ErrorCode {
 	TOO_MANY_REQUESTS("TOO_MANY_REQUESTS", HttpStatusCode.TOO_MANY_REQUESTS),
 
 	// --- 500 INTERNAL SERVER ERROR ---
-	INTERNAL_ERROR("INTERNAL_ERROR", HttpStatusCode.INTERNAL_SERVER_ERROR);
+	INTERNAL_ERROR("INTERNAL_ERROR", HttpStatusCode.INTERNAL_SERVER_ERROR),
+
+	// --- 503 SERVICE UNAVAILABLE ---
+	SERVICE_UNAVAILABLE("SERVICE_UNAVAILABLE", HttpStatusCode.SERVICE_UNAVAILABLE);
 
 	private final String name;
 	private final HttpStatusCode httpStatus;
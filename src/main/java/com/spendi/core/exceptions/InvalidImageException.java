@@ -12,6 +12,7 @@ package com.spendi.core.exceptions;
 /**
  * ! java imports
  */
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -26,16 +27,20 @@ public class InvalidImageException extends DomainException {
 	public static InvalidImageException dimensionsOutOfRange(String fileName, int width, int height,
 			Integer minW, Integer minH,
 			Integer maxW, Integer maxH) {
-		return new InvalidImageException(
-				"Image dimensions are out of allowed range",
-				Map.of(
-						"file", fileName,
-						"width", width,
-						"height", height,
-						"minWidth", minW,
-						"minHeight", minH,
-						"maxWidth", maxW,
-						"maxHeight", maxH));
+		// незаданные границы в детали не попадают (null там недопустим)
+		Map<String, Object> details = new LinkedHashMap<>();
+		details.put("file", fileName);
+		details.put("width", width);
+		details.put("height", height);
+		if (minW != null)
+			details.put("minWidth", minW);
+		if (minH != null)
+			details.put("minHeight", minH);
+		if (maxW != null)
+			details.put("maxWidth", maxW);
+		if (maxH != null)
+			details.put("maxHeight", maxH);
+		return new InvalidImageException("Image dimensions are out of allowed range", details);
 	}
 
 	public static InvalidImageException megapixelsExceeded(String fileName, double mp, double maxMp) {
@@ -0,0 +1,32 @@
+/**
+ * @file RangeNotSatisfiableException.java
+ * @module core/exceptions
+ *
+ * Исключение, когда ни один из запрошенных диапазонов (Range) не пересекается с ресурсом.
+ * 
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.exceptions;
+
+/**
+ * ! java imports
+ */
+import java.util.Map;
+
+/**
+ * Маппится на {@link ErrorCode#RANGE_NOT_SATISFIABLE} (HTTP 416).
+ */
+public class RangeNotSatisfiableException extends DomainException {
+
+	/**
+	 * @param range исходное значение заголовка Range
+	 * @param size  полный размер ресурса в байтах
+	 */
+	public RangeNotSatisfiableException(String range, long size) {
+		super("Requested range not satisfiable",
+				ErrorCode.RANGE_NOT_SATISFIABLE,
+				Map.of("range", range, "size", size),
+				Map.of());
+	}
+}
@@ -0,0 +1,30 @@
+/**
+ * @file ServiceUnavailableException.java
+ * @module core/exceptions
+ *
+ * Исключение, когда сервер перегружен и отклоняет запрос, не начиная его
+ * обработку (сброс нагрузки).
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.exceptions;
+
+/**
+ * ! java imports
+ */
+import java.util.Map;
+
+/**
+ * Маппится на {@link ErrorCode#SERVICE_UNAVAILABLE} (HTTP 503).
+ */
+public class ServiceUnavailableException extends DomainException {
+
+	public ServiceUnavailableException() {
+		super("Service temporarily overloaded", ErrorCode.SERVICE_UNAVAILABLE, Map.of(), Map.of());
+	}
+
+	public ServiceUnavailableException(String message, Map<String, Object> details) {
+		super(message, ErrorCode.SERVICE_UNAVAILABLE, details, Map.of());
+	}
+}
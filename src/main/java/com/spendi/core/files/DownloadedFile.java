@@ -2,26 +2,94 @@
  * @file DownloadedFile.java
  * @module core/files
  *
- * DTO файла для отдачи наружу: содержимое, имя и MIME-тип.
+ * DTO файла для отдачи наружу: содержимое, имя, MIME-тип и валидаторы (ETag, Last-Modified).
+ *
+ * Содержимое задаётся либо массивом байт (файл прочитан целиком),
+ * либо источником, который открывает произвольный участок файла на диске —
+ * так отдаются и целые файлы, и диапазоны (Range) без чтения в память.
  */
 
 package com.spendi.core.files;
 
+/**
+ * ! java imports
+ */
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+
 public final class DownloadedFile {
-	private final byte[] content;
+	private final byte[] content; // null для потоковой отдачи
+	private final ContentSource source;
+	private final long size;
 	private final String filename; // предпочтительно originalName
 	private final String contentType; // MIME
+	private final String etag; // сильный ETag (в кавычках) или null
+	private final Instant lastModified; // или null
+	private final Integer variantSize; // сторона отданного превью, px; null — оригинал
 
 	public DownloadedFile(byte[] content, String filename, String contentType) {
+		this(content, filename, contentType, null, null);
+	}
+
+	public DownloadedFile(byte[] content, String filename, String contentType, String etag, Instant lastModified) {
+		this(content, (offset, length) -> new ByteArrayInputStream(content, (int) offset, (int) length),
+				content.length, filename, contentType, etag, lastModified, null);
+	}
+
+	/**
+	 * Потоковый вариант: содержимое открывается источником при отправке.
+	 *
+	 * @param size точная длина содержимого в байтах (уходит в Content-Length)
+	 */
+	public DownloadedFile(ContentSource source, long size, String filename, String contentType, String etag,
+			Instant lastModified) {
+		this(null, source, size, filename, contentType, etag, lastModified, null);
+	}
+
+	private DownloadedFile(byte[] content, ContentSource source, long size, String filename, String contentType,
+			String etag, Instant lastModified, Integer variantSize) {
 		this.content = content;
+		this.source = source;
+		this.size = size;
 		this.filename = filename;
 		this.contentType = contentType == null ? "application/octet-stream" : contentType;
+		this.etag = etag;
+		this.lastModified = lastModified;
+		this.variantSize = variantSize;
+	}
+
+	/** Тот же файл с отметкой, какое превью отдаётся (null — оригинал). */
+	public DownloadedFile withVariantSize(Integer variantSize) {
+		return new DownloadedFile(content, source, size, filename, contentType, etag, lastModified, variantSize);
+	}
+
+	/** true — содержимое отдаётся потоком с диска, иначе массивом ({@link #getContent()}). */
+	public boolean isStreamed() {
+		return content == null;
+	}
+
+	/**
+	 * Открыть участок содержимого. Поток закрывает тот, кто его отправляет (HTTP-адаптер).
+	 */
+	public InputStream open(long offset, long length) throws IOException {
+		return source.open(offset, length);
+	}
+
+	/** Открыть содержимое целиком. */
+	public InputStream open() throws IOException {
+		return source.open(0, size);
 	}
 
 	public byte[] getContent() {
 		return content;
 	}
 
+	public long getSize() {
+		return size;
+	}
+
 	public String getFilename() {
 		return filename;
 	}
@@ -29,4 +97,25 @@ public final class DownloadedFile {
 	public String getContentType() {
 		return contentType;
 	}
+
+	public String getEtag() {
+		return etag;
+	}
+
+	public Instant getLastModified() {
+		return lastModified;
+	}
+
+	/** Сторона отданного превью, px; null — отдаётся оригинал. */
+	public Integer getVariantSize() {
+		return variantSize;
+	}
+
+	/**
+	 * Источник содержимого: открывает {@code length} байт начиная с {@code offset}.
+	 */
+	@FunctionalInterface
+	public interface ContentSource {
+		InputStream open(long offset, long length) throws IOException;
+	}
 }
@@ -0,0 +1,228 @@
+/**
+ * @file FileResponder.java
+ * @module core/files
+ *
+ * @description
+ * Отдача сохранённого файла по HTTP с поддержкой докачки.
+ *
+ * - ETag / Last-Modified из идентичности файла, Accept-Ranges: bytes;
+ * - Cache-Control — по выбору вызывающего (например, immutable для URL с id файла);
+ * - If-None-Match / If-Modified-Since → 304 без тела;
+ * - Range (один диапазон → 206 + Content-Range, несколько → multipart/byteranges);
+ * - If-Range: диапазон обслуживается только если валидатор совпал, иначе файл целиком;
+ * - неудовлетворимый Range → 416 + Content-Range: bytes * /size.
+ *
+ * Участки читаются с диска по смещению, файл в память не загружается.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.files;
+
+/**
+ * ! java imports
+ */
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.BaseClass;
+import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.base.http.HttpRequest;
+import com.spendi.core.base.http.HttpResponse;
+import com.spendi.core.exceptions.RangeNotSatisfiableException;
+import com.spendi.core.http.ByteRange;
+import com.spendi.core.http.ConditionalRequest;
+import com.spendi.core.http.HttpStatusCode;
+import com.spendi.core.types.EClassType;
+
+public final class FileResponder extends BaseClass {
+
+	private static final FileResponder INSTANCE = new FileResponder();
+
+	private FileResponder() {
+		super(EClassType.SYSTEM, FileResponder.class.getSimpleName());
+	}
+
+	public static FileResponder getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Отправить файл с учётом условных заголовков и Range.
+	 *
+	 * @param disposition готовое значение Content-Disposition
+	 * @throws RangeNotSatisfiableException если ни один диапазон не попал в файл
+	 */
+	public void send(HttpContext ctx, DownloadedFile file, String disposition) {
+		this.send(ctx, file, disposition, null);
+	}
+
+	/**
+	 * Отправить файл с заданным Cache-Control (уходит и с 304).
+	 *
+	 * @param cacheControl значение Cache-Control; null — заголовок не ставится
+	 * @throws RangeNotSatisfiableException если ни один диапазон не попал в файл
+	 */
+	public void send(HttpContext ctx, DownloadedFile file, String disposition, String cacheControl) {
+		HttpRequest req = ctx.req();
+		HttpResponse res = ctx.res();
+		long size = file.getSize();
+
+		res.header("Accept-Ranges", "bytes").header("Content-Disposition", disposition);
+		if (cacheControl != null)
+			res.header("Cache-Control", cacheControl);
+		if (file.getEtag() != null)
+			res.header("ETag", file.getEtag());
+		if (file.getLastModified() != null)
+			res.header("Last-Modified", ConditionalRequest.formatDate(file.getLastModified()));
+
+		// 1) Условный GET
+		if (isNotModified(req, file)) {
+			res.status(HttpStatusCode.NOT_MODIFIED.getCode());
+			this.debug("file not modified", ctx.getRequestId(), detailsOf("etag", file.getEtag()), false);
+			return;
+		}
+
+		// 2) Диапазоны (If-Range может отключить их)
+		List<ByteRange> ranges = List.of();
+		String range = req.header("Range").orElse(null);
+		if (range != null && isRangeCurrent(req.header("If-Range").orElse(null), file)) {
+			try {
+				ranges = ByteRange.parse(range, size);
+			} catch (RangeNotSatisfiableException e) {
+				res.header("Content-Range", "bytes */" + size);
+				throw e;
+			}
+		}
+
+		try {
+			if (ranges.isEmpty()) {
+				res.status(HttpStatusCode.OK.getCode()).header("Content-Type", file.getContentType());
+				if (file.isStreamed()) {
+					res.sendStream(file.open(), size);
+				} else {
+					res.sendBytes(file.getContent());
+				}
+				return;
+			}
+
+			res.status(HttpStatusCode.PARTIAL_CONTENT.getCode());
+			if (ranges.size() == 1) {
+				ByteRange r = ranges.get(0);
+				res.header("Content-Type", file.getContentType()).header("Content-Range", r.contentRange(size));
+				res.sendStream(file.open(r.start(), r.length()), r.length());
+			} else {
+				sendMultipart(res, file, ranges);
+			}
+			this.debug("file range sent", ctx.getRequestId(), detailsOf("range", range, "parts", ranges.size()),
+					false);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * multipart/byteranges: части открываются лениво, по мере записи ответа.
+	 */
+	private void sendMultipart(HttpResponse res, DownloadedFile file, List<ByteRange> ranges) {
+		String boundary = "spendi-" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+		long size = file.getSize();
+
+		List<byte[]> heads = new ArrayList<>(ranges.size());
+		long total = 0;
+		for (ByteRange r : ranges) {
+			byte[] head = ("\r\n--" + boundary + "\r\nContent-Type: " + file.getContentType()
+					+ "\r\nContent-Range: " + r.contentRange(size) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+			heads.add(head);
+			total += head.length + r.length();
+		}
+		byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+		total += tail.length;
+
+		List<InputStream> parts = new ArrayList<>(ranges.size() * 2 + 1);
+		for (int i = 0; i < ranges.size(); i++) {
+			ByteRange r = ranges.get(i);
+			parts.add(new ByteArrayInputStream(heads.get(i)));
+			parts.add(new LazyInputStream(() -> file.open(r.start(), r.length())));
+		}
+		parts.add(new ByteArrayInputStream(tail));
+
+		res.header("Content-Type", "multipart/byteranges; boundary=" + boundary);
+		res.sendStream(new SequenceInputStream(Collections.enumeration(parts)), total);
+	}
+
+	/**
+	 * If-None-Match (приоритетнее) или If-Modified-Since.
+	 */
+	private static boolean isNotModified(HttpRequest req, DownloadedFile file) {
+		return ConditionalRequest.isNotModified(req.header("If-None-Match").orElse(null),
+				req.header("If-Modified-Since").orElse(null), file.getEtag(), file.getLastModified());
+	}
+
+	/**
+	 * If-Range: диапазон актуален, если валидатор совпал строго (ETag) или точно (дата).
+	 */
+	private static boolean isRangeCurrent(String ifRange, DownloadedFile file) {
+		if (ifRange == null)
+			return true;
+		String v = ifRange.trim();
+		if (v.startsWith("\"") || v.startsWith("W/")) {
+			return file.getEtag() != null && !v.startsWith("W/") && v.equals(file.getEtag());
+		}
+		Instant date = ConditionalRequest.parseDate(v);
+		return date != null && file.getLastModified() != null
+				&& file.getLastModified().truncatedTo(ChronoUnit.SECONDS).equals(date);
+	}
+
+	/**
+	 * Поток, открывающий источник при первом чтении (чтобы не держать открытыми все части сразу).
+	 */
+	private static final class LazyInputStream extends InputStream {
+		private final Opener opener;
+		private InputStream in;
+
+		LazyInputStream(Opener opener) {
+			this.opener = opener;
+		}
+
+		private InputStream in() throws IOException {
+			if (in == null)
+				in = opener.open();
+			return in;
+		}
+
+		@Override
+		public int read() throws IOException {
+			return in().read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return in().read(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (in != null)
+				in.close();
+		}
+	}
+
+	@FunctionalInterface
+	private interface Opener {
+		InputStream open() throws IOException;
+	}
+}
@@ -2,7 +2,12 @@
  * @file FileStorage.java
  * @module core/files
  *
- * Сервис сохранения временных файлов в постоянное хранилище (локальную директорию).
+ * Сервис сохранения временных файлов в постоянное хранилище.
+ *
+ * Здесь решается, как называется файл (дата-каталоги или шарды по хешу id —
+ * SPENDI_FILES_LAYOUT, blob'ы по хешу содержимого); где лежат байты — решает
+ * {@link StorageBackend} (SPENDI_FILES_BACKEND: local | s3).
+ * Приём загрузок (.part) и временные файлы всегда на локальном диске (baseDir).
  * 
  * @author Dmytro Shakh
  */
@@ -12,33 +17,75 @@ package com.spendi.core.files;
 /**
  * ! java imports
  */
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.CRC32;
 import com.spendi.core.utils.InstantUtils;
 
 /**
  * ! my imports
  */
 import com.spendi.core.base.BaseClass;
+import com.spendi.core.files.storage.LocalStorageBackend;
+import com.spendi.core.files.storage.S3StorageBackend;
+import com.spendi.core.files.storage.StorageBackend;
 import com.spendi.core.types.EClassType;
 import com.spendi.core.utils.FileUtils;
 import com.spendi.config.FileStorageConfig;
 
 public class FileStorage extends BaseClass {
+	/** Суффикс файлов, которые ещё принимаются (см. {@link #createIncoming}) */
+	public static final String INCOMING_SUFFIX = ".part";
+	/** Каталог контентно-адресуемых blob'ов: cas/ab/cd/<sha256> */
+	public static final String BLOB_DIR = "cas";
+
+	/** Полосатые блокировки по хешу: приём и удаление одного blob'а не пересекаются */
+	private static final int BLOB_LOCK_STRIPES = 64;
+	private final Object[] blobLocks = new Object[BLOB_LOCK_STRIPES];
+
 	private final Path baseDir;
+	private final StorageBackend backend;
+	private final boolean sharded;
 	private static volatile FileStorage INSTANCE = new FileStorage();
 
 	/**
 	 * Создать FileStorage, читая путь из .env (spendi_FILES_DIR) через FileStorageConfig.
 	 */
 	public FileStorage() {
+		this(Paths.get(FileStorageConfig.getConfig().getBaseDir()), null,
+				FileStorageConfig.getConfig().isShardedLayout());
+	}
+
+	/**
+	 * Хранилище в заданном каталоге.
+	 *
+	 * @param backend null — по SPENDI_FILES_BACKEND (local — сам baseDir)
+	 * @param sharded раскладка новых файлов — sharded
+	 */
+	public FileStorage(Path baseDir, StorageBackend backend, boolean sharded) {
 		super(EClassType.SYSTEM, FileStorage.class.getSimpleName());
 		FileStorageConfig cfg = FileStorageConfig.getConfig();
 		// Важно: используем абсолютный путь, чтобы не зависеть от текущей рабочей
 		// директории процесса
-		this.baseDir = Paths.get(cfg.getBaseDir()).toAbsolutePath().normalize();
+		this.baseDir = baseDir.toAbsolutePath().normalize();
 		FileUtils.createDir(this.baseDir.toString());
+		if (backend == null) {
+			backend = "s3".equals(cfg.getBackend()) ? S3StorageBackend.fromConfig(cfg)
+					: new LocalStorageBackend(this.baseDir);
+		}
+		this.backend = backend;
+		this.sharded = sharded;
+		for (int i = 0; i < blobLocks.length; i++) {
+			blobLocks[i] = new Object();
+		}
 	}
 
 	/**
@@ -48,24 +95,135 @@ public class FileStorage extends BaseClass {
 		return INSTANCE;
 	}
 
-	/** Сохранить один файл с заранее заданным id (hex). */
+	/**
+	 * Сохранить один файл с заранее заданным id (hex; для превью — "&lt;id&gt;_&lt;размер&gt;").
+	 * Каталог — по раскладке SPENDI_FILES_LAYOUT: dated (YYYY-MM-DD/HH) или sharded (см. {@link #shardedPath}).
+	 */
 	public StoredFile save(String requestId, String idHex, UploadedFile f) {
 		String ext = FileUtils.getFileExtension(f.getOriginalName());
 		String name = idHex + (ext == null ? ".bin" : ext);
 
-		// Дата-каталог: YYYY-MM-DD/HH
-		String currentDate = InstantUtils.getCurrentStrictDateString();
-		String currentHour = InstantUtils.getCurrentHourString();
-		Path rel = Paths.get(currentDate, currentHour, name);
-		Path dst = baseDir.resolve(rel).normalize();
+		String rel;
+		if (this.sharded) {
+			rel = shardedPath(name);
+		} else {
+			// Дата-каталог: YYYY-MM-DD/HH
+			String currentDate = InstantUtils.getCurrentStrictDateString();
+			String currentHour = InstantUtils.getCurrentHourString();
+			rel = Paths.get(currentDate, currentHour, name).normalize().toString();
+		}
+
+		// Перенос (или выгрузка) во бэкенд
+		this.put(requestId, rel, f);
+
+		this.info("File " + name + " saved", requestId, detailsOf("name", name, "backend", backend.name()), true);
+
+		return new StoredFile(name, rel);
+	}
+
+	/**
+	 * Сохранить файл как контентно-адресуемый blob (cas/ab/cd/&lt;sha256&gt;).
+	 *
+	 * Если blob с таким хешем уже есть, загруженный файл просто удаляется.
+	 * Вызывать под {@link #blobLock(String)} вместе с учётом ссылки в БД.
+	 *
+	 * @param sha256 hex SHA-256 содержимого
+	 */
+	public StoredFile saveBlob(String requestId, String sha256, UploadedFile f) {
+		String rel = blobPath(sha256);
+
+		if (this.exists(rel)) {
+			if (!f.isInMemory()) {
+				FileUtils.deleteFile(f.getTempPath().toString());
+			}
+			this.info("Blob deduplicated", requestId, detailsOf("sha256", sha256), true);
+		} else {
+			this.put(requestId, rel, f);
+			this.info("Blob saved", requestId, detailsOf("sha256", sha256, "backend", backend.name()), true);
+		}
+		return new StoredFile(sha256, rel);
+	}
+
+	/**
+	 * Путь файла в раскладке sharded: ab/cd/&lt;имя&gt;, где ab/cd — первые 4 hex-символа
+	 * CRC32 от id (первые 24 символа имени). Вычисляется по одному имени, без БД;
+	 * превью ("&lt;id&gt;_64.png") лежат в каталоге своего оригинала.
+	 *
+	 * @param filename имя файла, начинающееся с hex id
+	 */
+	public static String shardedPath(String filename) {
+		String id = filename.length() > 24 ? filename.substring(0, 24) : filename;
+		CRC32 crc = new CRC32();
+		crc.update(id.getBytes(StandardCharsets.US_ASCII));
+		String h = "%08x".formatted(crc.getValue());
+		return Paths.get(h.substring(0, 2), h.substring(2, 4), filename).toString();
+	}
 
-		// Перенос
-		FileUtils.createDirFromPath(dst.toString());
-		FileUtils.moveFile(f.getTempPath().toString(), dst.toString());
+	/** Лежит ли файл в раскладке sharded (ab/cd/&lt;имя&gt;). */
+	public static boolean isSharded(String relativePath) {
+		return relativePath != null
+				&& relativePath.equals(shardedPath(Paths.get(relativePath).getFileName().toString()));
+	}
 
-		this.info("File " + name + " saved", requestId, detailsOf("name", name), true);
+	/** Раскладка новых файлов — sharded. */
+	public boolean isShardedLayout() {
+		return sharded;
+	}
+
+	/** Относительный путь blob'а по хешу. */
+	public static String blobPath(String sha256) {
+		return Paths.get(BLOB_DIR, sha256.substring(0, 2), sha256.substring(2, 4), sha256).toString();
+	}
+
+	/** Лежит ли файл в контентно-адресуемой части хранилища. */
+	public static boolean isBlob(String relativePath) {
+		return relativePath != null && Paths.get(relativePath).startsWith(BLOB_DIR);
+	}
+
+	/** Монитор для операций над blob'ом с данным хешем. */
+	public Object blobLock(String sha256) {
+		return blobLocks[Math.floorMod(sha256.hashCode(), blobLocks.length)];
+	}
+
+	/**
+	 * Посчитать SHA-256 загрузки (если хеш не считался при приёме).
+	 */
+	public String sha256Of(UploadedFile f) {
+		try (InputStream in = f.openStream()) {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			byte[] chunk = new byte[64 * 1024];
+			int n;
+			while ((n = in.read(chunk)) > 0) {
+				md.update(chunk, 0, n);
+			}
+			return HexFormat.of().formatHex(md.digest());
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to hash file: " + f.getOriginalName(), e);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
 
-		return new StoredFile(name, baseDir.relativize(dst).toString());
+	/**
+	 * Создать пустой файл для потокового приёма загрузки прямо в хранилище.
+	 *
+	 * Файл лежит в каталоге текущего часа с суффиксом .part; {@link #save} затем
+	 * переименовывает его в итоговое имя — в пределах одной ФС это без копирования.
+	 * Незавершённые .part удаляет вызывающий (или сборщик мусора хранилища).
+	 */
+	public Path createIncoming(String requestId) {
+		try {
+			Path dir = baseDir.resolve(Paths.get(InstantUtils.getCurrentStrictDateString(),
+					InstantUtils.getCurrentHourString()));
+			Files.createDirectories(dir);
+			Path p = Files.createTempFile(dir, "upload_", INCOMING_SUFFIX);
+			this.debug("incoming file created", requestId, detailsOf("path", baseDir.relativize(p).toString()),
+					false);
+			return p;
+		} catch (IOException e) {
+			this.error("failed to create incoming file", requestId, detailsOf("err", e.getMessage()), true);
+			throw new RuntimeException("Failed to create incoming file", e);
+		}
 	}
 
 	/**
@@ -74,15 +232,17 @@ public class FileStorage extends BaseClass {
 	public boolean exists(String relativePath) {
 		if (relativePath == null)
 			return false;
-		Path p = resolve(relativePath);
-		return Files.exists(p);
+		try {
+			return backend.exists(relativePath);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to check file: " + relativePath, e);
+		}
 	}
 
 	/** Прочитать файл по относительному пути. */
 	public byte[] read(String requestId, String relativePath) {
 		try {
-			Path p = resolve(relativePath);
-			byte[] bytes = Files.readAllBytes(p);
+			byte[] bytes = backend.read(relativePath);
 			this.debug("read file", requestId, detailsOf("relative", relativePath), false);
 			return bytes;
 		} catch (Exception e) {
@@ -92,17 +252,69 @@ public class FileStorage extends BaseClass {
 		}
 	}
 
+	/**
+	 * Открыть участок файла для потокового чтения по относительному пути.
+	 * Участок читается без буфера на весь файл (локально — позиционно из канала,
+	 * в S3 — ranged GET); поток закрывает вызывающий.
+	 *
+	 * @param offset смещение первого байта
+	 * @param length сколько байт отдать (поток кончится раньше, если файл короче)
+	 */
+	public InputStream open(String requestId, String relativePath, long offset, long length) {
+		try {
+			InputStream in = backend.open(relativePath, offset, length);
+			this.debug("opened file", requestId,
+					detailsOf("relative", relativePath, "offset", offset, "length", length), false);
+			return in;
+		} catch (Exception e) {
+			this.error("failed to open file", requestId, detailsOf("relative", relativePath, "err", e.getMessage()),
+					true);
+			throw new RuntimeException("Failed to open file: " + relativePath, e);
+		}
+	}
+
+	/**
+	 * Размер файла в байтах, -1 если файл недоступен.
+	 */
+	public long size(String relativePath) {
+		try {
+			return backend.size(relativePath);
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+
+	/** Локальный каталог: приём загрузок, а для local-бэкенда — и само хранилище. */
 	public Path getBaseDir() {
 		return baseDir;
 	}
 
+	/** Лежит ли содержимое в baseDir (local-бэкенд). */
+	public boolean isLocal() {
+		return backend instanceof LocalStorageBackend;
+	}
+
 	/**
-	 * Удалить файл из локального хранилища по относительному пути. Возвращает true, если файл существовал и был удалён.
+	 * Скопировать содержимое под новый путь (для переноса между раскладками).
+	 * Локально — жёсткой ссылкой, где ФС это позволяет; в S3 — копированием на стороне сервера.
+	 */
+	public void copy(String requestId, String fromRelativePath, String toRelativePath) {
+		try {
+			backend.copy(fromRelativePath, toRelativePath);
+			this.debug("file copied", requestId, detailsOf("from", fromRelativePath, "to", toRelativePath), false);
+		} catch (Exception e) {
+			this.error("failed to copy file", requestId,
+					detailsOf("from", fromRelativePath, "to", toRelativePath, "err", e.getMessage()), true);
+			throw new RuntimeException("Failed to copy file: " + fromRelativePath, e);
+		}
+	}
+
+	/**
+	 * Удалить файл из хранилища по относительному пути. Возвращает true, если файл существовал и был удалён.
 	 */
 	public boolean delete(String requestId, String relativePath) {
 		try {
-			Path p = resolve(relativePath);
-			boolean ok = Files.deleteIfExists(p);
+			boolean ok = backend.delete(relativePath);
 			if (ok) {
 				this.info("file deleted", requestId, detailsOf("relative", relativePath), true);
 			} else {
@@ -117,10 +329,20 @@ public class FileStorage extends BaseClass {
 	}
 
 	/**
-	 * Привести относительный путь к абсолютному внутри baseDir, с нормализацией.
+	 * Отдать содержимое загрузки бэкенду под ключ: из памяти оно пишется сразу под
+	 * итоговым ключом, временный файл на диске переносится (исходный файл забирается).
 	 */
-	private Path resolve(String relative) {
-		Path p = baseDir.resolve(relative).normalize();
-		return p;
+	private void put(String requestId, String relativePath, UploadedFile f) {
+		try {
+			if (f.isInMemory()) {
+				backend.write(relativePath, f.content(), 0, (int) f.getSize());
+			} else {
+				backend.save(relativePath, f.getTempPath());
+			}
+		} catch (Exception e) {
+			this.error("failed to store file", requestId,
+					detailsOf("relative", relativePath, "backend", backend.name(), "err", e.getMessage()), true);
+			throw new RuntimeException("Failed to store file: " + relativePath, e);
+		}
 	}
 }
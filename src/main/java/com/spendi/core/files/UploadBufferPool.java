@@ -0,0 +1,105 @@
+/**
+ * @file UploadBufferPool.java
+ * @module core/files
+ *
+ * @description
+ * Пул буферов для приёма небольших частей multipart в память
+ * (SPENDI_FILES_MEMORY_UPLOAD_KB). Такая часть проходит проверки прямо из
+ * буфера и пишется в хранилище один раз — без временного файла.
+ *
+ * Объём одновременно выданных буферов ограничен (SPENDI_FILES_MEMORY_UPLOAD_POOL_MB):
+ * когда лимит выбран, {@link #tryAcquire()} возвращает null и часть
+ * принимается на диск, как крупная. Возвращённые буферы переиспользуются.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.files;
+
+/**
+ * ! java imports
+ */
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.FileStorageConfig;
+import com.spendi.core.metrics.MetricsRegistry;
+
+public final class UploadBufferPool {
+
+	private static volatile UploadBufferPool INSTANCE;
+
+	private final int bufferSize;
+	private final int maxBuffers;
+	private final Semaphore permits;
+	private final Queue<byte[]> free = new ConcurrentLinkedQueue<>();
+
+	private final AtomicLong inMemory = new AtomicLong();
+	private final AtomicLong spilled = new AtomicLong();
+
+	UploadBufferPool(int bufferSize, long poolBytes) {
+		this.bufferSize = bufferSize;
+		this.maxBuffers = bufferSize <= 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, poolBytes / bufferSize);
+		this.permits = new Semaphore(this.maxBuffers);
+	}
+
+	public static UploadBufferPool getInstance() {
+		if (INSTANCE == null) {
+			synchronized (UploadBufferPool.class) {
+				if (INSTANCE == null) {
+					FileStorageConfig cfg = FileStorageConfig.getConfig();
+					UploadBufferPool pool = new UploadBufferPool(cfg.getMemoryUploadMaxBytes(),
+							cfg.getMemoryUploadPoolBytes());
+
+					MetricsRegistry m = MetricsRegistry.getInstance();
+					m.gauge("files.upload.buffersInUse", pool::inUse);
+					m.gauge("files.upload.inMemory", pool.inMemory::get);
+					m.gauge("files.upload.spilled", pool.spilled::get);
+					INSTANCE = pool;
+				}
+			}
+		}
+		return INSTANCE;
+	}
+
+	/** Предел размера части, принимаемой в память, байт (0 — приём в память выключен). */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Взять буфер размером {@link #getBufferSize()}.
+	 *
+	 * @return буфер или null, если приём в память выключен или лимит пула выбран
+	 */
+	public byte[] tryAcquire() {
+		if (maxBuffers == 0 || !permits.tryAcquire()) {
+			return null;
+		}
+		byte[] b = free.poll();
+		return b != null ? b : new byte[bufferSize];
+	}
+
+	/** Вернуть буфер в пул. Содержимое после этого может быть перезаписано. */
+	public void release(byte[] buffer) {
+		if (buffer == null || buffer.length != bufferSize) {
+			return;
+		}
+		free.offer(buffer);
+		permits.release();
+	}
+
+	/** Учёт для метрик: часть осталась в памяти (true) или ушла на диск. */
+	public void record(boolean keptInMemory) {
+		(keptInMemory ? inMemory : spilled).incrementAndGet();
+	}
+
+	public int inUse() {
+		return maxBuffers - permits.availablePermits();
+	}
+}
@@ -0,0 +1,163 @@
+/**
+ * @file UploadWorkers.java
+ * @module core/files
+ *
+ * @description
+ * Общий ограниченный пул для обработки частей multipart-загрузки (проверка
+ * содержимого, перенос в хранилище). Размер — SPENDI_FILES_UPLOAD_WORKERS.
+ *
+ * {@link #map} обрабатывает части параллельно, но результат детерминирован:
+ * значения возвращаются в порядке частей, а при ошибках выбрасывается ошибка
+ * части с наименьшим индексом — так же, как при последовательном цикле.
+ * Метод всегда дожидается всех частей, чтобы успешные можно было откатить.
+ *
+ * Очередь ограничена; при переполнении часть выполняется в потоке запроса
+ * (CallerRunsPolicy) — загрузка замедляется, но не отклоняется.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.files;
+
+/**
+ * ! java imports
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.FileStorageConfig;
+
+public final class UploadWorkers {
+
+	/** Сколько частей может ждать свободного потока */
+	private static final int QUEUE_CAPACITY = 64;
+
+	private static volatile UploadWorkers INSTANCE;
+
+	private final ThreadPoolExecutor executor;
+
+	UploadWorkers(int workers) {
+		AtomicInteger seq = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+					Thread t = new Thread(r, "file-upload-" + seq.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	public static UploadWorkers getInstance() {
+		if (INSTANCE == null) {
+			synchronized (UploadWorkers.class) {
+				if (INSTANCE == null) {
+					INSTANCE = new UploadWorkers(FileStorageConfig.getConfig().getUploadWorkers());
+				}
+			}
+		}
+		return INSTANCE;
+	}
+
+	/** Обработка одной части; index — позиция части в запросе. */
+	@FunctionalInterface
+	public interface Task<T, R> {
+		R apply(int index, T item);
+	}
+
+	/**
+	 * Обработать части параллельно (без отката успешных при ошибке).
+	 *
+	 * @see #map(List, Task, Consumer)
+	 */
+	public <T, R> List<R> map(List<T> items, Task<T, R> task) {
+		return this.map(items, task, null);
+	}
+
+	/**
+	 * Обработать части параллельно и вернуть результаты в порядке частей.
+	 * Первая часть выполняется в потоке запроса, остальные — в пуле.
+	 *
+	 * @param rollback вызывается для каждого успешного результата, если какая-то часть упала
+	 *                 (ошибки отката игнорируются); null — без отката
+	 * @throws RuntimeException ошибка части с наименьшим индексом
+	 */
+	public <T, R> List<R> map(List<T> items, Task<T, R> task, Consumer<R> rollback) {
+		int n = items.size();
+		if (n == 1) {
+			return List.of(task.apply(0, items.get(0)));
+		}
+
+		List<Future<R>> futures = new ArrayList<>(n);
+		for (int i = 1; i < n; i++) {
+			int index = i;
+			futures.add(this.executor.submit(() -> task.apply(index, items.get(index))));
+		}
+
+		List<R> results = new ArrayList<>(n);
+		Throwable first = null;
+		try {
+			results.add(task.apply(0, items.get(0)));
+		} catch (RuntimeException | Error e) {
+			first = e;
+		}
+		for (Future<R> f : futures) {
+			try {
+				results.add(await(f));
+			} catch (ExecutionException e) {
+				if (first == null) {
+					first = e.getCause();
+				}
+			}
+		}
+
+		if (first == null) {
+			return results;
+		}
+		if (rollback != null) {
+			for (R r : results) {
+				try {
+					rollback.accept(r);
+				} catch (RuntimeException ignore) {
+				}
+			}
+		}
+		if (first instanceof RuntimeException re) {
+			throw re;
+		}
+		if (first instanceof Error err) {
+			throw err;
+		}
+		throw new IllegalStateException(first);
+	}
+
+	/**
+	 * Дождаться части, не бросая её на прерывание: часть уже пишет в хранилище,
+	 * её результат нужен для отката. Флаг прерывания восстанавливается.
+	 */
+	private static <R> R await(Future<R> f) throws ExecutionException {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return f.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
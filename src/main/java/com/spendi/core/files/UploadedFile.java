@@ -1,5 +1,4 @@
-
-/** 
+/**
  * @file UploadedFile.java
  * @module core/files
  *
@@ -11,23 +10,58 @@ package com.spendi.core.files;
 /**
  * ! java imports
  */
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Objects;
 
 /**
- * Универсальный объект загруженного файла, лежащего во временном файле.
+ * Универсальный объект загруженного файла: во временном файле или, для
+ * небольших частей, в буфере памяти (см. {@link UploadBufferPool}).
+ * Читать содержимое единообразно — через {@link #openStream()} / {@link #openChannel()}.
  */
 public final class UploadedFile {
 	private final String originalName;
 	private final String contentType;
 	private final long size;
-	private final Path tempPath;
+	private final Path tempPath; // null для содержимого в памяти
+	private final byte[] content; // первые size байт; null для файла на диске
+	private final String sha256; // hex, если считался при приёме
 
 	public UploadedFile(String originalName, String contentType, long size, Path tempPath) {
+		this(originalName, contentType, size, tempPath, null);
+	}
+
+	public UploadedFile(String originalName, String contentType, long size, Path tempPath, String sha256) {
+		this(originalName, contentType, size, Objects.requireNonNull(tempPath, "tempPath must not be null"), null,
+				sha256);
+	}
+
+	/**
+	 * Файл в памяти: первые {@code length} байт {@code content}. Массив не копируется —
+	 * он должен жить до конца обработки запроса.
+	 */
+	public UploadedFile(String originalName, String contentType, byte[] content, int length, String sha256) {
+		this(originalName, contentType, length, null, Objects.requireNonNull(content, "content must not be null"),
+				sha256);
+	}
+
+	private UploadedFile(String originalName, String contentType, long size, Path tempPath, byte[] content,
+			String sha256) {
 		this.originalName = (originalName == null) ? "" : originalName;
 		this.contentType = (contentType == null) ? "application/octet-stream" : contentType;
 		this.size = Math.max(0, size);
-		this.tempPath = Objects.requireNonNull(tempPath, "tempPath must not be null");
+		this.tempPath = tempPath;
+		this.content = content;
+		this.sha256 = sha256;
 	}
 
 	public String getOriginalName() {
@@ -42,13 +76,116 @@ public final class UploadedFile {
 		return size;
 	}
 
+	/**
+	 * Временный файл или null, если содержимое в памяти ({@link #isInMemory()}).
+	 */
 	public Path getTempPath() {
 		return tempPath;
 	}
 
+	public boolean isInMemory() {
+		return content != null;
+	}
+
+	/** Массив с содержимым (значимы первые {@link #getSize()} байт) — для записи в хранилище. */
+	byte[] content() {
+		return content;
+	}
+
+	/**
+	 * SHA-256 содержимого (hex) или null, если при приёме не считался.
+	 */
+	public String getSha256() {
+		return sha256;
+	}
+
+	/** Поток содержимого с начала; закрывает вызывающий. */
+	public InputStream openStream() throws IOException {
+		return content != null ? new ByteArrayInputStream(content, 0, (int) size) : Files.newInputStream(tempPath);
+	}
+
+	/** Канал с произвольным доступом (только чтение); закрывает вызывающий. */
+	public SeekableByteChannel openChannel() throws IOException {
+		return content != null ? new MemoryChannel(content, (int) size)
+				: FileChannel.open(tempPath, StandardOpenOption.READ);
+	}
+
 	@Override
 	public String toString() {
-		return "UploadedFile{originalName='%s', contentType='%s', size=%d, tempPath=%s}"
-				.formatted(originalName, contentType, size, tempPath);
+		return "UploadedFile{originalName='%s', contentType='%s', size=%d, tempPath=%s, inMemory=%s, sha256=%s}"
+				.formatted(originalName, contentType, size, tempPath, content != null, sha256);
+	}
+
+	/** Канал только для чтения поверх массива. */
+	private static final class MemoryChannel implements SeekableByteChannel {
+		private final byte[] data;
+		private final int length;
+		private int position;
+		private boolean open = true;
+
+		MemoryChannel(byte[] data, int length) {
+			this.data = data;
+			this.length = length;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			ensureOpen();
+			if (position >= length) {
+				return -1;
+			}
+			int n = Math.min(dst.remaining(), length - position);
+			dst.put(data, position, n);
+			position += n;
+			return n;
+		}
+
+		@Override
+		public int write(ByteBuffer src) {
+			throw new NonWritableChannelException();
+		}
+
+		@Override
+		public long position() throws IOException {
+			ensureOpen();
+			return position;
+		}
+
+		@Override
+		public SeekableByteChannel position(long newPosition) throws IOException {
+			ensureOpen();
+			if (newPosition < 0) {
+				throw new IllegalArgumentException("Negative position");
+			}
+			this.position = (int) Math.min(newPosition, length);
+			return this;
+		}
+
+		@Override
+		public long size() throws IOException {
+			ensureOpen();
+			return length;
+		}
+
+		@Override
+		public SeekableByteChannel truncate(long size) {
+			throw new NonWritableChannelException();
+		}
+
+		@Override
+		public boolean isOpen() {
+			return open;
+		}
+
+		@Override
+		public void close() {
+			open = false;
+		}
+
+		private void ensureOpen() throws ClosedChannelException {
+			if (!open) {
+				throw new ClosedChannelException();
+			}
+		}
 	}
-}
\ No newline at end of file
+}
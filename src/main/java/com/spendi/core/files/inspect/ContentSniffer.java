@@ -0,0 +1,161 @@
+/**
+ * @file ContentSniffer.java
+ * @module core/files/inspect
+ *
+ * @description
+ * Определение типа файла по сигнатуре (magic bytes) первых байт содержимого.
+ *
+ * Читается только начало файла ({@link #HEAD_BYTES}), заявленный клиентом
+ * Content-Type не учитывается. Неизвестная сигнатура — null: проверять
+ * такой файл по содержимому нечем.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.files.inspect;
+
+/**
+ * ! java imports
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+public final class ContentSniffer {
+
+	/** Сколько байт от начала файла нужно для определения типа */
+	public static final int HEAD_BYTES = 1024;
+
+	private static final byte[] PNG = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+	private static final byte[] PDF = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+	private ContentSniffer() {
+	}
+
+	/**
+	 * Определить MIME-тип файла по сигнатуре.
+	 *
+	 * @return MIME или null, если сигнатура неизвестна
+	 */
+	public static String sniff(Path file) throws IOException {
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			return sniff(ch);
+		}
+	}
+
+	/**
+	 * То же по открытому каналу (с текущей позиции); канал не закрывается.
+	 */
+	public static String sniff(ReadableByteChannel ch) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(HEAD_BYTES);
+		while (buf.hasRemaining() && ch.read(buf) > 0) {
+			// дочитываем до HEAD_BYTES или конца содержимого
+		}
+		return sniff(buf.array(), buf.position());
+	}
+
+	/**
+	 * Определить MIME-тип по первым {@code len} байтам содержимого.
+	 */
+	public static String sniff(byte[] head, int len) {
+		if (startsWith(head, len, PNG))
+			return "image/png";
+		if (len >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF)
+			return "image/jpeg";
+		if (startsWith(head, len, "GIF87a") || startsWith(head, len, "GIF89a"))
+			return "image/gif";
+		if (len >= 12 && startsWith(head, len, "RIFF") && ascii(head, 8, 4).equals("WEBP"))
+			return "image/webp";
+		// PDF допускает мусор перед заголовком в пределах первых 1024 байт
+		if (indexOf(head, Math.min(len, HEAD_BYTES), PDF) >= 0)
+			return "application/pdf";
+
+		// не принимаемые, но узнаваемые форматы — чтобы переименованный файл не прошёл как «неизвестный»
+		if (startsWith(head, len, "PK\u0003\u0004"))
+			return "application/zip";
+		if (len >= 2 && (head[0] & 0xFF) == 0x1F && (head[1] & 0xFF) == 0x8B)
+			return "application/gzip";
+		if (startsWith(head, len, "\u007FELF"))
+			return "application/x-executable";
+		if (startsWith(head, len, "MZ"))
+			return "application/x-msdownload";
+		if (looksLikeHtml(head, len))
+			return "text/html";
+		return null;
+	}
+
+	/**
+	 * Привести синонимы MIME к одному виду (image/jpg → image/jpeg и т.п.), без параметров.
+	 */
+	public static String canonical(String mime) {
+		if (mime == null)
+			return null;
+		int semi = mime.indexOf(';');
+		String m = (semi >= 0 ? mime.substring(0, semi) : mime).trim().toLowerCase(Locale.ROOT);
+		return switch (m) {
+			case "image/jpg", "image/pjpeg" -> "image/jpeg";
+			case "application/x-pdf" -> "application/pdf";
+			case "image/x-png" -> "image/png";
+			default -> m;
+		};
+	}
+
+	/** Тип, который этот класс умеет распознавать (значит, заявление о нём можно проверить). */
+	public static boolean isSniffable(String mime) {
+		return switch (canonical(mime)) {
+			case "image/png", "image/jpeg", "image/gif", "image/webp", "application/pdf" -> true;
+			case null, default -> false;
+		};
+	}
+
+	// ? =================
+	// ? ==== HELPERS ====
+	// ? =================
+
+	private static boolean looksLikeHtml(byte[] head, int len) {
+		int i = 0;
+		// BOM и пробелы
+		if (len >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF)
+			i = 3;
+		while (i < len && (head[i] == ' ' || head[i] == '\t' || head[i] == '\r' || head[i] == '\n'))
+			i++;
+		String start = ascii(head, i, Math.min(len - i, 14)).toLowerCase(Locale.ROOT);
+		return start.startsWith("<!doctype html") || start.startsWith("<html") || start.startsWith("<script");
+	}
+
+	private static boolean startsWith(byte[] head, int len, String sig) {
+		return startsWith(head, len, sig.getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	private static boolean startsWith(byte[] head, int len, byte[] sig) {
+		if (len < sig.length)
+			return false;
+		for (int i = 0; i < sig.length; i++) {
+			if (head[i] != sig[i])
+				return false;
+		}
+		return true;
+	}
+
+	private static int indexOf(byte[] head, int len, byte[] sig) {
+		outer: for (int i = 0; i + sig.length <= len; i++) {
+			for (int j = 0; j < sig.length; j++) {
+				if (head[i + j] != sig[j])
+					continue outer;
+			}
+			return i;
+		}
+		return -1;
+	}
+
+	private static String ascii(byte[] b, int off, int len) {
+		if (len <= 0)
+			return "";
+		return new String(b, off, len, StandardCharsets.ISO_8859_1);
+	}
+}
@@ -0,0 +1,181 @@
+/**
+ * @file ImageHeaderReader.java
+ * @module core/files/inspect
+ *
+ * @description
+ * Размеры изображения из заголовка файла — без декодирования пикселей.
+ *
+ * Поддерживаются PNG (IHDR), GIF (logical screen), WebP (VP8 / VP8L / VP8X)
+ * и JPEG (маркер SOFn; сегменты до него пропускаются по длине, с диска
+ * читаются только заголовки сегментов). Раз изображение не декодируется,
+ * «бомба» 50000×50000 в пару килобайт отсекается до выделения памяти.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.files.inspect;
+
+/**
+ * ! java imports
+ */
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class ImageHeaderReader {
+
+	/** Предел числа сегментов JPEG до SOF — защита от зацикленных/мусорных файлов */
+	private static final int MAX_JPEG_SEGMENTS = 1024;
+
+	private ImageHeaderReader() {
+	}
+
+	/**
+	 * Размеры изображения.
+	 *
+	 * @param width  ширина в пикселях
+	 * @param height высота в пикселях
+	 */
+	public record ImageInfo(int width, int height) {
+		public double megapixels() {
+			return (double) width * height / 1_000_000d;
+		}
+	}
+
+	/**
+	 * Прочитать размеры изображения указанного типа.
+	 *
+	 * @param mime тип по сигнатуре (см. {@link ContentSniffer})
+	 * @return размеры или null, если тип не поддерживается
+	 * @throws IOException заголовок повреждён или файл обрывается
+	 */
+	public static ImageInfo read(Path file, String mime) throws IOException {
+		if (mime == null)
+			return null;
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			return read(ch, mime);
+		}
+	}
+
+	/**
+	 * То же по открытому каналу (файл или содержимое в памяти); канал не закрывается.
+	 */
+	public static ImageInfo read(SeekableByteChannel ch, String mime) throws IOException {
+		if (mime == null)
+			return null;
+		return switch (mime) {
+			case "image/png" -> png(ch);
+			case "image/gif" -> gif(ch);
+			case "image/webp" -> webp(ch);
+			case "image/jpeg" -> jpeg(ch);
+			default -> null;
+		};
+	}
+
+	private static ImageInfo png(SeekableByteChannel ch) throws IOException {
+		// сигнатура(8) + длина(4) + "IHDR"(4) + width(4) + height(4)
+		ByteBuffer b = readAt(ch, 8, 16);
+		if (b.getInt(4) != 0x49484452)
+			throw new IOException("PNG: IHDR chunk expected");
+		return checked(b.getInt(8), b.getInt(12));
+	}
+
+	private static ImageInfo gif(SeekableByteChannel ch) throws IOException {
+		ByteBuffer b = readAt(ch, 6, 4);
+		return checked(u16le(b, 0), u16le(b, 2));
+	}
+
+	private static ImageInfo webp(SeekableByteChannel ch) throws IOException {
+		ByteBuffer b = readAt(ch, 12, 18);
+		int fourcc = b.getInt(0);
+		switch (fourcc) {
+			case 0x56503820: { // "VP8 " (lossy): кадр-ключ, стартовый код 9d 01 2a
+				if ((b.get(11) & 0xFF) != 0x9D || (b.get(12) & 0xFF) != 0x01 || (b.get(13) & 0xFF) != 0x2A)
+					throw new IOException("WebP: VP8 start code expected");
+				return checked(u16le(b, 14) & 0x3FFF, u16le(b, 16) & 0x3FFF);
+			}
+			case 0x5650384C: { // "VP8L" (lossless): сигнатура 0x2f, затем 14 бит ширины-1 и 14 бит высоты-1
+				if ((b.get(8) & 0xFF) != 0x2F)
+					throw new IOException("WebP: VP8L signature expected");
+				int bits = (b.get(9) & 0xFF) | (b.get(10) & 0xFF) << 8 | (b.get(11) & 0xFF) << 16
+						| (b.get(12) & 0xFF) << 24;
+				return checked((bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+			}
+			case 0x56503858: { // "VP8X" (extended): 24 бита ширины-1 и высоты-1
+				return checked(u24le(b, 12) + 1, u24le(b, 15) + 1);
+			}
+			default:
+				throw new IOException("WebP: unknown chunk");
+		}
+	}
+
+	private static ImageInfo jpeg(SeekableByteChannel ch) throws IOException {
+		long pos = 2; // после SOI
+		for (int i = 0; i < MAX_JPEG_SEGMENTS; i++) {
+			ByteBuffer m = readAt(ch, pos, 2);
+			if ((m.get(0) & 0xFF) != 0xFF)
+				throw new IOException("JPEG: marker expected at " + pos);
+			int marker = m.get(1) & 0xFF;
+			if (marker == 0xFF) { // байт-заполнитель
+				pos++;
+				continue;
+			}
+			pos += 2;
+			// маркеры без длины
+			if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7))
+				continue;
+			if (marker == 0xD9 || marker == 0xDA)
+				throw new IOException("JPEG: no frame header before image data");
+
+			int length = u16be(readAt(ch, pos, 2), 0);
+			if (length < 2)
+				throw new IOException("JPEG: bad segment length");
+
+			// SOF0..SOF15, кроме DHT (C4), JPG (C8) и DAC (CC)
+			if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+				ByteBuffer sof = readAt(ch, pos + 2, 5); // precision(1) height(2) width(2)
+				return checked(u16be(sof, 3), u16be(sof, 1));
+			}
+			pos += length;
+		}
+		throw new IOException("JPEG: frame header not found");
+	}
+
+	// ? =================
+	// ? ==== HELPERS ====
+	// ? =================
+
+	private static ImageInfo checked(int width, int height) throws IOException {
+		if (width <= 0 || height <= 0)
+			throw new IOException("Invalid image dimensions: " + width + "x" + height);
+		return new ImageInfo(width, height);
+	}
+
+	/** Ровно {@code len} байт по смещению, иначе EOFException. */
+	static ByteBuffer readAt(SeekableByteChannel ch, long pos, int len) throws IOException {
+		ByteBuffer b = ByteBuffer.allocate(len);
+		ch.position(pos);
+		while (b.hasRemaining()) {
+			int n = ch.read(b);
+			if (n < 0)
+				throw new EOFException("Unexpected end of file");
+		}
+		return b.flip();
+	}
+
+	private static int u16le(ByteBuffer b, int i) {
+		return (b.get(i) & 0xFF) | (b.get(i + 1) & 0xFF) << 8;
+	}
+
+	private static int u24le(ByteBuffer b, int i) {
+		return (b.get(i) & 0xFF) | (b.get(i + 1) & 0xFF) << 8 | (b.get(i + 2) & 0xFF) << 16;
+	}
+
+	private static int u16be(ByteBuffer b, int i) {
+		return (b.get(i) & 0xFF) << 8 | (b.get(i + 1) & 0xFF);
+	}
+}
@@ -0,0 +1,691 @@
+/**
+ * @file PdfInspector.java
+ * @module core/files/inspect
+ *
+ * @description
+ * Число страниц и признак шифрования PDF без разбора всего документа.
+ *
+ * Путь чтения:
+ * - хвост файла → startxref;
+ * - таблица перекрёстных ссылок (классическая или xref-поток PDF 1.5+,
+ *   включая цепочку /Prev инкрементальных обновлений) → trailer;
+ * - /Encrypt в trailer — признак шифрования;
+ * - /Root → каталог → /Pages → /Count.
+ *
+ * С диска читаются только хвост, xref и три-четыре объекта; если нужный
+ * объект лежит в объектном потоке, распаковывается только этот поток.
+ * Размер распакованных данных ограничен — сжатая «бомба» не пройдёт.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.files.inspect;
+
+/**
+ * ! java imports
+ */
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+public final class PdfInspector {
+
+	/** Сколько байт с конца файла ищем startxref */
+	private static final int TAIL_BYTES = 2048;
+	/** Предел длины одного словаря */
+	private static final int MAX_DICT_CHARS = 64 * 1024;
+	/** Предел цепочки /Prev */
+	private static final int MAX_SECTIONS = 64;
+	/** Предел сжатого и распакованного потока (xref / объектный поток) */
+	private static final int MAX_STREAM_BYTES = 16 * 1024 * 1024;
+	/** Предел числа разрешённых косвенных ссылок за одну инспекцию (защита от циклов) */
+	private static final int MAX_RESOLVES = 32;
+
+	private static final Pattern STARTXREF = Pattern.compile("startxref\\s+(\\d+)");
+	private static final Pattern FILTER = Pattern.compile("/Filter\\s*(\\[[^\\]]*\\]|/[A-Za-z0-9]+)");
+	private static final Pattern NAME = Pattern.compile("/([A-Za-z0-9]+)");
+
+	private PdfInspector() {
+	}
+
+	/**
+	 * Результат инспекции.
+	 *
+	 * @param pages     число страниц или -1, если его не удалось определить
+	 * @param encrypted документ зашифрован (в trailer есть /Encrypt)
+	 */
+	public record PdfInfo(int pages, boolean encrypted) {
+		public boolean isPagesKnown() {
+			return pages >= 0;
+		}
+	}
+
+	/**
+	 * Проинспектировать PDF.
+	 *
+	 * @throws IOException не найдены startxref / таблица ссылок (файл не похож на PDF)
+	 */
+	public static PdfInfo inspect(Path file) throws IOException {
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			return inspect(ch);
+		}
+	}
+
+	/**
+	 * То же по открытому каналу (файл или содержимое в памяти); канал не закрывается.
+	 */
+	public static PdfInfo inspect(SeekableByteChannel ch) throws IOException {
+		return new Reader(ch).inspect();
+	}
+
+	// ? ====================
+	// ? ==== XREF / OBJ ====
+	// ? ====================
+
+	private static final class Reader {
+		private final ChannelLexer lex;
+		private final List<Section> sections = new ArrayList<>();
+		private final Map<Integer, ObjStm> objStms = new HashMap<>();
+		private int resolves;
+
+		Reader(SeekableByteChannel ch) throws IOException {
+			this.lex = new ChannelLexer(ch);
+		}
+
+		PdfInfo inspect() throws IOException {
+			long off = findStartXref();
+			Set<Long> seen = new HashSet<>();
+			while (off >= 0 && sections.size() < MAX_SECTIONS && seen.add(off)) {
+				Section s = readSection(off);
+				sections.add(s);
+				// гибридный файл: таблица дополняется xref-потоком
+				long stm = longOf(s.trailer, "XRefStm");
+				if (stm >= 0 && seen.add(stm))
+					sections.add(readSection(stm));
+				off = longOf(s.trailer, "Prev");
+			}
+
+			boolean encrypted = false;
+			for (Section s : sections) {
+				if (s.trailer.contains("/Encrypt"))
+					encrypted = true;
+			}
+
+			int pages;
+			try {
+				pages = countPages();
+			} catch (IOException | RuntimeException e) {
+				pages = -1;
+			}
+			return new PdfInfo(pages, encrypted);
+		}
+
+		private long findStartXref() throws IOException {
+			long size = lex.size();
+			int len = (int) Math.min(size, TAIL_BYTES);
+			String tail = new String(lex.slice(size - len, len), StandardCharsets.ISO_8859_1);
+			Matcher m = STARTXREF.matcher(tail);
+			long off = -1;
+			while (m.find())
+				off = Long.parseLong(m.group(1));
+			if (off < 0 || off >= size)
+				throw new IOException("PDF: startxref not found");
+			return off;
+		}
+
+		private Section readSection(long off) throws IOException {
+			lex.pos = off;
+			lex.skipWs();
+			long at = lex.pos;
+			if ("xref".equals(lex.token()))
+				return readTable();
+
+			lex.pos = at;
+			lex.readLong();
+			lex.readLong();
+			lex.expect("obj");
+			String dict = lex.dict();
+			if (!dict.contains("/XRef"))
+				throw new IOException("PDF: cross-reference expected at " + off);
+
+			Section s = new Section(dict);
+			s.rows = streamData(lex, dict, false);
+			s.widths = intsOf(dict, "W");
+			if (s.widths.length != 3)
+				throw new IOException("PDF: bad /W");
+			long[] index = intsOf(dict, "Index");
+			s.index = index.length > 0 ? index : new long[] { 0, longOf(dict, "Size") };
+			return s;
+		}
+
+		private Section readTable() throws IOException {
+			List<long[]> subs = new ArrayList<>();
+			while (true) {
+				String t = lex.token();
+				if (t == null)
+					throw new EOFException("PDF: trailer not found");
+				if ("trailer".equals(t))
+					break;
+				long first = parseLong(t);
+				long count = lex.readLong();
+				while (lex.peek() == ' ')
+					lex.pos++;
+				if (lex.peek() == '\r')
+					lex.pos++;
+				if (lex.peek() == '\n')
+					lex.pos++;
+				subs.add(new long[] { first, count, lex.pos });
+				lex.pos += count * 20; // запись таблицы — ровно 20 байт
+			}
+			Section s = new Section(lex.dict());
+			s.subsections = subs;
+			return s;
+		}
+
+		private int countPages() throws IOException {
+			String trailer = null;
+			for (Section s : sections) {
+				if (s.trailer.contains("/Root")) {
+					trailer = s.trailer;
+					break;
+				}
+			}
+			if (trailer == null)
+				throw new IOException("PDF: /Root not found");
+
+			String catalog = object(refOf(trailer, "Root")).dict();
+			String pages = object(refOf(catalog, "Pages")).dict();
+			long count = resolveLong(pages, "Count");
+			if (count < 0 || count > Integer.MAX_VALUE)
+				throw new IOException("PDF: bad /Count");
+			return (int) count;
+		}
+
+		/** Значение ключа: прямое число или косвенная ссылка на число. */
+		private long resolveLong(String dict, String key) throws IOException {
+			int ref = refOf(dict, key);
+			if (ref >= 0)
+				return object(ref).readLong();
+			long v = longOf(dict, key);
+			if (v < 0)
+				throw new IOException("PDF: /" + key + " not found");
+			return v;
+		}
+
+		/**
+		 * Лексер, стоящий на начале тела объекта {@code num}.
+		 */
+		private Lexer object(int num) throws IOException {
+			if (num < 0)
+				throw new IOException("PDF: reference expected");
+			if (++resolves > MAX_RESOLVES)
+				throw new IOException("PDF: too many indirections");
+
+			for (Section s : sections) {
+				long[] e = s.lookup(num, lex);
+				if (e == null)
+					continue;
+				if (e[0] == 1) {
+					lex.pos = e[1];
+					if (lex.readLong() != num)
+						throw new IOException("PDF: object " + num + " is not at its xref offset");
+					lex.readLong();
+					lex.expect("obj");
+					return lex;
+				}
+				if (e[0] == 2)
+					return objStm((int) e[1]).body(num);
+				throw new IOException("PDF: object " + num + " is free");
+			}
+			throw new IOException("PDF: object " + num + " not found");
+		}
+
+		private ObjStm objStm(int num) throws IOException {
+			ObjStm cached = objStms.get(num);
+			if (cached != null)
+				return cached;
+			Lexer l = object(num);
+			String dict = l.dict();
+			byte[] data = streamData(l, dict, true);
+			ObjStm s = new ObjStm(data, (int) longOf(dict, "First"), (int) longOf(dict, "N"));
+			objStms.put(num, s);
+			return s;
+		}
+
+		/**
+		 * Данные потока, следующего за словарём (лексер стоит сразу после «>>»).
+		 */
+		private byte[] streamData(Lexer l, String dict, boolean indirectLength) throws IOException {
+			l.expect("stream");
+			if (l.peek() == '\r')
+				l.pos++;
+			if (l.peek() == '\n')
+				l.pos++;
+			long dataPos = l.pos;
+
+			long length = indirectLength ? resolveLong(dict, "Length") : longOf(dict, "Length");
+			if (length < 0 || length > MAX_STREAM_BYTES)
+				throw new IOException("PDF: bad stream /Length");
+			byte[] raw = l.slice(dataPos, (int) length);
+
+			Matcher f = FILTER.matcher(dict);
+			if (!f.find())
+				return raw;
+			List<String> filters = new ArrayList<>();
+			Matcher n = NAME.matcher(f.group(1));
+			while (n.find())
+				filters.add(n.group(1));
+			if (filters.isEmpty())
+				return raw;
+			if (filters.size() != 1 || !"FlateDecode".equals(filters.get(0)))
+				throw new IOException("PDF: unsupported filter " + filters);
+
+			byte[] out = inflate(raw);
+			long predictor = longOf(dict, "Predictor");
+			if (predictor >= 10) {
+				long columns = longOf(dict, "Columns");
+				out = unpredictPng(out, (int) (columns > 0 ? columns : 1));
+			} else if (predictor > 1) {
+				throw new IOException("PDF: unsupported predictor " + predictor);
+			}
+			return out;
+		}
+	}
+
+	/**
+	 * Секция перекрёстных ссылок: классическая таблица или xref-поток.
+	 */
+	private static final class Section {
+		final String trailer;
+		List<long[]> subsections; // {первый номер, количество, смещение записей}
+		byte[] rows;
+		long[] widths;
+		long[] index;
+
+		Section(String trailer) {
+			this.trailer = trailer;
+		}
+
+		/**
+		 * @return {тип, поле2, поле3} (1 — смещение в файле, 2 — объектный поток и индекс, 0 — свободен)
+		 *         или null, если объекта в секции нет
+		 */
+		long[] lookup(int num, Lexer lex) throws IOException {
+			if (subsections != null) {
+				for (long[] sub : subsections) {
+					if (num < sub[0] || num >= sub[0] + sub[1])
+						continue;
+					String entry = new String(lex.slice(sub[2] + (num - sub[0]) * 20, 18), StandardCharsets.ISO_8859_1);
+					long offset = parseLong(entry.substring(0, 10).trim());
+					return new long[] { entry.charAt(17) == 'n' ? 1 : 0, offset, 0 };
+				}
+				return null;
+			}
+
+			int w0 = (int) widths[0], w1 = (int) widths[1], w2 = (int) widths[2];
+			int rowBytes = w0 + w1 + w2;
+			long row = 0;
+			for (int i = 0; i + 1 < index.length; i += 2) {
+				long first = index[i], count = index[i + 1];
+				if (num >= first && num < first + count) {
+					long at = (row + num - first) * rowBytes;
+					if (rowBytes == 0 || at + rowBytes > rows.length)
+						throw new IOException("PDF: xref stream is truncated");
+					int p = (int) at;
+					long type = w0 == 0 ? 1 : field(rows, p, w0);
+					return new long[] { type, field(rows, p + w0, w1), field(rows, p + w0 + w1, w2) };
+				}
+				row += count;
+			}
+			return null;
+		}
+
+		private static long field(byte[] b, int off, int width) {
+			long v = 0;
+			for (int i = 0; i < width; i++)
+				v = (v << 8) | (b[off + i] & 0xFF);
+			return v;
+		}
+	}
+
+	/**
+	 * Распакованный объектный поток: заголовок «номер смещение» × N, затем тела объектов.
+	 */
+	private static final class ObjStm {
+		private final byte[] data;
+		private final int first;
+		private final Map<Long, Long> offsets = new HashMap<>();
+
+		ObjStm(byte[] data, int first, int n) throws IOException {
+			if (first < 0 || first > data.length || n < 0)
+				throw new IOException("PDF: bad object stream header");
+			this.data = data;
+			this.first = first;
+			ArrayLexer l = new ArrayLexer(data);
+			for (int i = 0; i < n; i++)
+				offsets.put(l.readLong(), l.readLong());
+		}
+
+		Lexer body(int num) throws IOException {
+			Long off = offsets.get((long) num);
+			if (off == null)
+				throw new IOException("PDF: object " + num + " is missing from its stream");
+			ArrayLexer l = new ArrayLexer(data);
+			l.pos = first + off;
+			return l;
+		}
+	}
+
+	// ? ===============
+	// ? ==== LEXER ====
+	// ? ===============
+
+	private abstract static class Lexer {
+		long pos;
+
+		/** Байт по смещению или -1 за концом. */
+		abstract int at(long p) throws IOException;
+
+		abstract byte[] slice(long p, int len) throws IOException;
+
+		int peek() throws IOException {
+			return at(pos);
+		}
+
+		int next() throws IOException {
+			int c = at(pos);
+			if (c >= 0)
+				pos++;
+			return c;
+		}
+
+		void skipWs() throws IOException {
+			while (true) {
+				int c = peek();
+				if (c == '%') {
+					while (c >= 0 && c != '\n' && c != '\r') {
+						pos++;
+						c = peek();
+					}
+				} else if (isWs(c)) {
+					pos++;
+				} else {
+					return;
+				}
+			}
+		}
+
+		/** Простой токен: ключевое слово или число (разделители возвращаются по одному). */
+		String token() throws IOException {
+			skipWs();
+			int c = peek();
+			if (c < 0)
+				return null;
+			StringBuilder sb = new StringBuilder();
+			if (isDelimiter(c)) {
+				sb.append((char) next());
+				return sb.toString();
+			}
+			while (c >= 0 && !isWs(c) && !isDelimiter(c) && sb.length() < 64) {
+				sb.append((char) c);
+				pos++;
+				c = peek();
+			}
+			return sb.toString();
+		}
+
+		long readLong() throws IOException {
+			String t = token();
+			if (t == null)
+				throw new EOFException("PDF: number expected");
+			return parseLong(t);
+		}
+
+		void expect(String keyword) throws IOException {
+			String t = token();
+			if (!keyword.equals(t))
+				throw new IOException("PDF: '" + keyword + "' expected, got '" + t + "'");
+		}
+
+		/** Словарь «<< ... >>» целиком, с учётом вложенности и строк. */
+		String dict() throws IOException {
+			skipWs();
+			if (next() != '<' || next() != '<')
+				throw new IOException("PDF: dictionary expected");
+			StringBuilder sb = new StringBuilder("<<");
+			int depth = 1;
+			while (depth > 0) {
+				if (sb.length() > MAX_DICT_CHARS)
+					throw new IOException("PDF: dictionary too large");
+				int c = need();
+				sb.append((char) c);
+				if (c == '(') {
+					int level = 1;
+					while (level > 0) {
+						c = need();
+						sb.append((char) c);
+						if (c == '\\')
+							sb.append((char) need());
+						else if (c == '(')
+							level++;
+						else if (c == ')')
+							level--;
+					}
+				} else if (c == '<') {
+					if (peek() == '<') {
+						sb.append((char) next());
+						depth++;
+					} else {
+						do {
+							c = need();
+							sb.append((char) c);
+						} while (c != '>');
+					}
+				} else if (c == '>' && peek() == '>') {
+					sb.append((char) next());
+					depth--;
+				}
+			}
+			return sb.toString();
+		}
+
+		private int need() throws IOException {
+			int c = next();
+			if (c < 0)
+				throw new EOFException("PDF: unexpected end of file");
+			return c;
+		}
+	}
+
+	/** Лексер по файлу: позиционные чтения окнами по 8 КиБ. */
+	private static final class ChannelLexer extends Lexer {
+		private final SeekableByteChannel ch;
+		private final long size;
+		private final ByteBuffer window = ByteBuffer.allocate(8 * 1024);
+		private long base = -1;
+		private int limit;
+
+		ChannelLexer(SeekableByteChannel ch) throws IOException {
+			this.ch = ch;
+			this.size = ch.size();
+		}
+
+		long size() {
+			return size;
+		}
+
+		@Override
+		int at(long p) throws IOException {
+			if (p < 0 || p >= size)
+				return -1;
+			if (base < 0 || p < base || p >= base + limit) {
+				window.clear();
+				base = p;
+				ch.position(base);
+				while (window.hasRemaining()) {
+					int n = ch.read(window);
+					if (n <= 0)
+						break;
+				}
+				limit = window.position();
+				if (limit == 0)
+					return -1;
+			}
+			return window.get((int) (p - base)) & 0xFF;
+		}
+
+		@Override
+		byte[] slice(long p, int len) throws IOException {
+			if (p < 0 || p + len > size)
+				throw new EOFException("PDF: read past end of file");
+			return ImageHeaderReader.readAt(ch, p, len).array();
+		}
+	}
+
+	/** Лексер по массиву (распакованный объектный поток). */
+	private static final class ArrayLexer extends Lexer {
+		private final byte[] data;
+
+		ArrayLexer(byte[] data) {
+			this.data = data;
+		}
+
+		@Override
+		int at(long p) {
+			return p < 0 || p >= data.length ? -1 : data[(int) p] & 0xFF;
+		}
+
+		@Override
+		byte[] slice(long p, int len) throws IOException {
+			if (p < 0 || p + len > data.length)
+				throw new EOFException("PDF: read past end of stream");
+			byte[] out = new byte[len];
+			System.arraycopy(data, (int) p, out, 0, len);
+			return out;
+		}
+	}
+
+	// ? =================
+	// ? ==== HELPERS ====
+	// ? =================
+
+	private static byte[] inflate(byte[] raw) throws IOException {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(raw);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length * 4));
+			byte[] chunk = new byte[8192];
+			while (!inflater.finished()) {
+				int n = inflater.inflate(chunk);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+					break;
+				out.write(chunk, 0, n);
+				if (out.size() > MAX_STREAM_BYTES)
+					throw new IOException("PDF: stream inflates beyond limit");
+			}
+			return out.toByteArray();
+		} catch (DataFormatException e) {
+			throw new IOException("PDF: corrupt stream", e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/** PNG-предикторы (10..15) для xref-потоков: 1 байт на компонент, 1 компонент. */
+	static byte[] unpredictPng(byte[] data, int columns) throws IOException {
+		int stride = columns + 1;
+		int rows = data.length / stride;
+		byte[] out = new byte[rows * columns];
+		byte[] prev = new byte[columns];
+		for (int r = 0; r < rows; r++) {
+			int type = data[r * stride];
+			int src = r * stride + 1;
+			int dst = r * columns;
+			for (int i = 0; i < columns; i++) {
+				int raw = data[src + i] & 0xFF;
+				int left = i > 0 ? out[dst + i - 1] & 0xFF : 0;
+				int up = prev[i] & 0xFF;
+				int upLeft = i > 0 ? prev[i - 1] & 0xFF : 0;
+				int v = switch (type) {
+					case 0 -> raw;
+					case 1 -> raw + left;
+					case 2 -> raw + up;
+					case 3 -> raw + ((left + up) >>> 1);
+					case 4 -> raw + paeth(left, up, upLeft);
+					default -> throw new IOException("PDF: bad PNG predictor row type " + type);
+				};
+				out[dst + i] = (byte) v;
+			}
+			System.arraycopy(out, dst, prev, 0, columns);
+		}
+		return out;
+	}
+
+	private static int paeth(int a, int b, int c) {
+		int p = a + b - c;
+		int pa = Math.abs(p - a), pb = Math.abs(p - b), pc = Math.abs(p - c);
+		if (pa <= pb && pa <= pc)
+			return a;
+		return pb <= pc ? b : c;
+	}
+
+	/** Номер объекта из «/Key N G R» или -1. */
+	private static int refOf(String dict, String key) {
+		Matcher m = Pattern.compile("/" + key + "\\s+(\\d+)\\s+\\d+\\s+R").matcher(dict);
+		return m.find() ? Integer.parseInt(m.group(1)) : -1;
+	}
+
+	/** Прямое целое «/Key N» (не ссылка) или -1. */
+	private static long longOf(String dict, String key) {
+		Matcher m = Pattern.compile("/" + key + "\\s+(\\d++)(?!\\s+\\d+\\s+R)").matcher(dict);
+		return m.find() ? Long.parseLong(m.group(1)) : -1;
+	}
+
+	/** Массив целых «/Key [a b c]» или пустой массив. */
+	private static long[] intsOf(String dict, String key) throws IOException {
+		Matcher m = Pattern.compile("/" + key + "\\s*\\[([^\\]]*)\\]").matcher(dict);
+		if (!m.find())
+			return new long[0];
+		String body = m.group(1).trim();
+		if (body.isEmpty())
+			return new long[0];
+		String[] parts = body.split("\\s+");
+		long[] out = new long[parts.length];
+		for (int i = 0; i < parts.length; i++)
+			out[i] = parseLong(parts[i]);
+		return out;
+	}
+
+	private static long parseLong(String s) throws IOException {
+		try {
+			return Long.parseLong(s);
+		} catch (NumberFormatException e) {
+			throw new IOException("PDF: number expected, got '" + s + "'");
+		}
+	}
+
+	private static boolean isWs(int c) {
+		return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0;
+	}
+
+	private static boolean isDelimiter(int c) {
+		return c == '(' || c == ')' || c == '<' || c == '>' || c == '[' || c == ']' || c == '{' || c == '}'
+				|| c == '/' || c == '%';
+	}
+}
@@ -0,0 +1,364 @@
+/**
+ * @file MultipartStreamReader.java
+ * @module core/files/multipart
+ *
+ * @description
+ * Потоковый разбор тела multipart/form-data (RFC 7578).
+ *
+ * Части читаются по очереди прямо из входного потока запроса: тело каждой
+ * части — InputStream, который заканчивается на разделителе. Ничего не
+ * буферизуется целиком, память — один буфер фиксированного размера.
+ *
+ * Непрочитанный остаток части пропускается при переходе к следующей.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.files.multipart;
+
+/**
+ * ! java imports
+ */
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public final class MultipartStreamReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/** Предел суммарного размера заголовков одной части */
+	private static final int MAX_HEADER_BYTES = 16 * 1024;
+
+	private final InputStream in;
+	private final byte[] delimiter; // CRLF + "--" + boundary
+	private final byte[] buf;
+	private int pos;
+	private int limit;
+
+	// Результат последнего поиска разделителя в buf[pos, limit)
+	private int delimiterAt = -1;
+	private int safeEnd;
+	private boolean scanned;
+
+	private PartStream current;
+	private boolean finished;
+
+	public MultipartStreamReader(InputStream in, String boundary) {
+		if (boundary == null || boundary.isEmpty() || boundary.length() > 70)
+			throw new IllegalArgumentException("Invalid multipart boundary");
+		this.in = in;
+		this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+		this.buf = new byte[BUFFER_SIZE];
+
+		// Первый разделитель идёт без CRLF — подставляем его, чтобы искать единообразно
+		this.buf[0] = '\r';
+		this.buf[1] = '\n';
+		this.limit = 2;
+
+		// преамбула до первого разделителя — «нулевая» часть, которую пропускаем
+		this.current = new PartStream();
+	}
+
+	/**
+	 * Достать boundary из заголовка Content-Type.
+	 *
+	 * @return boundary или null, если параметра нет
+	 */
+	public static String boundaryOf(String contentType) {
+		if (contentType == null)
+			return null;
+		String b = parseParams(contentType).get("boundary");
+		return (b == null || b.isEmpty()) ? null : b;
+	}
+
+	/**
+	 * Перейти к следующей части.
+	 *
+	 * @return часть или null, если достигнут закрывающий разделитель
+	 * @throws MalformedMultipartException тело не соответствует формату
+	 */
+	public Part next() throws IOException {
+		if (finished)
+			return null;
+
+		// дочитываем текущую часть до разделителя
+		current.skipRest();
+
+		ensure(2);
+		if (buf[pos] == '-' && buf[pos + 1] == '-') {
+			finished = true;
+			return null;
+		}
+
+		// после разделителя допустимы пробелы (transport padding) и CRLF
+		if (!readLine().isBlank())
+			throw new MalformedMultipartException("Unexpected data after boundary");
+
+		Map<String, String> headers = readHeaders();
+		resetScan();
+		current = new PartStream();
+		return new Part(headers, current);
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	// ? =================
+	// ? ==== HELPERS ====
+	// ? =================
+
+	private Map<String, String> readHeaders() throws IOException {
+		Map<String, String> headers = new LinkedHashMap<>();
+		int total = 0;
+		while (true) {
+			String line = readLine();
+			total += line.length() + 2;
+			if (total > MAX_HEADER_BYTES)
+				throw new MalformedMultipartException("Part headers too large");
+			if (line.isEmpty())
+				return headers;
+
+			int colon = line.indexOf(':');
+			if (colon <= 0)
+				throw new MalformedMultipartException("Malformed part header");
+			headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+		}
+	}
+
+	/** Строка до CRLF (без него). Заголовки частей браузеры шлют в UTF-8. */
+	private String readLine() throws IOException {
+		while (true) {
+			for (int i = pos; i + 1 < limit; i++) {
+				if (buf[i] == '\r' && buf[i + 1] == '\n') {
+					String line = new String(buf, pos, i - pos, StandardCharsets.UTF_8);
+					pos = i + 2;
+					return line;
+				}
+			}
+			if (limit - pos >= MAX_HEADER_BYTES)
+				throw new MalformedMultipartException("Part header line too long");
+			if (!fill())
+				throw new MalformedMultipartException("Unexpected end of multipart body");
+		}
+	}
+
+	private void ensure(int n) throws IOException {
+		while (limit - pos < n) {
+			if (!fill())
+				throw new MalformedMultipartException("Unexpected end of multipart body");
+		}
+	}
+
+	/**
+	 * Сдвинуть непрочитанное в начало буфера и дочитать из потока.
+	 *
+	 * @return false — поток закончился
+	 */
+	private boolean fill() throws IOException {
+		if (pos > 0) {
+			System.arraycopy(buf, pos, buf, 0, limit - pos);
+			limit -= pos;
+			pos = 0;
+		}
+		resetScan();
+		if (limit == buf.length)
+			return true;
+		int n = in.read(buf, limit, buf.length - limit);
+		if (n < 0)
+			return false;
+		limit += n;
+		return true;
+	}
+
+	private void resetScan() {
+		delimiterAt = -1;
+		safeEnd = pos;
+		scanned = false;
+	}
+
+	/**
+	 * Найти разделитель в буфере. Если его нет — безопасно отдать всё,
+	 * кроме хвоста, который может оказаться началом разделителя.
+	 */
+	private void scan() {
+		int last = limit - delimiter.length;
+		outer: for (int i = pos; i <= last; i++) {
+			for (int j = 0; j < delimiter.length; j++) {
+				if (buf[i + j] != delimiter[j])
+					continue outer;
+			}
+			delimiterAt = i;
+			safeEnd = i;
+			scanned = true;
+			return;
+		}
+		delimiterAt = -1;
+		safeEnd = Math.max(pos, limit - (delimiter.length - 1));
+		scanned = true;
+	}
+
+	private static Map<String, String> parseParams(String header) {
+		Map<String, String> params = new LinkedHashMap<>();
+		int i = header.indexOf(';');
+		while (i >= 0 && i < header.length()) {
+			int start = i + 1;
+			int eq = header.indexOf('=', start);
+			if (eq < 0)
+				break;
+			String key = header.substring(start, eq).trim().toLowerCase(Locale.ROOT);
+
+			int v = eq + 1;
+			while (v < header.length() && header.charAt(v) == ' ')
+				v++;
+			StringBuilder value = new StringBuilder();
+			if (v < header.length() && header.charAt(v) == '"') {
+				v++;
+				while (v < header.length() && header.charAt(v) != '"') {
+					char c = header.charAt(v);
+					if (c == '\\' && v + 1 < header.length())
+						c = header.charAt(++v);
+					value.append(c);
+					v++;
+				}
+				i = header.indexOf(';', v);
+			} else {
+				int end = header.indexOf(';', v);
+				value.append(header, v, end < 0 ? header.length() : end);
+				i = end;
+			}
+			params.put(key, value.toString().trim());
+		}
+		return params;
+	}
+
+	/**
+	 * Тело текущей части: читает до разделителя.
+	 */
+	private final class PartStream extends InputStream {
+		private boolean done;
+
+		@Override
+		public int read() throws IOException {
+			byte[] one = new byte[1];
+			return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (done || current != this)
+				return -1;
+			if (len == 0)
+				return 0;
+			while (true) {
+				if (pos < safeEnd) {
+					int n = Math.min(len, safeEnd - pos);
+					System.arraycopy(buf, pos, b, off, n);
+					pos += n;
+					return n;
+				}
+				if (delimiterAt >= 0 && pos == delimiterAt) {
+					pos += delimiter.length;
+					resetScan();
+					done = true;
+					return -1;
+				}
+				if (!scanned) {
+					scan();
+					continue;
+				}
+				if (!fill())
+					throw new MalformedMultipartException("Unexpected end of multipart body");
+			}
+		}
+
+		void skipRest() throws IOException {
+			byte[] skip = new byte[8192];
+			while (read(skip, 0, skip.length) >= 0) {
+				// пропуск
+			}
+		}
+	}
+
+	/**
+	 * Одна часть multipart: заголовки и тело-поток.
+	 */
+	public static final class Part {
+		private final Map<String, String> headers;
+		private final InputStream body;
+		private final String name;
+		private final String filename;
+
+		Part(Map<String, String> headers, InputStream body) {
+			this.headers = headers;
+			this.body = body;
+
+			Map<String, String> cd = parseParams(headers.getOrDefault("content-disposition", ""));
+			this.name = cd.get("name");
+			this.filename = decodeFilename(cd);
+		}
+
+		/** Заголовки части, имена в нижнем регистре. */
+		public Map<String, String> getHeaders() {
+			return headers;
+		}
+
+		public InputStream getBody() {
+			return body;
+		}
+
+		/** Имя поля формы. */
+		public String getName() {
+			return name;
+		}
+
+		/** Имя файла без пути или null для обычного поля формы. */
+		public String getFilename() {
+			return filename;
+		}
+
+		public boolean isFile() {
+			return filename != null;
+		}
+
+		public String getContentType() {
+			String ct = headers.get("content-type");
+			return (ct == null || ct.isBlank()) ? "application/octet-stream" : ct;
+		}
+
+		private static String decodeFilename(Map<String, String> cd) {
+			String name = cd.get("filename");
+			// RFC 5987: filename*=UTF-8''%D1%84.png
+			String ext = cd.get("filename*");
+			if (ext != null) {
+				int q = ext.indexOf("''");
+				if (q >= 0) {
+					try {
+						name = URLDecoder.decode(ext.substring(q + 2).replace("+", "%2B"), StandardCharsets.UTF_8);
+					} catch (IllegalArgumentException ignore) {
+					}
+				}
+			}
+			if (name == null)
+				return null;
+			// некоторые клиенты присылают полный путь
+			int slash = Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\'));
+			return slash >= 0 ? name.substring(slash + 1) : name;
+		}
+	}
+
+	/**
+	 * Тело не соответствует формату multipart.
+	 */
+	public static final class MalformedMultipartException extends IOException {
+		public MalformedMultipartException(String message) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,173 @@
+/**
+ * @file LocalStorageBackend.java
+ * @module core/files/storage
+ *
+ * @description
+ * Хранение в локальном каталоге (SPENDI_FILES_UPLOAD_DIR): ключ — путь
+ * относительно корня. Сохранение — перенос файла (в пределах одной ФС
+ * без копирования), чтение участков — позиционно через FileChannel.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.files.storage;
+
+/**
+ * ! java imports
+ */
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.utils.FileUtils;
+
+public final class LocalStorageBackend implements StorageBackend {
+
+	private final Path baseDir;
+
+	public LocalStorageBackend(Path baseDir) {
+		this.baseDir = baseDir;
+	}
+
+	@Override
+	public String name() {
+		return "local";
+	}
+
+	@Override
+	public void save(String key, Path source) {
+		Path dst = resolve(key);
+		FileUtils.createDirFromPath(dst.toString());
+		FileUtils.moveFile(source.toString(), dst.toString());
+	}
+
+	/** Запись во временный файл рядом с целевым и атомарное переименование. */
+	@Override
+	public void write(String key, byte[] data, int offset, int length) throws IOException {
+		Path dst = resolve(key);
+		Files.createDirectories(dst.getParent());
+		Path tmp = Files.createTempFile(dst.getParent(), "write_", ".part");
+		try {
+			try (OutputStream out = Files.newOutputStream(tmp)) {
+				out.write(data, offset, length);
+			}
+			Files.move(tmp, dst, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(tmp);
+			throw e;
+		}
+	}
+
+	/**
+	 * Жёсткая ссылка (без копирования байт); если ФС не умеет — обычная копия.
+	 * У ссылки общий inode с исходником, поэтому время изменения обновляется у обоих.
+	 */
+	@Override
+	public void copy(String fromKey, String toKey) throws IOException {
+		Path src = resolve(fromKey);
+		Path dst = resolve(toKey);
+		Files.createDirectories(dst.getParent());
+		Files.deleteIfExists(dst);
+		try {
+			Files.createLink(dst, src);
+			Files.setLastModifiedTime(dst, FileTime.from(Instant.now()));
+		} catch (UnsupportedOperationException | FileSystemException e) {
+			if (!Files.exists(src))
+				throw new NoSuchFileException(src.toString());
+			Files.copy(src, dst, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	@Override
+	public boolean exists(String key) {
+		return Files.exists(resolve(key));
+	}
+
+	@Override
+	public long size(String key) throws IOException {
+		try {
+			return Files.size(resolve(key));
+		} catch (NoSuchFileException e) {
+			return -1;
+		}
+	}
+
+	@Override
+	public byte[] read(String key) throws IOException {
+		return Files.readAllBytes(resolve(key));
+	}
+
+	@Override
+	public InputStream open(String key, long offset, long length) throws IOException {
+		FileChannel ch = FileChannel.open(resolve(key), StandardOpenOption.READ);
+		return new FileRangeInputStream(ch, offset, length);
+	}
+
+	@Override
+	public boolean delete(String key) throws IOException {
+		return Files.deleteIfExists(resolve(key));
+	}
+
+	/**
+	 * Привести относительный путь к абсолютному внутри baseDir, с нормализацией.
+	 */
+	private Path resolve(String key) {
+		return baseDir.resolve(key).normalize();
+	}
+
+	/**
+	 * Поток по участку файла [offset, offset + length): позиционное чтение из канала,
+	 * закрытие потока закрывает канал.
+	 */
+	private static final class FileRangeInputStream extends InputStream {
+		private final FileChannel ch;
+		private long position;
+		private long remaining;
+
+		FileRangeInputStream(FileChannel ch, long offset, long length) {
+			this.ch = ch;
+			this.position = offset;
+			this.remaining = length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] one = new byte[1];
+			return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0)
+				return 0;
+			if (remaining <= 0)
+				return -1;
+			int n = ch.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position);
+			if (n < 0) {
+				remaining = 0;
+				return -1;
+			}
+			position += n;
+			remaining -= n;
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			ch.close();
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * @file S3Signer.java
+ * @module core/files/storage
+ *
+ * @description
+ * Подпись запросов к S3 по AWS Signature Version 4 (заголовок Authorization).
+ *
+ * Каноничный запрос: метод, путь (уже URI-кодированный), отсортированные
+ * параметры запроса, подписываемые заголовки (host + переданные), хеш тела.
+ * Ключ подписи выводится HMAC-цепочкой дата → регион → "s3" → "aws4_request".
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.files.storage;
+
+/**
+ * ! java imports
+ */
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+final class S3Signer {
+
+	/** Хеш тела не считается (тело — файл, читать его дважды дорого) */
+	static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+	/** SHA-256 пустого тела */
+	static final String EMPTY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+	private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+			.withZone(ZoneOffset.UTC);
+	private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+	private static final String SERVICE = "s3";
+
+	private final String accessKey;
+	private final String secretKey;
+	private final String region;
+
+	S3Signer(String accessKey, String secretKey, String region) {
+		this.accessKey = accessKey;
+		this.secretKey = secretKey;
+		this.region = region;
+	}
+
+	/**
+	 * Подписать запрос.
+	 *
+	 * @param uri         адрес с уже закодированными путём и параметрами
+	 * @param headers     заголовки, которые будут отправлены и подписаны (кроме host)
+	 * @param payloadHash hex SHA-256 тела или {@link #UNSIGNED_PAYLOAD}
+	 * @return заголовки для отправки: переданные + x-amz-date, x-amz-content-sha256, Authorization
+	 */
+	Map<String, String> sign(String method, URI uri, Map<String, String> headers, String payloadHash, Instant now) {
+		String amzDate = AMZ_DATE.format(now);
+		String date = amzDate.substring(0, 8);
+
+		TreeMap<String, String> signed = new TreeMap<>();
+		headers.forEach((k, v) -> signed.put(k.toLowerCase(Locale.ROOT), v.trim()));
+		signed.put("host", uri.getRawAuthority());
+		signed.put("x-amz-date", amzDate);
+		signed.put("x-amz-content-sha256", payloadHash);
+
+		StringBuilder canonicalHeaders = new StringBuilder();
+		signed.forEach((k, v) -> canonicalHeaders.append(k).append(':').append(v).append('\n'));
+		String signedHeaders = String.join(";", signed.keySet());
+
+		String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+		String canonicalRequest = method + "\n" + path + "\n" + canonicalQuery(uri.getRawQuery()) + "\n"
+				+ canonicalHeaders + "\n" + signedHeaders + "\n" + payloadHash;
+
+		String scope = date + "/" + region + "/" + SERVICE + "/aws4_request";
+		String stringToSign = ALGORITHM + "\n" + amzDate + "\n" + scope + "\n" + sha256Hex(canonicalRequest);
+
+		byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+		key = hmac(key, region);
+		key = hmac(key, SERVICE);
+		key = hmac(key, "aws4_request");
+		String signature = HexFormat.of().formatHex(hmac(key, stringToSign));
+
+		Map<String, String> out = new LinkedHashMap<>(headers);
+		out.put("x-amz-date", amzDate);
+		out.put("x-amz-content-sha256", payloadHash);
+		out.put("Authorization", ALGORITHM + " Credential=" + accessKey + "/" + scope + ", SignedHeaders="
+				+ signedHeaders + ", Signature=" + signature);
+		return out;
+	}
+
+	/** URI-кодирование по правилам SigV4: всё, кроме A-Z a-z 0-9 - _ . ~ (и "/" при keepSlash). */
+	static String encode(String s, boolean keepSlash) {
+		StringBuilder sb = new StringBuilder();
+		for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+			char c = (char) (b & 0xFF);
+			if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_'
+					|| c == '.' || c == '~' || (keepSlash && c == '/')) {
+				sb.append(c);
+			} else {
+				sb.append('%').append(Character.toUpperCase(Character.forDigit((c >> 4) & 0xF, 16)))
+						.append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+			}
+		}
+		return sb.toString();
+	}
+
+	static String sha256Hex(byte[] data) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static String sha256Hex(String s) {
+		return sha256Hex(s.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/** Параметры уже закодированы; сортировка по имени, затем по значению; "uploads" → "uploads=". */
+	private static String canonicalQuery(String rawQuery) {
+		if (rawQuery == null || rawQuery.isEmpty())
+			return "";
+		TreeMap<String, String> params = new TreeMap<>();
+		for (String p : rawQuery.split("&")) {
+			int eq = p.indexOf('=');
+			params.put(eq < 0 ? p : p.substring(0, eq), eq < 0 ? "" : p.substring(eq + 1));
+		}
+		StringBuilder sb = new StringBuilder();
+		params.forEach((k, v) -> sb.append(sb.length() == 0 ? "" : "&").append(k).append('=').append(v));
+		return sb.toString();
+	}
+
+	private static byte[] hmac(byte[] key, String data) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(key, "HmacSHA256"));
+			return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HmacSHA256 is not available", e);
+		}
+	}
+}
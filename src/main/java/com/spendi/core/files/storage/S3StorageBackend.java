@@ -0,0 +1,410 @@
+/**
+ * @file S3StorageBackend.java
+ * @module core/files/storage
+ *
+ * @description
+ * Хранение в S3-совместимом объектном хранилище (AWS S3, MinIO, Ceph RGW...)
+ * через JDK HttpClient и подпись SigV4 — без SDK.
+ *
+ * - Файлы до SPENDI_FILES_S3_PART_SIZE_MB кладутся одним PUT, крупнее —
+ *   multipart upload: части отправляются параллельно (общий пул на процесс,
+ *   SPENDI_FILES_S3_UPLOAD_PARALLELISM), при ошибке загрузка отменяется (abort).
+ * - Участки читаются ranged GET (Range: bytes=a-b) — Range-запросы клиентов
+ *   не тянут объект целиком.
+ * - Адресация: path-style (endpoint/bucket/key, по умолчанию — так работает
+ *   MinIO) или virtual-hosted (bucket.endpoint/key).
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.files.storage;
+
+/**
+ * ! java imports
+ */
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.FileStorageConfig;
+
+public final class S3StorageBackend implements StorageBackend {
+
+	/** Минимальный размер части multipart upload (кроме последней) по спецификации S3 */
+	public static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+	/** Попыток на одну часть (сетевые ошибки и 5xx) */
+	private static final int PART_ATTEMPTS = 3;
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+	private static final Pattern ERROR_CODE = Pattern.compile("<Code>([^<]+)</Code>");
+
+	private final URI endpoint;
+	private final String bucket;
+	private final String prefix;
+	private final boolean pathStyle;
+	private final long partSize;
+	private final S3Signer signer;
+	private final HttpClient http;
+	private final ExecutorService uploadPool;
+
+	/**
+	 * @param prefix      префикс ключей внутри бакета ("" или "spendi/")
+	 * @param partSize    размер части multipart upload, байт
+	 * @param parallelism сколько частей отправляется одновременно (на весь процесс)
+	 */
+	S3StorageBackend(URI endpoint, String region, String bucket, String accessKey, String secretKey, String prefix,
+			boolean pathStyle, long partSize, int parallelism) {
+		this.endpoint = endpoint;
+		this.bucket = bucket;
+		this.prefix = prefix == null ? "" : prefix;
+		this.pathStyle = pathStyle;
+		this.partSize = partSize;
+		this.signer = new S3Signer(accessKey, secretKey, region);
+		this.http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10)).build();
+
+		AtomicInteger seq = new AtomicInteger();
+		this.uploadPool = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+			Thread t = new Thread(r, "s3-upload-" + seq.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/** Бэкенд из SPENDI_FILES_S3_* (бакет и ключи обязательны). */
+	public static S3StorageBackend fromConfig(FileStorageConfig cfg) {
+		if (cfg.getS3Bucket() == null || cfg.getS3AccessKey() == null || cfg.getS3SecretKey() == null) {
+			throw new IllegalStateException(
+					"SPENDI_FILES_S3_BUCKET, SPENDI_FILES_S3_ACCESS_KEY and SPENDI_FILES_S3_SECRET_KEY are required for the s3 backend");
+		}
+		return new S3StorageBackend(URI.create(cfg.getS3Endpoint()), cfg.getS3Region(), cfg.getS3Bucket(),
+				cfg.getS3AccessKey(), cfg.getS3SecretKey(), cfg.getS3Prefix(), cfg.isS3PathStyle(),
+				Math.max(MIN_PART_SIZE, cfg.getS3PartSizeMb() * 1024L * 1024L), cfg.getS3UploadParallelism());
+	}
+
+	@Override
+	public String name() {
+		return "s3";
+	}
+
+	@Override
+	public void save(String key, Path source) throws IOException {
+		long size = Files.size(source);
+		if (size <= partSize) {
+			HttpResponse<String> res = send("PUT", key, null, Map.of(), BodyPublishers.ofFile(source),
+					S3Signer.UNSIGNED_PAYLOAD, BodyHandlers.ofString(), REQUEST_TIMEOUT);
+			expect(res, 200, "PUT " + key);
+		} else {
+			multipartUpload(key, source, size);
+		}
+		Files.deleteIfExists(source);
+	}
+
+	@Override
+	public void write(String key, byte[] data, int offset, int length) throws IOException {
+		HttpResponse<String> res = send("PUT", key, null, Map.of(), BodyPublishers.ofByteArray(data, offset, length),
+				S3Signer.UNSIGNED_PAYLOAD, BodyHandlers.ofString(), REQUEST_TIMEOUT);
+		expect(res, 200, "PUT " + key);
+	}
+
+	/**
+	 * CopyObject на стороне сервера (объекты до 5 ГБ). Ошибка может прийти и в теле ответа 200.
+	 */
+	@Override
+	public void copy(String fromKey, String toKey) throws IOException {
+		String source = "/" + bucket + "/" + S3Signer.encode(prefix + fromKey.replace('\\', '/'), true);
+		HttpResponse<String> res = send("PUT", toKey, null, Map.of("x-amz-copy-source", source),
+				BodyPublishers.noBody(), S3Signer.EMPTY_SHA256, BodyHandlers.ofString(), REQUEST_TIMEOUT);
+		if (res.statusCode() == 404)
+			throw new NoSuchFileException(fromKey);
+		expect(res, 200, "COPY " + fromKey + " -> " + toKey);
+		if (res.body() != null && res.body().contains("<Error>"))
+			throw new IOException("COPY " + fromKey + " failed: " + describe(200, res.body()));
+	}
+
+	@Override
+	public boolean exists(String key) throws IOException {
+		return size(key) >= 0;
+	}
+
+	@Override
+	public long size(String key) throws IOException {
+		HttpResponse<Void> res = send("HEAD", key, null, Map.of(), BodyPublishers.noBody(), S3Signer.EMPTY_SHA256,
+				BodyHandlers.discarding(), REQUEST_TIMEOUT);
+		if (res.statusCode() == 404)
+			return -1;
+		if (res.statusCode() != 200)
+			throw new IOException("HEAD " + key + " failed: HTTP " + res.statusCode());
+		return res.headers().firstValueAsLong("Content-Length").orElse(-1);
+	}
+
+	@Override
+	public byte[] read(String key) throws IOException {
+		HttpResponse<byte[]> res = send("GET", key, null, Map.of(), BodyPublishers.noBody(), S3Signer.EMPTY_SHA256,
+				BodyHandlers.ofByteArray(), REQUEST_TIMEOUT);
+		if (res.statusCode() == 404)
+			throw new NoSuchFileException(key);
+		if (res.statusCode() != 200)
+			throw new IOException("GET " + key + " failed: " + describe(res.statusCode(),
+					new String(res.body(), StandardCharsets.UTF_8)));
+		return res.body();
+	}
+
+	@Override
+	public InputStream open(String key, long offset, long length) throws IOException {
+		if (length <= 0)
+			return InputStream.nullInputStream();
+
+		// без таймаута на ответ: тело читается потоком столько, сколько идёт отдача клиенту
+		HttpResponse<InputStream> res = send("GET", key, null,
+				Map.of("Range", "bytes=" + offset + "-" + (offset + length - 1)), BodyPublishers.noBody(),
+				S3Signer.EMPTY_SHA256, BodyHandlers.ofInputStream(), null);
+		InputStream body = res.body();
+		switch (res.statusCode()) {
+			case 206:
+				return body;
+			case 200: // хранилище проигнорировало Range — отрезаем сами
+				body.skipNBytes(offset);
+				return new BoundedInputStream(body, length);
+			case 416:
+				body.close();
+				return InputStream.nullInputStream();
+			case 404:
+				body.close();
+				throw new NoSuchFileException(key);
+			default:
+				String err;
+				try (body) {
+					err = new String(body.readNBytes(4096), StandardCharsets.UTF_8);
+				}
+				throw new IOException("GET " + key + " failed: " + describe(res.statusCode(), err));
+		}
+	}
+
+	@Override
+	public boolean delete(String key) throws IOException {
+		// S3 отвечает 204 и на отсутствующий ключ — существование проверяется отдельно
+		boolean existed = exists(key);
+		HttpResponse<String> res = send("DELETE", key, null, Map.of(), BodyPublishers.noBody(),
+				S3Signer.EMPTY_SHA256, BodyHandlers.ofString(), REQUEST_TIMEOUT);
+		if (res.statusCode() != 204 && res.statusCode() != 200 && res.statusCode() != 404)
+			throw new IOException("DELETE " + key + " failed: " + describe(res.statusCode(), res.body()));
+		return existed;
+	}
+
+	// ? ===================
+	// ? ==== MULTIPART ====
+	// ? ===================
+
+	private void multipartUpload(String key, Path source, long size) throws IOException {
+		HttpResponse<String> init = send("POST", key, "uploads", Map.of(), BodyPublishers.noBody(),
+				S3Signer.EMPTY_SHA256, BodyHandlers.ofString(), REQUEST_TIMEOUT);
+		expect(init, 200, "CreateMultipartUpload " + key);
+		Matcher m = UPLOAD_ID.matcher(init.body());
+		if (!m.find())
+			throw new IOException("CreateMultipartUpload " + key + ": no UploadId in response");
+		String uploadId = m.group(1);
+		String idParam = "uploadId=" + S3Signer.encode(uploadId, false);
+
+		int parts = (int) ((size + partSize - 1) / partSize);
+		List<Future<String>> etags = new ArrayList<>(parts);
+		try {
+			for (int i = 0; i < parts; i++) {
+				int partNumber = i + 1;
+				long offset = i * partSize;
+				long length = Math.min(partSize, size - offset);
+				etags.add(uploadPool.submit(
+						() -> uploadPart(key, "partNumber=" + partNumber + "&" + idParam, source, offset, length)));
+			}
+
+			StringBuilder xml = new StringBuilder("<CompleteMultipartUpload>");
+			for (int i = 0; i < parts; i++) {
+				xml.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+						.append(escapeXml(etags.get(i).get())).append("</ETag></Part>");
+			}
+			xml.append("</CompleteMultipartUpload>");
+
+			byte[] body = xml.toString().getBytes(StandardCharsets.UTF_8);
+			HttpResponse<String> done = send("POST", key, idParam, Map.of("Content-Type", "application/xml"),
+					BodyPublishers.ofByteArray(body), S3Signer.sha256Hex(body), BodyHandlers.ofString(),
+					REQUEST_TIMEOUT);
+			// ошибка сборки может прийти телом при статусе 200
+			if (done.statusCode() != 200 || done.body().contains("<Error>"))
+				throw new IOException("CompleteMultipartUpload " + key + " failed: "
+						+ describe(done.statusCode(), done.body()));
+		} catch (Exception e) {
+			etags.forEach(f -> f.cancel(true));
+			abort(key, idParam);
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Multipart upload interrupted: " + key);
+			}
+			Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+			if (cause instanceof IOException io)
+				throw io;
+			throw new IOException("Multipart upload failed: " + key, cause);
+		}
+	}
+
+	/** Отправить часть, вернуть её ETag. Сетевые ошибки и 5xx повторяются. */
+	private String uploadPart(String key, String query, Path source, long offset, long length) throws IOException {
+		IOException last = null;
+		for (int attempt = 1; attempt <= PART_ATTEMPTS; attempt++) {
+			// поток на каждую попытку свой: часть читается прямо из файла, без буфера в памяти
+			BodyPublisher body = BodyPublishers.fromPublisher(BodyPublishers.ofInputStream(() -> {
+				try {
+					FileChannel ch = FileChannel.open(source, StandardOpenOption.READ);
+					ch.position(offset);
+					return new BoundedInputStream(Channels.newInputStream(ch), length);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}), length);
+
+			HttpResponse<String> res;
+			try {
+				res = send("PUT", key, query, Map.of(), body, S3Signer.UNSIGNED_PAYLOAD, BodyHandlers.ofString(),
+						REQUEST_TIMEOUT);
+			} catch (InterruptedIOException e) {
+				throw e;
+			} catch (IOException e) {
+				last = e;
+				continue;
+			}
+
+			if (res.statusCode() == 200) {
+				return res.headers().firstValue("ETag")
+						.orElseThrow(() -> new IOException("UploadPart " + key + ": no ETag in response"));
+			}
+			last = new IOException("UploadPart " + key + " failed: " + describe(res.statusCode(), res.body()));
+			if (res.statusCode() < 500)
+				throw last;
+		}
+		throw last;
+	}
+
+	private void abort(String key, String idParam) {
+		try {
+			send("DELETE", key, idParam, Map.of(), BodyPublishers.noBody(), S3Signer.EMPTY_SHA256,
+					BodyHandlers.discarding(), REQUEST_TIMEOUT);
+		} catch (IOException ignore) {
+			// незавершённые загрузки бакет подчистит lifecycle-правилом
+		}
+	}
+
+	// ? =================
+	// ? ==== HELPERS ====
+	// ? =================
+
+	private <T> HttpResponse<T> send(String method, String key, String query, Map<String, String> headers,
+			BodyPublisher body, String payloadHash, BodyHandler<T> handler, Duration timeout) throws IOException {
+		URI uri = uriOf(key, query);
+		HttpRequest.Builder b = HttpRequest.newBuilder(uri).method(method, body);
+		if (timeout != null)
+			b.timeout(timeout);
+		signer.sign(method, uri, headers, payloadHash, Instant.now()).forEach(b::header);
+		try {
+			return http.send(b.build(), handler);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(method + " " + key + " interrupted");
+		}
+	}
+
+	private URI uriOf(String key, String query) {
+		String path = S3Signer.encode(prefix + key.replace('\\', '/'), true);
+		String base = endpoint.toString().replaceAll("/+$", "");
+		String url;
+		if (pathStyle) {
+			url = base + "/" + bucket + "/" + path;
+		} else {
+			url = endpoint.getScheme() + "://" + bucket + "." + endpoint.getRawAuthority() + "/" + path;
+		}
+		return URI.create(query == null ? url : url + "?" + query);
+	}
+
+	private static void expect(HttpResponse<String> res, int status, String what) throws IOException {
+		if (res.statusCode() != status)
+			throw new IOException(what + " failed: " + describe(res.statusCode(), res.body()));
+	}
+
+	/** "HTTP 403 AccessDenied" — код ошибки из XML-тела S3, если есть. */
+	private static String describe(int status, String body) {
+		Matcher m = body == null ? null : ERROR_CODE.matcher(body);
+		return "HTTP " + status + (m != null && m.find() ? " " + m.group(1) : "");
+	}
+
+	private static String escapeXml(String s) {
+		return s.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;").replace(">", "&gt;");
+	}
+
+	/** Не больше {@code limit} байт из обёрнутого потока. */
+	private static final class BoundedInputStream extends InputStream {
+		private final InputStream in;
+		private long remaining;
+
+		BoundedInputStream(InputStream in, long limit) {
+			this.in = in;
+			this.remaining = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0)
+				return -1;
+			int b = in.read();
+			if (b >= 0)
+				remaining--;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0)
+				return 0;
+			if (remaining <= 0)
+				return -1;
+			int n = in.read(b, off, (int) Math.min(len, remaining));
+			if (n > 0)
+				remaining -= n;
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+}
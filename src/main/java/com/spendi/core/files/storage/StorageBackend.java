@@ -0,0 +1,70 @@
+/**
+ * @file StorageBackend.java
+ * @module core/files/storage
+ *
+ * @description
+ * Место, где физически лежит содержимое файлов. {@link com.spendi.core.files.FileStorage}
+ * решает, как назвать файл (дата-каталоги, blob'ы по хешу, превью), а
+ * бэкенд — только кладёт, читает и удаляет байты по ключу.
+ *
+ * Ключ — относительный путь с разделителем "/" (то, что хранится в
+ * FileEntity.relativePath). Реализации:
+ * - {@link LocalStorageBackend} — каталог на диске (SPENDI_FILES_BACKEND=local);
+ * - {@link S3StorageBackend} — S3-совместимое хранилище (SPENDI_FILES_BACKEND=s3).
+ *
+ * Реализации потокобезопасны.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.files.storage;
+
+/**
+ * ! java imports
+ */
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+public interface StorageBackend {
+
+	/** Короткое имя для логов и конфигурации ("local", "s3"). */
+	String name();
+
+	/**
+	 * Положить локальный файл под ключ (существующий перезаписывается).
+	 * Исходный файл забирается: после успешного вызова его больше нет.
+	 */
+	void save(String key, Path source) throws IOException;
+
+	/**
+	 * Положить содержимое из памяти ({@code length} байт с {@code offset}) под ключ
+	 * (существующий перезаписывается). Читатели не видят частично записанного содержимого.
+	 */
+	void write(String key, byte[] data, int offset, int length) throws IOException;
+
+	/**
+	 * Скопировать содержимое под другой ключ (существующий перезаписывается).
+	 * Копия считается новым объектом: время изменения — текущее.
+	 *
+	 * @throws java.nio.file.NoSuchFileException исходного ключа нет
+	 */
+	void copy(String fromKey, String toKey) throws IOException;
+
+	boolean exists(String key) throws IOException;
+
+	/** Размер содержимого в байтах, -1 если ключа нет. */
+	long size(String key) throws IOException;
+
+	/** Прочитать содержимое целиком (для небольших файлов). */
+	byte[] read(String key) throws IOException;
+
+	/**
+	 * Открыть участок [offset, offset + length) для потокового чтения; поток закрывает вызывающий.
+	 * Поток кончается раньше, если содержимое короче.
+	 */
+	InputStream open(String key, long offset, long length) throws IOException;
+
+	/** Удалить содержимое. @return true — ключ существовал */
+	boolean delete(String key) throws IOException;
+}
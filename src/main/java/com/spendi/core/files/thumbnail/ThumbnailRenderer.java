@@ -0,0 +1,177 @@
+/**
+ * @file ThumbnailRenderer.java
+ * @module core/files/thumbnail
+ *
+ * @description
+ * Уменьшенные копии изображений средствами JDK (ImageIO + Java2D).
+ *
+ * - Декодирование с субдискретизацией: если исходник много больше самого
+ *   крупного превью, ImageIO читает только каждый N-й пиксель — память и
+ *   время пропорциональны результату, а не исходнику.
+ * - Уменьшение ступенями по половине (билинейно) — без «лесенки» на
+ *   больших коэффициентах; каждое следующее превью строится из предыдущего.
+ * - PNG/GIF → PNG (с прозрачностью), остальное → JPEG.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.files.thumbnail;
+
+/**
+ * ! java imports
+ */
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+public final class ThumbnailRenderer {
+
+	/** Качество JPEG-превью */
+	private static final float JPEG_QUALITY = 0.85f;
+
+	private ThumbnailRenderer() {
+	}
+
+	/**
+	 * Готовое превью.
+	 *
+	 * @param box   сторона квадрата, в который вписано изображение
+	 * @param image пиксели превью
+	 */
+	public record Thumbnail(int box, BufferedImage image) {
+	}
+
+	/** Поддерживает ли JDK декодирование этого типа. */
+	public static boolean isSupported(String mime) {
+		return mime != null && ImageIO.getImageReadersByMIMEType(mime).hasNext();
+	}
+
+	/** Тип превью для исходного типа: PNG сохраняет прозрачность. */
+	public static String outputType(String sourceMime) {
+		return "image/png".equals(sourceMime) || "image/gif".equals(sourceMime) ? "image/png" : "image/jpeg";
+	}
+
+	/**
+	 * Построить превью для каждого квадрата меньше исходника.
+	 *
+	 * @param in    содержимое исходника (закрывает вызывающий)
+	 * @param boxes стороны квадратов по возрастанию
+	 * @return превью по возрастанию; пусто, если исходник не больше самого малого квадрата
+	 * @throws IOException изображение не декодируется
+	 */
+	public static List<Thumbnail> render(InputStream in, String mime, List<Integer> boxes) throws IOException {
+		BufferedImage src = decode(in, mime, boxes.isEmpty() ? 0 : boxes.get(boxes.size() - 1));
+		int longest = Math.max(src.getWidth(), src.getHeight());
+		boolean alpha = "image/png".equals(outputType(mime));
+
+		List<Thumbnail> out = new ArrayList<>(boxes.size());
+		BufferedImage current = src;
+		// от крупного к мелкому: следующее превью строится из предыдущего
+		for (int i = boxes.size() - 1; i >= 0; i--) {
+			int box = boxes.get(i);
+			if (box >= longest)
+				continue;
+			current = scaleToFit(current, box, alpha);
+			out.add(0, new Thumbnail(box, current));
+		}
+		return out;
+	}
+
+	/**
+	 * Записать превью в поток в формате {@code mime} (image/png или image/jpeg).
+	 */
+	public static void write(BufferedImage img, String mime, OutputStream out) throws IOException {
+		String format = "image/png".equals(mime) ? "png" : "jpeg";
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+		if (!writers.hasNext())
+			throw new IOException("No ImageIO writer for " + format);
+		ImageWriter writer = writers.next();
+		try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+			writer.setOutput(ios);
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			if (format.equals("jpeg")) {
+				param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				param.setCompressionQuality(JPEG_QUALITY);
+			}
+			writer.write(null, new IIOImage(img, null, null), param);
+		} finally {
+			writer.dispose();
+		}
+	}
+
+	// ? =================
+	// ? ==== HELPERS ====
+	// ? =================
+
+	/**
+	 * Декодировать первый кадр; субдискретизация — так, чтобы осталось не меньше 2× от {@code maxBox}.
+	 */
+	private static BufferedImage decode(InputStream in, String mime, int maxBox) throws IOException {
+		try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+			Iterator<ImageReader> readers = ImageIO.getImageReadersByMIMEType(mime);
+			if (iis == null || !readers.hasNext())
+				throw new IOException("No ImageIO reader for " + mime);
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(iis, true, true);
+				int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+				ImageReadParam param = reader.getDefaultReadParam();
+				int step = maxBox > 0 ? Math.max(1, longest / (maxBox * 2)) : 1;
+				if (step > 1)
+					param.setSourceSubsampling(step, step, 0, 0);
+				BufferedImage img = reader.read(0, param);
+				if (img == null)
+					throw new IOException("Image is empty");
+				return img;
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	/** Вписать в квадрат {@code box}, уменьшая ступенями не более чем вдвое. */
+	static BufferedImage scaleToFit(BufferedImage src, int box, boolean alpha) {
+		int w = src.getWidth();
+		int h = src.getHeight();
+		double k = (double) box / Math.max(w, h);
+		int tw = Math.max(1, (int) Math.round(w * k));
+		int th = Math.max(1, (int) Math.round(h * k));
+
+		BufferedImage cur = src;
+		int cw = w;
+		int ch = h;
+		do {
+			cw = Math.max(tw, cw / 2);
+			ch = Math.max(th, ch / 2);
+			cur = draw(cur, cw, ch, alpha);
+		} while (cw != tw || ch != th);
+		return cur;
+	}
+
+	private static BufferedImage draw(BufferedImage src, int w, int h, boolean alpha) {
+		BufferedImage dst = new BufferedImage(w, h, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = dst.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.drawImage(src, 0, 0, w, h, null);
+		} finally {
+			g.dispose();
+		}
+		return dst;
+	}
+}
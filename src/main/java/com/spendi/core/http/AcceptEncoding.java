@@ -0,0 +1,71 @@
+/**
+ * @file AcceptEncoding.java
+ * @module core/http
+ *
+ * @description
+ * Выбор content-coding по заголовку Accept-Encoding (RFC 9110 §12.5.3).
+ *
+ * - кодировка с q=0 неприемлема, '*' задаёт вес всех неперечисленных;
+ * - побеждает наибольший q, при равенстве — порядок предпочтения сервера;
+ * - без заголовка (или без подходящего варианта) — identity.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.http;
+
+/**
+ * ! java imports
+ */
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public final class AcceptEncoding {
+
+	private AcceptEncoding() {
+	}
+
+	/**
+	 * @param header    значение Accept-Encoding или null
+	 * @param supported кодировки сервера в порядке предпочтения (например, br, gzip, deflate)
+	 * @return выбранная кодировка или null — отдавать без сжатия
+	 */
+	public static String select(String header, List<String> supported) {
+		if (header == null || header.isBlank())
+			return null;
+
+		Map<String, Double> weights = new HashMap<>();
+		for (String part : header.split(",")) {
+			String[] tokens = part.split(";");
+			String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+			if (coding.isEmpty())
+				continue;
+			double q = 1.0;
+			for (int i = 1; i < tokens.length; i++) {
+				String p = tokens[i].trim();
+				if (p.startsWith("q=") || p.startsWith("Q=")) {
+					try {
+						q = Double.parseDouble(p.substring(2).trim());
+					} catch (NumberFormatException e) {
+						q = 0;
+					}
+				}
+			}
+			weights.put(coding, q);
+		}
+
+		Double any = weights.get("*");
+		String best = null;
+		double bestQ = 0;
+		for (String coding : supported) {
+			Double q = weights.containsKey(coding) ? weights.get(coding) : any;
+			if (q != null && q > bestQ) {
+				best = coding;
+				bestQ = q;
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * @file ByteRange.java
+ * @module core/http
+ *
+ * @description
+ * Диапазон байт из заголовка Range (RFC 9110, раздел 14) и его разбор.
+ *
+ * Поддерживаются формы {@code bytes=0-99}, {@code bytes=100-}, {@code bytes=-500}
+ * и их перечисление через запятую. Пересекающиеся и соседние диапазоны
+ * склеиваются, число диапазонов ограничено — защита от запросов
+ * «тысяча мелких кусков».
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.http;
+
+/**
+ * ! java imports
+ */
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.exceptions.RangeNotSatisfiableException;
+
+/**
+ * @param start первый байт (включительно)
+ * @param end   последний байт (включительно)
+ */
+public record ByteRange(long start, long end) {
+
+	/** Больше диапазонов в одном запросе не обслуживаем — отдаём файл целиком */
+	public static final int MAX_RANGES = 16;
+
+	private static final String UNIT = "bytes=";
+
+	public ByteRange {
+		if (start < 0 || end < start)
+			throw new IllegalArgumentException("Invalid byte range: " + start + "-" + end);
+	}
+
+	/** Длина диапазона в байтах. */
+	public long length() {
+		return end - start + 1;
+	}
+
+	/** Значение заголовка Content-Range для ресурса размера {@code size}. */
+	public String contentRange(long size) {
+		return "bytes " + start + "-" + end + "/" + size;
+	}
+
+	/**
+	 * Разобрать заголовок Range для ресурса размера {@code size}.
+	 *
+	 * @return диапазоны по возрастанию; пустой список — заголовок отсутствует,
+	 *         синтаксически некорректен или слишком «дробный» (отдать ресурс целиком)
+	 * @throws RangeNotSatisfiableException ни один диапазон не пересекается с ресурсом
+	 */
+	public static List<ByteRange> parse(String header, long size) {
+		if (header == null)
+			return List.of();
+		String value = header.trim();
+		if (!value.regionMatches(true, 0, UNIT, 0, UNIT.length()))
+			return List.of();
+
+		String[] specs = value.substring(UNIT.length()).split(",", -1);
+		if (specs.length > MAX_RANGES)
+			return List.of();
+
+		List<ByteRange> ranges = new ArrayList<>(specs.length);
+		for (String raw : specs) {
+			String spec = raw.trim();
+			int dash = spec.indexOf('-');
+			if (dash < 0)
+				return List.of();
+
+			String first = spec.substring(0, dash).trim();
+			String last = spec.substring(dash + 1).trim();
+			if (first.isEmpty() && last.isEmpty())
+				return List.of();
+
+			long start;
+			long end;
+			try {
+				if (first.isEmpty()) {
+					// суффикс: последние N байт
+					long suffix = parseDigits(last);
+					if (suffix == 0)
+						continue;
+					start = Math.max(0, size - suffix);
+					end = size - 1;
+				} else {
+					start = parseDigits(first);
+					long requestedEnd = last.isEmpty() ? Long.MAX_VALUE : parseDigits(last);
+					if (requestedEnd < start)
+						return List.of();
+					end = Math.min(requestedEnd, size - 1);
+				}
+			} catch (NumberFormatException e) {
+				return List.of();
+			}
+
+			// неудовлетворимый диапазон пропускаем, остальные обслуживаем
+			if (start >= size || end < start)
+				continue;
+			ranges.add(new ByteRange(start, end));
+		}
+
+		if (ranges.isEmpty())
+			throw new RangeNotSatisfiableException(value, size);
+		return coalesce(ranges);
+	}
+
+	/** Склеить пересекающиеся и соседние диапазоны. */
+	private static List<ByteRange> coalesce(List<ByteRange> ranges) {
+		if (ranges.size() == 1)
+			return ranges;
+		ranges.sort(Comparator.comparingLong(ByteRange::start));
+
+		List<ByteRange> merged = new ArrayList<>(ranges.size());
+		ByteRange cur = ranges.get(0);
+		for (int i = 1; i < ranges.size(); i++) {
+			ByteRange next = ranges.get(i);
+			if (next.start() <= cur.end() + 1) {
+				cur = new ByteRange(cur.start(), Math.max(cur.end(), next.end()));
+			} else {
+				merged.add(cur);
+				cur = next;
+			}
+		}
+		merged.add(cur);
+		return merged;
+	}
+
+	/** Только цифры: знак, пробелы и прочее — синтаксическая ошибка. */
+	private static long parseDigits(String s) {
+		if (s.isEmpty())
+			throw new NumberFormatException("empty");
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) < '0' || s.charAt(i) > '9')
+				throw new NumberFormatException(s);
+		}
+		return Long.parseLong(s);
+	}
+}
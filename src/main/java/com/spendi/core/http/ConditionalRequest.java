@@ -0,0 +1,114 @@
+/**
+ * @file ConditionalRequest.java
+ * @module core/http
+ *
+ * @description
+ * Условные запросы (RFC 9110 §13): валидаторы ответа и проверка
+ * If-None-Match / If-Modified-Since.
+ *
+ * - слабый ETag строится из версии ресурса (id + updatedAt и т.п.) или из байт тела;
+ * - If-None-Match сравнивается слабо и приоритетнее If-Modified-Since;
+ * - даты — IMF-fixdate с точностью до секунды.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.http;
+
+/**
+ * ! java imports
+ */
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Locale;
+
+public final class ConditionalRequest {
+
+	/** IMF-fixdate (RFC 9110): день месяца всегда двузначный */
+	private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter
+			.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+			.withZone(ZoneOffset.UTC);
+
+	/** Сколько байт SHA-256 попадает в ETag */
+	private static final int ETAG_BYTES = 16;
+
+	private ConditionalRequest() {
+	}
+
+	/**
+	 * Слабый ETag по байтам тела: {@code W/"<hex>"}.
+	 */
+	public static String weakEtag(byte[] body) {
+		byte[] digest = sha256(body);
+		return "W/\"" + HexFormat.of().formatHex(digest, 0, ETAG_BYTES) + "\"";
+	}
+
+	/**
+	 * Слабый ETag по версии ресурса (например, id + updatedAt).
+	 */
+	public static String weakEtag(String version) {
+		return weakEtag(version.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Актуальна ли копия клиента: If-None-Match (приоритетнее) или If-Modified-Since.
+	 *
+	 * @param etag         текущий ETag ресурса или null
+	 * @param lastModified время изменения ресурса или null
+	 */
+	public static boolean isNotModified(String ifNoneMatch, String ifModifiedSince, String etag,
+			Instant lastModified) {
+		if (ifNoneMatch != null) {
+			if (etag == null)
+				return false;
+			for (String tag : ifNoneMatch.split(",")) {
+				String t = tag.trim();
+				// для If-None-Match сравнение слабое
+				if (t.equals("*") || stripWeak(t).equals(stripWeak(etag)))
+					return true;
+			}
+			return false;
+		}
+
+		Instant since = parseDate(ifModifiedSince);
+		return since != null && lastModified != null
+				&& !lastModified.truncatedTo(ChronoUnit.SECONDS).isAfter(since);
+	}
+
+	public static String formatDate(Instant instant) {
+		return HTTP_DATE.format(instant);
+	}
+
+	/**
+	 * @return момент или null, если значение отсутствует или не разбирается
+	 */
+	public static Instant parseDate(String value) {
+		if (value == null)
+			return null;
+		try {
+			return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	public static String stripWeak(String etag) {
+		return etag.startsWith("W/") ? etag.substring(2) : etag;
+	}
+
+	private static byte[] sha256(byte[] data) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(data);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+}
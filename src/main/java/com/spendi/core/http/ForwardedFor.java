@@ -0,0 +1,38 @@
+/**
+ * @file ForwardedFor.java
+ * @module core/http
+ *
+ * @description
+ * IP клиента из X-Forwarded-For за доверенными прокси.
+ *
+ * Каждый прокси дописывает адрес своего собеседника в конец списка, а всё,
+ * что левее, прислал сам клиент и может быть подделано. Поэтому адрес клиента —
+ * запись, добавленная самым внешним доверенным прокси: {@code hops}-я с конца.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.http;
+
+public final class ForwardedFor {
+
+	private ForwardedFor() {
+	}
+
+	/**
+	 * @param header значение X-Forwarded-For или null
+	 * @param hops   сколько доверенных прокси стоит перед сервером (не меньше 1)
+	 * @return адрес клиента или null, если заголовка нет или в нём меньше записей, чем прокси
+	 */
+	public static String clientIp(String header, int hops) {
+		if (header == null || header.isBlank() || hops < 1)
+			return null;
+
+		String[] entries = header.split(",");
+		int index = entries.length - hops;
+		if (index < 0)
+			return null;
+		String ip = entries[index].trim();
+		return ip.isEmpty() ? null : ip;
+	}
+}
@@ -8,6 +8,7 @@
  * <p>Группы статусов:</p>
  * <ul>
  *   <li>2xx — Успешные ответы (Success)</li>
+ *   <li>3xx — Перенаправления и условные ответы (Redirection)</li>
  *   <li>4xx — Ошибки клиента (Client Error)</li>
  *   <li>5xx — Ошибки сервера (Server Error)</li>
  * </ul>
@@ -23,6 +24,10 @@ public enum HttpStatusCode {
 	CREATED(201, "CREATED"), // Успешно создан новый ресурс
 	ACCEPTED(202, "ACCEPTED"), // Запрос принят, но еще не обработан
 	NO_CONTENT(204, "NO_CONTENT"), // Запрос выполнен, но тело ответа пустое
+	PARTIAL_CONTENT(206, "PARTIAL_CONTENT"), // Отдана часть ресурса (Range)
+
+	// --- Redirection (3xx) ---
+	NOT_MODIFIED(304, "NOT_MODIFIED"), // Ресурс не изменился (условный запрос)
 
 	// --- Client Error (4xx) ---
 	BAD_REQUEST(400, "BAD_REQUEST"), // Неверный запрос
@@ -32,6 +37,7 @@ public enum HttpStatusCode {
 	CONFLICT(409, "CONFLICT"), // Конфликт в запросе
 	PAYLOAD_TOO_LARGE(413, "PAYLOAD_TOO_LARGE"), // Тело запроса слишком большое
 	UNSUPPORTED_MEDIA_TYPE(415, "UNSUPPORTED_MEDIA_TYPE"), // Не поддерживаемый тип файла
+	RANGE_NOT_SATISFIABLE(416, "RANGE_NOT_SATISFIABLE"), // Запрошенный диапазон вне ресурса
 	UNPROCESSABLE_ENTITY(422, "UNPROCESSABLE_ENTITY"), // Ошибка валидации данных
 	TOO_MANY_REQUESTS(429, "TOO_MANY_REQUESTS"), // Слишком много запросов (rate-limit)
 
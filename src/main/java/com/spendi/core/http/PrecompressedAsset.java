@@ -0,0 +1,134 @@
+/**
+ * @file PrecompressedAsset.java
+ * @module core/http
+ *
+ * @description
+ * Неизменяемый ресурс в памяти, сжатый один раз при создании (gzip, deflate).
+ * При отдаче вариант выбирается по Accept-Encoding и уходит с Content-Encoding —
+ * поэтому сервер его повторно не сжимает. Слабый ETag общий для всех вариантов
+ * (Vary: Accept-Encoding), условный GET отвечает 304.
+ *
+ * Сжатые варианты строятся только если сжатие включено в ServerConfig, тип
+ * подходит и ресурс не меньше SPENDI_SERVER_COMPRESSION_MIN_BYTES; вариант,
+ * который не меньше оригинала, не хранится.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.http;
+
+/**
+ * ! java imports
+ */
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.ServerConfig;
+import com.spendi.core.base.http.HttpContext;
+
+public final class PrecompressedAsset {
+
+	private final byte[] identity;
+	private final String contentType;
+	private final String version;
+	private final Map<String, byte[]> encoded; // coding -> тело, в порядке предпочтения
+	private final List<String> codings;
+
+	private PrecompressedAsset(byte[] identity, String contentType, Map<String, byte[]> encoded) {
+		this.identity = identity;
+		this.contentType = contentType;
+		this.version = ConditionalRequest.weakEtag(identity);
+		this.encoded = encoded;
+		this.codings = List.copyOf(encoded.keySet());
+	}
+
+	/**
+	 * Сжать ресурс по настройкам ServerConfig.
+	 */
+	public static PrecompressedAsset of(byte[] content, String contentType) {
+		ServerConfig cfg = ServerConfig.getConfig();
+		Map<String, byte[]> encoded = new LinkedHashMap<>();
+		if (cfg.isCompressible(contentType) && content.length >= cfg.getCompressionMinBytes()) {
+			putIfSmaller(encoded, "gzip", gzip(content), content.length);
+			putIfSmaller(encoded, "deflate", deflate(content), content.length);
+		}
+		return new PrecompressedAsset(content, contentType, encoded);
+	}
+
+	/**
+	 * Отправить ресурс: 304 по If-None-Match, иначе лучший вариант по Accept-Encoding.
+	 */
+	public void send(HttpContext ctx) {
+		if (!codings.isEmpty()) {
+			ctx.res().header("Vary", "Accept-Encoding");
+		}
+		if (ctx.notModified(version, null)) {
+			return;
+		}
+
+		String coding = AcceptEncoding.select(ctx.req().header("Accept-Encoding").orElse(null), codings);
+		ctx.res().header("Content-Type", contentType);
+		if (coding == null) {
+			ctx.res().sendBytes(identity);
+			return;
+		}
+		ctx.res().header("Content-Encoding", coding).sendBytes(encoded.get(coding));
+	}
+
+	/** Размер варианта (для логов/проверок); null — варианта нет. */
+	public Integer size(String coding) {
+		if (coding == null)
+			return identity.length;
+		byte[] b = encoded.get(coding);
+		return b == null ? null : b.length;
+	}
+
+	/** Сжатые варианты в порядке предпочтения. */
+	public List<String> codings() {
+		return new ArrayList<>(codings);
+	}
+
+	private static void putIfSmaller(Map<String, byte[]> acc, String coding, byte[] body, int original) {
+		if (body.length < original)
+			acc.put(coding, body);
+	}
+
+	private static byte[] gzip(byte[] content) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+		try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+			{
+				def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		}) {
+			gz.write(content);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+
+	/** deflate по HTTP — поток zlib (RFC 1950), как у DeflaterOutputStream по умолчанию. */
+	private static byte[] deflate(byte[] content) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try (DeflaterOutputStream df = new DeflaterOutputStream(out, deflater)) {
+			df.write(content);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			deflater.end();
+		}
+		return out.toByteArray();
+	}
+}
@@ -12,9 +12,14 @@ package com.spendi.core.init;
 /**
  * ! my imports
  */
+import com.spendi.config.FileStorageConfig;
 import com.spendi.core.base.database.MongoProvider;
+import com.spendi.modules.files.FileBlobReconciler;
+import com.spendi.modules.files.FileGarbageCollector;
+import com.spendi.modules.files.FileLayoutMigrator;
 import com.spendi.modules.files.FileRepository;
 import com.spendi.modules.files.FileService;
+import com.spendi.modules.files.FileVariantGenerator;
 import com.spendi.modules.user.UserRepository;
 import com.spendi.modules.user.UserService;
 import com.spendi.modules.payment.PaymentMethodRepository;
@@ -47,6 +52,23 @@ public final class AppInitializer {
 
 		// Инициализируем сервис файлов с явным репозиторием
 		FileService.init(fileRepo);
+		FileVariantGenerator.init(fileRepo);
+
+		// Сверка счётчиков ссылок общего хранилища blob'ов
+		FileStorageConfig files = FileStorageConfig.getConfig();
+		if (files.isContentAddressed() && files.getReconcileIntervalMin() > 0) {
+			FileBlobReconciler.start(fileRepo, files.getReconcileIntervalMin());
+		}
+
+		// Уборка осиротевшего содержимого и брошенных временных файлов
+		if (files.getGcIntervalMin() > 0) {
+			FileGarbageCollector.start(fileRepo, files.getGcIntervalMin());
+		}
+
+		// Перенос файлов старой раскладки (dated) в sharded
+		if (files.isShardedLayout() && files.isLayoutMigrate()) {
+			FileLayoutMigrator.start(fileRepo);
+		}
 	}
 
 	/**
@@ -17,7 +17,7 @@ import com.spendi.core.json.deser.FriendlyEnumDeserializer;
 /**
  * ! my imports
  */
-import com.spendi.modules.payment.types.EPaymentMethodType;
+import com.spendi.modules.payment.model.EPaymentMethodType;
 
 public class EnumFriendlyModule extends SimpleModule {
 
@@ -5,10 +5,11 @@
  * @description
  * Централизованный статический логгер:
  * - уровни (DEBUG/INFO/WARN/ERROR/FATAL)
+ * - сэмплирование «горячих» мест со сводками (LogSampler)
  * - вывод в консоль (ConsoleWriter)
  * - сохранение в файл (FileLogWriter)
  * - компрессия (CompressedLog.fromLog)
- * - чтение логов по дате (LogReader)
+ * - чтение логов по дате и курсором (LogReader / LogStream)
  *
  * @author Dmytro Shakh
  */
@@ -27,8 +28,12 @@ import java.util.Map;
 import com.spendi.core.logger.model.CompressedLog;
 import com.spendi.core.logger.model.Log;
 import com.spendi.core.logger.model.LogData;
+import com.spendi.core.logger.readers.LogPosition;
 import com.spendi.core.logger.readers.LogReader;
+import com.spendi.core.logger.readers.LogStream;
+import com.spendi.core.logger.sampling.LogSampler;
 import com.spendi.core.logger.types.ELogLevel;
+import com.spendi.core.logger.types.LogOptions;
 import com.spendi.core.logger.writers.FileLogWriter;
 import com.spendi.core.logger.writers.ConsoleWriter;
 import com.spendi.core.types.EClassType;
@@ -36,6 +41,11 @@ import com.spendi.core.types.EClassType;
 public final class Logger {
 
 	private static final LogReader reader = LogReader.getInstance();
+	private static final LogSampler sampler = LogSampler.getInstance();
+
+	static {
+		sampler.startSummaries(Logger::emitSummary);
+	}
 
 	private Logger() {
 	}
@@ -47,9 +57,19 @@ public final class Logger {
 		return reader.getLogsByDate(strictDate);
 	}
 
+	/** Ленивый курсор по логам с позиции {@code from} до даты {@code toDate} включительно. */
+	public static LogStream openLogStream(LogPosition from, String toDate) {
+		return reader.openStream(from, toDate);
+	}
+
 	// ? ===================== CORE =====================
 
 	private static void log(ELogLevel level, LogData data) {
+		// 0) «горячие» места проходят через лимиты сэмплирования
+		if (!sampler.allow(level, data)) {
+			return;
+		}
+
 		// 1) собрать Log-модель
 		Log log = new Log(level, data);
 
@@ -83,6 +103,21 @@ public final class Logger {
 		}
 	}
 
+	/** Сводка об отброшенных сэмплированием записях (сама не сэмплируется). */
+	private static void emitSummary(LogSampler.Summary summary) {
+		Map<String, Object> details = new HashMap<>();
+		details.put("suppressed", summary.suppressed());
+		details.put("message", summary.message());
+
+		log(summary.level(), new LogData(
+				LogSampler.SUMMARY_MESSAGE,
+				null,
+				details,
+				new LogOptions(summary.save()),
+				summary.className(),
+				summary.classType()));
+	}
+
 	// ? ===================== PUBLIC API =====================
 
 	public static void debug(LogData data) {
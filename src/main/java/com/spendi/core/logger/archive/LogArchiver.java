@@ -0,0 +1,329 @@
+/**
+ * @file LogArchiver.java
+ * @module core.logger.archive
+ *
+ * @description
+ * Фоновая архивация закрытых часов логов.
+ *
+ * После смены часа FileLogWriter передаёт сюда завершённую директорию
+ * logs/YYYY-MM-DD/HH/, которая склеивается в один gzip-сегмент:
+ * logs/YYYY-MM-DD/HH.json.gz (или HH.cbor.gz — по текущему формату логов)
+ *
+ * Алгоритм:
+ * - если сегменты за этот час уже есть — они идут первыми;
+ * - затем NN.json / NN.cbor в порядке номеров;
+ * - все источники пишутся во временный файл одним потоком в текущем формате:
+ *   совпадающий формат копируется байтами (без заголовка, недописанный хвост
+ *   отбрасывается), отличающийся — перекодируется через LogCodec;
+ * - временный файл атомарно переименовывается в сегмент, после чего
+ *   старые сегменты и исходная директория часа удаляются.
+ *
+ * Дополнительно применяется срок хранения: директории дат старше
+ * SPENDI_LOG_RETENTION_DAYS удаляются целиком.
+ *
+ * Все операции выполняются в одном фоновом потоке, чтобы не задерживать
+ * запись логов. Ошибки пишутся в stderr (не через Logger — во избежание рекурсии).
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.logger.archive;
+
+/**
+ * ! java imports
+ */
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.LoggerConfig;
+import com.spendi.core.base.CoreClass;
+import com.spendi.core.logger.codec.LogCodec;
+import com.spendi.core.logger.model.CompressedLog;
+import com.spendi.core.logger.types.ELogFormat;
+import com.spendi.core.types.EClassType;
+
+public final class LogArchiver extends CoreClass {
+
+	/** Суффикс архивного сегмента часа: HH.json.gz / HH.cbor.gz */
+	public static final String SEGMENT_SUFFIX = ".gz";
+	/** Суффикс временного файла при сборке сегмента */
+	private static final String TMP_SUFFIX = ".tmp";
+
+	private static final Pattern DATE_DIR = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+	private static final Pattern HOUR_DIR = Pattern.compile("\\d{2}");
+	/** Архивный сегмент: HH.<ext>.gz */
+	private static final Pattern SEGMENT = Pattern.compile("(\\d{2})\\.(json|cbor)\\.gz");
+	/** Часть часа: NN.<ext> */
+	private static final Pattern PART = Pattern.compile("\\d+\\.(json|cbor)");
+
+	private static final LoggerConfig CONFIG = LoggerConfig.getConfig();
+	private static final LogArchiver INSTANCE = new LogArchiver();
+
+	private final Path baseDir;
+	private final ELogFormat format;
+	private final LogCodec codec;
+	private final boolean enabled;
+	private final int retentionDays;
+
+	/** Один поток: сегменты пишутся строго последовательно */
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "log-archiver");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private LogArchiver() {
+		super(EClassType.SYSTEM, LogArchiver.class.getSimpleName());
+		this.baseDir = Paths.get(CONFIG.file().path());
+		this.format = CONFIG.file().format();
+		this.codec = LogCodec.of(format);
+		this.enabled = CONFIG.archive().enabled();
+		this.retentionDays = CONFIG.archive().retentionDays();
+	}
+
+	public static LogArchiver getInstance() {
+		return INSTANCE;
+	}
+
+	// ? === === === Public API === === ===
+
+	/**
+	 * Поставить закрытый час в очередь на архивацию.
+	 *
+	 * @param date YYYY-MM-DD
+	 * @param hour HH
+	 */
+	public void archiveHourAsync(String date, String hour) {
+		if (!enabled)
+			return;
+		executor.execute(() -> {
+			archiveHour(date, hour);
+			applyRetention();
+		});
+	}
+
+	/**
+	 * Досжать «хвосты» прошлых запусков: все часовые директории,
+	 * кроме текущей (в неё сейчас пишет FileLogWriter).
+	 *
+	 * @param currentDate текущая дата YYYY-MM-DD
+	 * @param currentHour текущий час HH
+	 */
+	public void archivePendingAsync(String currentDate, String currentHour) {
+		if (!enabled)
+			return;
+		executor.execute(() -> {
+			for (Path dateDir : listDateDirs()) {
+				String date = dateDir.getFileName().toString();
+				for (Path hourDir : listHourDirs(dateDir)) {
+					String hour = hourDir.getFileName().toString();
+					if (date.equals(currentDate) && hour.equals(currentHour))
+						continue;
+					archiveHour(date, hour);
+				}
+			}
+			applyRetention();
+		});
+	}
+
+	// ? === === === Compaction === === ===
+
+	/**
+	 * Склеивает logs/date/hour/NN.* в logs/date/hour.<ext>.gz и удаляет директорию часа.
+	 * Синхронный вариант, выполняется в потоке архиватора.
+	 */
+	void archiveHour(String date, String hour) {
+		Path dateDir = baseDir.resolve(date);
+		Path hourDir = dateDir.resolve(hour);
+		if (!Files.isDirectory(hourDir))
+			return;
+
+		Path segment = dateDir.resolve(hour + format.getExtension() + SEGMENT_SUFFIX);
+		Path tmp = dateDir.resolve(segment.getFileName() + TMP_SUFFIX);
+
+		try {
+			List<Path> parts = listParts(hourDir);
+
+			if (!parts.isEmpty()) {
+				List<Path> oldSegments = listSegments(dateDir, hour);
+
+				try (OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+						GZIPOutputStream gz = new GZIPOutputStream(out, 64 * 1024)) {
+					codec.writeHeader(gz);
+					for (Path old : oldSegments) {
+						try (InputStream in = new GZIPInputStream(Files.newInputStream(old), 64 * 1024)) {
+							copyRecords(in, old, gz);
+						}
+					}
+					for (Path part : parts) {
+						try (InputStream in = Files.newInputStream(part)) {
+							copyRecords(in, part, gz);
+						}
+					}
+				}
+				Files.move(tmp, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+				for (Path old : oldSegments) {
+					if (!old.equals(segment))
+						Files.deleteIfExists(old);
+				}
+			}
+
+			deleteRecursively(hourDir);
+		} catch (IOException e) {
+			System.err.println("[" + getClassName() + "] Failed to archive " + hourDir + ": " + e.getMessage());
+			try {
+				Files.deleteIfExists(tmp);
+			} catch (IOException ignore) {
+			}
+		}
+	}
+
+	/**
+	 * Переносит записи источника в поток сегмента (без заголовка источника).
+	 * Совпадающий формат копируется байтами (только целые записи: оборванный хвост
+	 * не должен склеиться со следующим источником), иной — перекодируется.
+	 */
+	private void copyRecords(InputStream raw, Path source, OutputStream out) throws IOException {
+		BufferedInputStream in = new BufferedInputStream(raw, 64 * 1024);
+		ELogFormat sourceFormat = LogCodec.detect(in, source.toString());
+
+		if (sourceFormat == format) {
+			LogCodec.copyComplete(in, sourceFormat, out, source.toString());
+			return;
+		}
+
+		try (LogCodec.RecordReader reader = LogCodec.reader(in, sourceFormat, source.toString())) {
+			CompressedLog log;
+			while ((log = reader.next()) != null) {
+				out.write(codec.encode(log));
+			}
+		}
+	}
+
+	// ? === === === Retention === === ===
+
+	/**
+	 * Удаляет директории дат старше retentionDays (0 — не удаляет ничего).
+	 */
+	void applyRetention() {
+		if (retentionDays <= 0)
+			return;
+
+		LocalDate threshold = LocalDate.now().minusDays(retentionDays);
+		for (Path dateDir : listDateDirs()) {
+			try {
+				LocalDate date = LocalDate.parse(dateDir.getFileName().toString());
+				if (date.isBefore(threshold)) {
+					deleteRecursively(dateDir);
+				}
+			} catch (DateTimeParseException ignore) {
+				// посторонние директории не трогаем
+			} catch (IOException e) {
+				System.err.println("[" + getClassName() + "] Failed to delete " + dateDir + ": " + e.getMessage());
+			}
+		}
+	}
+
+	// ? === === === Helpers === === ===
+
+	private List<Path> listDateDirs() {
+		return listDirs(baseDir, DATE_DIR);
+	}
+
+	private List<Path> listHourDirs(Path dateDir) {
+		return listDirs(dateDir, HOUR_DIR);
+	}
+
+	private static List<Path> listDirs(Path parent, Pattern namePattern) {
+		List<Path> result = new ArrayList<>();
+		if (!Files.isDirectory(parent))
+			return result;
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(parent, p -> Files.isDirectory(p)
+				&& namePattern.matcher(p.getFileName().toString()).matches())) {
+			ds.forEach(result::add);
+		} catch (IOException ignore) {
+		}
+		result.sort(Comparator.comparing(p -> p.getFileName().toString()));
+		return result;
+	}
+
+	/** NN.json / NN.cbor внутри часа, отсортированные по номеру */
+	private static List<Path> listParts(Path hourDir) throws IOException {
+		List<Path> result = new ArrayList<>();
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(hourDir,
+				p -> Files.isRegularFile(p) && isPart(p.getFileName().toString()))) {
+			ds.forEach(result::add);
+		}
+		result.sort(Comparator.comparingLong(p -> partIndex(p.getFileName().toString())));
+		return result;
+	}
+
+	/** Уже существующие сегменты часа (обычно 0 или 1) */
+	private static List<Path> listSegments(Path dateDir, String hour) throws IOException {
+		List<Path> result = new ArrayList<>();
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(dateDir,
+				p -> Files.isRegularFile(p) && hour.equals(segmentHour(p.getFileName().toString())))) {
+			ds.forEach(result::add);
+		}
+		result.sort(Comparator.comparing(p -> p.getFileName().toString()));
+		return result;
+	}
+
+	/**
+	 * Час архивного сегмента по имени файла.
+	 *
+	 * @return HH или null, если имя не является сегментом
+	 */
+	public static String segmentHour(String fileName) {
+		Matcher m = SEGMENT.matcher(fileName);
+		return m.matches() ? m.group(1) : null;
+	}
+
+	/** Является ли имя файла частью часа (NN.json / NN.cbor) */
+	public static boolean isPart(String fileName) {
+		return PART.matcher(fileName).matches();
+	}
+
+	/**
+	 * Номер части часа по имени файла. Части сортируются по нему, а не по имени:
+	 * FileLogWriter дополняет номер нулями только до двух знаков, и "100.json" < "99.json".
+	 *
+	 * @param fileName имя части (см. isPart)
+	 */
+	public static long partIndex(String fileName) {
+		return Long.parseLong(fileName.substring(0, fileName.indexOf('.')));
+	}
+
+	private static void deleteRecursively(Path root) throws IOException {
+		try (Stream<Path> walk = Files.walk(root)) {
+			for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(p);
+			}
+		}
+	}
+}
@@ -0,0 +1,345 @@
+/**
+ * @file LogCodec.java
+ * @module core/logger/codec
+ *
+ * @description
+ * Кодирование/декодирование CompressedLog для файлового хранения.
+ *
+ * Форматы:
+ * - JSON: NDJSON, одна запись на строку, без заголовка (как было исторически);
+ * - CBOR: заголовок файла + записи с префиксом длины.
+ *
+ * Заголовок бинарного файла (6 байт):
+ *   'S' 'P' 'L' 'G' — magic
+ *   0x01            — версия раскладки
+ *   code            — код формата ({@link ELogFormat#getCode()})
+ *
+ * Запись: 4 байта длины (big-endian, uint31) + payload.
+ *
+ * Чтение автоматически определяет формат по первым байтам:
+ * magic → бинарный формат из заголовка, иначе → NDJSON.
+ * Повреждённые записи пропускаются (в stderr), чтение продолжается.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.logger.codec;
+
+/**
+ * ! lib imports
+ */
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+/**
+ * ! java imports
+ */
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.logger.model.CompressedLog;
+import com.spendi.core.logger.types.ELogFormat;
+
+public final class LogCodec {
+
+	/** Magic заголовка бинарных файлов логов */
+	private static final byte[] MAGIC = { 'S', 'P', 'L', 'G' };
+	/** Версия раскладки бинарного файла */
+	private static final byte VERSION = 1;
+	/** Полная длина заголовка */
+	public static final int HEADER_LENGTH = MAGIC.length + 2;
+	/** Защита от мусора вместо длины записи */
+	private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+	private static final ObjectMapper JSON = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+	private static final ObjectMapper CBOR = new CBORMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private final ELogFormat format;
+
+	private LogCodec(ELogFormat format) {
+		this.format = format;
+	}
+
+	/** Кодек для записи в указанном формате */
+	public static LogCodec of(ELogFormat format) {
+		return new LogCodec(format);
+	}
+
+	public ELogFormat getFormat() {
+		return format;
+	}
+
+	// ? === === === Write === === ===
+
+	/**
+	 * Заголовок нового файла. Для NDJSON — пустой массив.
+	 */
+	public byte[] header() {
+		if (format == ELogFormat.JSON)
+			return new byte[0];
+		byte[] h = Arrays.copyOf(MAGIC, HEADER_LENGTH);
+		h[MAGIC.length] = VERSION;
+		h[MAGIC.length + 1] = format.getCode();
+		return h;
+	}
+
+	/**
+	 * Кодирует одну запись вместе с разделителем/префиксом длины.
+	 * Длина результата — ровно столько байт, сколько ляжет на диск.
+	 */
+	public byte[] encode(CompressedLog log) throws IOException {
+		if (format == ELogFormat.JSON) {
+			byte[] json = JSON.writeValueAsBytes(log);
+			byte[] line = Arrays.copyOf(json, json.length + 1);
+			line[json.length] = '\n';
+			return line;
+		}
+
+		byte[] payload = CBOR.writeValueAsBytes(log);
+		byte[] record = new byte[4 + payload.length];
+		int n = payload.length;
+		record[0] = (byte) (n >>> 24);
+		record[1] = (byte) (n >>> 16);
+		record[2] = (byte) (n >>> 8);
+		record[3] = (byte) n;
+		System.arraycopy(payload, 0, record, 4, n);
+		return record;
+	}
+
+	/**
+	 * Пишет заголовок файла (для NDJSON — ничего).
+	 */
+	public void writeHeader(OutputStream out) throws IOException {
+		out.write(header());
+	}
+
+	// ? === === === Read === === ===
+
+	/**
+	 * Определяет формат по первым байтам потока.
+	 * Для бинарного формата заголовок считывается (поток стоит на первой записи),
+	 * для NDJSON поток возвращается в исходную позицию.
+	 *
+	 * @param in     буферизованный поток с поддержкой mark/reset
+	 * @param source имя источника для сообщений об ошибках
+	 */
+	public static ELogFormat detect(BufferedInputStream in, String source) throws IOException {
+		in.mark(HEADER_LENGTH);
+		byte[] head = in.readNBytes(HEADER_LENGTH);
+		if (head.length == HEADER_LENGTH && Arrays.equals(head, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+			if (head[MAGIC.length] != VERSION) {
+				throw new IOException("Unsupported log file version " + head[MAGIC.length] + " in " + source);
+			}
+			ELogFormat format = ELogFormat.fromCode(head[MAGIC.length + 1]);
+			if (format == null || format == ELogFormat.JSON) {
+				throw new IOException("Unknown log format code " + head[MAGIC.length + 1] + " in " + source);
+			}
+			return format;
+		}
+
+		in.reset();
+		return ELogFormat.JSON;
+	}
+
+	/**
+	 * Открывает поток записей с автоопределением формата по заголовку.
+	 *
+	 * @param in     исходный поток (plain, уже распакованный gzip и т.п.)
+	 * @param source имя источника для сообщений об ошибках
+	 */
+	public static RecordReader open(InputStream in, String source) throws IOException {
+		BufferedInputStream bin = in instanceof BufferedInputStream b ? b : new BufferedInputStream(in, 64 * 1024);
+		return reader(bin, detect(bin, source), source);
+	}
+
+	/**
+	 * Читатель записей для потока, уже спозиционированного после заголовка.
+	 *
+	 * @see #detect(BufferedInputStream, String)
+	 */
+	public static RecordReader reader(InputStream in, ELogFormat format, String source) {
+		if (format == ELogFormat.JSON) {
+			return new NdjsonReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), source);
+		}
+		return new BinaryReader(new DataInputStream(in), source, format);
+	}
+
+	/**
+	 * Копирует записи потока, уже спозиционированного после заголовка, без
+	 * перекодирования — только целые: недописанный хвост (аварийное завершение
+	 * посреди записи) отбрасывается. Иначе префикс длины оборванной записи или
+	 * неполная строка склеились бы с данными следующего источника.
+	 *
+	 * @return число отброшенных байт хвоста
+	 */
+	public static long copyComplete(InputStream in, ELogFormat format, OutputStream out, String source)
+			throws IOException {
+		long dropped = format == ELogFormat.JSON ? copyCompleteLines(in, out) : copyCompleteFrames(in, out, source);
+		if (dropped > 0) {
+			System.err.println("[LogCodec] Dropped truncated tail (" + dropped + " bytes) of " + source);
+		}
+		return dropped;
+	}
+
+	/** NDJSON: всё до последнего '\n'; байты после него — недописанная строка. */
+	private static long copyCompleteLines(InputStream in, OutputStream out) throws IOException {
+		byte[] buf = new byte[64 * 1024];
+		ByteArrayOutputStream tail = new ByteArrayOutputStream();
+		int n;
+		while ((n = in.read(buf)) > 0) {
+			int last = -1;
+			for (int i = n - 1; i >= 0; i--) {
+				if (buf[i] == '\n') {
+					last = i;
+					break;
+				}
+			}
+			if (last < 0) {
+				tail.write(buf, 0, n);
+				continue;
+			}
+			tail.writeTo(out);
+			tail.reset();
+			out.write(buf, 0, last + 1);
+			tail.write(buf, last + 1, n - last - 1);
+		}
+		return tail.size();
+	}
+
+	/** Бинарный формат: записи [длина][payload] целиком, до первой оборванной. */
+	private static long copyCompleteFrames(InputStream raw, OutputStream out, String source) throws IOException {
+		DataInputStream in = new DataInputStream(raw);
+		byte[] prefix = new byte[4];
+		while (true) {
+			int got = in.readNBytes(prefix, 0, 4);
+			if (got < 4) {
+				return got;
+			}
+			int length = ((prefix[0] & 0xff) << 24) | ((prefix[1] & 0xff) << 16) | ((prefix[2] & 0xff) << 8)
+					| (prefix[3] & 0xff);
+			if (length < 0 || length > MAX_RECORD_BYTES) {
+				throw new IOException("Corrupted record length " + length + " in " + source);
+			}
+			byte[] payload = in.readNBytes(length);
+			if (payload.length < length) {
+				return 4L + payload.length;
+			}
+			out.write(prefix);
+			out.write(payload);
+		}
+	}
+
+	/**
+	 * Последовательное чтение записей.
+	 */
+	public interface RecordReader extends Closeable {
+		/** Формат, определённый по заголовку */
+		ELogFormat format();
+
+		/**
+		 * Следующая запись или null в конце потока.
+		 */
+		CompressedLog next() throws IOException;
+	}
+
+	private static final class NdjsonReader implements RecordReader {
+		private final BufferedReader reader;
+		private final String source;
+
+		NdjsonReader(BufferedReader reader, String source) {
+			this.reader = reader;
+			this.source = source;
+		}
+
+		@Override
+		public ELogFormat format() {
+			return ELogFormat.JSON;
+		}
+
+		@Override
+		public CompressedLog next() throws IOException {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank())
+					continue;
+				try {
+					return JSON.readValue(line, CompressedLog.class);
+				} catch (IOException parseEx) {
+					System.err.println("[LogCodec] Parse error in " + source + ": " + parseEx.getMessage());
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+
+	private static final class BinaryReader implements RecordReader {
+		private final DataInputStream in;
+		private final String source;
+		private final ELogFormat format;
+
+		BinaryReader(DataInputStream in, String source, ELogFormat format) {
+			this.in = in;
+			this.source = source;
+			this.format = format;
+		}
+
+		@Override
+		public ELogFormat format() {
+			return format;
+		}
+
+		@Override
+		public CompressedLog next() throws IOException {
+			while (true) {
+				int length;
+				try {
+					length = in.readInt();
+				} catch (EOFException eof) {
+					return null;
+				}
+				if (length < 0 || length > MAX_RECORD_BYTES) {
+					throw new IOException("Corrupted record length " + length + " in " + source);
+				}
+
+				byte[] payload = in.readNBytes(length);
+				if (payload.length < length) {
+					// недописанный хвост (например, при аварийном завершении) — считаем концом
+					System.err.println("[LogCodec] Truncated record in " + source);
+					return null;
+				}
+
+				try {
+					return CBOR.readValue(payload, CompressedLog.class);
+				} catch (IOException parseEx) {
+					System.err.println("[LogCodec] Parse error in " + source + ": " + parseEx.getMessage());
+				}
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+}
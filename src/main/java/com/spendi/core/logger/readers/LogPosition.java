@@ -0,0 +1,71 @@
+/**
+ * @file LogPosition.java
+ * @module core.logger.readers
+ *
+ * @description
+ * Позиция в хранилище логов: дата, час и число уже прочитанных записей этого часа.
+ *
+ * Порядок записей внутри часа сохраняется при архивации (директория → gzip-сегмент),
+ * поэтому позиция остаётся валидной между запросами.
+ * Для передачи наружу кодируется в непрозрачный токен (base64url).
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.logger.readers;
+
+/**
+ * ! java imports
+ */
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * @param date   YYYY-MM-DD
+ * @param hour   HH
+ * @param offset сколько записей часа уже прочитано
+ */
+public record LogPosition(String date, String hour, long offset) {
+
+	private static final Pattern DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+	private static final Pattern HOUR = Pattern.compile("\\d{2}");
+
+	public LogPosition {
+		if (date == null || !DATE.matcher(date).matches())
+			throw new IllegalArgumentException("Invalid date: " + date);
+		if (hour == null || !HOUR.matcher(hour).matches())
+			throw new IllegalArgumentException("Invalid hour: " + hour);
+		if (offset < 0)
+			throw new IllegalArgumentException("Invalid offset: " + offset);
+	}
+
+	/** Начало даты */
+	public static LogPosition startOf(String date) {
+		return new LogPosition(date, "00", 0);
+	}
+
+	/** Непрозрачный токен для курсора */
+	public String toToken() {
+		String raw = date + "|" + hour + "|" + offset;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Разбирает токен курсора.
+	 *
+	 * @throws IllegalArgumentException если токен повреждён
+	 */
+	public static LogPosition fromToken(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split("\\|");
+			if (parts.length != 3)
+				throw new IllegalArgumentException("Malformed cursor");
+			return new LogPosition(parts[0], parts[1], Long.parseLong(parts[2]));
+		} catch (IllegalArgumentException e) {
+			// NumberFormatException — тоже IllegalArgumentException
+			throw new IllegalArgumentException("Malformed cursor", e);
+		}
+	}
+}
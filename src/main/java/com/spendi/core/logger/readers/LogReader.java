@@ -3,15 +3,23 @@
  * @module core.logger.readers
  *
  * @description
- * Утилита для чтения NDJSON-логов, разбитых по датам/часам:
- * logs/YYYY-MM-DD/HH/NN.json
+ * Утилита для чтения логов, разбитых по датам/часам:
+ * logs/YYYY-MM-DD/HH/NN.json|cbor — текущие (ещё не архивированные) часы;
+ * logs/YYYY-MM-DD/HH.json|cbor.gz — архивные сегменты (см. LogArchiver).
  *
- * Читает построчно, пропуская пустые строки; парсит каждую строку в CompressedLog.
- * Ошибочные строки логируются в stderr и пропускаются.
+ * Все варианты читаются прозрачно, в порядке часов: сначала сегмент часа,
+ * затем файлы его директории (если она ещё существует).
+ * Формат записей (NDJSON или бинарный) определяется по заголовку файла — см. LogCodec.
+ * Ошибочные записи логируются в stderr и пропускаются.
+ *
+ * Для больших объёмов есть потоковый вариант forEachLogByDate —
+ * записи отдаются по одной, без накопления всего дня в памяти,
+ * и курсор openStream с возобновлением по {@link LogPosition}.
  *
  * Пример структуры:
  * logs/
  *   └── 2025-08-17/
+ *       ├── 09.json.gz
  *       ├── 10/
  *       │   ├── 01.json
  *       │   └── 02.json
@@ -23,40 +31,35 @@
 
 package com.spendi.core.logger.readers;
 
-/**
- * ! lib imports
- */
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-
 /**
  * ! java imports
  */
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 /**
  * ! my imports
  */
 import com.spendi.config.LoggerConfig;
 import com.spendi.core.base.CoreClass;
+import com.spendi.core.logger.archive.LogArchiver;
+import com.spendi.core.logger.codec.LogCodec;
 import com.spendi.core.logger.model.CompressedLog;
 import com.spendi.core.types.EClassType;
 
 public final class LogReader extends CoreClass {
-    private static final LoggerConfig CONFIG = LoggerConfig.getConfig();
+	private static final LoggerConfig CONFIG = LoggerConfig.getConfig();
 	private static final LogReader INSTANCE = new LogReader();
 
-	private final ObjectMapper mapper = new ObjectMapper()
-			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-
 	private LogReader() {
 		super(EClassType.SYSTEM, LogReader.class.getSimpleName());
 	}
@@ -72,70 +75,116 @@ public final class LogReader extends CoreClass {
 	 * @return список CompressedLog
 	 */
 	public List<CompressedLog> getLogsByDate(String dateStrict) {
-		List<String> files = getLogFilesForDate(dateStrict);
-		return readLogsFromFiles(files);
+		List<CompressedLog> all = new ArrayList<>();
+		forEachLogByDate(dateStrict, all::add);
+		return all;
+	}
+
+	/**
+	 * Потоково обходит все логи за дату в хронологическом порядке.
+	 *
+	 * @param dateStrict YYYY-MM-DD
+	 * @param consumer   получатель записей
+	 */
+	public void forEachLogByDate(String dateStrict, Consumer<CompressedLog> consumer) {
+		for (File f : getLogFilesForDate(dateStrict)) {
+			readLogsFromFile(f, consumer);
+		}
 	}
 
 	/**
-	 * Находит все .json файлы по пути logs/YYYY-MM-DD/HH/*.json,
-	 * сортируя сначала по часу, потом по имени файла.
+	 * Открывает курсор по логам: с позиции {@code from} до конца даты {@code toDate} включительно.
+	 * Записи читаются лениво, в памяти держится только текущий источник.
+	 *
+	 * @param from   стартовая позиция (см. {@link LogPosition#startOf(String)})
+	 * @param toDate последняя дата диапазона YYYY-MM-DD
 	 */
-	private List<String> getLogFilesForDate(String dateStrict) {
+	public LogStream openStream(LogPosition from, String toDate) {
+		return new LogStream(this, from, toDate);
+	}
+
+	/**
+	 * Все источники за дату одним списком в хронологическом порядке.
+	 */
+	private List<File> getLogFilesForDate(String dateStrict) {
+		List<File> result = new ArrayList<>();
+		getSourcesByHour(dateStrict).values().forEach(result::addAll);
+		return result;
+	}
+
+	/**
+	 * Находит источники логов за дату: архивные сегменты HH.*.gz
+	 * и файлы logs/YYYY-MM-DD/HH/NN.*, группируя по часу,
+	 * внутри часа — сегмент первым, затем файлы по имени.
+	 *
+	 * Порядок записей внутри часа не меняется при архивации, поэтому
+	 * пара (час, номер записи) — стабильная позиция для курсора.
+	 */
+	TreeMap<String, List<File>> getSourcesByHour(String dateStrict) {
 		String basePath = CONFIG.file().path();
 		File dateDir = new File(basePath, dateStrict);
 		if (!dateDir.exists() || !dateDir.isDirectory()) {
-			return Collections.emptyList();
+			return new TreeMap<>();
 		}
 
-		// директории часов
-		File[] hourDirs = dateDir.listFiles(File::isDirectory);
-		if (hourDirs == null || hourDirs.length == 0) {
-			return Collections.emptyList();
+		File[] entries = dateDir.listFiles();
+		if (entries == null || entries.length == 0) {
+			return new TreeMap<>();
 		}
 
-		// сортируем часы как строки "00".."23"
-		Arrays.sort(hourDirs, Comparator.comparing(File::getName));
+		// час "00".."23" -> источники этого часа
+		TreeMap<String, List<File>> byHour = new TreeMap<>();
+
+		// сначала сегменты — они старше, чем незаархивированный хвост того же часа
+		for (File e : entries) {
+			String hour = e.isFile() ? LogArchiver.segmentHour(e.getName()) : null;
+			if (hour != null) {
+				byHour.computeIfAbsent(hour, k -> new ArrayList<>()).add(e);
+			}
+		}
+
+		for (File hourDir : entries) {
+			if (!hourDir.isDirectory())
+				continue;
 
-		List<String> result = new ArrayList<>();
-		for (File hourDir : hourDirs) {
-			File[] jsons = hourDir.listFiles((dir, name) -> name.endsWith(".json"));
+			File[] jsons = hourDir.listFiles((dir, name) -> LogArchiver.isPart(name));
 			if (jsons == null || jsons.length == 0)
 				continue;
 
-			// сортировка файлов "01.json", "02.json", ...
-			Arrays.sort(jsons, Comparator.comparing(File::getName));
-			for (File f : jsons) {
-				result.add(f.getAbsolutePath());
-			}
+			// сортировка файлов "01.json", "02.json", ..., "100.json" — по номеру
+			Arrays.sort(jsons, Comparator.comparingLong(f -> LogArchiver.partIndex(f.getName())));
+			byHour.computeIfAbsent(hourDir.getName(), k -> new ArrayList<>()).addAll(Arrays.asList(jsons));
 		}
-		return result;
+
+		return byHour;
 	}
 
 	/**
-	 * Читает NDJSON из списка файлов; каждая строка — отдельный CompressedLog.
-	 * Пустые строки пропускаем; ошибки парсинга не валят процесс.
+	 * Читает записи из файла (plain или gzip, формат — по заголовку).
+	 * Ошибки парсинга отдельных записей не валят процесс.
 	 */
-	private List<CompressedLog> readLogsFromFiles(List<String> filePaths) {
-		List<CompressedLog> all = new ArrayList<>();
+	private void readLogsFromFile(File file, Consumer<CompressedLog> consumer) {
+		try (InputStream in = openSource(file);
+				LogCodec.RecordReader reader = LogCodec.open(in, file.toString())) {
+			CompressedLog log;
+			while ((log = reader.next()) != null) {
+				consumer.accept(log);
+			}
+		} catch (IOException ioEx) {
+			System.err.println("[LogReader] Read error for " + file + ": " + ioEx.getMessage());
+		}
+	}
 
-		for (String filePath : filePaths) {
-			try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-				String line;
-				while ((line = br.readLine()) != null) {
-					if (line.isBlank())
-						continue;
-
-					try {
-						CompressedLog log = mapper.readValue(line, CompressedLog.class);
-						all.add(log);
-					} catch (Exception parseEx) {
-						System.err.println("[LogReader] Parse error in " + filePath + ": " + parseEx.getMessage());
-					}
-				}
-			} catch (IOException ioEx) {
-				System.err.println("[LogReader] Read error for " + filePath + ": " + ioEx.getMessage());
+	static InputStream openSource(File file) throws IOException {
+		InputStream raw = new FileInputStream(file);
+		if (file.getName().endsWith(LogArchiver.SEGMENT_SUFFIX)) {
+			try {
+				return new GZIPInputStream(raw, 64 * 1024);
+			} catch (IOException e) {
+				raw.close();
+				throw e;
 			}
 		}
-		return all;
+		return raw;
 	}
 }
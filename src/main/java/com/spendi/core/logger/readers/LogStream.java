@@ -0,0 +1,197 @@
+/**
+ * @file LogStream.java
+ * @module core.logger.readers
+ *
+ * @description
+ * Ленивый курсор по логам в диапазоне дат.
+ *
+ * Открывает источники (сегменты/части часов) по одному и отдаёт записи
+ * в хронологическом порядке. После каждой записи доступна {@link #position()},
+ * с которой можно продолжить чтение в следующем запросе.
+ *
+ * Не потокобезопасен; обязательно закрывать (try-with-resources).
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.logger.readers;
+
+/**
+ * ! java imports
+ */
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.logger.codec.LogCodec;
+import com.spendi.core.logger.model.CompressedLog;
+
+public final class LogStream implements Iterator<CompressedLog>, Closeable {
+
+	private final LogReader reader;
+	private final LocalDate toDate;
+
+	/** Текущая дата */
+	private LocalDate date;
+	/** Часы текущей даты, ещё не начатые */
+	private final Deque<Map.Entry<String, List<File>>> hours = new ArrayDeque<>();
+	/** Источники текущего часа, ещё не открытые */
+	private final Deque<File> sources = new ArrayDeque<>();
+
+	private String hour;
+	/** Сколько записей текущего часа прочитано */
+	private long offset;
+	/** Сколько записей нужно пропустить в начале часа (возобновление по курсору) */
+	private long skip;
+
+	private InputStream openIn;
+	private LogCodec.RecordReader openReader;
+
+	/** Предзагруженная запись и позиция после неё */
+	private CompressedLog pending;
+	private LogPosition pendingPosition;
+	/** Позиция после последней отданной записи */
+	private LogPosition position;
+	private boolean exhausted;
+
+	LogStream(LogReader reader, LogPosition from, String toDate) {
+		this.reader = reader;
+		this.toDate = LocalDate.parse(toDate);
+		this.date = LocalDate.parse(from.date());
+		this.position = from;
+
+		loadDate(from.hour());
+		// пропускаем часы раньше стартового; в стартовом — offset записей
+		if (!hours.isEmpty() && hours.peekFirst().getKey().equals(from.hour())) {
+			this.skip = from.offset();
+		}
+	}
+
+	/**
+	 * Позиция после последней возвращённой записи.
+	 * До первого {@link #next()} — стартовая позиция.
+	 */
+	public LogPosition position() {
+		return position;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (pending != null)
+			return true;
+		if (exhausted)
+			return false;
+		try {
+			advance();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to read logs: " + e.getMessage(), e);
+		}
+		return pending != null;
+	}
+
+	@Override
+	public CompressedLog next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		CompressedLog result = pending;
+		position = pendingPosition;
+		pending = null;
+		pendingPosition = null;
+		return result;
+	}
+
+	@Override
+	public void close() {
+		closeSource();
+		hours.clear();
+		sources.clear();
+		exhausted = true;
+	}
+
+	// ? === === === Internals === === ===
+
+	private void advance() throws IOException {
+		while (true) {
+			if (openReader != null) {
+				CompressedLog log = openReader.next();
+				if (log != null) {
+					offset++;
+					if (skip > 0) {
+						skip--;
+						continue;
+					}
+					pending = log;
+					pendingPosition = new LogPosition(date.toString(), hour, offset);
+					return;
+				}
+				closeSource();
+			}
+
+			if (!sources.isEmpty()) {
+				openSource(sources.pollFirst());
+				continue;
+			}
+
+			if (!hours.isEmpty()) {
+				Map.Entry<String, List<File>> next = hours.pollFirst();
+				hour = next.getKey();
+				offset = 0;
+				sources.addAll(next.getValue());
+				continue;
+			}
+
+			// следующая дата
+			if (date.isBefore(toDate)) {
+				date = date.plusDays(1);
+				skip = 0;
+				loadDate("00");
+				continue;
+			}
+
+			exhausted = true;
+			return;
+		}
+	}
+
+	/** Загружает часы даты, начиная с {@code fromHour} включительно */
+	private void loadDate(String fromHour) {
+		TreeMap<String, List<File>> byHour = reader.getSourcesByHour(date.toString());
+		hours.addAll(byHour.tailMap(fromHour, true).entrySet());
+	}
+
+	private void openSource(File file) {
+		try {
+			openIn = LogReader.openSource(file);
+			openReader = LogCodec.open(openIn, file.toString());
+		} catch (IOException e) {
+			// источник мог исчезнуть (архивация/retention) — пропускаем
+			System.err.println("[LogStream] Read error for " + file + ": " + e.getMessage());
+			closeSource();
+		}
+	}
+
+	private void closeSource() {
+		try {
+			if (openReader != null)
+				openReader.close();
+			else if (openIn != null)
+				openIn.close();
+		} catch (IOException ignore) {
+		} finally {
+			openReader = null;
+			openIn = null;
+		}
+	}
+}
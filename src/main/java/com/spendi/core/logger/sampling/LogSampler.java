@@ -0,0 +1,199 @@
+/**
+ * @file LogSampler.java
+ * @module core.logger.sampling
+ *
+ * @description
+ * Сэмплирование «горячих» мест логирования.
+ *
+ * Работает только для записей, помеченных {@code LogOptions.sampled(...)}:
+ * на каждое место (имя класса + сообщение) заводится token bucket
+ * с параметрами уровня из LoggerConfig.sampling(). Пока в корзине есть токены —
+ * запись проходит, иначе отбрасывается и учитывается в счётчике.
+ *
+ * Раз в summaryIntervalSec по каждому месту с отброшенными записями
+ * печатается сводка «Suppressed similar logs» (N, исходное сообщение).
+ *
+ * Никогда не сэмплируются:
+ * - ERROR / FATAL;
+ * - записи без флага sampled (например, «Heavy request»);
+ * - уровни с нулевой скоростью в конфиге.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.logger.sampling;
+
+/**
+ * ! java imports
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.LoggerConfig;
+import com.spendi.config.LoggerConfig.SamplingConfig;
+import com.spendi.config.LoggerConfig.SamplingLimit;
+import com.spendi.core.logger.model.LogData;
+import com.spendi.core.logger.types.ELogLevel;
+import com.spendi.core.types.EClassType;
+
+public final class LogSampler {
+
+	/** Сообщение сводки об отброшенных записях */
+	public static final String SUMMARY_MESSAGE = "Suppressed similar logs";
+
+	/** Предел числа отслеживаемых мест: новые сверх него не сэмплируются */
+	private static final int MAX_SITES = 1024;
+
+	private static final LogSampler INSTANCE = new LogSampler(LoggerConfig.getConfig().sampling(), System::nanoTime);
+
+	private final SamplingConfig config;
+	private final LongSupplier nanoClock;
+	private final Map<SiteKey, Site> sites = new ConcurrentHashMap<>();
+
+	LogSampler(SamplingConfig config, LongSupplier nanoClock) {
+		this.config = config;
+		this.nanoClock = nanoClock;
+	}
+
+	public static LogSampler getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Запускает периодическую печать сводок.
+	 *
+	 * @param emitter куда отдавать сводки (обычно Logger, в обход сэмплирования)
+	 */
+	public void startSummaries(SummaryEmitter emitter) {
+		if (!config.enabled())
+			return;
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "log-sampler");
+			t.setDaemon(true);
+			return t;
+		});
+		int period = config.summaryIntervalSec();
+		scheduler.scheduleAtFixedRate(() -> {
+			try {
+				drainSummaries().forEach(emitter::emit);
+			} catch (RuntimeException e) {
+				System.err.println("[LogSampler] Failed to emit summaries: " + e.getMessage());
+			}
+		}, period, period, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Решает, пропустить ли запись.
+	 *
+	 * @return true — печатать/сохранять, false — отбросить (учтено в сводке)
+	 */
+	public boolean allow(ELogLevel level, LogData data) {
+		if (!config.enabled())
+			return true;
+		if (data.getOptions() == null || !data.getOptions().isSampled())
+			return true;
+		if (level == ELogLevel.ERROR || level == ELogLevel.FATAL)
+			return true;
+
+		SamplingLimit limit = config.limitFor(level);
+		if (limit.unlimited())
+			return true;
+
+		SiteKey key = new SiteKey(data.getClassName(), data.getMessage(), level);
+		Site site = sites.get(key);
+		if (site == null) {
+			if (sites.size() >= MAX_SITES)
+				return true;
+			site = sites.computeIfAbsent(key,
+					k -> new Site(data.getClassType(), limit, nanoClock.getAsLong()));
+		}
+
+		if (site.tryAcquire(nanoClock.getAsLong()))
+			return true;
+
+		site.suppressed.incrementAndGet();
+		if (data.getOptions().shouldSave())
+			site.anySaved = true;
+		return false;
+	}
+
+	/**
+	 * Забирает накопленные счётчики отброшенных записей (и обнуляет их).
+	 */
+	List<Summary> drainSummaries() {
+		List<Summary> result = new ArrayList<>();
+		for (Map.Entry<SiteKey, Site> e : sites.entrySet()) {
+			Site site = e.getValue();
+			long n = site.suppressed.getAndSet(0);
+			if (n > 0) {
+				SiteKey k = e.getKey();
+				boolean save = site.anySaved;
+				site.anySaved = false;
+				result.add(new Summary(k.className(), site.classType, k.message(), k.level(), n, save));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Сводка по одному месту логирования.
+	 *
+	 * @param suppressed сколько записей отброшено за период
+	 * @param save       было ли среди отброшенных что-то, что сохранялось бы в файл
+	 */
+	public record Summary(String className, EClassType classType, String message, ELogLevel level,
+			long suppressed, boolean save) {}
+
+	@FunctionalInterface
+	public interface SummaryEmitter {
+		void emit(Summary summary);
+	}
+
+	private record SiteKey(String className, String message, ELogLevel level) {}
+
+	/**
+	 * Token bucket одного места. Синхронизация на объекте места:
+	 * конкуренция только между запросами, пишущими одну и ту же строку.
+	 */
+	private static final class Site {
+		private final EClassType classType;
+		private final double ratePerNano;
+		private final double capacity;
+		private double tokens;
+		private long lastRefill;
+
+		final AtomicLong suppressed = new AtomicLong();
+		volatile boolean anySaved;
+
+		Site(EClassType classType, SamplingLimit limit, long now) {
+			this.classType = classType;
+			this.ratePerNano = limit.ratePerSec() / 1_000_000_000d;
+			this.capacity = limit.burst();
+			this.tokens = capacity;
+			this.lastRefill = now;
+		}
+
+		synchronized boolean tryAcquire(long now) {
+			long elapsed = now - lastRefill;
+			if (elapsed > 0) {
+				tokens = Math.min(capacity, tokens + elapsed * ratePerNano);
+				lastRefill = now;
+			}
+			if (tokens >= 1) {
+				tokens -= 1;
+				return true;
+			}
+			return false;
+		}
+	}
+}
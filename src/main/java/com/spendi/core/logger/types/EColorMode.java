@@ -0,0 +1,21 @@
+/**
+ * @file EColorMode.java
+ * @module core/logger/types
+ * @description
+ * Режим ANSI-подсветки консольного вывода.
+ * - AUTO — цвета только если stdout подключён к терминалу (и не задан NO_COLOR);
+ * - ALWAYS — всегда;
+ * - NEVER — никогда.
+ *
+ * @author Dmytro Shakh
+ */
+package com.spendi.core.logger.types;
+
+/**
+ * Режим подсветки консольного вывода.
+ */
+public enum EColorMode {
+	AUTO,
+	ALWAYS,
+	NEVER
+}
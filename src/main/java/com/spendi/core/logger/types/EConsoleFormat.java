@@ -0,0 +1,19 @@
+/**
+ * @file EConsoleFormat.java
+ * @module core/logger/types
+ * @description
+ * Формат вывода логов в консоль.
+ * - PRETTY — человекочитаемые строки с выравниванием колонок (для разработки);
+ * - JSON — одна JSON-запись на строку (для контейнеров и сборщиков логов).
+ *
+ * @author Dmytro Shakh
+ */
+package com.spendi.core.logger.types;
+
+/**
+ * Формат консольного вывода.
+ */
+public enum EConsoleFormat {
+	PRETTY,
+	JSON
+}
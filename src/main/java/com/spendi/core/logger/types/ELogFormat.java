@@ -0,0 +1,50 @@
+/**
+ * @file ELogFormat.java
+ * @module core/logger/types
+ * @description
+ * Формат хранения сохранённых логов на диске.
+ * - JSON — NDJSON (одна запись на строку), без заголовка, совместим со старыми файлами;
+ * - CBOR — бинарные записи с префиксом длины и самоописывающим заголовком файла.
+ *
+ * @author Dmytro Shakh
+ */
+package com.spendi.core.logger.types;
+
+/**
+ * Формат файлов логов.
+ */
+public enum ELogFormat {
+	JSON((byte) 0, ".json"),
+	CBOR((byte) 1, ".cbor");
+
+	/** Код формата в заголовке бинарного файла */
+	private final byte code;
+	/** Расширение файла части часа (NN.json / NN.cbor) */
+	private final String extension;
+
+	ELogFormat(byte code, String extension) {
+		this.code = code;
+		this.extension = extension;
+	}
+
+	public byte getCode() {
+		return code;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	/**
+	 * Найти формат по коду из заголовка файла.
+	 *
+	 * @return формат или null, если код неизвестен
+	 */
+	public static ELogFormat fromCode(byte code) {
+		for (ELogFormat f : values()) {
+			if (f.code == code)
+				return f;
+		}
+		return null;
+	}
+}
@@ -22,13 +22,40 @@ public class LogOptions {
 	 */
 	private final boolean save;
 
+	/**
+	 * Флаг «горячего» места логирования: такие записи проходят через
+	 * LogSampler и могут быть отброшены при превышении лимита.
+	 * ERROR/FATAL не сэмплируются никогда.
+	 */
+	private final boolean sampled;
+
 	/**
 	 * Создает новый экземпляр LogOptions с указанными параметрами.
 	 *
 	 * @param save флаг сохранения логов
 	 */
 	public LogOptions(boolean save) {
+		this(save, false);
+	}
+
+	/**
+	 * Создает новый экземпляр LogOptions с указанными параметрами.
+	 *
+	 * @param save    флаг сохранения логов
+	 * @param sampled разрешить сэмплирование записи
+	 */
+	public LogOptions(boolean save, boolean sampled) {
 		this.save = save;
+		this.sampled = sampled;
+	}
+
+	/**
+	 * Опции для «горячего» места: запись сэмплируется по лимитам уровня.
+	 *
+	 * @param save флаг сохранения логов
+	 */
+	public static LogOptions sampled(boolean save) {
+		return new LogOptions(save, true);
 	}
 
 	/**
@@ -40,8 +67,17 @@ public class LogOptions {
 		return save;
 	}
 
+	/**
+	 * Проверяет, можно ли сэмплировать запись.
+	 *
+	 * @return true если запись проходит через лимиты LogSampler
+	 */
+	public boolean isSampled() {
+		return sampled;
+	}
+
 	@Override
 	public String toString() {
-		return "LogOptions{" + "save=" + save + '}';
+		return "LogOptions{" + "save=" + save + ", sampled=" + sampled + '}';
 	}
 }
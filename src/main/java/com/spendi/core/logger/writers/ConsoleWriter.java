@@ -4,6 +4,18 @@
  *
  * @description
  * Консольный вывод логов с форматированием, эквивалентный TS-версии.
+ *
+ * Режимы (LoggerConfig.console()):
+ * - PRETTY — колонки с выравниванием и ANSI-подсветкой;
+ * - JSON — одна JSON-запись на строку (для контейнеров, без ANSI).
+ *
+ * Подсветка в режиме AUTO включается только если stdout — терминал
+ * и не задана переменная окружения NO_COLOR.
+ *
+ * Строка собирается в переиспользуемый StringBuilder текущего потока,
+ * кодируется в переиспользуемый ByteBuffer и пишется в канал stdout одним
+ * вызовом write под общей блокировкой — без String.format, промежуточных
+ * строк и синхронизированного PrintStream.println.
  */
 
 package com.spendi.core.logger.writers;
@@ -11,25 +23,40 @@ package com.spendi.core.logger.writers;
 /**
  * ! lib imports
  */
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * ! java imports
  */
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
 /**
  * ! my imports
  */
 import com.spendi.config.LoggerConfig;
+import com.spendi.core.json.Jsons;
+import com.spendi.core.logger.types.EColorMode;
+import com.spendi.core.logger.types.EConsoleFormat;
 import com.spendi.core.logger.types.ELogLevel;
 import com.spendi.core.logger.model.Log;
 import com.spendi.core.logger.types.LogOptions;
 import com.spendi.core.types.AnsiColor;
 import com.spendi.core.types.EClassType;
-import com.spendi.core.utils.InstantUtils;
-import com.spendi.core.utils.StringUtils;
 
 /**
  * Работает в static-стиле и читает настройки из глобального
@@ -38,7 +65,20 @@ import com.spendi.core.utils.StringUtils;
 public final class ConsoleWriter {
 
 	private static final LoggerConfig CONFIG = LoggerConfig.getConfig();
-	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final ObjectMapper MAPPER = Jsons.mapper();
+
+	/** Формат вывода и признак подсветки вычисляются один раз */
+	private static final boolean JSON_LINES = CONFIG.console().format() == EConsoleFormat.JSON;
+	private static final boolean COLORS = !JSON_LINES && resolveColors(CONFIG.console().colors());
+
+	/** Буферы больше этого размера не удерживаем в ThreadLocal после записи */
+	private static final int MAX_RETAINED_CHARS = 16 * 1024;
+
+	/** Канал stdout; запись строки — один write под блокировкой */
+	private static final FileChannel OUT = new FileOutputStream(FileDescriptor.out).getChannel();
+	private static final Object OUT_LOCK = new Object();
+
+	private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
 
 	private ConsoleWriter() {
 	}
@@ -57,9 +97,6 @@ public final class ConsoleWriter {
 		write(level, moduleType, moduleName, message, requestId, details, new LogOptions(true));
 	}
 
-	/**
-	 * Вариант как в TS: печать по полям с настройками логирования.
-	 */
 	/**
 	 * Записывает сообщение в консоль с учетом переданных параметров логирования.
 	 *
@@ -80,70 +117,196 @@ public final class ConsoleWriter {
 			String requestId,
 			Map<String, Object> details,
 			LogOptions options) {
+		write(LocalDateTime.now(), level, moduleType, moduleName, message, requestId, details);
+	}
+
+	/**
+	 * Удобный оверлоад: печать по нашей модели Log.
+	 */
+	public static void write(Log log) {
+		write(
+				log.getCreatedAt(),
+				log.getLevel(),
+				log.getClassType(),
+				log.getClassName(),
+				log.getMessage(),
+				log.getRequestId(),
+				log.getDetails());
+	}
+
+	// ? === === === Formatting === === ===
+
+	private static void write(
+			LocalDateTime time,
+			ELogLevel level,
+			EClassType moduleType,
+			String moduleName,
+			String message,
+			String requestId,
+			Map<String, Object> details) {
+
+		Buffers buf = BUFFERS.get();
+		StringBuilder sb = buf.sb;
+		sb.setLength(0);
+
+		if (JSON_LINES) {
+			formatJson(buf, time, level, moduleType, moduleName, message, requestId, details);
+		} else {
+			formatPretty(buf, time, level, moduleType, moduleName, message, requestId, details);
+		}
+		sb.append('\n');
+
+		flush(buf);
+	}
+
+	/**
+	 * [LEVEL] HH:mm:ss.SSS TYPE: Name message
+	 * Details: {...}
+	 * RequestId: ...
+	 */
+	private static void formatPretty(
+			Buffers buf,
+			LocalDateTime time,
+			ELogLevel level,
+			EClassType moduleType,
+			String moduleName,
+			String message,
+			String requestId,
+			Map<String, Object> details) {
+		StringBuilder sb = buf.sb;
+		String levelColor = getLevelColor(level);
 
 		// [LEVEL]
-		final String paddedLevel = AnsiColor.WHITE.getCode()
-				+ "["
-				+ getLevelColor(level)
-				+ StringUtils.padString(level.getLabel(), CONFIG.getMaxLevelWidth())
-				+ AnsiColor.WHITE.getCode()
-				+ "]";
+		color(sb, AnsiColor.WHITE.getCode()).append('[');
+		color(sb, levelColor);
+		appendPadded(sb, level.getLabel(), CONFIG.getMaxLevelWidth());
+		color(sb, AnsiColor.WHITE.getCode()).append(']').append(' ');
 
 		// time
-		final String paddedTime = AnsiColor.GRAY.getCode()
-				+ StringUtils.padString(InstantUtils.get24HourTime(), CONFIG.getMaxCurrentTimeWidth())
-				+ AnsiColor.WHITE.getCode();
+		color(sb, AnsiColor.GRAY.getCode());
+		int timeStart = sb.length();
+		appendTime(sb, time);
+		pad(sb, CONFIG.getMaxCurrentTimeWidth() - (sb.length() - timeStart));
+		color(sb, AnsiColor.WHITE.getCode()).append(' ');
 
 		// classType
-		final String paddedType = AnsiColor.CYAN.getCode()
-				+ StringUtils.padString(moduleType.name(), CONFIG.getMaxClassTypeWidth())
-				+ AnsiColor.WHITE.getCode();
+		color(sb, AnsiColor.CYAN.getCode());
+		appendPadded(sb, moduleType.name(), CONFIG.getMaxClassTypeWidth());
+		color(sb, AnsiColor.WHITE.getCode()).append(':').append(' ');
 
 		// className
-		final String paddedName = AnsiColor.CYAN.getCode()
-				+ StringUtils.padString(moduleName, CONFIG.getMaxClassNameWidth())
-				+ AnsiColor.WHITE.getCode();
-
-		// base line
-		String logMessage = String.format(
-				"%s %s %s: %s %s%s",
-				paddedLevel,
-				paddedTime,
-				paddedType,
-				paddedName,
-				getLevelColor(level),
-				message) + AnsiColor.WHITE.getCode();
-
-		// Details (если есть и включены в настройках) — новой строкой
+		color(sb, AnsiColor.CYAN.getCode());
+		appendPadded(sb, moduleName, CONFIG.getMaxClassNameWidth());
+		color(sb, AnsiColor.WHITE.getCode()).append(' ');
+
+		// message
+		color(sb, levelColor).append(message);
+		color(sb, AnsiColor.WHITE.getCode());
+
+		// Details (если есть) — новой строкой
 		if (details != null && !details.isEmpty()) {
-			logMessage += "\nDetails: "
-					+ AnsiColor.GRAY.getCode()
-					+ toJson(details)
-					+ AnsiColor.WHITE.getCode();
+			sb.append("\nDetails: ");
+			color(sb, AnsiColor.GRAY.getCode());
+			appendDetails(buf, details);
+			color(sb, AnsiColor.WHITE.getCode());
 		}
 
-		// RequestId (если есть и включен в настройках) — новой строкой
+		// RequestId (если есть) — новой строкой
 		if (requestId != null) {
-			logMessage += "\nRequestId: "
-					+ AnsiColor.GRAY.getCode()
-					+ requestId
-					+ AnsiColor.WHITE.getCode();
+			sb.append("\nRequestId: ");
+			color(sb, AnsiColor.GRAY.getCode()).append(requestId);
+			color(sb, AnsiColor.WHITE.getCode());
 		}
-
-		System.out.println(logMessage);
 	}
 
 	/**
-	 * Удобный оверлоад: печать по нашей модели Log.
+	 * {"time":"...","level":"INFO","classType":"...","className":"...","message":"...","requestId":"...","details":{...}}
 	 */
-	public static void write(Log log) {
-		write(
-				log.getLevel(),
-				log.getClassType(),
-				log.getClassName(),
-				log.getMessage(),
-				log.getRequestId(),
-				log.getDetails());
+	private static void formatJson(
+			Buffers buf,
+			LocalDateTime time,
+			ELogLevel level,
+			EClassType moduleType,
+			String moduleName,
+			String message,
+			String requestId,
+			Map<String, Object> details) {
+		StringBuilder sb = buf.sb;
+		try (JsonGenerator gen = MAPPER.createGenerator(buf.writer)) {
+			gen.writeStartObject();
+			gen.writeStringField("time", DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(
+					time.atZone(ZoneId.systemDefault())));
+			gen.writeStringField("level", level.getLabel());
+			gen.writeStringField("classType", moduleType.name());
+			gen.writeStringField("className", moduleName);
+			gen.writeStringField("message", message);
+			if (requestId != null) {
+				gen.writeStringField("requestId", requestId);
+			}
+			if (details != null && !details.isEmpty()) {
+				gen.writeFieldName("details");
+				MAPPER.writeValue(gen, details);
+			}
+			gen.writeEndObject();
+		} catch (IOException e) {
+			// запись в StringBuilder не бросает IO; сюда попадаем только при сбое
+			// сериализации деталей — печатаем запись без них
+			sb.setLength(0);
+			sb.append("{\"level\":\"").append(level.getLabel()).append("\",\"message\":\"")
+					.append(String.valueOf(message).replace("\\", "\\\\").replace("\"", "\\\"")).append("\"}");
+		}
+	}
+
+	private static void appendDetails(Buffers buf, Map<String, Object> details) {
+		StringBuilder sb = buf.sb;
+		int mark = sb.length();
+		try {
+			MAPPER.writeValue(buf.writer, details);
+		} catch (IOException e) {
+			// fallback на Map#toString(), если JSON-сериализация не удалась
+			sb.setLength(mark);
+			sb.append(details);
+		}
+	}
+
+	private static StringBuilder color(StringBuilder sb, String code) {
+		if (COLORS)
+			sb.append(code);
+		return sb;
+	}
+
+	/** Аналог String.format("%-Ns") без промежуточных строк */
+	private static void appendPadded(StringBuilder sb, String str, int width) {
+		if (str == null) {
+			pad(sb, width);
+			return;
+		}
+		sb.append(str);
+		pad(sb, width - str.length());
+	}
+
+	private static void pad(StringBuilder sb, int count) {
+		for (int i = 0; i < count; i++)
+			sb.append(' ');
+	}
+
+	/** HH:mm:ss.SSS */
+	private static void appendTime(StringBuilder sb, LocalDateTime t) {
+		append2(sb, t.getHour()).append(':');
+		append2(sb, t.getMinute()).append(':');
+		append2(sb, t.getSecond()).append('.');
+		int ms = t.getNano() / 1_000_000;
+		if (ms < 100)
+			sb.append('0');
+		if (ms < 10)
+			sb.append('0');
+		sb.append(ms);
+	}
+
+	private static StringBuilder append2(StringBuilder sb, int v) {
+		if (v < 10)
+			sb.append('0');
+		return sb.append(v);
 	}
 
 	private static String getLevelColor(ELogLevel level) {
@@ -155,12 +318,115 @@ public final class ConsoleWriter {
 		};
 	}
 
-	private static String toJson(Map<String, Object> details) {
+	// ? === === === Output === === ===
+
+	/**
+	 * Кодирует собранную строку в байтовый буфер потока и пишет его в stdout.
+	 */
+	private static void flush(Buffers buf) {
+		ByteBuffer out = buf.encode();
 		try {
-			return MAPPER.writeValueAsString(details);
-		} catch (JsonProcessingException e) {
-			// fallback на Map#toString(), если JSON-сериализация не удалась
-			return details.toString();
+			synchronized (OUT_LOCK) {
+				while (out.hasRemaining()) {
+					OUT.write(out);
+				}
+			}
+		} catch (IOException e) {
+			// канал недоступен (закрыт stdout и т.п.) — последний шанс через System.out
+			System.out.print(buf.sb);
+		} finally {
+			buf.trim();
+		}
+	}
+
+	private static boolean resolveColors(EColorMode mode) {
+		return switch (mode) {
+			case ALWAYS -> true;
+			case NEVER -> false;
+			case AUTO -> System.console() != null && System.getenv("NO_COLOR") == null
+					&& !"dumb".equals(System.getenv("TERM"));
+		};
+	}
+
+	/**
+	 * Переиспользуемые буферы одного потока.
+	 */
+	private static final class Buffers {
+		final StringBuilder sb = new StringBuilder(512);
+		final Writer writer = new StringBuilderWriter(sb);
+		final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		ByteBuffer bytes = ByteBuffer.allocate(1024);
+
+		/** sb → bytes (растит буфер при необходимости), готов к чтению */
+		ByteBuffer encode() {
+			int needed = (int) (sb.length() * encoder.maxBytesPerChar()) + 1;
+			if (bytes.capacity() < needed) {
+				bytes = ByteBuffer.allocate(needed);
+			}
+			bytes.clear();
+			encoder.reset();
+			CharBuffer chars = CharBuffer.wrap(sb);
+			CoderResult r = encoder.encode(chars, bytes, true);
+			if (!r.isError()) {
+				encoder.flush(bytes);
+			}
+			bytes.flip();
+			return bytes;
+		}
+
+		/** Не держим гигантские буферы после редких больших записей */
+		void trim() {
+			if (sb.capacity() > MAX_RETAINED_CHARS) {
+				sb.setLength(0);
+				sb.trimToSize();
+				sb.ensureCapacity(512);
+			}
+			if (bytes.capacity() > MAX_RETAINED_CHARS * 3) {
+				bytes = ByteBuffer.allocate(1024);
+			}
+		}
+	}
+
+	/**
+	 * Writer поверх StringBuilder без синхронизации (в отличие от StringWriter/StringBuffer).
+	 * close() ничего не делает — Jackson закрывает target после writeValue.
+	 */
+	private static final class StringBuilderWriter extends Writer {
+		private final StringBuilder sb;
+
+		StringBuilderWriter(StringBuilder sb) {
+			this.sb = sb;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			sb.append(cbuf, off, len);
+		}
+
+		@Override
+		public void write(String str, int off, int len) {
+			sb.append(str, off, off + len);
+		}
+
+		@Override
+		public void write(int c) {
+			sb.append((char) c);
+		}
+
+		@Override
+		public Writer append(CharSequence csq) {
+			sb.append(csq);
+			return this;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
 		}
 	}
 }
@@ -4,34 +4,33 @@
  *
  * @description
  * Отвечает за файловое сохранение логов по схеме:
- * logs/YYYY-MM-DD/HH/NN.json
+ * logs/YYYY-MM-DD/HH/NN.json (или NN.cbor при SPENDI_LOG_FORMAT=CBOR)
  * где:
  * - YYYY-MM-DD — дата
  * - HH — час в 24-часовом формате
  * - NN — номер файла за этот час
  *
+ * Кодирование записей выполняет LogCodec: NDJSON либо бинарные записи
+ * с префиксом длины и заголовком файла.
+ *
  * Автоматически создаёт директории и переключается на новый файл,
  * если текущий превышает допустимый размер.
  *
+ * При смене часа закрытая директория передаётся в LogArchiver,
+ * который в фоне сжимает её в logs/YYYY-MM-DD/HH.json.gz.
+ *
  * @author Dmytro Shakh
  */
 
 package com.spendi.core.logger.writers;
 
-/**
- * ! lib imports
- */
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import java.io.BufferedWriter;
 /**
  * ! java imports
  */
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
 
 /**
  * ! my imports
@@ -39,6 +38,8 @@ import java.nio.charset.StandardCharsets;
 import com.spendi.config.LoggerConfig;
 import com.spendi.core.base.CoreClass;
 import com.spendi.core.types.EClassType;
+import com.spendi.core.logger.archive.LogArchiver;
+import com.spendi.core.logger.codec.LogCodec;
 import com.spendi.core.logger.model.CompressedLog;
 import com.spendi.core.utils.InstantUtils;
 
@@ -48,8 +49,8 @@ public final class FileLogWriter extends CoreClass {
 	/** Синглтон */
 	private static final FileLogWriter INSTANCE = new FileLogWriter();
 
-	/** Текущий открытый writer (держим между записями) */
-	private BufferedWriter writer;
+	/** Текущий открытый поток (держим между записями) */
+	private BufferedOutputStream writer;
 	/** Текущий размер файла в байтах (чтобы не дергать FS на каждый append) */
 	private long currentFileSize;
 
@@ -62,7 +63,8 @@ public final class FileLogWriter extends CoreClass {
 	private String currentHour; // HH
 	private int currentFileIndex;
 
-	private final ObjectMapper objectMapper = new ObjectMapper();
+	/** Кодек записей в формате из конфига */
+	private final LogCodec codec = LogCodec.of(CONFIG.file().format());
 
 	private FileLogWriter() {
 
@@ -79,6 +81,9 @@ public final class FileLogWriter extends CoreClass {
 		ensureDirectoryStructure();
 		openOrReopenWriter(); // откроем writer сразу
 
+		// досжимаем часы, оставшиеся от прошлых запусков
+		LogArchiver.getInstance().archivePendingAsync(currentDate, currentHour);
+
 		// Безопасное закрытие при завершении JVM
 		Runtime.getRuntime().addShutdownHook(new Thread(this::closeWriterQuietly));
 	}
@@ -95,8 +100,8 @@ public final class FileLogWriter extends CoreClass {
 		updateStateIfNeeded();
 
 		try {
-			String line = objectMapper.writeValueAsString(log) + "\n";
-			long lineSize = line.getBytes(StandardCharsets.UTF_8).length;
+			byte[] line = codec.encode(log);
+			long lineSize = line.length;
 
 			// проверяем размер, если превышает — увеличиваем индекс и открываем новый файл
 			if (currentFileSize + lineSize > maxFileSize) {
@@ -120,7 +125,7 @@ public final class FileLogWriter extends CoreClass {
 	 */
 	public String getCurrentLogFilePath() {
 		String hourDir = baseDir + File.separator + currentDate + File.separator + currentHour;
-		String fileName = String.format("%02d.json", currentFileIndex);
+		String fileName = String.format("%02d", currentFileIndex) + codec.getFormat().getExtension();
 		return hourDir + File.separator + fileName;
 	}
 
@@ -151,6 +156,9 @@ public final class FileLogWriter extends CoreClass {
 		if (!dateChanged && !hourChanged)
 			return;
 
+		String prevDate = currentDate;
+		String prevHour = currentHour;
+
 		currentDate = newDate;
 		currentHour = newHour;
 		currentFileIndex = 1;
@@ -162,6 +170,9 @@ public final class FileLogWriter extends CoreClass {
 		} catch (IOException e) {
 			throw new RuntimeException("Failed to open new log file after date/hour change", e);
 		}
+
+		// старый час закрыт — отдаём его на архивацию
+		LogArchiver.getInstance().archiveHourAsync(prevDate, prevHour);
 	}
 
 	/**
@@ -173,21 +184,22 @@ public final class FileLogWriter extends CoreClass {
 		}
 		ensureDirectoryStructure(); // <--- вот эта строка решает проблему
 		File file = new File(getCurrentLogFilePath());
-		writer = new BufferedWriter(
-				new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8),
-				16 * 1024);
+		writer = new BufferedOutputStream(new FileOutputStream(file, true), 16 * 1024);
 		currentFileSize = file.exists() ? file.length() : 0;
+
+		// новый файл — пишем заголовок формата (для NDJSON он пустой)
+		if (currentFileSize == 0) {
+			byte[] header = codec.header();
+			writer.write(header);
+			writer.flush();
+			currentFileSize = header.length;
+		}
 	}
 
 	/** Открывает (или пере-открывает) текущий файл согласно состоянию */
 	private void openOrReopenWriter() {
 		try {
-			ensureDirectoryStructure();
-			File file = new File(getCurrentLogFilePath());
-			writer = new BufferedWriter(
-					new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8),
-					16 * 1024);
-			currentFileSize = file.exists() ? file.length() : 0;
+			openNewFile();
 		} catch (IOException e) {
 			throw new RuntimeException("Failed to open log file: " + getCurrentLogFilePath(), e);
 		}
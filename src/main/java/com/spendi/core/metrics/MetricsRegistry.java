@@ -0,0 +1,54 @@
+/**
+ * @file MetricsRegistry.java
+ * @module core/metrics
+ *
+ * @description
+ * Реестр метрик процесса. Компонент регистрирует показатели как функции
+ * (gauge) — значение вычисляется в момент снимка, поэтому регистрация
+ * ничего не стоит на горячем пути.
+ *
+ * Снимок отдаётся администратору через GET /admin/metrics.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.metrics;
+
+/**
+ * ! java imports
+ */
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+public final class MetricsRegistry {
+
+	private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+	private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+
+	private MetricsRegistry() {
+	}
+
+	public static MetricsRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Зарегистрировать показатель (повторная регистрация имени заменяет прежнюю).
+	 *
+	 * @param name  имя вида "files.cache.hitRate"
+	 * @param value функция чтения текущего значения; должна быть дешёвой и потокобезопасной
+	 */
+	public void gauge(String name, Supplier<? extends Number> value) {
+		gauges.put(name, value);
+	}
+
+	/** Текущие значения всех показателей, по имени. */
+	public Map<String, Number> snapshot() {
+		Map<String, Number> out = new TreeMap<>();
+		gauges.forEach((name, value) -> out.put(name, value.get()));
+		return out;
+	}
+}
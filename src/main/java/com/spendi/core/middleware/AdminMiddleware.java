@@ -0,0 +1,59 @@
+/**
+ * @file AdminMiddleware.java
+ * @module core/middleware
+ *
+ * Пропускает только администраторов: пользователь из RequestAttr.AUTH_SESSION
+ * должен входить в список SPENDI_ADMIN_USER_IDS.
+ * Ставится после AuthMiddleware. Реализована как Singleton (без состояния).
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.middleware;
+
+/**
+ * ! java imports
+ */
+import java.util.Set;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.AuthConfig;
+import com.spendi.core.base.BaseMiddleware;
+import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.base.http.MiddlewareChain;
+import com.spendi.core.exceptions.ForbiddenException;
+import com.spendi.core.exceptions.UnauthorizedException;
+import com.spendi.modules.session.SessionEntity;
+
+public final class AdminMiddleware extends BaseMiddleware {
+
+	private static final AdminMiddleware INSTANCE = new AdminMiddleware();
+
+	private final Set<String> adminUserIds = AuthConfig.getConfig().getAdminUserIds();
+
+	private AdminMiddleware() {
+		super(AdminMiddleware.class.getSimpleName());
+	}
+
+	public static AdminMiddleware getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public void handle(HttpContext ctx, MiddlewareChain chain) throws Exception {
+		SessionEntity s = ctx.getAuthSession();
+		if (s == null) {
+			throw new UnauthorizedException("Authentication required");
+		}
+
+		String userId = s.getUserHexId();
+		if (userId == null || !adminUserIds.contains(userId.toLowerCase())) {
+			this.warn("Admin access denied", ctx.getRequestId(), detailsOf("userId", userId), true);
+			throw new ForbiddenException("Admin access required");
+		}
+
+		chain.next();
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ * @file AdmissionControlMiddleware.java
+ * @module core/middleware
+ *
+ * Сброс нагрузки: глобальная мидлвара перед всеми маршрутами допускает запрос,
+ * только пока запросов в работе меньше адаптивного лимита
+ * (AdaptiveConcurrencyLimiter), иначе сразу отвечает 503 с Retry-After — до
+ * сессии, валидации и обращений к Mongo. Когда Mongo замедляется, задержка
+ * растёт, лимит падает, и лишние запросы не копятся в потоках сервера.
+ *
+ * Маршруты из SPENDI_ADMISSION_PRIORITY_PATHS (префиксы после API-префикса)
+ * дешёвые: им доступен весь лимит, обычным — за вычетом резерва.
+ *
+ * Место освобождается в after-фазе ({@link #release()}), которая выполняется
+ * и после ошибок; время ответа и статус 5xx обычных маршрутов идут в оценку
+ * лимита (быстрые приоритетные ответы размыли бы её).
+ *
+ * Подключение (App):
+ * server.useBefore(AdmissionControlMiddleware.getInstance());
+ * server.useAfter(AdmissionControlMiddleware.getInstance().release());
+ *
+ * Показатели: admission.limit / .inFlight / .rejected / .rejectedPriority / .baseRttMs.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.middleware;
+
+/**
+ * ! java imports
+ */
+import java.util.Set;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.AdmissionConfig;
+import com.spendi.config.ApiConfig;
+import com.spendi.core.admission.AdaptiveConcurrencyLimiter;
+import com.spendi.core.base.BaseMiddleware;
+import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.base.http.Middleware;
+import com.spendi.core.base.http.MiddlewareChain;
+import com.spendi.core.base.http.RequestAttr;
+import com.spendi.core.exceptions.ServiceUnavailableException;
+import com.spendi.core.metrics.MetricsRegistry;
+
+public final class AdmissionControlMiddleware extends BaseMiddleware {
+
+	// -------- Singleton --------
+	private static final AdmissionControlMiddleware INSTANCE = new AdmissionControlMiddleware();
+
+	public static AdmissionControlMiddleware getInstance() {
+		return INSTANCE;
+	}
+
+	private final AdmissionConfig cfg = AdmissionConfig.getConfig();
+	private final String apiPrefix = ApiConfig.getConfig().getApiPrefix();
+	private final Set<String> priorityPaths = cfg.getPriorityPaths();
+	private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(cfg.getInitialLimit(),
+			cfg.getMinLimit(), cfg.getMaxLimit(), cfg.getPriorityReservePercent());
+
+	/** Допуск запроса: момент (System.nanoTime) и приоритет маршрута */
+	private record Admission(long at, boolean priority) {
+	}
+
+	private final Middleware release = (ctx, chain) -> {
+		Admission admission = ctx.getAttr(RequestAttr.ADMISSION, Admission.class);
+		if (admission != null) {
+			ctx.setAttr(RequestAttr.ADMISSION, null);
+			if (admission.priority())
+				limiter.releaseUnsampled();
+			else
+				limiter.release(System.nanoTime() - admission.at(), ctx.res().getStatus() >= 500);
+		}
+		chain.next();
+	};
+
+	private AdmissionControlMiddleware() {
+		super(AdmissionControlMiddleware.class.getSimpleName());
+
+		MetricsRegistry m = MetricsRegistry.getInstance();
+		m.gauge("admission.limit", limiter::getLimit);
+		m.gauge("admission.inFlight", limiter::getInFlight);
+		m.gauge("admission.rejected", limiter::getRejected);
+		m.gauge("admission.rejectedPriority", limiter::getRejectedPriority);
+		m.gauge("admission.baseRttMs", limiter::getBaseRttMs);
+	}
+
+	/** After-мидлвара, освобождающая место допущенного запроса. */
+	public Middleware release() {
+		return release;
+	}
+
+	// -------- Middleware --------
+	@Override
+	public void handle(HttpContext ctx, MiddlewareChain chain) throws Exception {
+		if (!cfg.isEnabled()) {
+			chain.next();
+			return;
+		}
+
+		boolean priority = this.isPriority(ctx.req().path());
+		if (!limiter.tryAcquire(priority)) {
+			ctx.res().header("Retry-After", String.valueOf(cfg.getRetryAfterSeconds()));
+			throw new ServiceUnavailableException("Service temporarily overloaded",
+					detailsOf("limit", limiter.getLimit(), "retryAfterSeconds", cfg.getRetryAfterSeconds()));
+		}
+		ctx.setAttr(RequestAttr.ADMISSION, new Admission(System.nanoTime(), priority));
+		chain.next();
+	}
+
+	private boolean isPriority(String path) {
+		String p = path.startsWith(apiPrefix) ? path.substring(apiPrefix.length()) : path;
+		for (String prefix : priorityPaths) {
+			if (p.startsWith(prefix))
+				return true;
+		}
+		return false;
+	}
+}
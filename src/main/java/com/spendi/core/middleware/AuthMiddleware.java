@@ -23,6 +23,7 @@ import com.spendi.core.base.http.HttpContext;
 import com.spendi.core.base.http.MiddlewareChain;
 import com.spendi.core.base.http.RequestAttr;
 import com.spendi.core.exceptions.UnauthorizedException;
+import com.spendi.core.logger.types.LogOptions;
 import com.spendi.core.utils.CookieUtils;
 import com.spendi.modules.session.SessionEntity;
 import com.spendi.modules.session.SessionService;
@@ -44,6 +45,12 @@ public final class AuthMiddleware extends BaseMiddleware {
 
 	@Override
 	public void handle(HttpContext ctx, MiddlewareChain chain) throws Exception {
+		// Сессия уже проверена (под-запросы POST /batch проверяются один раз на пакет)
+		if (ctx.getAuthSession() != null) {
+			chain.next();
+			return;
+		}
+
 		String sid = CookieUtils.readCookie(ctx.req(), authCfg.getCookieName());
 		if (sid == null || sid.isBlank()) {
 			throw new UnauthorizedException("Auth cookie is missing", Map.of("cookie", authCfg.getCookieName()));
@@ -58,7 +65,8 @@ public final class AuthMiddleware extends BaseMiddleware {
 		} catch (RuntimeException ignore) {
 		}
 
-		this.info("Session id founded", ctx.getRequestId(), detailsOf("sessionId", sid, "userId", s.getUserHexId()));
+		this.info("Session id founded", ctx.getRequestId(), detailsOf("sessionId", sid, "userId", s.getUserHexId()),
+				LogOptions.sampled(false));
 
 		// Положить в контекст для следующих хэндлеров/мидлвар
 		ctx.setAttr(RequestAttr.AUTH_SESSION, s);
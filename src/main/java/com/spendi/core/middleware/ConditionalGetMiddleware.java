@@ -0,0 +1,49 @@
+/**
+ * @file ConditionalGetMiddleware.java
+ * @module core/middleware
+ *
+ * Включает условные GET для маршрута (декларативно, локальной мидлварой):
+ * JSON-ответ 200 получает слабый ETag, а запрос с совпавшим If-None-Match —
+ * 304 без тела.
+ *
+ * ETag берётся из версии ресурса, если обработчик вызвал
+ * {@code HttpContext#notModified(version, lastModified)} (тогда работает и
+ * If-Modified-Since, а тело при совпадении не строится), иначе — из хеша
+ * сериализованного тела.
+ *
+ * Пример:
+ * this.get("/me", controller::getMe, ConditionalGetMiddleware.getInstance());
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.middleware;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.BaseMiddleware;
+import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.base.http.MiddlewareChain;
+import com.spendi.core.base.http.RequestAttr;
+
+public class ConditionalGetMiddleware extends BaseMiddleware {
+
+	// -------- Singleton --------
+	private static final ConditionalGetMiddleware INSTANCE = new ConditionalGetMiddleware();
+
+	public static ConditionalGetMiddleware getInstance() {
+		return INSTANCE;
+	}
+
+	private ConditionalGetMiddleware() {
+		super(ConditionalGetMiddleware.class.getSimpleName());
+	}
+
+	// -------- Middleware --------
+	@Override
+	public void handle(HttpContext ctx, MiddlewareChain chain) throws Exception {
+		ctx.setAttr(RequestAttr.CONDITIONAL, Boolean.TRUE);
+		chain.next();
+	}
+}
@@ -3,6 +3,14 @@
  * @module core/middleware
  *
  * Middleware валидации загружаемых файлов на основе FileValidationRules.
+ *
+ * Тип файла определяется по сигнатуре содержимого (SniffMode), списки MIME
+ * проверяются по фактическому типу. Для изображений размеры читаются из
+ * заголовка, для PDF — число страниц и шифрование из trailer/xref: файл
+ * целиком не декодируется и не читается.
+ *
+ * Части запроса проверяются параллельно (UploadWorkers); ошибка возвращается
+ * для первой по порядку части, как при последовательной проверке.
  */
 
 package com.spendi.core.middleware;
@@ -10,6 +18,8 @@ package com.spendi.core.middleware;
 /**
  * ! java imports
  */
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -22,12 +32,23 @@ import com.spendi.core.base.http.HttpContext;
 import com.spendi.core.base.http.MiddlewareChain;
 import com.spendi.core.base.http.RequestAttr;
 import com.spendi.core.exceptions.BadRequestException;
+import com.spendi.core.exceptions.ContentTypeMismatchException;
 import com.spendi.core.exceptions.FileExtensionNotAllowedException;
 import com.spendi.core.exceptions.FileValidationException;
+import com.spendi.core.exceptions.InvalidImageException;
+import com.spendi.core.exceptions.InvalidPdfException;
 import com.spendi.core.exceptions.PayloadTooLargeException;
 import com.spendi.core.exceptions.UnsupportedMediaTypeException;
+import com.spendi.core.files.UploadWorkers;
 import com.spendi.core.files.UploadedFile;
+import com.spendi.core.files.inspect.ContentSniffer;
+import com.spendi.core.files.inspect.ImageHeaderReader;
+import com.spendi.core.files.inspect.ImageHeaderReader.ImageInfo;
+import com.spendi.core.files.inspect.PdfInspector;
+import com.spendi.core.files.inspect.PdfInspector.PdfInfo;
 import com.spendi.core.files.validation.FileValidationRules;
+import com.spendi.core.files.validation.FileValidationRules.MismatchPolicy;
+import com.spendi.core.files.validation.FileValidationRules.SniffMode;
 import com.spendi.core.utils.FileUtils;
 import com.spendi.core.utils.StringUtils;
 
@@ -59,78 +80,213 @@ public class FileValidationMiddleware extends BaseMiddleware {
 			throw new PayloadTooLargeException(count, rules.getMaxFiles());
 		}
 
-		long totalBytes = 0L;
+		// Части проверяются параллельно; ошибка — первой по порядку части
+		List<Long> sizes = UploadWorkers.getInstance().map(files, (i, f) -> this.validateOne(ctx, i, f));
+		long totalBytes = sizes.stream().mapToLong(Long::longValue).sum();
 
-		for (int i = 0; i < files.size(); i++) {
-			UploadedFile f = files.get(i);
-			String name = f.getOriginalName();
-			String mime = StringUtils.lowerOrNull(f.getContentType());
-			long size = f.getSize();
+		if (rules.getMaxTotalBytes() > 0 && totalBytes > rules.getMaxTotalBytes()) {
+			throw new PayloadTooLargeException(totalBytes, rules.getMaxTotalBytes());
+		}
 
-			// Размер файла
-			if (rules.getMaxPerFileBytes() > 0 && size > rules.getMaxPerFileBytes()) {
-				throw new PayloadTooLargeException(name, size, rules.getMaxPerFileBytes());
-			}
-			if (size <= 0) {
-				throw new FileValidationException("Empty file",
-						Map.of("file", name, "index", i));
-			}
+		chain.next();
+	}
 
-			totalBytes += size;
+	/**
+	 * Проверки одной части. Выполняется в пуле {@link UploadWorkers}.
+	 *
+	 * @return размер части, байт
+	 */
+	private long validateOne(HttpContext ctx, int i, UploadedFile f) {
+		String name = f.getOriginalName();
+		String declared = StringUtils.lowerOrNull(f.getContentType());
+		long size = f.getSize();
 
-			// Имя файла: длина
-			if (name != null && name.length() > rules.getMaxFilenameLength()) {
-				throw new FileValidationException("Filename too long",
-						Map.of("file", name, "maxLength", rules.getMaxFilenameLength()));
-			}
+		// Размер файла
+		if (rules.getMaxPerFileBytes() > 0 && size > rules.getMaxPerFileBytes()) {
+			throw new PayloadTooLargeException(name, size, rules.getMaxPerFileBytes());
+		}
+		if (size <= 0) {
+			throw new FileValidationException("Empty file",
+					Map.of("file", name, "index", i));
+		}
 
-			// Расширение
-			String ext = FileUtils.getFileExtension(name);
-			if (!rules.getAllowedExtensions().isEmpty()) {
-				if (ext == null || !rules.getAllowedExtensions().contains(ext)) {
-					throw new FileExtensionNotAllowedException(name, ext, rules.getAllowedExtensions());
-				}
+		// Имя файла: длина
+		if (name != null && name.length() > rules.getMaxFilenameLength()) {
+			throw new FileValidationException("Filename too long",
+					Map.of("file", name, "maxLength", rules.getMaxFilenameLength()));
+		}
+
+		// Расширение
+		String ext = FileUtils.getFileExtension(name);
+		if (!rules.getAllowedExtensions().isEmpty()) {
+			if (ext == null || !rules.getAllowedExtensions().contains(ext)) {
+				throw new FileExtensionNotAllowedException(name, ext, rules.getAllowedExtensions());
 			}
+		}
 
-			// MIME deny-list
-			if (!rules.getDeniedMimes().isEmpty() && mime != null && rules.getDeniedMimes().contains(mime)) {
-				throw new UnsupportedMediaTypeException(mime, "not in denied list");
+		// Фактический тип по сигнатуре (при OFF — заявленный)
+		String sniffed = sniff(f);
+		String mime = resolveMime(ctx, name, declared, sniffed);
+
+		// MIME deny-list (заявленный тип тоже не должен быть запрещён)
+		if (declared != null && !declared.equals(mime)) {
+			checkDenied(declared);
+		}
+		checkDenied(mime);
+
+		// MIME allow-list
+		if (!rules.getAllowedMimes().isEmpty()) {
+			if (mime == null || !rules.getAllowedMimes().contains(mime)) {
+				throw new UnsupportedMediaTypeException(mime, String.join(",", rules.getAllowedMimes()));
 			}
-			if (!rules.getDeniedMimePrefixes().isEmpty() && mime != null) {
-				for (String p : rules.getDeniedMimePrefixes()) {
+		}
+		if (!rules.getAllowedMimePrefixes().isEmpty()) {
+			boolean any = false;
+			if (mime != null) {
+				for (String p : rules.getAllowedMimePrefixes()) {
 					if (mime.startsWith(p)) {
-						throw new UnsupportedMediaTypeException(mime, "not starting with '" + p + "'");
+						any = true;
+						break;
 					}
 				}
 			}
+			if (!any) {
+				throw new UnsupportedMediaTypeException(mime, String.join(",", rules.getAllowedMimePrefixes()));
+			}
+		}
 
-			// MIME allow-list (простая проверка по header; строгий sniff добавим позже)
-			if (!rules.getAllowedMimes().isEmpty()) {
-				if (mime == null || !rules.getAllowedMimes().contains(mime)) {
-					throw new UnsupportedMediaTypeException(mime, String.join(",", rules.getAllowedMimes()));
-				}
+		// Содержимое: только то, что подтверждено сигнатурой
+		if (sniffed != null) {
+			if (sniffed.startsWith("image/")) {
+				checkImage(name, f, sniffed);
+			} else if (sniffed.equals("application/pdf")) {
+				checkPdf(name, f);
 			}
-			if (!rules.getAllowedMimePrefixes().isEmpty()) {
-				boolean any = false;
-				if (mime != null) {
-					for (String p : rules.getAllowedMimePrefixes()) {
-						if (mime.startsWith(p)) {
-							any = true;
-							break;
-						}
-					}
-				}
-				if (!any) {
-					throw new UnsupportedMediaTypeException(mime, String.join(",", rules.getAllowedMimePrefixes()));
-				}
+		}
+
+		return size;
+	}
+
+	/**
+	 * Тип по сигнатуре или null (сниффинг выключен / сигнатура неизвестна).
+	 */
+	private String sniff(UploadedFile f) {
+		if (rules.getContentSniffing() == SniffMode.OFF) {
+			return null;
+		}
+		try {
+			try (SeekableByteChannel ch = f.openChannel()) {
+				return ContentSniffer.sniff(ch);
 			}
+		} catch (IOException e) {
+			throw new FileValidationException("File is unreadable",
+					Map.of("file", String.valueOf(f.getOriginalName()), "error", String.valueOf(e.getMessage())));
 		}
+	}
 
-		if (rules.getMaxTotalBytes() > 0 && totalBytes > rules.getMaxTotalBytes()) {
-			throw new PayloadTooLargeException(totalBytes, rules.getMaxTotalBytes());
+	/**
+	 * Итоговый MIME для проверок списков.
+	 *
+	 * STRICT: расхождение заявленного и фактического типа обрабатывается по
+	 * MismatchPolicy; заявленный «проверяемый» тип (image/png, application/pdf …)
+	 * с неизвестной сигнатурой — тоже расхождение.
+	 * RELAXED: расхождение только логируется. В обоих режимах побеждает сигнатура.
+	 */
+	private String resolveMime(HttpContext ctx, String name, String declared, String sniffed) {
+		String claimed = ContentSniffer.canonical(declared);
+		if (rules.getContentSniffing() == SniffMode.OFF) {
+			return claimed;
 		}
 
-		chain.next();
+		boolean mismatch = sniffed != null
+				? !sniffed.equals(claimed)
+				: ContentSniffer.isSniffable(claimed);
+		if (!mismatch) {
+			return sniffed != null ? sniffed : claimed;
+		}
+
+		if (rules.getContentSniffing() == SniffMode.STRICT && rules.getOnMismatchPolicy() == MismatchPolicy.ERROR) {
+			throw new ContentTypeMismatchException(String.valueOf(name), String.valueOf(declared),
+					String.valueOf(sniffed));
+		}
+		this.warn("content type mismatch", ctx.getRequestId(),
+				detailsOf("file", name, "header", declared, "sniffed", sniffed), true);
+		return sniffed != null ? sniffed : claimed;
+	}
+
+	private void checkDenied(String mime) {
+		if (mime == null) {
+			return;
+		}
+		if (rules.getDeniedMimes().contains(mime)) {
+			throw new UnsupportedMediaTypeException(mime, "not in denied list");
+		}
+		for (String p : rules.getDeniedMimePrefixes()) {
+			if (mime.startsWith(p)) {
+				throw new UnsupportedMediaTypeException(mime, "not starting with '" + p + "'");
+			}
+		}
 	}
 
+	private void checkImage(String name, UploadedFile f, String mime) {
+		ImageInfo info;
+		try {
+			try (SeekableByteChannel ch = f.openChannel()) {
+				info = ImageHeaderReader.read(ch, mime);
+			}
+		} catch (IOException e) {
+			throw new InvalidImageException("Image header is unreadable",
+					Map.of("file", String.valueOf(name), "error", String.valueOf(e.getMessage())));
+		}
+		if (info == null) {
+			return;
+		}
+
+		int w = info.width();
+		int h = info.height();
+		if ((rules.getImageMinWidth() != null && w < rules.getImageMinWidth())
+				|| (rules.getImageMinHeight() != null && h < rules.getImageMinHeight())
+				|| (rules.getImageMaxWidth() != null && w > rules.getImageMaxWidth())
+				|| (rules.getImageMaxHeight() != null && h > rules.getImageMaxHeight())) {
+			throw InvalidImageException.dimensionsOutOfRange(String.valueOf(name), w, h,
+					rules.getImageMinWidth(), rules.getImageMinHeight(),
+					rules.getImageMaxWidth(), rules.getImageMaxHeight());
+		}
+		if (rules.getImageMaxMegapixels() != null && info.megapixels() > rules.getImageMaxMegapixels()) {
+			throw InvalidImageException.megapixelsExceeded(String.valueOf(name), info.megapixels(),
+					rules.getImageMaxMegapixels());
+		}
+	}
+
+	private void checkPdf(String name, UploadedFile f) {
+		if (rules.getPdfMaxPages() == null && !rules.isPdfForbidEncrypted()) {
+			return;
+		}
+
+		PdfInfo info;
+		try {
+			try (SeekableByteChannel ch = f.openChannel()) {
+				info = PdfInspector.inspect(ch);
+			}
+		} catch (IOException e) {
+			throw new InvalidPdfException("PDF structure is unreadable",
+					Map.of("file", String.valueOf(name), "error", String.valueOf(e.getMessage())));
+		}
+
+		if (rules.isPdfForbidEncrypted() && info.encrypted()) {
+			throw InvalidPdfException.encryptedNotAllowed(String.valueOf(name));
+		}
+		if (rules.getPdfMaxPages() != null) {
+			// число страниц не определилось — в STRICT не пропускаем «на веру»
+			if (!info.isPagesKnown()) {
+				if (rules.getContentSniffing() == SniffMode.STRICT) {
+					throw new InvalidPdfException("PDF page count is unreadable", Map.of("file", String.valueOf(name)));
+				}
+				return;
+			}
+			if (info.pages() > rules.getPdfMaxPages()) {
+				throw InvalidPdfException.pagesExceeded(String.valueOf(name), info.pages(), rules.getPdfMaxPages());
+			}
+		}
+	}
 }
@@ -0,0 +1,104 @@
+/**
+ * @file RateLimitMiddleware.java
+ * @module core/middleware
+ *
+ * Ограничение частоты запросов по политике (RateLimitPolicy). Подключается на
+ * роутер через BaseRouter.use или локально на маршрут; у каждого экземпляра
+ * свои счётчики (RateLimiter), общий лимит на несколько роутеров — один
+ * экземпляр.
+ *
+ * Каждый ответ получает X-RateLimit-Limit / X-RateLimit-Remaining /
+ * X-RateLimit-Reset (секунды); превышение — 429 (RateLimitException) с
+ * Retry-After. Для ключа USER мидлвару ставить после AuthMiddleware.
+ *
+ * Пример:
+ * this.use(AuthMiddleware.getInstance());
+ * this.use(RateLimitMiddleware.of(RateLimitPolicy.builder("users")
+ * 		.tokenBucket(600, Duration.ofMinutes(1)).burst(60).key(RateLimitKey.USER).build()));
+ *
+ * Отказы пишет в лог обработчик исключений; счётчики — в показателях
+ * ratelimit.&lt;name&gt;.rejected / .keys / .overflow.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.middleware;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.RateLimitConfig;
+import com.spendi.core.base.BaseMiddleware;
+import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.base.http.MiddlewareChain;
+import com.spendi.core.exceptions.RateLimitException;
+import com.spendi.core.http.ForwardedFor;
+import com.spendi.core.metrics.MetricsRegistry;
+import com.spendi.core.ratelimit.RateLimitPolicy;
+import com.spendi.core.ratelimit.RateLimiter;
+import com.spendi.modules.session.SessionEntity;
+
+public final class RateLimitMiddleware extends BaseMiddleware {
+
+	private final RateLimitConfig cfg = RateLimitConfig.getConfig();
+	private final RateLimiter limiter;
+
+	public RateLimitMiddleware(RateLimitPolicy policy) {
+		super(RateLimitMiddleware.class.getSimpleName() + "<" + policy.getName() + ">");
+		this.limiter = new RateLimiter(policy, cfg.getMaxKeys());
+
+		MetricsRegistry m = MetricsRegistry.getInstance();
+		String prefix = "ratelimit." + policy.getName();
+		m.gauge(prefix + ".rejected", limiter::rejected);
+		m.gauge(prefix + ".keys", limiter::keys);
+		m.gauge(prefix + ".overflow", limiter::overflow);
+	}
+
+	public static RateLimitMiddleware of(RateLimitPolicy policy) {
+		return new RateLimitMiddleware(policy);
+	}
+
+	@Override
+	public void handle(HttpContext ctx, MiddlewareChain chain) throws Exception {
+		if (!cfg.isEnabled()) {
+			chain.next();
+			return;
+		}
+
+		RateLimiter.Decision d = limiter.acquire(this.keyOf(ctx));
+		ctx.res().header("X-RateLimit-Limit", String.valueOf(d.limit()))
+				.header("X-RateLimit-Remaining", String.valueOf(d.remaining()))
+				.header("X-RateLimit-Reset", String.valueOf(d.resetSeconds()));
+
+		if (!d.allowed()) {
+			long retryAfter = Math.max(1, d.retryAfterSeconds());
+			ctx.res().header("Retry-After", String.valueOf(retryAfter));
+			throw new RateLimitException("Rate limit exceeded",
+					detailsOf("policy", limiter.getPolicy().getName(), "retryAfterSeconds", retryAfter));
+		}
+
+		chain.next();
+	}
+
+	private String keyOf(HttpContext ctx) {
+		return switch (limiter.getPolicy().getKey()) {
+			case IP -> "ip:" + this.clientIp(ctx);
+			case USER -> {
+				SessionEntity s = ctx.getAuthSession();
+				yield s != null ? "user:" + s.getUserHexId() : "ip:" + this.clientIp(ctx);
+			}
+			case ROUTE -> "route:" + ctx.req().method() + " " + ctx.req().path();
+		};
+	}
+
+	private String clientIp(HttpContext ctx) {
+		if (cfg.isTrustProxy()) {
+			// левые записи X-Forwarded-For присылает клиент — берём добавленную прокси
+			String ip = ForwardedFor.clientIp(ctx.req().header("X-Forwarded-For").orElse(null), cfg.getProxyHops());
+			if (ip != null) {
+				return ip;
+			}
+		}
+		return ctx.req().remoteAddress().orElse("unknown");
+	}
+}
@@ -22,6 +22,7 @@ import java.util.List;
 import com.spendi.core.base.BaseMiddleware;
 import com.spendi.core.base.http.HttpContext;
 import com.spendi.core.base.http.MiddlewareChain;
+import com.spendi.core.logger.types.LogOptions;
 
 public class RequestLifecycleMiddleware extends BaseMiddleware {
 	// порог «тяжёлого» запроса в мс
@@ -85,12 +86,13 @@ public class RequestLifecycleMiddleware extends BaseMiddleware {
 						"isError", !ctx.isSuccess(),
 						"statusCode", ctx.res().getStatus()), true);
 			} else {
-				// логируем входящий запрос
+				// логируем итог запроса; успешные — сэмплируются, ошибочные — всегда
 				this.info("Request processed", ctx.getRequestId(), detailsOf(
 						"durationMs", durationMs,
 						"durationNanos", durationNanos,
 						"isError", !ctx.isSuccess(),
-						"statusCode", ctx.res().getStatus()), true);
+						"statusCode", ctx.res().getStatus()),
+						ctx.isSuccess() ? LogOptions.sampled(true) : new LogOptions(true));
 			}
 		}
 	}
@@ -64,12 +64,14 @@ public class TempFilesCleanupMiddleware extends BaseMiddleware {
 		if (p == null)
 			return;
 		try {
-			Files.deleteIfExists(p);
-			this.info(
-					"Delete temp file",
-					requestId,
-					detailsOf("path", p.toString()),
-					true);
+			// сохранённые файлы уже перенесены в хранилище — пишем в лог только реально удалённые
+			if (Files.deleteIfExists(p)) {
+				this.info(
+						"Delete temp file",
+						requestId,
+						detailsOf("path", p.toString()),
+						true);
+			}
 		} catch (Exception e) {
 			this.warn(
 					"Failed to delete temp file",
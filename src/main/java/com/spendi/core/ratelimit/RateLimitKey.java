@@ -0,0 +1,19 @@
+/**
+ * @file RateLimitKey.java
+ * @module core/ratelimit
+ *
+ * По чему считается лимит.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.ratelimit;
+
+public enum RateLimitKey {
+	/** IP клиента (X-Forwarded-For от доверенного прокси — только при SPENDI_RATELIMIT_TRUST_PROXY=true) */
+	IP,
+	/** Пользователь из RequestAttr.AUTH_SESSION; без сессии — IP */
+	USER,
+	/** Метод + путь запроса: общий лимит на ресурс для всех клиентов */
+	ROUTE
+}
@@ -0,0 +1,143 @@
+/**
+ * @file RateLimitPolicy.java
+ * @module core/ratelimit
+ *
+ * Иммутабельная политика ограничения частоты с Builder'ом.
+ *
+ * - TOKEN_BUCKET: limit запросов за period в среднем, до burst подряд;
+ * - SLIDING_WINDOW: не больше limit запросов за любые period (оценка по
+ *   двум соседним окнам), без всплесков на границе окна.
+ *
+ * Пример:
+ * RateLimitPolicy.builder("auth").slidingWindow(20, Duration.ofMinutes(1)).key(RateLimitKey.IP).build();
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.ratelimit;
+
+/**
+ * ! java imports
+ */
+import java.time.Duration;
+import java.util.Objects;
+
+public final class RateLimitPolicy {
+
+	public enum Algorithm {
+		TOKEN_BUCKET, SLIDING_WINDOW
+	}
+
+	/** Предел счётчика окна — 20 бит упакованного состояния (см. RateLimiter) */
+	static final int MAX_WINDOW_LIMIT = (1 << 20) - 1;
+
+	private final String name;
+	private final Algorithm algorithm;
+	private final int limit;
+	private final long periodNanos;
+	private final int burst;
+	private final RateLimitKey key;
+
+	private RateLimitPolicy(Builder b) {
+		this.name = b.name;
+		this.algorithm = b.algorithm;
+		this.limit = b.limit;
+		this.periodNanos = b.period.toNanos();
+		this.burst = b.burst > 0 ? b.burst : b.limit;
+		this.key = b.key;
+	}
+
+	public static Builder builder(String name) {
+		return new Builder(name);
+	}
+
+	public static final class Builder {
+		private final String name;
+		private Algorithm algorithm;
+		private int limit;
+		private Duration period;
+		private int burst;
+		private RateLimitKey key = RateLimitKey.IP;
+
+		private Builder(String name) {
+			if (name == null || name.isBlank())
+				throw new IllegalArgumentException("Policy name must not be blank");
+			this.name = name;
+		}
+
+		/** limit запросов за period в среднем; всплеск — burst (по умолчанию limit). */
+		public Builder tokenBucket(int limit, Duration period) {
+			return this.algorithm(Algorithm.TOKEN_BUCKET, limit, period);
+		}
+
+		/** Не больше limit запросов за скользящий period. */
+		public Builder slidingWindow(int limit, Duration period) {
+			return this.algorithm(Algorithm.SLIDING_WINDOW, limit, period);
+		}
+
+		/** Ёмкость bucket'а (только для TOKEN_BUCKET). */
+		public Builder burst(int burst) {
+			this.burst = burst;
+			return this;
+		}
+
+		public Builder key(RateLimitKey key) {
+			this.key = Objects.requireNonNull(key, "key must not be null");
+			return this;
+		}
+
+		public RateLimitPolicy build() {
+			if (algorithm == null)
+				throw new IllegalStateException("Algorithm is not set for policy " + name);
+			if (algorithm == Algorithm.SLIDING_WINDOW && limit > MAX_WINDOW_LIMIT)
+				throw new IllegalArgumentException("Sliding window limit must be <= " + MAX_WINDOW_LIMIT);
+			if (burst < 0)
+				throw new IllegalArgumentException("Burst must be >= 0");
+			return new RateLimitPolicy(this);
+		}
+
+		private Builder algorithm(Algorithm algorithm, int limit, Duration period) {
+			if (limit <= 0)
+				throw new IllegalArgumentException("Limit must be > 0");
+			if (period == null || period.isNegative() || period.isZero())
+				throw new IllegalArgumentException("Period must be positive");
+			if (period.toNanos() / limit == 0)
+				throw new IllegalArgumentException("Limit is too high for the period");
+			this.algorithm = algorithm;
+			this.limit = limit;
+			this.period = period;
+			return this;
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Algorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public long getPeriodNanos() {
+		return periodNanos;
+	}
+
+	/** Ёмкость bucket'а; для SLIDING_WINDOW равна limit. */
+	public int getBurst() {
+		return burst;
+	}
+
+	public RateLimitKey getKey() {
+		return key;
+	}
+
+	@Override
+	public String toString() {
+		return "RateLimitPolicy{name='%s', algorithm=%s, limit=%d, periodMs=%d, burst=%d, key=%s}"
+				.formatted(name, algorithm, limit, periodNanos / 1_000_000, burst, key);
+	}
+}
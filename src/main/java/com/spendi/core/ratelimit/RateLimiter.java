@@ -0,0 +1,275 @@
+/**
+ * @file RateLimiter.java
+ * @module core/ratelimit
+ *
+ * @description
+ * Счётчики одной политики (RateLimitPolicy) без блокировок.
+ *
+ * Состояние ключа — один AtomicLong, обновляется CAS-циклом:
+ * - TOKEN_BUCKET — GCRA: хранится TAT (theoretical arrival time); запрос
+ *   пропускается, если TAT + T - now <= T * burst, где T = period / limit;
+ * - SLIDING_WINDOW — номер окна (24 бита) и счётчики предыдущего и текущего
+ *   окна (по 20 бит); оценка = prev * (доля прошлого окна в скользящем) + cur.
+ *
+ * Ключи разложены по страйпам (ConcurrentHashMap на страйп) с квотой
+ * maxKeys / stripes. Истёкший ключ (bucket снова полон / оба окна прошли)
+ * ничем не отличается от отсутствующего, поэтому чистка ленивая: когда страйп
+ * заполнен, один поток вычищает из него истёкшие ключи, остальные не ждут.
+ * Удаляемое состояние сначала помечается DEAD — поток, успевший взять ссылку,
+ * увидит метку и перечитает ключ, так что запросы не теряются. Если страйп
+ * полон и после чистки, новый ключ пропускается без учёта (fail-open, счётчик
+ * overflow).
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.core.ratelimit;
+
+/**
+ * ! java imports
+ */
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class RateLimiter {
+
+	/** Страйпов по умолчанию (степень двойки) */
+	static final int DEFAULT_STRIPES = 64;
+
+	/** Метка удаляемого состояния */
+	private static final long DEAD = Long.MIN_VALUE;
+
+	private static final long COUNT_MASK = (1L << 20) - 1;
+	private static final long WINDOW_MASK = (1L << 24) - 1;
+
+	/**
+	 * Решение по запросу.
+	 *
+	 * @param allowed         пропустить запрос
+	 * @param limit           ёмкость (burst для bucket'а, limit для окна)
+	 * @param remaining       сколько запросов ещё можно сделать сразу
+	 * @param retryAfterNanos через сколько повторить (0, если пропущен)
+	 * @param resetNanos      через сколько лимит восстановится (bucket) / окно сменится
+	 */
+	public record Decision(boolean allowed, int limit, long remaining, long retryAfterNanos, long resetNanos) {
+
+		public long retryAfterSeconds() {
+			return ceilSeconds(retryAfterNanos);
+		}
+
+		public long resetSeconds() {
+			return ceilSeconds(resetNanos);
+		}
+
+		private static long ceilSeconds(long nanos) {
+			return nanos <= 0 ? 0 : (nanos + 999_999_999L) / 1_000_000_000L;
+		}
+	}
+
+	private static final class Stripe {
+		final ConcurrentHashMap<String, AtomicLong> keys = new ConcurrentHashMap<>();
+		final AtomicBoolean sweeping = new AtomicBoolean();
+	}
+
+	private final RateLimitPolicy policy;
+	private final Stripe[] stripes;
+	private final int stripeCapacity;
+	private final long origin = System.nanoTime();
+
+	/** Интервал между запросами (bucket) или длина окна, нс */
+	private final long interval;
+	private final long tolerance;
+	private final long window;
+
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder overflow = new LongAdder();
+
+	public RateLimiter(RateLimitPolicy policy, int maxKeys) {
+		this(policy, maxKeys, DEFAULT_STRIPES);
+	}
+
+	RateLimiter(RateLimitPolicy policy, int maxKeys, int stripes) {
+		if (Integer.bitCount(stripes) != 1)
+			throw new IllegalArgumentException("Stripes must be a power of two");
+		this.policy = policy;
+		this.stripes = new Stripe[stripes];
+		for (int i = 0; i < stripes; i++)
+			this.stripes[i] = new Stripe();
+		this.stripeCapacity = Math.max(1, (maxKeys + stripes - 1) / stripes);
+
+		this.window = policy.getPeriodNanos();
+		this.interval = window / policy.getLimit();
+		this.tolerance = interval * policy.getBurst();
+	}
+
+	public RateLimitPolicy getPolicy() {
+		return policy;
+	}
+
+	/** Учесть запрос по ключу сейчас. */
+	public Decision acquire(String key) {
+		return this.tryAcquire(key, System.nanoTime() - origin);
+	}
+
+	/**
+	 * @param now монотонное время в нс, не меньше 0
+	 */
+	Decision tryAcquire(String key, long now) {
+		Stripe stripe = stripes[spread(key.hashCode()) & (stripes.length - 1)];
+		while (true) {
+			AtomicLong state = stripe.keys.get(key);
+			if (state == null) {
+				if (stripe.keys.size() >= stripeCapacity && !this.sweep(stripe, now)) {
+					overflow.increment();
+					return new Decision(true, this.capacity(), this.capacity() - 1, 0, 0);
+				}
+				AtomicLong fresh = new AtomicLong(this.emptyState(now));
+				AtomicLong prev = stripe.keys.putIfAbsent(key, fresh);
+				state = prev != null ? prev : fresh;
+			}
+
+			Decision d = policy.getAlgorithm() == RateLimitPolicy.Algorithm.TOKEN_BUCKET
+					? this.tokenBucket(state, now)
+					: this.slidingWindow(state, now);
+			if (d != null) {
+				if (!d.allowed())
+					rejected.increment();
+				return d;
+			}
+			// состояние удалено чисткой — перечитать ключ
+		}
+	}
+
+	/** Отслеживаемых ключей (включая истёкшие, ещё не вычищенные). */
+	public long keys() {
+		long n = 0;
+		for (Stripe s : stripes)
+			n += s.keys.size();
+		return n;
+	}
+
+	public long rejected() {
+		return rejected.sum();
+	}
+
+	/** Новых ключей, пропущенных без учёта из-за заполненного страйпа. */
+	public long overflow() {
+		return overflow.sum();
+	}
+
+	// -------- Алгоритмы (null — состояние помечено DEAD) --------
+
+	private Decision tokenBucket(AtomicLong state, long now) {
+		while (true) {
+			long tat = state.get();
+			if (tat == DEAD)
+				return null;
+			long base = Math.max(tat, now);
+			long next = base + interval;
+			long ahead = next - now;
+			if (ahead > tolerance) {
+				return new Decision(false, policy.getBurst(), 0, ahead - tolerance, base - now);
+			}
+			if (state.compareAndSet(tat, next)) {
+				return new Decision(true, policy.getBurst(), (tolerance - ahead) / interval, 0, ahead);
+			}
+		}
+	}
+
+	private Decision slidingWindow(AtomicLong state, long now) {
+		long idx = (now / window) & WINDOW_MASK;
+		long elapsed = now % window;
+		int limit = policy.getLimit();
+		while (true) {
+			long s = state.get();
+			if (s == DEAD)
+				return null;
+			long prev;
+			long cur;
+			long age = (idx - (s >>> 40)) & WINDOW_MASK;
+			if (age == 0) {
+				prev = (s >>> 20) & COUNT_MASK;
+				cur = s & COUNT_MASK;
+			} else if (age == 1) {
+				prev = s & COUNT_MASK;
+				cur = 0;
+			} else {
+				prev = 0;
+				cur = 0;
+			}
+
+			double weighted = prev * ((double) (window - elapsed) / window);
+			double used = weighted + cur;
+			if (used + 1 > limit) {
+				return new Decision(false, limit, 0, this.windowRetryAfter(prev, cur, elapsed), window - elapsed);
+			}
+			long next = (idx << 40) | (prev << 20) | (cur + 1);
+			if (state.compareAndSet(s, next)) {
+				return new Decision(true, limit, (long) (limit - used - 1), 0, window - elapsed);
+			}
+		}
+	}
+
+	/** Через сколько оценка окна опустится до limit - 1. */
+	private long windowRetryAfter(long prev, long cur, long elapsed) {
+		int limit = policy.getLimit();
+		long wait;
+		if (cur + 1 > limit) {
+			// ждать следующего окна, где текущий счётчик станет предыдущим
+			double share = 1.0 - (double) (limit - 1) / cur;
+			wait = (window - elapsed) + (long) Math.ceil(window * share);
+		} else {
+			double share = 1.0 - (double) (limit - 1 - cur) / prev;
+			wait = (long) Math.ceil(window * share) - elapsed;
+		}
+		return Math.max(1, wait);
+	}
+
+	// -------- Ключи --------
+
+	private long emptyState(long now) {
+		return policy.getAlgorithm() == RateLimitPolicy.Algorithm.TOKEN_BUCKET ? now
+				: ((now / window) & WINDOW_MASK) << 40;
+	}
+
+	/** Состояние неотличимо от пустого. */
+	private boolean isExpired(long s, long now) {
+		if (policy.getAlgorithm() == RateLimitPolicy.Algorithm.TOKEN_BUCKET)
+			return s <= now;
+		long idx = (now / window) & WINDOW_MASK;
+		return ((idx - (s >>> 40)) & WINDOW_MASK) >= 2;
+	}
+
+	private int capacity() {
+		return policy.getAlgorithm() == RateLimitPolicy.Algorithm.TOKEN_BUCKET ? policy.getBurst()
+				: policy.getLimit();
+	}
+
+	/**
+	 * Вычистить истёкшие ключи страйпа; чистит один поток.
+	 *
+	 * @return есть ли место для нового ключа
+	 */
+	private boolean sweep(Stripe stripe, long now) {
+		if (stripe.sweeping.compareAndSet(false, true)) {
+			try {
+				for (Map.Entry<String, AtomicLong> e : stripe.keys.entrySet()) {
+					AtomicLong state = e.getValue();
+					long s = state.get();
+					if (s != DEAD && this.isExpired(s, now) && state.compareAndSet(s, DEAD))
+						stripe.keys.remove(e.getKey(), state);
+				}
+			} finally {
+				stripe.sweeping.set(false);
+			}
+		}
+		return stripe.keys.size() < stripeCapacity;
+	}
+
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+}
@@ -5,6 +5,9 @@
  * Простая статика для документации API:
  * - GET {prefix}/docs -> ReDoc UI, читает {prefix}/docs/openapi.json
  * - GET {prefix}/docs/openapi.json -> отдаёт файл из resources/docs/openapi.json
+ *
+ * Оба ресурса собираются и сжимаются один раз при регистрации роутера
+ * (см. PrecompressedAsset): запрос отдаёт готовые байты, условный GET → 304.
  * 
  * @author Dmytro Shakh
  */
@@ -15,28 +18,41 @@ package com.spendi.core.router;
  * ! java imports
  */
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * ! my imports
  */
 import com.spendi.core.base.server.HttpServerAdapter;
 import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.http.PrecompressedAsset;
 
 public class DocsRouter extends ApiRouter {
 
+	private static final String SPEC_RESOURCE = "docs/openapi.json";
+
+	/** null — ресурса нет (404) или он не прочитался (specError) */
+	private PrecompressedAsset spec;
+	private boolean specError;
+	private PrecompressedAsset redoc;
+
 	public DocsRouter(String apiPrefix) {
 		super(DocsRouter.class.getSimpleName(), "/docs", apiPrefix);
 	}
 
 	@Override
 	public void configure(HttpServerAdapter http) {
+		this.redoc = PrecompressedAsset.of(this.buildReDoc().getBytes(StandardCharsets.UTF_8),
+				"text/html; charset=utf-8");
+		this.loadSpec();
+
 		this.get("/", this::serveReDoc);
 		this.get("/openapi.json", this::serveOpenApiJson);
 	}
 
-	private void serveReDoc(HttpContext ctx) {
+	private String buildReDoc() {
 		String specUrl = this.basePath() + "/openapi.json";
-		String html = "<!DOCTYPE html>" +
+		return "<!DOCTYPE html>" +
 				"<html lang=\"en\"><head>" +
 				"<meta charset=\"utf-8\"/>" +
 				"<meta name=\"viewport\" content=\"width=device-width, initial-scale=1\"/>" +
@@ -46,20 +62,37 @@ public class DocsRouter extends ApiRouter {
 				"<redoc spec-url='" + specUrl + "'></redoc>" +
 				"<script src=\"https://cdn.redoc.ly/redoc/latest/bundles/redoc.standalone.js\"></script>" +
 				"</body></html>";
-		ctx.res().header("Content-Type", "text/html; charset=utf-8").sendText(html);
 	}
 
-	private void serveOpenApiJson(HttpContext ctx) {
-		try (InputStream is = Thread.currentThread().getContextClassLoader()
-				.getResourceAsStream("docs/openapi.json")) {
+	private void loadSpec() {
+		try (InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(SPEC_RESOURCE)) {
 			if (is == null) {
-				ctx.res().status(404).sendText("openapi.json not found");
+				this.warn("openapi.json not found", "no-id", detailsOf("resource", SPEC_RESOURCE), true);
 				return;
 			}
-			byte[] bytes = is.readAllBytes();
-			ctx.res().header("Content-Type", "application/json; charset=utf-8").sendBytes(bytes);
+			this.spec = PrecompressedAsset.of(is.readAllBytes(), "application/json; charset=utf-8");
+			this.info("openapi.json loaded", "no-id", detailsOf("bytes", this.spec.size(null), "gzip",
+					this.spec.size("gzip"), "deflate", this.spec.size("deflate")), true);
 		} catch (Exception e) {
-			ctx.res().status(500).sendText("Failed to read openapi.json");
+			this.specError = true;
+			this.error("Failed to read openapi.json", "no-id", detailsOf("error", String.valueOf(e.getMessage())),
+					true);
+		}
+	}
+
+	private void serveReDoc(HttpContext ctx) {
+		this.redoc.send(ctx);
+	}
+
+	private void serveOpenApiJson(HttpContext ctx) {
+		if (this.spec == null) {
+			if (this.specError) {
+				ctx.res().status(500).sendText("Failed to read openapi.json");
+			} else {
+				ctx.res().status(404).sendText("openapi.json not found");
+			}
+			return;
 		}
+		this.spec.send(ctx);
 	}
 }
@@ -0,0 +1,139 @@
+/**
+ * @file AdminController.java
+ * @module modules/admin
+ *
+ * @description
+ * Служебные эндпоинты администратора.
+ * Логи отдаются потоково в NDJSON, с курсором продолжения в последней строке.
+ * Метрики — снимком из MetricsRegistry.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.admin;
+
+/**
+ * ! java imports
+ */
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.BaseController;
+import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.exceptions.BadRequestException;
+import com.spendi.core.logger.Logger;
+import com.spendi.core.logger.model.CompressedLog;
+import com.spendi.core.logger.readers.LogPosition;
+import com.spendi.core.logger.readers.LogStream;
+import com.spendi.core.logger.types.ELogLevel;
+import com.spendi.core.metrics.MetricsRegistry;
+import com.spendi.core.response.ApiSuccessResponse;
+import com.spendi.modules.admin.dto.LogSearchQuery;
+
+public class AdminController extends BaseController {
+
+	/** Максимальная ширина диапазона дат в одном запросе */
+	private static final int MAX_RANGE_DAYS = 31;
+
+	protected static AdminController INSTANCE = new AdminController();
+
+	protected AdminController() {
+		super(AdminController.class.getSimpleName());
+	}
+
+	public static AdminController getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Поиск по логам: GET /admin/logs?from&to&level&module&requestId&limit&cursor
+	 */
+	public void searchLogs(HttpContext ctx) {
+		LogSearchQuery q = ctx.getValidQuery(LogSearchQuery.class);
+
+		LocalDate today = LocalDate.now();
+		LocalDate from = parseDate("from", q.getFrom(), today);
+		LocalDate to = parseDate("to", q.getTo(), today);
+
+		if (from.isAfter(to)) {
+			throw new BadRequestException("from", "from must not be after to");
+		}
+		if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+			throw new BadRequestException("Date range is too wide", Map.of("maxDays", MAX_RANGE_DAYS));
+		}
+
+		LogPosition start = LogPosition.startOf(from.toString());
+		if (q.getCursor() != null) {
+			try {
+				start = LogPosition.fromToken(q.getCursor());
+			} catch (IllegalArgumentException e) {
+				throw new BadRequestException("cursor", "cursor is malformed");
+			}
+			LocalDate cursorDate = LocalDate.parse(start.date());
+			if (cursorDate.isBefore(from) || cursorDate.isAfter(to)) {
+				throw new BadRequestException("cursor", "cursor is outside of the requested range");
+			}
+		}
+
+		this.info("log search requested", ctx.getRequestId(),
+				detailsOf("from", from.toString(), "to", to.toString(), "level", q.getLevel(), "module",
+						q.getModule(), "requestId", q.getRequestId(), "cursor", q.getCursor()),
+				true);
+
+		LogStream logs = Logger.openLogStream(start, to.toString());
+
+		ctx.res().status(200).header("Content-Type", "application/x-ndjson; charset=utf-8")
+				.header("Cache-Control", "no-store")
+				.sendStream(new LogNdjsonStream(logs, buildFilter(q), q.getLimit()));
+	}
+
+	/**
+	 * Снимок метрик: GET /admin/metrics
+	 */
+	public void getMetrics(HttpContext ctx) {
+		ctx.res().header("Cache-Control", "no-store")
+				.success(ApiSuccessResponse.ok(ctx.getRequestId(), "metrics", MetricsRegistry.getInstance().snapshot()));
+	}
+
+	private static LocalDate parseDate(String field, String value, LocalDate def) {
+		if (value == null || value.isBlank())
+			return def;
+		try {
+			return LocalDate.parse(value);
+		} catch (DateTimeParseException e) {
+			throw new BadRequestException(field, field + " must be a valid date");
+		}
+	}
+
+	private static Predicate<CompressedLog> buildFilter(LogSearchQuery q) {
+		Predicate<CompressedLog> filter = log -> true;
+
+		if (q.getLevel() != null && !q.getLevel().isBlank()) {
+			Set<ELogLevel> levels = EnumSet.noneOf(ELogLevel.class);
+			for (String l : q.getLevel().split(",")) {
+				levels.add(ELogLevel.valueOf(l.trim().toUpperCase()));
+			}
+			filter = filter.and(log -> levels.contains(log.l()));
+		}
+
+		if (q.getModule() != null && !q.getModule().isBlank()) {
+			String module = q.getModule().trim();
+			filter = filter.and(log -> module.equals(log.mn()));
+		}
+
+		if (q.getRequestId() != null && !q.getRequestId().isBlank()) {
+			String requestId = q.getRequestId().trim();
+			filter = filter.and(log -> requestId.equals(log.r()));
+		}
+
+		return filter;
+	}
+}
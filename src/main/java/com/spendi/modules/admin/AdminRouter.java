@@ -0,0 +1,54 @@
+/**
+ * @file AdminRouter.java
+ * @module modules/admin
+ *
+ * @description
+ * Служебные маршруты администратора. Доступ — только аутентифицированным
+ * пользователям из SPENDI_ADMIN_USER_IDS.
+ *
+ * GET /admin/logs — потоковый поиск по логам (NDJSON + курсор)
+ * GET /admin/metrics — снимок метрик процесса
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.admin;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.server.HttpServerAdapter;
+import com.spendi.core.middleware.AdminMiddleware;
+import com.spendi.core.middleware.AuthMiddleware;
+import com.spendi.core.middleware.QueryValidationMiddleware;
+import com.spendi.core.router.ApiRouter;
+import com.spendi.modules.admin.dto.LogSearchQuery;
+
+public class AdminRouter extends ApiRouter {
+	public AdminController controller = AdminController.getInstance();
+
+	public AdminRouter(String apiPrefix) {
+		super(AdminRouter.class.getSimpleName(), "/admin", apiPrefix);
+	}
+
+	@Override
+	public void configure(HttpServerAdapter http) {
+		// Сначала сессия, затем проверка прав администратора
+		this.use(AuthMiddleware.getInstance());
+		this.use(AdminMiddleware.getInstance());
+
+		/**
+		 * ? === === === Logs === === ===
+		 */
+
+		// Поиск по логам с потоковой выдачей
+		this.get("/logs", controller::searchLogs, QueryValidationMiddleware.of(LogSearchQuery.class));
+
+		/**
+		 * ? === === === Metrics === === ===
+		 */
+
+		// Снимок метрик (кэш файлов и т.п.)
+		this.get("/metrics", controller::getMetrics);
+	}
+}
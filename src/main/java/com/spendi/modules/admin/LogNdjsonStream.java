@@ -0,0 +1,112 @@
+/**
+ * @file LogNdjsonStream.java
+ * @module modules/admin
+ *
+ * @description
+ * InputStream, который лениво превращает курсор по логам в NDJSON.
+ *
+ * Записи читаются из {@link LogStream} только по мере того, как веб-сервер
+ * забирает байты, поэтому в памяти одновременно находится не больше одной записи.
+ * После {@code limit} подходящих записей (или конца диапазона) дописывается
+ * служебная строка {@code {"cursor": "..."}} — токен продолжения либо null.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.admin;
+
+/**
+ * ! java imports
+ */
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.logger.codec.LogCodec;
+import com.spendi.core.logger.model.CompressedLog;
+import com.spendi.core.logger.readers.LogStream;
+import com.spendi.core.logger.types.ELogFormat;
+
+public final class LogNdjsonStream extends InputStream {
+
+	private static final LogCodec NDJSON = LogCodec.of(ELogFormat.JSON);
+
+	private final LogStream logs;
+	private final Predicate<CompressedLog> filter;
+	private final int limit;
+
+	private int emitted;
+	private boolean finished;
+
+	/** Текущая порция байт (одна строка) */
+	private byte[] chunk = new byte[0];
+	private int chunkPos;
+
+	public LogNdjsonStream(LogStream logs, Predicate<CompressedLog> filter, int limit) {
+		this.logs = logs;
+		this.filter = filter;
+		this.limit = limit;
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] one = new byte[1];
+		int n = read(one, 0, 1);
+		return n < 0 ? -1 : one[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+
+		int total = 0;
+		while (total < len) {
+			if (chunkPos >= chunk.length && !fill())
+				break;
+			int n = Math.min(len - total, chunk.length - chunkPos);
+			System.arraycopy(chunk, chunkPos, b, off + total, n);
+			chunkPos += n;
+			total += n;
+		}
+		return total == 0 ? -1 : total;
+	}
+
+	@Override
+	public void close() {
+		logs.close();
+	}
+
+	/** Готовит следующую строку; false — поток исчерпан */
+	private boolean fill() throws IOException {
+		if (finished)
+			return false;
+
+		if (emitted < limit) {
+			while (logs.hasNext()) {
+				CompressedLog log = logs.next();
+				if (filter.test(log)) {
+					emitted++;
+					setChunk(NDJSON.encode(log));
+					return true;
+				}
+			}
+		}
+
+		// финальная строка с курсором продолжения
+		String cursor = emitted >= limit && logs.hasNext() ? "\"" + logs.position().toToken() + "\"" : "null";
+		setChunk(("{\"cursor\":" + cursor + "}\n").getBytes(StandardCharsets.UTF_8));
+		finished = true;
+		logs.close();
+		return true;
+	}
+
+	private void setChunk(byte[] bytes) {
+		chunk = bytes;
+		chunkPos = 0;
+	}
+}
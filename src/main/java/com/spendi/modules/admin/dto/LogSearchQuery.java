@@ -0,0 +1,54 @@
+/**
+ * @file LogSearchQuery.java
+ * @module modules/admin/dto
+ *
+ * @description
+ * Query-параметры поиска по логам.
+ * - from / to   — диапазон дат YYYY-MM-DD (по умолчанию — сегодня);
+ * - level       — уровни через запятую (INFO,WARN,...);
+ * - module      — имя класса-источника (точное совпадение);
+ * - requestId   — id запроса (точное совпадение);
+ * - limit       — максимум записей в ответе;
+ * - cursor      — токен продолжения из предыдущего ответа.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.admin.dto;
+
+/**
+ * ! lib imports
+ */
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogSearchQuery {
+	private static final String LEVEL = "(?i:INFO|DEBUG|WARN|ERROR|FATAL)";
+
+	@Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "from must be YYYY-MM-DD")
+	private String from;
+
+	@Pattern(regexp = "^\\d{4}-\\d{2}-\\d{2}$", message = "to must be YYYY-MM-DD")
+	private String to;
+
+	@Pattern(regexp = "^" + LEVEL + "(," + LEVEL + ")*$", message = "level must be a comma-separated list of levels")
+	private String level;
+
+	private String module;
+
+	private String requestId;
+
+	@Min(value = 1, message = "limit must be at least 1")
+	@Max(value = 10000, message = "limit must be at most 10000")
+	private int limit = 1000;
+
+	@Pattern(regexp = "^[A-Za-z0-9_-]+$", message = "cursor is malformed")
+	private String cursor;
+}
@@ -7,13 +7,22 @@
 
 package com.spendi.modules.auth;
 
+/**
+ * ! java imports
+ */
+import java.time.Duration;
+
 /**
  * ! my imports
  */
+import com.spendi.config.RateLimitConfig;
 import com.spendi.core.base.server.HttpServerAdapter;
 import com.spendi.core.middleware.AuthMiddleware;
 import com.spendi.core.middleware.BodyValidationMiddleware;
 import com.spendi.core.middleware.JsonBodyParserMiddleware;
+import com.spendi.core.middleware.RateLimitMiddleware;
+import com.spendi.core.ratelimit.RateLimitKey;
+import com.spendi.core.ratelimit.RateLimitPolicy;
 import com.spendi.core.router.ApiRouter;
 import com.spendi.modules.auth.dto.LoginDto;
 import com.spendi.modules.auth.dto.RegisterDto;
@@ -27,6 +36,12 @@ public class AuthRouter extends ApiRouter {
 
 	@Override
 	public void configure(HttpServerAdapter http) {
+		// Подбор паролей: скользящее окно по IP, без всплесков на границе минуты
+		this.use(RateLimitMiddleware.of(RateLimitPolicy.builder("auth")
+				.slidingWindow(RateLimitConfig.getConfig().getAuthPerMinute(), Duration.ofMinutes(1))
+				.key(RateLimitKey.IP)
+				.build()));
+
 		this.post("/register", controller::register, new JsonBodyParserMiddleware(),
 				BodyValidationMiddleware.of(RegisterDto.class));
 
@@ -0,0 +1,51 @@
+/**
+ * @file BatchController.java
+ * @module modules/batch
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.batch;
+
+/**
+ * ! java imports
+ */
+import java.util.Map;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.BaseController;
+import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.base.server.HttpServerAdapter;
+import com.spendi.core.response.ApiSuccessResponse;
+import com.spendi.modules.batch.dto.BatchRequestDto;
+
+public class BatchController extends BaseController {
+
+	protected static BatchController INSTANCE = new BatchController();
+	private final BatchService batchService = BatchService.getInstance();
+
+	protected BatchController() {
+		super(BatchController.class.getSimpleName());
+	}
+
+	public static BatchController getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Выполнить пакет под-запросов; у каждого ответа свой статус,
+	 * сам пакет отвечает 200, если тело пакета корректно.
+	 *
+	 * @param ctx    HttpContext контекст запроса
+	 * @param server сервер, на котором смонтированы маршруты
+	 */
+	public void execute(HttpContext ctx, HttpServerAdapter server) {
+		BatchRequestDto dto = ctx.getValidBody(BatchRequestDto.class);
+
+		var responses = this.batchService.execute(server, ctx, dto.getRequests());
+
+		ctx.res().success(ApiSuccessResponse.ok(ctx.getRequestId(), "Batch processed", Map.of("responses", responses)));
+	}
+}
@@ -0,0 +1,33 @@
+/**
+ * @file BatchRouter.java
+ * @module modules/batch
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.batch;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.server.HttpServerAdapter;
+import com.spendi.core.middleware.BodyValidationMiddleware;
+import com.spendi.core.middleware.JsonBodyParserMiddleware;
+import com.spendi.core.router.ApiRouter;
+import com.spendi.modules.batch.dto.BatchRequestDto;
+
+public class BatchRouter extends ApiRouter {
+	public BatchController controller = BatchController.getInstance();
+
+	public BatchRouter(String apiPrefix) {
+		super(BatchRouter.class.getSimpleName(), "/batch", apiPrefix);
+	}
+
+	@Override
+	public void configure(HttpServerAdapter http) {
+		// Авторизация не требуется самому пакету: она проверяется один раз и
+		// применяется к под-запросам по их маршрутам
+		this.post("/", ctx -> controller.execute(ctx, http), new JsonBodyParserMiddleware(),
+				BodyValidationMiddleware.of(BatchRequestDto.class));
+	}
+}
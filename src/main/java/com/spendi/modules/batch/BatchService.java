@@ -0,0 +1,277 @@
+/**
+ * @file BatchService.java
+ * @module modules/batch
+ * @description
+ * Выполнение пакета под-запросов внутри процесса (POST /batch).
+ *
+ * - каждый под-запрос проходит обычный конвейер маршрута (роутер- и локальные
+ *   мидлвары, обработчик) через HttpServerAdapter#dispatch и получает свой статус;
+ * - сессия проверяется один раз на пакет и передаётся под-запросам с той же cookie;
+ * - под-запросы независимы и выполняются параллельно (первый — в потоке пакета),
+ *   ответы возвращаются в порядке запросов.
+ * - заголовки пакета наследуются; заголовки прокси и соединения (X-Forwarded-For,
+ *   Forwarded, Host...) под-запрос переопределить не может;
+ * - каждый под-запрос занимает своё место в admission control: пакет не обходит
+ *   сброс нагрузки, под-запрос без места получает 503 с Retry-After в своём ответе.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.batch;
+
+/**
+ * ! java imports
+ */
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.ApiConfig;
+import com.spendi.config.AuthConfig;
+import com.spendi.config.BatchConfig;
+import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.base.http.RequestAttr;
+import com.spendi.core.base.server.HttpServerAdapter;
+import com.spendi.core.base.server.local.LocalHttpContext;
+import com.spendi.core.base.server.local.LocalHttpRequest;
+import com.spendi.core.base.server.local.LocalHttpResponse;
+import com.spendi.core.base.service.BaseService;
+import com.spendi.core.exceptions.BadRequestException;
+import com.spendi.core.exceptions.DomainException;
+import com.spendi.core.http.HttpMethod;
+import com.spendi.core.json.Jsons;
+import com.spendi.core.middleware.AuthMiddleware;
+import com.spendi.core.utils.CookieUtils;
+import com.spendi.modules.batch.dto.BatchItemDto;
+import com.spendi.modules.session.SessionEntity;
+
+public class BatchService extends BaseService {
+
+	/** Сколько под-запросов может ждать свободного потока */
+	private static final int QUEUE_CAPACITY = 64;
+
+	/** Заголовки пакета, которые не переходят в под-запросы */
+	private static final Set<String> NOT_INHERITED = Set.of("content-length", "content-type", "content-encoding",
+			"transfer-encoding", "expect", "if-none-match", "if-modified-since");
+
+	/**
+	 * Заголовки прокси и соединения: в под-запросе всегда значения пакета, заданные в под-запросе
+	 * игнорируются — иначе подменённый X-Forwarded-For обходит лимиты по адресу клиента.
+	 */
+	private static final Set<String> PINNED = Set.of("host", "forwarded", "x-forwarded-for", "x-forwarded-host",
+			"x-forwarded-proto", "x-forwarded-port", "x-real-ip", "connection", "content-length",
+			"transfer-encoding");
+
+	protected static BatchService INSTANCE = new BatchService();
+
+	private final BatchConfig batchCfg = BatchConfig.getConfig();
+	private final AuthConfig authCfg = AuthConfig.getConfig();
+	private final String apiPrefix = ApiConfig.getConfig().getApiPrefix();
+	private final ThreadPoolExecutor executor;
+
+	protected BatchService() {
+		super(BatchService.class.getSimpleName());
+
+		int workers = batchCfg.getWorkers();
+		AtomicInteger seq = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+					Thread t = new Thread(r, "batch-" + seq.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	public static BatchService getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Выполнить пакет.
+	 *
+	 * @param server сервер, на котором смонтированы маршруты
+	 * @param parent контекст запроса POST /batch (заголовки, cookie, адрес клиента)
+	 * @param items  под-запросы
+	 * @return ответы в порядке под-запросов: id, status, headers, body (+ bodyEncoding)
+	 */
+	public List<Map<String, Object>> execute(HttpServerAdapter server, HttpContext parent, List<BatchItemDto> items) {
+		if (items.size() > batchCfg.getMaxItems()) {
+			throw new BadRequestException("requests", "At most " + batchCfg.getMaxItems() + " requests per batch");
+		}
+
+		String sid = CookieUtils.readCookie(parent.req(), authCfg.getCookieName());
+		SessionEntity session = this.resolveSession(parent, sid);
+
+		int n = items.size();
+		List<Future<Map<String, Object>>> futures = new ArrayList<>(n);
+		for (int i = 1; i < n; i++) {
+			int index = i;
+			futures.add(this.executor.submit(() -> this.run(server, parent, sid, session, index, items.get(index))));
+		}
+
+		List<Map<String, Object>> results = new ArrayList<>(n);
+		results.add(this.run(server, parent, sid, session, 0, items.get(0)));
+		for (Future<Map<String, Object>> f : futures) {
+			results.add(await(f));
+		}
+
+		this.info("batch executed", parent.getRequestId(),
+				detailsOf("items", n, "authenticated", session != null));
+		return results;
+	}
+
+	/**
+	 * Одна проверка сессии на пакет. Недействительная cookie не ошибка пакета:
+	 * под-запросы, которым нужна авторизация, получат свой 401.
+	 */
+	private SessionEntity resolveSession(HttpContext parent, String sid) {
+		if (sid == null || sid.isBlank()) {
+			return null;
+		}
+		try {
+			AuthMiddleware.getInstance().handle(parent, () -> {
+			});
+		} catch (DomainException e) {
+			return null;
+		} catch (Exception e) {
+			this.warn("batch session check failed", parent.getRequestId(),
+					detailsOf("exception", e.getClass().getName()), true);
+			return null;
+		}
+		return parent.getAuthSession();
+	}
+
+	private Map<String, Object> run(HttpServerAdapter server, HttpContext parent, String sid, SessionEntity session,
+			int index, BatchItemDto item) {
+		int q = item.getPath().indexOf('?');
+		String path = q < 0 ? item.getPath() : item.getPath().substring(0, q);
+		String query = q < 0 ? null : item.getPath().substring(q + 1);
+
+		byte[] body = (item.getBody() == null || item.getBody().isNull()) ? null : this.toBytes(item.getBody());
+
+		var req = new LocalHttpRequest(HttpMethod.valueOf(item.getMethod()), this.apiPrefix + path, parseQuery(query),
+				headersFor(parent.req().headers(), item.getHeaders(), body != null), body,
+				parent.req().remoteAddress().orElse(null));
+		var res = new LocalHttpResponse(batchCfg.getMaxBodyBytes());
+		var ctx = new LocalHttpContext(parent.getRequestId() + "." + index, req, res);
+
+		if (path.equals("/batch") || path.startsWith("/batch/")) {
+			ctx.setSuccess(false);
+			res.error(new BadRequestException("path", "Nested batch requests are not allowed")
+					.toErrorResponse(ctx.getRequestId()));
+			return result(item, res);
+		}
+
+		// Проверенная сессия — только для под-запросов с той же cookie
+		if (session != null && sid.equals(CookieUtils.readCookie(req, authCfg.getCookieName()))) {
+			ctx.setAttr(RequestAttr.AUTH_SESSION, session);
+		}
+
+		server.dispatch(ctx);
+		return result(item, res);
+	}
+
+	/**
+	 * Заголовки под-запроса: заголовки пакета (кроме NOT_INHERITED), затем заголовки под-запроса
+	 * (кроме PINNED).
+	 */
+	static Map<String, String> headersFor(Map<String, String> parent, Map<String, String> item, boolean hasBody) {
+		Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		parent.forEach((k, v) -> {
+			if (!NOT_INHERITED.contains(k.toLowerCase(Locale.ROOT)))
+				headers.put(k, v);
+		});
+		if (hasBody) {
+			headers.put("Content-Type", "application/json");
+		}
+		if (item != null) {
+			item.forEach((k, v) -> {
+				if (!PINNED.contains(k.toLowerCase(Locale.ROOT)))
+					headers.put(k, v);
+			});
+		}
+		return headers;
+	}
+
+	private static Map<String, Object> result(BatchItemDto item, LocalHttpResponse res) {
+		Map<String, Object> out = new LinkedHashMap<>();
+		out.put("id", item.getId());
+		out.put("status", res.getStatus());
+		out.put("headers", res.getHeaders());
+		switch (res.getBodyKind()) {
+		case NONE -> out.put("body", null);
+		case BYTES -> {
+			out.put("body", Base64.getEncoder().encodeToString((byte[]) res.getBody()));
+			out.put("bodyEncoding", "base64");
+		}
+		default -> out.put("body", res.getBody());
+		}
+		return out;
+	}
+
+	private byte[] toBytes(Object node) {
+		try {
+			return Jsons.mapper().writeValueAsBytes(node);
+		} catch (Exception e) {
+			throw new BadRequestException("body", "Unable to serialize sub-request body");
+		}
+	}
+
+	private static Map<String, List<String>> parseQuery(String query) {
+		Map<String, List<String>> out = new LinkedHashMap<>();
+		if (query == null || query.isEmpty()) {
+			return out;
+		}
+		for (String pair : query.split("&")) {
+			if (pair.isEmpty())
+				continue;
+			int eq = pair.indexOf('=');
+			String k = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+			String v = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+			out.computeIfAbsent(k, x -> new ArrayList<>()).add(v);
+		}
+		return out;
+	}
+
+	/**
+	 * Дождаться под-запроса. dispatch сам превращает ошибки в ответ, поэтому здесь
+	 * остаются только сбои пула; прерывание не бросает уже выполняющиеся под-запросы.
+	 */
+	private static <R> R await(Future<R> f) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return f.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException re)
+						throw re;
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/**
+ * @file BatchItemDto.java
+ * @module modules/batch/dto
+ * @description DTO одного под-запроса POST /batch.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.batch.dto;
+
+/**
+ * ! lib imports
+ */
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * ! java imports
+ */
+import java.util.Map;
+
+public class BatchItemDto {
+	/** Идентификатор клиента — возвращается в ответе как есть */
+	@Size(max = 64, message = "id must be at most 64 characters")
+	private String id;
+
+	@NotBlank(message = "method is required")
+	@Pattern(regexp = "^(GET|POST|PUT|PATCH|DELETE)$", message = "method must be one of GET, POST, PUT, PATCH, DELETE")
+	private String method;
+
+	/** Путь после API-префикса, можно с query: "/users/me?size=64" */
+	@NotBlank(message = "path is required")
+	@Pattern(regexp = "^/[^#\\s]*$", message = "path must start with '/'")
+	@Size(max = 2048, message = "path must be at most 2048 characters")
+	private String path;
+
+	/** Дополнительные заголовки; поверх заголовков самого пакета */
+	private Map<String, String> headers;
+
+	/** JSON-тело под-запроса */
+	private JsonNode body;
+
+	// --- getters ---
+
+	public String getId() {
+		return id;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+
+	public JsonNode getBody() {
+		return body;
+	}
+
+	// --- setters ---
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public void setMethod(String method) {
+		this.method = method == null ? null : method.toUpperCase();
+	}
+
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	public void setHeaders(Map<String, String> headers) {
+		this.headers = headers;
+	}
+
+	public void setBody(JsonNode body) {
+		this.body = body;
+	}
+}
@@ -0,0 +1,38 @@
+/**
+ * @file BatchRequestDto.java
+ * @module modules/batch/dto
+ * @description DTO пакета под-запросов POST /batch.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.batch.dto;
+
+/**
+ * ! lib imports
+ */
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * ! java imports
+ */
+import java.util.List;
+
+public class BatchRequestDto {
+	@NotEmpty(message = "requests must not be empty")
+	private List<@NotNull(message = "request must not be null") @Valid BatchItemDto> requests;
+
+	// --- getters ---
+
+	public List<BatchItemDto> getRequests() {
+		return requests;
+	}
+
+	// --- setters ---
+
+	public void setRequests(List<BatchItemDto> requests) {
+		this.requests = requests;
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * @file FileBlobReconciler.java
+ * @module modules/files
+ *
+ * @description
+ * Фоновая сверка счётчиков ссылок контентно-адресуемого хранилища (SPENDI_FILES_DEDUP).
+ *
+ * Раз в SPENDI_FILES_REFCOUNT_RECONCILE_MIN минут:
+ * - фактическое число ссылок считается по записям файлов (группировка по sha256);
+ * - расходящийся счётчик в file_blobs исправляется (compare-and-set);
+ * - blob без ссылок удаляется вместе с содержимым на диске;
+ * - для хеша со ссылками, но без учёта, запись восстанавливается.
+ *
+ * Записи, менявшиеся за последние {@link #GRACE}, не трогаются: между
+ * учётом ссылки и вставкой записи файла идёт загрузка, и такой blob
+ * выглядит «лишним» только на мгновение.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.files;
+
+/**
+ * ! java imports
+ */
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.BaseClass;
+import com.spendi.core.files.FileStorage;
+import com.spendi.core.types.EClassType;
+import com.spendi.modules.files.model.FileBlob;
+
+public final class FileBlobReconciler extends BaseClass {
+
+	/** Свежие записи пропускаются — по ним может идти загрузка или удаление */
+	static final Duration GRACE = Duration.ofMinutes(10);
+
+	private static volatile FileBlobReconciler INSTANCE;
+
+	private final FileRepository repository;
+	private final FileStorage fileStorage = FileStorage.getInstance();
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "file-blob-reconciler");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private FileBlobReconciler(FileRepository repository) {
+		super(EClassType.SYSTEM, FileBlobReconciler.class.getSimpleName());
+		this.repository = repository;
+	}
+
+	/**
+	 * Запустить периодическую сверку (повторный вызов игнорируется).
+	 *
+	 * @param intervalMin период в минутах, > 0
+	 */
+	public static void start(FileRepository repository, int intervalMin) {
+		if (INSTANCE != null)
+			return;
+		synchronized (FileBlobReconciler.class) {
+			if (INSTANCE == null) {
+				INSTANCE = new FileBlobReconciler(repository);
+				INSTANCE.scheduler.scheduleWithFixedDelay(INSTANCE::runSafely, intervalMin, intervalMin,
+						TimeUnit.MINUTES);
+			}
+		}
+	}
+
+	private void runSafely() {
+		try {
+			this.reconcile();
+		} catch (RuntimeException e) {
+			this.error("blob reconciliation failed", null, detailsOf("error", String.valueOf(e.getMessage())), true);
+		}
+	}
+
+	/**
+	 * Один проход сверки. Синхронный, выполняется в потоке планировщика.
+	 */
+	void reconcile() {
+		Instant cutoff = Instant.now().minus(GRACE);
+
+		Map<String, FileBlob> actual = new HashMap<>();
+		for (FileBlob b : repository.countBlobReferences()) {
+			actual.put(b.getSha256(), b);
+		}
+
+		int[] repaired = { 0 };
+		int[] removed = { 0 };
+
+		repository.forEachBlob(blob -> {
+			FileBlob real = actual.remove(blob.getSha256());
+			if (blob.getUpdatedAt() != null && blob.getUpdatedAt().isAfter(cutoff))
+				return;
+
+			long refs = real == null ? 0L : real.getRefs();
+			if (refs > 0) {
+				if (blob.getRefs() != refs && repository.repairBlobRefs(blob, refs))
+					repaired[0]++;
+				return;
+			}
+
+			// ссылок нет — убираем учёт и содержимое под тем же замком, что и загрузка
+			synchronized (fileStorage.blobLock(blob.getSha256())) {
+				boolean gone = blob.getRefs() <= 0
+						? repository.deleteUnreferencedBlob(blob.getSha256(), cutoff)
+						: repository.repairBlobRefs(blob, 0L)
+								&& repository.deleteUnreferencedBlob(blob.getSha256(), Instant.now().plusSeconds(1));
+				if (gone) {
+					fileStorage.delete(null, blob.getRelativePath() != null
+							? blob.getRelativePath()
+							: FileStorage.blobPath(blob.getSha256()));
+					removed[0]++;
+				}
+			}
+		});
+
+		// на хеш ссылаются, а учёта нет (запись перепроверяется: её могли удалить после подсчёта)
+		int restored = 0;
+		for (FileBlob real : actual.values()) {
+			if (repository.findBlob(real.getSha256()) == null && repository.count("sha256", real.getSha256()) > 0) {
+				repository.restoreBlob(real);
+				restored++;
+			}
+		}
+
+		this.info("blob reconciliation done", null,
+				detailsOf("repaired", repaired[0], "removed", removed[0], "restored", restored), true);
+	}
+}
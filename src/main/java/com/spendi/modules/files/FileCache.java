@@ -0,0 +1,192 @@
+/**
+ * @file FileCache.java
+ * @module modules/files
+ *
+ * @description
+ * Кэш горячих файлов в памяти (в первую очередь аватаров): метаданные и
+ * содержимое небольших файлов по id. Попадание обходится без Mongo и диска.
+ *
+ * - Ограничен суммарным объёмом (SPENDI_FILES_CACHE_BYTES, 0 — выключен),
+ *   файлы крупнее SPENDI_FILES_CACHE_MAX_ENTRY_BYTES не кэшируются.
+ * - При SPENDI_FILES_CACHE_OFF_HEAP=true содержимое лежит в direct ByteBuffer
+ *   (вне кучи, не нагружает GC; общий объём ограничен -XX:MaxDirectMemorySize).
+ * - Записи сбрасываются при удалении файла, замене аватара и появлении превью.
+ *
+ * Ключи: "hex" — метаданные, "hex/0" — оригинал, "hex/64" — превью 64 px.
+ *
+ * Заполнение идёт после чтения из БД/с диска; чтобы запоздавшее заполнение
+ * не вернуло только что удалённый файл, кладётся только то, что прочитано
+ * после последней инвалидации ({@link #stamp()}).
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.files;
+
+/**
+ * ! lib imports
+ */
+import org.bson.types.ObjectId;
+
+/**
+ * ! java imports
+ */
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.FileStorageConfig;
+import com.spendi.core.cache.ByteBoundedCache;
+import com.spendi.core.files.DownloadedFile.ContentSource;
+import com.spendi.core.metrics.MetricsRegistry;
+import com.spendi.modules.files.model.FileEntity;
+import com.spendi.modules.files.model.FileVariant;
+
+public final class FileCache {
+
+	/** Условный вес записи метаданных, байт */
+	private static final long META_WEIGHT = 1024;
+	/** Накладные расходы записи содержимого (ключ, объект буфера), байт */
+	private static final long ENTRY_OVERHEAD = 128;
+
+	private static final FileCache INSTANCE = new FileCache(FileStorageConfig.getConfig());
+
+	private final boolean enabled;
+	private final long maxEntryBytes;
+	private final boolean offHeap;
+	private final ByteBoundedCache<String, Cached> cache;
+	/** Счётчик инвалидаций; меняется только под this */
+	private long epoch;
+
+	/** Запись кэша: либо метаданные, либо содержимое (read-only буфер). */
+	private record Cached(FileEntity file, ByteBuffer content) {
+	}
+
+	private FileCache(FileStorageConfig cfg) {
+		this.enabled = cfg.getCacheMaxBytes() > 0;
+		this.maxEntryBytes = cfg.getCacheMaxEntryBytes();
+		this.offHeap = cfg.isCacheOffHeap();
+		this.cache = new ByteBoundedCache<>(cfg.getCacheMaxBytes(),
+				c -> c.content() == null ? META_WEIGHT : c.content().capacity() + ENTRY_OVERHEAD);
+
+		MetricsRegistry m = MetricsRegistry.getInstance();
+		m.gauge("files.cache.hits", cache::getHits);
+		m.gauge("files.cache.misses", cache::getMisses);
+		m.gauge("files.cache.hitRate", cache::getHitRate);
+		m.gauge("files.cache.evictions", cache::getEvictions);
+		m.gauge("files.cache.entries", cache::size);
+		m.gauge("files.cache.residentBytes", cache::getResidentBytes);
+		m.gauge("files.cache.maxBytes", cache::getMaxBytes);
+	}
+
+	public static FileCache getInstance() {
+		return INSTANCE;
+	}
+
+	/** Подходит ли содержимое такого размера для кэша. */
+	public boolean accepts(long bytes) {
+		return enabled && bytes >= 0 && bytes <= maxEntryBytes;
+	}
+
+	/**
+	 * Отметка для последующего {@code put*}: снимается до чтения из БД/с диска.
+	 */
+	public synchronized long stamp() {
+		return epoch;
+	}
+
+	/** Метаданные файла или null. */
+	public FileEntity getFile(ObjectId id) {
+		if (!enabled)
+			return null;
+		Cached c = cache.get(id.toHexString());
+		return c == null ? null : c.file();
+	}
+
+	/** Содержимое оригинала (variant == null) или превью; null — нет в кэше. */
+	public ByteBuffer getContent(FileEntity file, FileVariant variant) {
+		if (!enabled)
+			return null;
+		Cached c = cache.get(contentKey(file, variant));
+		return c == null ? null : c.content().duplicate();
+	}
+
+	public synchronized void putFile(long stamp, FileEntity file) {
+		if (enabled && stamp == epoch) {
+			cache.put(file.getHexId(), new Cached(file, null));
+		}
+	}
+
+	/**
+	 * Положить содержимое (копируется в собственный буфер).
+	 *
+	 * @return буфер для отдачи; если содержимое не подошло — обёртка над {@code bytes}
+	 */
+	public ByteBuffer putContent(long stamp, FileEntity file, FileVariant variant, byte[] bytes) {
+		if (!accepts(bytes.length)) {
+			return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+		}
+		ByteBuffer buf = offHeap ? ByteBuffer.allocateDirect(bytes.length) : ByteBuffer.allocate(bytes.length);
+		buf.put(bytes).flip();
+		buf = buf.asReadOnlyBuffer();
+		synchronized (this) {
+			if (stamp == epoch) {
+				cache.put(contentKey(file, variant), new Cached(null, buf));
+			}
+		}
+		return buf.duplicate();
+	}
+
+	/** Сбросить метаданные и всё содержимое файла (оригинал и превью). */
+	public synchronized void invalidate(ObjectId id) {
+		epoch++;
+		if (enabled) {
+			String hex = id.toHexString();
+			cache.invalidateIf(k -> k.startsWith(hex));
+		}
+	}
+
+	/** Источник для DownloadedFile: участки читаются из копии буфера, без блокировок. */
+	public static ContentSource sourceOf(ByteBuffer content) {
+		return (offset, length) -> {
+			ByteBuffer b = content.duplicate();
+			b.position((int) offset).limit((int) (offset + length));
+			return new BufferInputStream(b);
+		};
+	}
+
+	private static String contentKey(FileEntity file, FileVariant variant) {
+		return file.getHexId() + "/" + (variant == null ? 0 : variant.getSize());
+	}
+
+	private static final class BufferInputStream extends InputStream {
+		private final ByteBuffer buf;
+
+		BufferInputStream(ByteBuffer buf) {
+			this.buf = buf;
+		}
+
+		@Override
+		public int read() {
+			return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0)
+				return 0;
+			if (!buf.hasRemaining())
+				return -1;
+			int n = Math.min(len, buf.remaining());
+			buf.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public int available() {
+			return buf.remaining();
+		}
+	}
+}
@@ -24,8 +24,10 @@ import java.util.Map;
  */
 import com.spendi.core.base.BaseController;
 import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.concurrent.SingleFlight;
 import com.spendi.core.files.UploadedFile;
 import com.spendi.core.files.DownloadedFile;
+import com.spendi.core.files.FileResponder;
 import com.spendi.core.response.ApiSuccessResponse;
 import com.spendi.modules.files.dto.FileDownloadQuery;
 import com.spendi.modules.files.model.FileEntity;
@@ -35,6 +37,9 @@ public class FileController extends BaseController {
 
 	protected static FileController INSTANCE = new FileController();
 	private final FileService fileService = FileService.getInstance();
+	private final FileResponder fileResponder = FileResponder.getInstance();
+	/** Одновременные запросы одного файла делят поиск метаданных и чтение в кэш */
+	private final SingleFlight<DownloadedFile> fileReads = new SingleFlight<>("files.open");
 
 	protected FileController() {
 		super(FileController.class.getSimpleName());
@@ -44,21 +49,27 @@ public class FileController extends BaseController {
 		return INSTANCE;
 	}
 
+	/**
+	 * Загрузить один или несколько файлов (части обрабатываются параллельно).
+	 * Ответ: ids — в порядке частей запроса; id — первый из них.
+	 */
 	public void createOne(HttpContext ctx) {
 		List<UploadedFile> files = ctx.getFiles();
 
 		// Лог запроса на загрузку файла (несохраненный)
 		this.info("file upload requested", ctx.getRequestId(), detailsOf("count", files.size()));
 
-		var resp = this.fileService.createOne(ctx.getRequestId(), files.get(0));
-		FileEntity file = resp.getData();
+		var resp = this.fileService.uploadMany(ctx.getRequestId(), files);
+		List<String> ids = resp.getData().stream().map(FileEntity::getHexId).toList();
 
+		String message = ids.size() == 1 ? "Uploaded one file" : "Uploaded " + ids.size() + " files";
 		ctx.res().success(
-				ApiSuccessResponse.created(ctx.getRequestId(), "Uploaded one file", Map.of("id", file.getHexId())));
+				ApiSuccessResponse.created(ctx.getRequestId(), message, Map.of("id", ids.get(0), "ids", ids)));
 	}
 
 	/**
 	 * Скачать/просмотреть файл по id. Query-параметр: download=true|1 — принудительно attachment.
+	 * Поддерживает Range/If-Range (докачка) и условные запросы по ETag.
 	 */
 	public void downloadOne(HttpContext ctx) {
 		IdParams p = ctx.getValidParams(IdParams.class);
@@ -69,14 +80,13 @@ public class FileController extends BaseController {
 		// Лог запроса скачивания файла (несохраненный)
 		this.info("file download requested", ctx.getRequestId(), detailsOf("id", p.getId()));
 
-		var resp = this.fileService.downloadOne(ctx.getRequestId(), new ObjectId(p.getId()));
-		DownloadedFile file = resp.getData();
+		DownloadedFile file = this.fileReads.run(SingleFlight.key(ctx, SingleFlight.PUBLIC),
+				() -> this.fileService.openOne(ctx.getRequestId(), new ObjectId(p.getId())).getData());
 
 		String disposition = (attachment ? "attachment" : "inline") + "; filename=\""
 				+ (file.getFilename() == null ? (p.getId() + "") : file.getFilename()) + "\"";
 
-		ctx.res().header("Content-Type", file.getContentType()).header("Content-Disposition", disposition)
-				.sendBytes(file.getContent());
+		this.fileResponder.send(ctx, file, disposition);
 	}
 
 	/**
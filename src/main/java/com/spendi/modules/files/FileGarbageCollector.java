@@ -0,0 +1,476 @@
+/**
+ * @file FileGarbageCollector.java
+ * @module modules/files
+ *
+ * @description
+ * Периодическая уборка хранилища (SPENDI_FILES_GC_INTERVAL_MIN): содержимое,
+ * на которое не ссылается ни одна запись, и брошенные временные файлы.
+ * Такое остаётся после best-effort удалений (замена аватара, сбой ФС в
+ * FileService.deleteById) и оборванных загрузок.
+ *
+ * Проход:
+ * - каталоги baseDir (дни или шарды ab/ раскладки sharded, а cas/ — по первым
+ *   двум символам хеша) обходятся параллельно, SPENDI_FILES_GC_PARALLELISM потоков;
+ * - имена собираются пачками и проверяются одним $in-запросом на пачку:
+ *   файл — по id из имени (оригинал и превью), blob — по хешу;
+ * - кандидаты в сироты перепроверяются вторым запросом перед уборкой, копии
+ *   FileLayoutMigrator, ещё не закреплённые за записью, пропускаются;
+ * - сироты старше SPENDI_FILES_GC_GRACE_MIN переносятся в .quarantine/&lt;дата&gt;/
+ *   (или удаляются при SPENDI_FILES_GC_MODE=delete); карантин старше
+ *   SPENDI_FILES_GC_QUARANTINE_DAYS дней удаляется;
+ * - .part и upload_* старше того же порога удаляются сразу.
+ *
+ * Скорость ограничена SPENDI_FILES_GC_OPS_PER_SEC операций с ФС в секунду на
+ * весь проход, потоки — с пониженным приоритетом: уборка не конкурирует с
+ * живым трафиком за диск.
+ *
+ * Для s3-бэкенда содержимое не обходится (в baseDir лежат только .part).
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.files;
+
+/**
+ * ! lib imports
+ */
+import org.bson.types.ObjectId;
+
+/**
+ * ! java imports
+ */
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.FileStorageConfig;
+import com.spendi.core.base.BaseClass;
+import com.spendi.core.files.FileStorage;
+import com.spendi.core.metrics.MetricsRegistry;
+import com.spendi.core.types.EClassType;
+
+public final class FileGarbageCollector extends BaseClass {
+
+	/** Каталог карантина внутри baseDir (не обходится) */
+	static final String QUARANTINE_DIR = ".quarantine";
+	/** Префикс временных файлов загрузки в SPENDI_FILES_TEMP_DIR */
+	static final String TEMP_PREFIX = "upload_";
+	/** Имён на один $in-запрос */
+	private static final int BATCH = 500;
+
+	private static volatile FileGarbageCollector INSTANCE;
+
+	private final FileRepository repository;
+	private final FileStorage fileStorage = FileStorage.getInstance();
+	private final Path baseDir;
+	private final Path tempDir;
+	private final boolean local;
+	private final Duration grace;
+	private final boolean deleteOrphans;
+	private final int quarantineDays;
+	private final int parallelism;
+	private final int opsPerSec;
+
+	private final AtomicLong runs = new AtomicLong();
+	private final AtomicLong orphansTotal = new AtomicLong();
+	private final AtomicLong tempTotal = new AtomicLong();
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "file-gc");
+		t.setDaemon(true);
+		t.setPriority(Thread.MIN_PRIORITY);
+		return t;
+	});
+
+	/**
+	 * Итог одного прохода.
+	 *
+	 * @param scanned     просмотрено файлов
+	 * @param orphans     сирот перенесено в карантин или удалено
+	 * @param tempRemoved удалено брошенных .part и upload_*
+	 * @param unknown     файлов с именем не по схеме хранилища (не трогаются)
+	 * @param errors      ошибок при переносе/удалении
+	 */
+	public record Result(long scanned, long orphans, long tempRemoved, long unknown, long errors) {
+	}
+
+	FileGarbageCollector(FileRepository repository, Path baseDir, Path tempDir, boolean local) {
+		super(EClassType.SYSTEM, FileGarbageCollector.class.getSimpleName());
+		FileStorageConfig cfg = FileStorageConfig.getConfig();
+		this.repository = repository;
+		this.baseDir = baseDir;
+		this.tempDir = tempDir;
+		this.local = local;
+		this.grace = Duration.ofMinutes(cfg.getGcGraceMin());
+		this.deleteOrphans = cfg.isGcDelete();
+		this.quarantineDays = cfg.getGcQuarantineDays();
+		this.parallelism = cfg.getGcParallelism();
+		this.opsPerSec = cfg.getGcOpsPerSec();
+	}
+
+	/**
+	 * Запустить периодическую уборку (повторный вызов игнорируется).
+	 *
+	 * @param intervalMin период в минутах, > 0
+	 */
+	public static void start(FileRepository repository, int intervalMin) {
+		if (INSTANCE != null)
+			return;
+		synchronized (FileGarbageCollector.class) {
+			if (INSTANCE == null) {
+				FileStorage storage = FileStorage.getInstance();
+				INSTANCE = new FileGarbageCollector(repository, storage.getBaseDir(),
+						Paths.get(FileStorageConfig.getConfig().getTempDir()).toAbsolutePath().normalize(),
+						storage.isLocal());
+
+				MetricsRegistry m = MetricsRegistry.getInstance();
+				m.gauge("files.gc.runs", INSTANCE.runs::get);
+				m.gauge("files.gc.orphans", INSTANCE.orphansTotal::get);
+				m.gauge("files.gc.tempRemoved", INSTANCE.tempTotal::get);
+
+				INSTANCE.scheduler.scheduleWithFixedDelay(INSTANCE::runSafely, intervalMin, intervalMin,
+						TimeUnit.MINUTES);
+			}
+		}
+	}
+
+	private void runSafely() {
+		try {
+			this.collect();
+		} catch (Exception e) {
+			this.error("storage gc failed", null, detailsOf("error", String.valueOf(e.getMessage())), true);
+		}
+	}
+
+	/**
+	 * Один проход. Синхронный: обход идёт в отдельном пуле, вызывающий ждёт итога.
+	 */
+	Result collect() throws IOException, InterruptedException {
+		long started = System.nanoTime();
+		Pass pass = new Pass(Instant.now().minus(grace), new Pacer(opsPerSec));
+
+		pass.sweepTemp(tempDir);
+		pass.walk(roots());
+		pass.purgeQuarantine();
+
+		Result r = new Result(pass.scanned.sum(), pass.orphans.sum(), pass.tempRemoved.sum(), pass.unknown.sum(),
+				pass.errors.sum());
+		runs.incrementAndGet();
+		orphansTotal.addAndGet(r.orphans());
+		tempTotal.addAndGet(r.tempRemoved());
+
+		this.info("storage gc done", null, detailsOf("scanned", r.scanned(), "orphans", r.orphans(), "tempRemoved",
+				r.tempRemoved(), "unknown", r.unknown(), "errors", r.errors(), "mode",
+				deleteOrphans ? "delete" : "quarantine", "ms", (System.nanoTime() - started) / 1_000_000), true);
+		return r;
+	}
+
+	/** Единицы параллельного обхода: каталоги дней (или шардов) и cas/xx. */
+	private List<Path> roots() throws IOException {
+		List<Path> roots = new ArrayList<>();
+		if (!Files.isDirectory(baseDir))
+			return roots;
+		try (DirectoryStream<Path> top = Files.newDirectoryStream(baseDir, Files::isDirectory)) {
+			for (Path dir : top) {
+				String name = dir.getFileName().toString();
+				if (name.equals(QUARANTINE_DIR))
+					continue;
+				if (name.equals(FileStorage.BLOB_DIR)) {
+					try (DirectoryStream<Path> shards = Files.newDirectoryStream(dir, Files::isDirectory)) {
+						shards.forEach(roots::add);
+					}
+				} else {
+					roots.add(dir);
+				}
+			}
+		}
+		return roots;
+	}
+
+	/**
+	 * Состояние одного прохода (счётчики общие для всех потоков обхода).
+	 */
+	private final class Pass {
+		final Instant cutoff;
+		final Pacer pacer;
+		final LongAdder scanned = new LongAdder();
+		final LongAdder orphans = new LongAdder();
+		final LongAdder tempRemoved = new LongAdder();
+		final LongAdder unknown = new LongAdder();
+		final LongAdder errors = new LongAdder();
+
+		Pass(Instant cutoff, Pacer pacer) {
+			this.cutoff = cutoff;
+			this.pacer = pacer;
+		}
+
+		void walk(List<Path> roots) throws IOException, InterruptedException {
+			AtomicInteger seq = new AtomicInteger();
+			ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+				Thread t = new Thread(r, "file-gc-walk-" + seq.incrementAndGet());
+				t.setDaemon(true);
+				t.setPriority(Thread.MIN_PRIORITY);
+				return t;
+			});
+			try {
+				List<Callable<Void>> tasks = new ArrayList<>(roots.size());
+				for (Path root : roots) {
+					tasks.add(() -> {
+						walkRoot(root);
+						return null;
+					});
+				}
+				for (Future<Void> f : pool.invokeAll(tasks)) {
+					try {
+						f.get();
+					} catch (ExecutionException e) {
+						if (e.getCause() instanceof InterruptedIOException)
+							throw new InterruptedException("storage gc interrupted");
+						errors.increment();
+						warn("storage gc walk failed", null,
+								detailsOf("error", String.valueOf(e.getCause().getMessage())), true);
+					}
+				}
+			} finally {
+				pool.shutdownNow();
+			}
+		}
+
+		private void walkRoot(Path root) throws IOException {
+			List<Path> files = new ArrayList<>(BATCH);
+			List<ObjectId> ids = new ArrayList<>(BATCH);
+			List<Path> blobs = new ArrayList<>();
+
+			Files.walkFileTree(root, new SimpleFileVisitor<>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					pace();
+					scanned.increment();
+					if (attrs.lastModifiedTime().toInstant().isAfter(cutoff))
+						return FileVisitResult.CONTINUE;
+
+					String name = file.getFileName().toString();
+					if (name.endsWith(FileStorage.INCOMING_SUFFIX)) {
+						removeTemp(file);
+					} else if (!local) {
+						unknown.increment();
+					} else if (FileStorage.isBlob(baseDir.relativize(file).toString())) {
+						blobs.add(file);
+					} else if (name.length() >= 24 && ObjectId.isValid(name.substring(0, 24))) {
+						files.add(file);
+						ids.add(new ObjectId(name.substring(0, 24)));
+					} else {
+						unknown.increment();
+					}
+
+					if (files.size() >= BATCH) {
+						flushFiles(files, ids);
+					}
+					if (blobs.size() >= BATCH) {
+						flushBlobs(blobs);
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException exc) {
+					// файл удалили во время обхода
+					return FileVisitResult.CONTINUE;
+				}
+			});
+
+			flushFiles(files, ids);
+			flushBlobs(blobs);
+		}
+
+		/**
+		 * Файл нужен, если его путь — оригинал или превью записи с id из имени. Кандидаты перепроверяются:
+		 * между запросами перенос раскладки мог перевести запись на этот путь.
+		 */
+		private void flushFiles(List<Path> files, List<ObjectId> ids) throws IOException {
+			if (files.isEmpty())
+				return;
+			Set<String> referenced = repository.findStoredPaths(ids);
+			List<Path> candidates = new ArrayList<>();
+			List<ObjectId> candidateIds = new ArrayList<>();
+			for (int i = 0; i < files.size(); i++) {
+				String rel = baseDir.relativize(files.get(i)).toString();
+				if (!referenced.contains(rel) && !FileLayoutMigrator.isMoving(rel)) {
+					candidates.add(files.get(i));
+					candidateIds.add(ids.get(i));
+				}
+			}
+			if (!candidates.isEmpty()) {
+				referenced = repository.findStoredPaths(candidateIds);
+				for (Path file : candidates) {
+					if (!referenced.contains(baseDir.relativize(file).toString())) {
+						dispose(file);
+					}
+				}
+			}
+			files.clear();
+			ids.clear();
+		}
+
+		/** Blob нужен, если по хешу есть учёт или ссылка; перед удалением — перепроверка под замком загрузки. */
+		private void flushBlobs(List<Path> blobs) throws IOException {
+			if (blobs.isEmpty())
+				return;
+			List<String> shas = new ArrayList<>(blobs.size());
+			blobs.forEach(p -> shas.add(p.getFileName().toString()));
+			Set<String> known = repository.findKnownBlobs(shas);
+			for (Path blob : blobs) {
+				String sha = blob.getFileName().toString();
+				if (known.contains(sha))
+					continue;
+				synchronized (fileStorage.blobLock(sha)) {
+					if (repository.findKnownBlobs(List.of(sha)).isEmpty()) {
+						dispose(blob);
+					}
+				}
+			}
+			blobs.clear();
+		}
+
+		/** Сирота: в карантин (с сохранением относительного пути) или удалить. */
+		private void dispose(Path file) throws IOException {
+			pace();
+			String rel = baseDir.relativize(file).toString();
+			try {
+				if (deleteOrphans) {
+					Files.deleteIfExists(file);
+				} else {
+					Path dst = baseDir.resolve(QUARANTINE_DIR).resolve(LocalDate.now().toString()).resolve(rel);
+					Files.createDirectories(dst.getParent());
+					Files.move(file, dst, StandardCopyOption.REPLACE_EXISTING);
+				}
+				orphans.increment();
+				debug("orphan " + (deleteOrphans ? "deleted" : "quarantined"), null, detailsOf("relative", rel),
+						false);
+			} catch (IOException e) {
+				errors.increment();
+				warn("orphan cleanup failed", null, detailsOf("relative", rel, "error", e.getMessage()), true);
+			}
+		}
+
+		private void removeTemp(Path file) throws IOException {
+			pace();
+			try {
+				if (Files.deleteIfExists(file))
+					tempRemoved.increment();
+			} catch (IOException e) {
+				errors.increment();
+			}
+		}
+
+		/** Брошенные upload_* в каталоге временных загрузок (без вложенных каталогов). */
+		void sweepTemp(Path dir) throws IOException {
+			if (!Files.isDirectory(dir))
+				return;
+			try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, TEMP_PREFIX + "*")) {
+				for (Path file : ds) {
+					pace();
+					scanned.increment();
+					BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+					if (attrs.isRegularFile() && attrs.lastModifiedTime().toInstant().isBefore(cutoff)) {
+						removeTemp(file);
+					}
+				}
+			}
+		}
+
+		/** Удалить дни карантина старше SPENDI_FILES_GC_QUARANTINE_DAYS. */
+		void purgeQuarantine() throws IOException {
+			Path q = baseDir.resolve(QUARANTINE_DIR);
+			if (!Files.isDirectory(q))
+				return;
+			LocalDate oldest = LocalDate.now().minusDays(quarantineDays);
+			try (DirectoryStream<Path> days = Files.newDirectoryStream(q, Files::isDirectory)) {
+				for (Path day : days) {
+					try {
+						if (!LocalDate.parse(day.getFileName().toString()).isBefore(oldest))
+							continue;
+					} catch (DateTimeParseException e) {
+						continue;
+					}
+					Files.walkFileTree(day, new SimpleFileVisitor<>() {
+						@Override
+						public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+							pace();
+							Files.deleteIfExists(file);
+							return FileVisitResult.CONTINUE;
+						}
+
+						@Override
+						public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+							Files.deleteIfExists(dir);
+							return FileVisitResult.CONTINUE;
+						}
+					});
+				}
+			}
+		}
+
+		private void pace() throws InterruptedIOException {
+			try {
+				pacer.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("storage gc interrupted");
+			}
+		}
+	}
+
+	/**
+	 * Равномерный темп: не больше {@code perSec} разрешений в секунду на все потоки.
+	 * Простой не копится — после паузы всплеска не будет.
+	 */
+	private static final class Pacer {
+		private final long intervalNanos;
+		private long next = System.nanoTime();
+
+		Pacer(int perSec) {
+			this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, perSec);
+		}
+
+		void acquire() throws InterruptedException {
+			long wait;
+			synchronized (this) {
+				long now = System.nanoTime();
+				if (next < now)
+					next = now;
+				wait = next - now;
+				next += intervalNanos;
+			}
+			if (wait > 0)
+				TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+}
@@ -0,0 +1,258 @@
+/**
+ * @file FileLayoutMigrator.java
+ * @module modules/files
+ *
+ * @description
+ * Фоновый перенос файлов из раскладки dated (YYYY-MM-DD/HH/&lt;id&gt;.ext) в
+ * sharded (ab/cd/&lt;id&gt;.ext, см. FileStorage.shardedPath). Включается при
+ * SPENDI_FILES_LAYOUT=sharded и SPENDI_FILES_LAYOUT_MIGRATE=true, проходит
+ * один раз после старта.
+ *
+ * Перенос онлайн, запись за записью:
+ * 1) оригинал и превью копируются под новые пути (локально — жёсткой ссылкой);
+ * 2) запись переводится на новые пути compare-and-set'ом по relativePath
+ *    (пути превью — поштучно, по старому пути);
+ * 3) закэшированные метаданные сбрасываются, старые пути удаляются.
+ * Пока запись не обновлена, читатели видят старые пути — они целы; если запись
+ * за это время удалили, удаляются копии. Файлы, которых нет в хранилище,
+ * пропускаются (их путь не меняется).
+ *
+ * До перевода записи на копии ничто не ссылается; чтобы FileGarbageCollector
+ * не убрал их как сирот (время изменения у копии свежее, но перенос записи может
+ * затянуться дольше SPENDI_FILES_GC_GRACE_MIN), новые пути на это время
+ * отмечены — см. isMoving.
+ *
+ * Записи берутся пачками по SPENDI_FILES_LAYOUT_MIGRATE_BATCH по возрастанию id,
+ * между пачками — пауза SPENDI_FILES_LAYOUT_MIGRATE_PAUSE_MS.
+ * Blob'ы (cas/) не переносятся — их путь уже вычисляется по хешу.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.files;
+
+/**
+ * ! lib imports
+ */
+import org.bson.types.ObjectId;
+
+/**
+ * ! java imports
+ */
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.FileStorageConfig;
+import com.spendi.core.base.BaseClass;
+import com.spendi.core.files.FileStorage;
+import com.spendi.core.metrics.MetricsRegistry;
+import com.spendi.core.types.EClassType;
+import com.spendi.modules.files.model.FileEntity;
+import com.spendi.modules.files.model.FileVariant;
+
+public final class FileLayoutMigrator extends BaseClass {
+
+	/** Задержка первого прохода после старта, секунд */
+	private static final long START_DELAY_SEC = 60;
+
+	private static volatile FileLayoutMigrator INSTANCE;
+
+	/** Новые пути переносимых сейчас записей: запись на них ещё не переведена */
+	private static final Set<String> MOVING = ConcurrentHashMap.newKeySet();
+
+	private final FileRepository repository;
+	private final FileStorage fileStorage;
+	private final int batch;
+	private final long pauseMs;
+
+	private final AtomicLong migrated = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "file-layout-migrate");
+		t.setDaemon(true);
+		t.setPriority(Thread.MIN_PRIORITY);
+		return t;
+	});
+
+	/**
+	 * Итог прохода.
+	 *
+	 * @param scanned  просмотрено записей
+	 * @param migrated переведено на новые пути
+	 * @param skipped  пропущено: нет содержимого или запись изменилась/удалена во время переноса
+	 * @param failed   ошибок хранилища или БД (запись осталась на старых путях)
+	 */
+	public record Result(long scanned, long migrated, long skipped, long failed) {
+	}
+
+	FileLayoutMigrator(FileRepository repository, FileStorage fileStorage, int batch, long pauseMs) {
+		super(EClassType.SYSTEM, FileLayoutMigrator.class.getSimpleName());
+		this.repository = repository;
+		this.fileStorage = fileStorage;
+		this.batch = batch;
+		this.pauseMs = pauseMs;
+	}
+
+	/**
+	 * Запустить перенос в фоне (повторный вызов игнорируется).
+	 */
+	public static void start(FileRepository repository) {
+		if (INSTANCE != null)
+			return;
+		synchronized (FileLayoutMigrator.class) {
+			if (INSTANCE == null) {
+				FileStorageConfig cfg = FileStorageConfig.getConfig();
+				INSTANCE = new FileLayoutMigrator(repository, FileStorage.getInstance(), cfg.getLayoutMigrateBatch(),
+						cfg.getLayoutMigratePauseMs());
+
+				MetricsRegistry m = MetricsRegistry.getInstance();
+				m.gauge("files.layout.migrated", INSTANCE.migrated::get);
+				m.gauge("files.layout.skipped", INSTANCE.skipped::get);
+				m.gauge("files.layout.failed", INSTANCE.failed::get);
+
+				INSTANCE.scheduler.schedule(INSTANCE::runSafely, START_DELAY_SEC, TimeUnit.SECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Путь — копия, которую перенос ещё не успел закрепить за записью (для FileGarbageCollector).
+	 */
+	static boolean isMoving(String relativePath) {
+		return MOVING.contains(relativePath);
+	}
+
+	private void runSafely() {
+		try {
+			this.migrate();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			this.error("layout migration failed", null, detailsOf("error", String.valueOf(e.getMessage())), true);
+		}
+	}
+
+	/**
+	 * Полный проход по записям dated. Синхронный.
+	 */
+	Result migrate() throws InterruptedException {
+		long started = System.nanoTime();
+		long scanned = 0;
+		long m0 = migrated.get();
+		long s0 = skipped.get();
+		long f0 = failed.get();
+
+		ObjectId after = null;
+		List<FileEntity> page;
+		while (!(page = repository.findDatedAfter(after, batch)).isEmpty()) {
+			for (FileEntity e : page) {
+				scanned++;
+				this.migrateOne(e);
+			}
+			after = page.get(page.size() - 1).getId();
+			this.info("layout migration batch done", null,
+					detailsOf("lastId", after.toHexString(), "migrated", migrated.get() - m0), false);
+			if (pauseMs > 0)
+				Thread.sleep(pauseMs);
+		}
+
+		Result r = new Result(scanned, migrated.get() - m0, skipped.get() - s0, failed.get() - f0);
+		this.info("layout migration done", null, detailsOf("scanned", r.scanned(), "migrated", r.migrated(),
+				"skipped", r.skipped(), "failed", r.failed(), "ms", (System.nanoTime() - started) / 1_000_000), true);
+		return r;
+	}
+
+	private void migrateOne(FileEntity e) {
+		String from = e.getRelativePath();
+		String to = FileStorage.shardedPath(Paths.get(from).getFileName().toString());
+		List<String> copiedFrom = new ArrayList<>();
+		List<String> copiedTo = new ArrayList<>();
+
+		try {
+			// 1) Копии под новые пути
+			if (!this.copy(from, to, copiedTo)) {
+				skipped.incrementAndGet();
+				return;
+			}
+			copiedFrom.add(from);
+
+			Map<String, String> variantPaths = new LinkedHashMap<>();
+			if (e.getVariants() != null) {
+				for (FileVariant v : e.getVariants()) {
+					String vFrom = v.getRelativePath();
+					String vTo = FileStorage.shardedPath(Paths.get(vFrom).getFileName().toString());
+					if (!vFrom.equals(vTo) && this.copy(vFrom, vTo, copiedTo)) {
+						copiedFrom.add(vFrom);
+						variantPaths.put(vFrom, vTo);
+					}
+				}
+			}
+
+			// 2) Запись — на новые пути, только если её не меняли
+			if (!repository.relocate(e.getId(), from, to, variantPaths)) {
+				this.deleteQuietly(copiedTo);
+				skipped.incrementAndGet();
+				return;
+			}
+		} catch (RuntimeException ex) {
+			this.deleteQuietly(copiedTo);
+			failed.incrementAndGet();
+			this.warn("file layout migration failed", null,
+					detailsOf("id", e.getHexId(), "relativePath", from, "error", String.valueOf(ex.getMessage())),
+					true);
+			return;
+		} finally {
+			MOVING.removeAll(copiedTo);
+		}
+
+		// 3) Старые пути больше не нужны
+		FileCache.getInstance().invalidate(e.getId());
+		this.deleteQuietly(copiedFrom);
+		migrated.incrementAndGet();
+		this.debug("file relocated", null, detailsOf("id", e.getHexId(), "from", from, "to", to), false);
+	}
+
+	/**
+	 * Скопировать и отметить новый путь переносимым (он попадает в {@code copiedTo}).
+	 *
+	 * @return false — исходника нет в хранилище
+	 */
+	private boolean copy(String from, String to, List<String> copiedTo) {
+		MOVING.add(to);
+		try {
+			fileStorage.copy(null, from, to);
+		} catch (RuntimeException ex) {
+			MOVING.remove(to);
+			if (ex.getCause() instanceof NoSuchFileException)
+				return false;
+			throw ex;
+		}
+		copiedTo.add(to);
+		return true;
+	}
+
+	private void deleteQuietly(List<String> paths) {
+		for (String p : paths) {
+			try {
+				fileStorage.delete(null, p);
+			} catch (RuntimeException ignore) {
+				// остаток уберёт FileGarbageCollector
+			}
+		}
+	}
+}
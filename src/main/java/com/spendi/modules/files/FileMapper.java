@@ -14,6 +14,13 @@ package com.spendi.modules.files;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 
+/**
+ * ! java imports
+ */
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
 /**
  * ! my imports
  */
@@ -21,6 +28,7 @@ import com.spendi.core.base.BaseMapper;
 import com.spendi.core.types.DocMapper;
 import com.spendi.modules.files.model.FileEntity;
 import com.spendi.modules.files.model.FileSystem;
+import com.spendi.modules.files.model.FileVariant;
 import com.spendi.shared.mapper.meta.BaseMetaMapper;
 
 public class FileMapper extends BaseMapper<FileEntity> implements DocMapper<FileEntity> {
@@ -52,6 +60,8 @@ public class FileMapper extends BaseMapper<FileEntity> implements DocMapper<File
 				// поддержка Number/Decimal128/String в BaseRepository
 				.contentType(reqString(doc, "contentType", id)).size(reqLong(doc, "size", id))
 				.filename(reqString(doc, "filename", id)).relativePath(reqString(doc, "relativePath", id))
+				.sha256(optString(doc, "sha256").orElse(null))
+				.variants(readVariants(doc))
 				.system(FileSystem.builder().meta(META.toEntity(doc)).build()).build();
 	}
 
@@ -69,8 +79,50 @@ public class FileMapper extends BaseMapper<FileEntity> implements DocMapper<File
 		d.put("size", e.getSize());
 		d.put("filename", e.getFilename());
 		d.put("relativePath", e.getRelativePath());
+		putIfNotNull(d, "sha256", e.getSha256());
+		if (e.getVariants() != null && !e.getVariants().isEmpty()) {
+			d.put("variants", variantsToDocuments(e.getVariants()));
+		}
 		d.put("system", e.getSystem());
 
 		return d;
 	}
+
+	/**
+	 * ? === === === VARIANTS === === ===
+	 */
+
+	public List<Document> variantsToDocuments(List<FileVariant> variants) {
+		List<Document> out = new ArrayList<>(variants.size());
+		for (FileVariant v : variants) {
+			out.add(new Document("size", v.getSize())
+					.append("width", v.getWidth())
+					.append("height", v.getHeight())
+					.append("contentType", v.getContentType())
+					.append("bytes", v.getBytes())
+					.append("relativePath", v.getRelativePath()));
+		}
+		return out;
+	}
+
+	private List<FileVariant> readVariants(Document doc) {
+		List<?> raw = doc.getList("variants", Object.class);
+		if (raw == null || raw.isEmpty())
+			return null;
+		List<FileVariant> out = new ArrayList<>(raw.size());
+		for (Object o : raw) {
+			if (!(o instanceof Document v))
+				continue;
+			out.add(FileVariant.builder()
+					.size(optInt(v, "size").orElse(0))
+					.width(optInt(v, "width").orElse(0))
+					.height(optInt(v, "height").orElse(0))
+					.contentType(optString(v, "contentType").orElse(null))
+					.bytes(optLong(v, "bytes").orElse(0L))
+					.relativePath(optString(v, "relativePath").orElse(null))
+					.build());
+		}
+		out.sort(Comparator.comparingInt(FileVariant::getSize));
+		return out;
+	}
 }
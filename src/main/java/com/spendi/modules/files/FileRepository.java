@@ -15,20 +15,300 @@ package com.spendi.modules.files;
 /**
  * ! lib imports
  */
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+
+/**
+ * ! java imports
+ */
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * ! my imports
  */
 import com.spendi.core.base.BaseRepository;
+import com.spendi.core.files.FileStorage;
+import com.spendi.modules.files.model.FileBlob;
 import com.spendi.modules.files.model.FileEntity;
+import com.spendi.modules.files.model.FileVariant;
 
 public class FileRepository extends BaseRepository<FileEntity> {
 
 	public static final String COLLECTION = "files";
+	/** Коллекция учёта контентно-адресуемых blob'ов (счётчики ссылок) */
+	public static final String BLOBS_COLLECTION = "file_blobs";
+
+	/** relativePath раскладки dated: YYYY-MM-DD/HH/... */
+	private static final String DATED_PATH = "^\\d{4}-\\d{2}-\\d{2}/";
+
+	private final MongoCollection<Document> blobs;
 
 	public FileRepository(MongoDatabase db) {
 		super(FileRepository.class.getSimpleName(), FileEntity.class, db, COLLECTION, FileMapper.getInstance());
+		this.blobs = db.getCollection(BLOBS_COLLECTION);
+		ensureIndexes();
+	}
+
+	private void ensureIndexes() {
+		collection.createIndex(Indexes.ascending("sha256"));
+	}
+
+	/**
+	 * ? === === === VARIANTS === === ===
+	 */
+
+	/**
+	 * Записать превью файла.
+	 *
+	 * @return false — записи файла уже нет (удалён, пока генерировались превью)
+	 */
+	public boolean setVariants(ObjectId id, List<FileVariant> variants) {
+		return collection.updateOne(Filters.eq("_id", id),
+				Updates.set("variants", FileMapper.getInstance().variantsToDocuments(variants)))
+				.getMatchedCount() == 1;
+	}
+
+	/**
+	 * ? === === === LAYOUT MIGRATION === === ===
+	 */
+
+	/**
+	 * Следующая пачка записей в раскладке dated (relativePath = YYYY-MM-DD/...), по возрастанию id.
+	 *
+	 * @param after id последней обработанной записи; null — с начала
+	 */
+	public List<FileEntity> findDatedAfter(ObjectId after, int limit) {
+		Bson filter = Filters.regex("relativePath", DATED_PATH);
+		if (after != null)
+			filter = Filters.and(Filters.gt("_id", after), filter);
+		List<FileEntity> out = new ArrayList<>(limit);
+		for (Document d : collection.find(filter).sort(Sorts.ascending("_id")).limit(limit)) {
+			out.add(mapper.toEntity(d));
+		}
+		return out;
+	}
+
+	/**
+	 * Перевести запись на новые пути, если она не менялась с момента чтения (compare-and-set
+	 * по relativePath). Превью переводятся поштучно, по совпадению старого пути: добавленные
+	 * или удалённые за время переноса превью не затираются.
+	 *
+	 * @param variantPaths старый путь превью → новый; пусто — превью не трогаются
+	 * @return false — запись удалена или уже перенесена
+	 */
+	public boolean relocate(ObjectId id, String fromRelativePath, String toRelativePath,
+			Map<String, String> variantPaths) {
+		List<Bson> updates = new ArrayList<>(variantPaths.size() + 1);
+		List<Bson> arrayFilters = new ArrayList<>(variantPaths.size());
+		updates.add(Updates.set("relativePath", toRelativePath));
+		int i = 0;
+		for (Map.Entry<String, String> v : variantPaths.entrySet()) {
+			String ref = "v" + i++;
+			updates.add(Updates.set("variants.$[" + ref + "].relativePath", v.getValue()));
+			arrayFilters.add(Filters.eq(ref + ".relativePath", v.getKey()));
+		}
+		return collection.updateOne(Filters.and(Filters.eq("_id", id), Filters.eq("relativePath", fromRelativePath)),
+				Updates.combine(updates), arrayFilters.isEmpty() ? new UpdateOptions()
+						: new UpdateOptions().arrayFilters(arrayFilters)).getMatchedCount() == 1;
+	}
+
+	/**
+	 * ? === === === GARBAGE COLLECTION === === ===
+	 */
+
+	/**
+	 * Пути, на которые ссылаются записи файлов с данными id (оригинал и превью) — одним $in-запросом.
+	 */
+	public Set<String> findStoredPaths(Collection<ObjectId> ids) {
+		Set<String> out = new HashSet<>();
+		if (ids.isEmpty())
+			return out;
+		for (Document d : collection.find(Filters.in("_id", ids))
+				.projection(Projections.include("relativePath", "variants.relativePath"))) {
+			String rel = d.getString("relativePath");
+			if (rel != null)
+				out.add(rel);
+			List<Document> variants = d.getList("variants", Document.class);
+			if (variants != null) {
+				for (Document v : variants) {
+					String vr = v.getString("relativePath");
+					if (vr != null)
+						out.add(vr);
+				}
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Хеши, по которым есть учёт в file_blobs или ссылка из записи файла (учёт мог потеряться —
+	 * его восстановит FileBlobReconciler, содержимое трогать нельзя).
+	 */
+	public Set<String> findKnownBlobs(Collection<String> sha256s) {
+		Set<String> out = new HashSet<>();
+		if (sha256s.isEmpty())
+			return out;
+		for (Document d : blobs.find(Filters.in("_id", sha256s)).projection(Projections.include("_id"))) {
+			out.add(d.getString("_id"));
+		}
+		collection.distinct("sha256", Filters.in("sha256", sha256s), String.class).into(out);
+		return out;
+	}
+
+	/**
+	 * ? === === === BLOB REFCOUNT === === ===
+	 */
+
+	/**
+	 * Учесть новую ссылку на blob (создаёт запись при первой ссылке).
+	 */
+	public void acquireBlob(String sha256, String relativePath, long size) {
+		Instant now = Instant.now();
+		blobs.updateOne(Filters.eq("_id", sha256),
+				Updates.combine(
+						Updates.inc("refs", 1L),
+						Updates.set("updatedAt", now),
+						Updates.setOnInsert("relativePath", relativePath),
+						Updates.setOnInsert("size", size),
+						Updates.setOnInsert("createdAt", now)),
+				new UpdateOptions().upsert(true));
+	}
+
+	/**
+	 * Снять ссылку с blob'а.
+	 *
+	 * @return true — это была последняя ссылка, запись удалена и содержимое можно удалять
+	 */
+	public boolean releaseBlob(String sha256) {
+		Document after = blobs.findOneAndUpdate(Filters.eq("_id", sha256),
+				Updates.combine(Updates.inc("refs", -1L), Updates.set("updatedAt", Instant.now())),
+				new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+
+		if (after == null) {
+			// записи нет (рассинхрон) — удалять можно, только если на хеш больше никто не ссылается
+			return this.count("sha256", sha256) == 0;
+		}
+		if (toBlob(after).getRefs() > 0) {
+			return false;
+		}
+		// удаляем, только если за это время никто не взял новую ссылку
+		return blobs.deleteOne(Filters.and(Filters.eq("_id", sha256), Filters.lte("refs", 0L)))
+				.getDeletedCount() == 1;
+	}
+
+	/**
+	 * Найти учёт blob'а по хешу.
+	 */
+	public FileBlob findBlob(String sha256) {
+		return toBlob(blobs.find(Filters.eq("_id", sha256)).first());
+	}
+
+	/**
+	 * Пройти по всем учтённым blob'ам (курсором, без загрузки всей коллекции).
+	 */
+	public void forEachBlob(Consumer<FileBlob> action) {
+		for (Document d : blobs.find()) {
+			action.accept(toBlob(d));
+		}
+	}
+
+	/**
+	 * Фактическое число ссылок на каждый blob по записям файлов.
+	 * Поле refs в результате — количество записей {@link FileEntity} с данным sha256.
+	 */
+	public List<FileBlob> countBlobReferences() {
+		List<Bson> pipeline = List.of(
+				Aggregates.match(Filters.and(Filters.exists("sha256"),
+						Filters.regex("relativePath", "^" + FileStorage.BLOB_DIR + "/"))),
+				Aggregates.group("$sha256",
+						Accumulators.sum("refs", 1L),
+						Accumulators.first("relativePath", "$relativePath"),
+						Accumulators.first("size", "$size")));
+
+		List<FileBlob> result = new ArrayList<>();
+		for (Document d : collection.aggregate(pipeline)) {
+			result.add(toBlob(d));
+		}
+		return result;
 	}
 
+	/**
+	 * Исправить счётчик, если он не менялся с момента чтения (compare-and-set по refs и updatedAt).
+	 *
+	 * @return true — счётчик обновлён
+	 */
+	public boolean repairBlobRefs(FileBlob seen, long refs) {
+		return blobs.updateOne(
+				Filters.and(Filters.eq("_id", seen.getSha256()), Filters.eq("refs", seen.getRefs()),
+						Filters.eq("updatedAt", seen.getUpdatedAt())),
+				Updates.combine(Updates.set("refs", refs), Updates.set("updatedAt", Instant.now())))
+				.getModifiedCount() == 1;
+	}
+
+	/**
+	 * Создать учёт для blob'а, на который есть ссылки, но записи нет.
+	 */
+	public void restoreBlob(FileBlob actual) {
+		Instant now = Instant.now();
+		blobs.updateOne(Filters.eq("_id", actual.getSha256()),
+				Updates.combine(
+						Updates.setOnInsert("refs", actual.getRefs()),
+						Updates.setOnInsert("relativePath", actual.getRelativePath()),
+						Updates.setOnInsert("size", actual.getSize()),
+						Updates.setOnInsert("createdAt", now),
+						Updates.setOnInsert("updatedAt", now)),
+				new UpdateOptions().upsert(true));
+	}
+
+	/**
+	 * Удалить учёт blob'а без ссылок, не менявшийся с {@code olderThan}.
+	 *
+	 * @return true — запись удалена, содержимое можно удалять
+	 */
+	public boolean deleteUnreferencedBlob(String sha256, Instant olderThan) {
+		return blobs.deleteOne(Filters.and(Filters.eq("_id", sha256), Filters.lte("refs", 0L),
+				Filters.lt("updatedAt", olderThan))).getDeletedCount() == 1;
+	}
+
+	private static FileBlob toBlob(Document d) {
+		if (d == null)
+			return null;
+		return FileBlob.builder()
+				.sha256(d.get("_id").toString())
+				.relativePath(d.getString("relativePath"))
+				.size(asLong(d.get("size")))
+				.refs(asLong(d.get("refs")))
+				.createdAt(asInstant(d.get("createdAt")))
+				.updatedAt(asInstant(d.get("updatedAt")))
+				.build();
+	}
+
+	private static long asLong(Object v) {
+		return v instanceof Number n ? n.longValue() : 0L;
+	}
+
+	private static Instant asInstant(Object v) {
+		return v instanceof Date date ? date.toInstant() : null;
+	}
 }
@@ -8,22 +8,32 @@
 
 package com.spendi.modules.files;
 
+/**
+ * ! java imports
+ */
+import java.time.Duration;
+
 /**
  * ! my imports
  */
 // config
 import com.spendi.config.FileValidationConfig;
+import com.spendi.config.RateLimitConfig;
 // core -> base
 import com.spendi.core.base.server.HttpServerAdapter;
-import com.spendi.core.base.server.javalin.middleware.JavalinMultipartParserMiddleware;
+import com.spendi.core.base.server.javalin.middleware.JavalinStreamingMultipartMiddleware;
 import com.spendi.core.middleware.AuthMiddleware;
 // core -> middleware
 import com.spendi.core.middleware.FileValidationMiddleware;
 import com.spendi.core.middleware.ParamsValidationMiddleware;
 import com.spendi.core.middleware.QueryValidationMiddleware;
+import com.spendi.core.middleware.RateLimitMiddleware;
 import com.spendi.core.middleware.TempFilesCleanupMiddleware;
 // core -> router
 import com.spendi.core.router.ApiRouter;
+// core -> ratelimit
+import com.spendi.core.ratelimit.RateLimitKey;
+import com.spendi.core.ratelimit.RateLimitPolicy;
 // core -> files
 import com.spendi.core.files.validation.FileValidationRules;
 // files -> dto
@@ -43,17 +53,24 @@ public class FileRouter extends ApiRouter {
 		// Подключаем AuthMiddleware на весь роутер
 		this.use(AuthMiddleware.getInstance());
 
-		// Базовые правила на один файл для тестов
+		// Лимит на пользователя (после AuthMiddleware — сессия уже в контексте)
+		RateLimitConfig rl = RateLimitConfig.getConfig();
+		this.use(RateLimitMiddleware.of(RateLimitPolicy.builder("files")
+				.tokenBucket(rl.getUserPerMinute(), Duration.ofMinutes(1))
+				.burst(rl.getUserBurst())
+				.key(RateLimitKey.USER)
+				.build()));
+
+		// Несколько файлов за запрос: число и суммарный объём — из EMS_FILE_MAX_COUNT / SPENDI_FILE_MAX_TOTAL_BYTES
 		FileValidationRules rules = FileValidationRules
 				.builderFromConfig(FileValidationConfig.getConfig())
 				.minFiles(1)
-				.maxFiles(1)
 				.allowedExtensions(".jpg", ".gif", ".png")
 				.build();
 
 		this.post("/",
 				controller::createOne,
-				new JavalinMultipartParserMiddleware(),
+				new JavalinStreamingMultipartMiddleware(rules),
 				new FileValidationMiddleware(rules),
 				TempFilesCleanupMiddleware.getInstance());
 
@@ -11,29 +11,49 @@ package com.spendi.modules.files;
 /**
  * ! lib imports
  */
+import org.bson.Document;
 import org.bson.types.ObjectId;
 
+/**
+ * ! java imports
+ */
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
 /**
  * ! my imports
  */
+import com.spendi.config.FileStorageConfig;
 import com.spendi.core.base.service.BaseRepositoryService;
 import com.spendi.core.exceptions.EntityNotFoundException;
 import com.spendi.core.response.ServiceResponse;
 import com.spendi.modules.files.model.FileEntity;
 import com.spendi.modules.files.model.FileSystem;
+import com.spendi.modules.files.model.FileVariant;
 import com.spendi.shared.model.meta.BaseMeta;
 import com.spendi.core.files.StoredFile;
 import com.spendi.core.files.UploadedFile;
 import com.spendi.core.files.FileStorage;
+import com.spendi.core.files.UploadWorkers;
 import com.spendi.core.files.DownloadedFile;
 
 public class FileService extends BaseRepositoryService<FileRepository, FileEntity> {
 
 	private static volatile FileService INSTANCE;
-	private final FileStorage fileStorage = FileStorage.getInstance();
+	private final FileStorage fileStorage;
+	private final FileCache fileCache = FileCache.getInstance();
 
 	protected FileService(FileRepository repository) {
+		this(repository, FileStorage.getInstance());
+	}
+
+	/** Для тестов: своё хранилище вместо общего. */
+	FileService(FileRepository repository, FileStorage fileStorage) {
 		super(FileService.class.getSimpleName(), repository);
+		this.fileStorage = fileStorage;
 	}
 
 	/**
@@ -60,25 +80,135 @@ public class FileService extends BaseRepositoryService<FileRepository, FileEntit
 
 	/**
 	 * Создать запись в БД на основе сохранённого файла (локально).
+	 * При SPENDI_FILES_DEDUP=true содержимое хранится один раз на SHA-256 (см. {@link #storeBlob}).
 	 */
 	protected ServiceResponse<FileEntity> createOne(String requestId, UploadedFile uf) {
-		FileEntity e = new FileEntity();
+		FileEntity e = this.store(requestId, uf);
+		ServiceResponse<FileEntity> res;
+		try {
+			res = this.createOne(e);
+		} catch (RuntimeException ex) {
+			this.discard(requestId, e);
+			throw ex;
+		}
+
+		this.info("File metadata created", requestId,
+				detailsOf("id", e.getHexId(), "rel", e.getRelativePath(), "sha256", e.getSha256()), true);
+		return res;
+	}
+
+	/**
+	 * Загрузить несколько файлов: содержимое сохраняется параллельно ({@link UploadWorkers}),
+	 * метаданные — одним insertMany. Порядок результата совпадает с порядком файлов;
+	 * при ошибке сохранённое содержимое удаляется и выбрасывается ошибка первого
+	 * по порядку файла.
+	 */
+	public ServiceResponse<List<FileEntity>> uploadMany(String requestId, List<UploadedFile> files) {
+		if (files.size() == 1) {
+			return ServiceResponse.created(List.of(this.createOne(requestId, files.get(0)).getData()));
+		}
+
+		long started = System.nanoTime();
+		List<FileEntity> entities = UploadWorkers.getInstance().map(files, (i, uf) -> this.store(requestId, uf),
+				e -> this.discard(requestId, e));
+
+		ServiceResponse<List<FileEntity>> res;
+		try {
+			res = this.createMany(entities);
+		} catch (RuntimeException ex) {
+			// insertMany упорядочен и мог успеть записать начало списка; без удаления
+			// метаданных содержимое не трогаем — висячих ссылок быть не должно
+			try {
+				this.repository.deleteMany(
+						Map.of("_id", new Document("$in", entities.stream().map(FileEntity::getId).toList())));
+				entities.forEach(e -> this.discard(requestId, e));
+			} catch (RuntimeException cleanup) {
+				this.warn("files metadata rollback failed", requestId,
+						detailsOf("count", entities.size(), "error", String.valueOf(cleanup.getMessage())), true);
+			}
+			throw ex;
+		}
+
+		this.info("Files metadata created", requestId, detailsOf("count", entities.size(), "ms",
+				(System.nanoTime() - started) / 1_000_000), true);
+		return res;
+	}
+
+	/**
+	 * Положить содержимое в хранилище и собрать FileEntity (без записи в БД).
+	 */
+	private FileEntity store(String requestId, UploadedFile uf) {
+		if (FileStorageConfig.getConfig().isContentAddressed()) {
+			return this.storeBlob(requestId, uf);
+		}
 
 		ObjectId id = new ObjectId();
 		StoredFile stored = this.fileStorage.save(requestId, id.toHexString(), uf);
+		return this.buildEntity(id, uf, uf.getSha256(), stored);
+	}
+
+	/**
+	 * Контентно-адресуемое сохранение: ссылка на blob учитывается до того, как blob
+	 * кладётся на диск, — так параллельное удаление последней ссылки не снесёт
+	 * содержимое, которое только что переиспользовали.
+	 */
+	private FileEntity storeBlob(String requestId, UploadedFile uf) {
+		String sha = uf.getSha256() != null ? uf.getSha256() : this.fileStorage.sha256Of(uf);
+		String rel = FileStorage.blobPath(sha);
+
+		StoredFile stored;
+		synchronized (this.fileStorage.blobLock(sha)) {
+			this.repository.acquireBlob(sha, rel, uf.getSize());
+			try {
+				stored = this.fileStorage.saveBlob(requestId, sha, uf);
+			} catch (RuntimeException ex) {
+				this.releaseBlob(requestId, sha, rel);
+				throw ex;
+			}
+		}
+		return this.buildEntity(new ObjectId(), uf, sha, stored);
+	}
+
+	/**
+	 * Откатить {@link #store}: снять ссылку с blob'а или удалить файл (best-effort).
+	 */
+	private void discard(String requestId, FileEntity e) {
+		try {
+			if (e.getSha256() != null && FileStorage.isBlob(e.getRelativePath())) {
+				this.releaseBlob(requestId, e.getSha256(), e.getRelativePath());
+			} else {
+				this.fileStorage.delete(requestId, e.getRelativePath());
+			}
+		} catch (RuntimeException ex) {
+			this.warn("stored content rollback failed", requestId,
+					detailsOf("id", e.getHexId(), "rel", e.getRelativePath(), "error", String.valueOf(ex.getMessage())),
+					true);
+		}
+	}
 
+	private FileEntity buildEntity(ObjectId id, UploadedFile uf, String sha256, StoredFile stored) {
+		FileEntity e = new FileEntity();
 		e.setId(id);
 		e.setOriginalName(uf.getOriginalName());
 		e.setContentType(uf.getContentType());
 		e.setSize(uf.getSize());
+		e.setSha256(sha256);
 		e.setFilename(stored.getFilename());
 		e.setRelativePath(stored.getRelative());
 		e.setSystem(FileSystem.builder().meta(BaseMeta.builder().build()).build());
+		return e;
+	}
 
-		ServiceResponse<FileEntity> res = this.createOne(e);
-
-		this.info("File metadata created", requestId, detailsOf("id", e.getHexId(), "rel", e.getRelativePath()), true);
-		return res;
+	/**
+	 * Снять ссылку с blob'а и удалить содержимое, если ссылка была последней.
+	 */
+	private void releaseBlob(String requestId, String sha256, String relativePath) {
+		synchronized (this.fileStorage.blobLock(sha256)) {
+			if (this.repository.releaseBlob(sha256)) {
+				this.fileStorage.delete(requestId, relativePath);
+				this.info("blob released", requestId, detailsOf("sha256", sha256), true);
+			}
+		}
 	}
 
 	/** Публичная обёртка для загрузки одного файла. */
@@ -88,38 +218,237 @@ public class FileService extends BaseRepositoryService<FileRepository, FileEntit
 
 	/**
 	 * Загрузить содержимое файла по id с диска, вернуть как DTO для отдачи.
+	 * Файл читается в память целиком, мимо кэша.
 	 */
 	public ServiceResponse<DownloadedFile> downloadOne(String requestId, ObjectId id) {
+		FileEntity e = this.getStoredEntity(requestId, id);
+
+		String rel = this.locate(e.getRelativePath());
+		if (rel == null) {
+			throw new EntityNotFoundException("FileContent", "relativePath", e.getRelativePath());
+		}
+		byte[] content = this.fileStorage.read(requestId, rel);
+		DownloadedFile dto = new DownloadedFile(content, downloadName(e), e.getContentType(),
+				etagOf(e, content.length), createdAt(e));
+
+		this.info("file read for download", requestId, detailsOf("id", id.toHexString(), "bytes", content.length),
+				false);
+
+		return ServiceResponse.founded(dto);
+	}
+
+	/**
+	 * Открыть файл по id для потоковой отдачи: содержимое не читается в память,
+	 * длина берётся из метаданных (FileEntity.size). Участки файла (Range) открываются
+	 * по смещению при отправке.
+	 * При SPENDI_FILES_STREAM_DOWNLOADS=false файл читается в память целиком.
+	 * Небольшие файлы отдаются из {@link FileCache}.
+	 */
+	public ServiceResponse<DownloadedFile> openOne(String requestId, ObjectId id) {
+		FileEntity e = this.getStoredEntity(requestId, id);
+		return ServiceResponse.founded(this.openStored(requestId, e, null));
+	}
+
+	/**
+	 * Открыть превью не меньше {@code size} px (см. {@link FileEntity#variantFor(int)}).
+	 * Если подходящего превью нет (ещё не готово или запрошено больше самого крупного) — оригинал.
+	 *
+	 * @param size желаемая сторона, px; null — оригинал
+	 */
+	public ServiceResponse<DownloadedFile> openOne(String requestId, ObjectId id, Integer size) {
+		if (size == null) {
+			return this.openOne(requestId, id);
+		}
+
+		FileEntity e = this.getStoredEntity(requestId, id);
+		return ServiceResponse.founded(this.openStored(requestId, e, e.variantFor(size)));
+	}
+
+	/**
+	 * Описание отдачи оригинала (variant == null) или превью.
+	 * Превью, которого нет на диске, заменяется оригиналом; что отдаётся на самом деле —
+	 * {@link DownloadedFile#getVariantSize()}.
+	 */
+	private DownloadedFile openStored(String requestId, FileEntity e, FileVariant variant) {
+		String stored = variant == null ? e.getRelativePath() : variant.getRelativePath();
+		String contentType = variant == null ? e.getContentType() : variant.getContentType();
+		String name = variant == null ? downloadName(e) : variantName(e, variant);
+
+		// 1) Кэш: ни диска, ни проверок существования
+		ByteBuffer cached = this.fileCache.getContent(e, variant);
+		if (cached != null) {
+			return this.fromBuffer(e, variant, cached, name, contentType);
+		}
+
+		String rel = this.locate(stored);
+		if (rel == null) {
+			if (variant == null) {
+				throw new EntityNotFoundException("FileContent", "relativePath", stored);
+			}
+			this.warn("file variant content not found", requestId,
+					detailsOf("id", e.getHexId(), "size", variant.getSize(), "relativePath", stored), true);
+			return this.openStored(requestId, e, null);
+		}
+
+		// 2) Небольшой файл (или отдача без потоков) — читается целиком и кладётся в кэш
+		long stamp = this.fileCache.stamp();
+		long known = variant == null ? e.getSize() : variant.getBytes();
+		if (!FileStorageConfig.getConfig().isStreamDownloads() || this.fileCache.accepts(known)) {
+			byte[] content = this.fileStorage.read(requestId, rel);
+			ByteBuffer buf = this.fileCache.putContent(stamp, e, variant, content);
+			return this.fromBuffer(e, variant, buf, name, contentType);
+		}
+
+		// 3) Поток с диска. Content-Length должен совпасть с телом: при расхождении верим диску
+		long size = variant == null ? e.getSize() : variant.getBytes();
+		long onDisk = this.fileStorage.size(rel);
+		if (onDisk < 0) {
+			throw new EntityNotFoundException("FileContent", "relativePath", rel);
+		}
+		if (size != onDisk) {
+			this.warn("file size mismatch", requestId,
+					detailsOf("id", e.getHexId(), "metaSize", size, "diskSize", onDisk), true);
+			size = onDisk;
+		}
+
+		DownloadedFile dto = new DownloadedFile(
+				(offset, length) -> this.fileStorage.open(requestId, rel, offset, length),
+				size, name, contentType, etagOf(e, variant, size), createdAt(e)).withVariantSize(variantSize(variant));
+
+		this.info("file opened for download", requestId, detailsOf("id", e.getHexId(), "bytes", size, "variant",
+				variant == null ? null : variant.getSize()), false);
+		return dto;
+	}
+
+	/**
+	 * Путь, по которому содержимое есть в хранилище: сохранённый или его sharded-вариант
+	 * (метаданные прочитаны до того, как FileLayoutMigrator перенёс файл). null — нет нигде.
+	 */
+	private String locate(String rel) {
+		if (this.fileStorage.exists(rel)) {
+			return rel;
+		}
+		String sharded = FileStorage.shardedPath(Paths.get(rel).getFileName().toString());
+		return !sharded.equals(rel) && this.fileStorage.exists(sharded) ? sharded : null;
+	}
+
+	private DownloadedFile fromBuffer(FileEntity e, FileVariant variant, ByteBuffer content, String name,
+			String contentType) {
+		long size = content.remaining();
+		return new DownloadedFile(FileCache.sourceOf(content), size, name, contentType, etagOf(e, variant, size),
+				createdAt(e)).withVariantSize(variantSize(variant));
+	}
+
+	private static Integer variantSize(FileVariant variant) {
+		return variant == null ? null : variant.getSize();
+	}
+
+	/**
+	 * Сбросить файл из кэша (например, при замене аватара — до удаления старого файла).
+	 */
+	public void invalidateCached(ObjectId id) {
+		this.fileCache.invalidate(id);
+	}
+
+	/**
+	 * Поставить генерацию превью в фоновую очередь (для изображений).
+	 */
+	public void requestVariants(String requestId, FileEntity e) {
+		FileVariantGenerator.getInstance().submit(requestId, e);
+	}
+
+	/**
+	 * Метаданные файла, содержимое которого есть на диске.
+	 *
+	 * @throws EntityNotFoundException если нет записи или файла в хранилище
+	 */
+	private FileEntity getStoredEntity(String requestId, ObjectId id) {
+		// 0) Метаданные из кэша: содержимое проверит openStored
+		FileEntity cached = this.fileCache.getFile(id);
+		if (cached != null) {
+			return cached;
+		}
+		long stamp = this.fileCache.stamp();
+
 		// 1) Метаданные из БД
 		FileEntity e = this.getById(id).getData();
-		// 2) Чтение из ФС
 		if (e == null || e.getRelativePath() == null) {
 			throw new EntityNotFoundException("File", "id", id.toHexString());
 		}
 
-		// 3) Проверка существования файла на диске
-		if (!this.fileStorage.exists(e.getRelativePath())) {
+		// 2) Проверка существования файла: по сохранённому пути или уже перенесённому
+		// FileLayoutMigrator'ом (запись могла быть прочитана до обновления пути)
+		if (this.locate(e.getRelativePath()) == null) {
 			this.info("file content not found", requestId,
 					detailsOf("id", id.toHexString(), "relativePath", e.getRelativePath()), false);
 
 			throw new EntityNotFoundException("FileContent", "relativePath", e.getRelativePath());
 		}
+		this.fileCache.putFile(stamp, e);
+		return e;
+	}
 
-		byte[] content = this.fileStorage.read(requestId, e.getRelativePath());
-		String filename = (e.getOriginalName() != null && !e.getOriginalName().isBlank()) ? e.getOriginalName()
-				: e.getFilename();
+	/**
+	 * Сильный ETag: содержимое файла под данным id не меняется, поэтому id + размер
+	 * однозначно определяют байты.
+	 */
+	private static String etagOf(FileEntity e, long size) {
+		return "\"" + e.getHexId() + "-" + Long.toHexString(size) + "\"";
+	}
 
-		DownloadedFile dto = new DownloadedFile(content, filename, e.getContentType());
+	/** ETag превью отличается от оригинала размером варианта. */
+	private static String etagOf(FileEntity e, FileVariant v, long size) {
+		return v == null ? etagOf(e, size)
+				: "\"" + e.getHexId() + "-" + v.getSize() + "-" + Long.toHexString(size) + "\"";
+	}
 
-		this.info("file read for download", requestId, detailsOf("id", id.toHexString(), "bytes", content.length),
-				false);
+	private static Instant createdAt(FileEntity e) {
+		return (e.getSystem() != null && e.getSystem().getMeta() != null) ? e.getSystem().getMeta().getCreatedAt()
+				: null;
+	}
 
-		return ServiceResponse.founded(dto);
+	private static String downloadName(FileEntity e) {
+		return (e.getOriginalName() != null && !e.getOriginalName().isBlank()) ? e.getOriginalName()
+				: e.getFilename();
+	}
+
+	/** avatar.jpeg → avatar_64.png */
+	private static String variantName(FileEntity e, FileVariant v) {
+		String base = downloadName(e);
+		int dot = base == null ? -1 : base.lastIndexOf('.');
+		String stem = base == null ? e.getHexId() : (dot > 0 ? base.substring(0, dot) : base);
+		return stem + "_" + v.getSize() + ("image/png".equals(v.getContentType()) ? ".png" : ".jpg");
 	}
 
 	public ServiceResponse<String> deleteById(String requestId, ObjectId id) {
 		// ensure exists and get metadata
 		FileEntity e = this.getById(id).getData();
+
+		// превью — обычные файлы, удаляются вместе с любой записью (best-effort)
+		if (e != null && e.getVariants() != null) {
+			for (FileVariant v : e.getVariants()) {
+				try {
+					this.fileStorage.delete(requestId, v.getRelativePath());
+				} catch (RuntimeException ignore) {
+				}
+			}
+		}
+
+		// blob из общего хранилища: сначала метаданные, потом ссылка; файл — только за последней
+		if (e != null && e.getSha256() != null && FileStorage.isBlob(e.getRelativePath())) {
+			var res = super.deleteById(id);
+			this.fileCache.invalidate(id);
+			this.info("file metadata deleted", requestId, detailsOf("id", id.toHexString()), false);
+			try {
+				this.releaseBlob(requestId, e.getSha256(), e.getRelativePath());
+			} catch (RuntimeException ex) {
+				// счётчик поправит FileBlobReconciler
+				this.warn("blob release failed", requestId,
+						detailsOf("sha256", e.getSha256(), "error", String.valueOf(ex.getMessage())), true);
+			}
+			return res;
+		}
+
 		// try delete physical file (best-effort)
 		try {
 			if (e != null && e.getRelativePath() != null) {
@@ -130,6 +459,7 @@ public class FileService extends BaseRepositoryService<FileRepository, FileEntit
 		} catch (RuntimeException ignore) {
 		}
 		var res = super.deleteById(id); // ServiceResponse<String> with deleted id or throws
+		this.fileCache.invalidate(id);
 		this.info("file metadata deleted", requestId, detailsOf("id", id.toHexString()), false);
 		return res;
 	}
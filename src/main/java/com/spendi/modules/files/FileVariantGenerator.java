@@ -0,0 +1,176 @@
+/**
+ * @file FileVariantGenerator.java
+ * @module modules/files
+ *
+ * @description
+ * Фоновая генерация превью изображений (размеры — SPENDI_FILES_THUMB_SIZES).
+ *
+ * Загрузка не ждёт превью: задача ставится в очередь, пул из
+ * SPENDI_FILES_THUMB_WORKERS потоков строит варианты, кладёт их в хранилище
+ * и записывает в FileEntity.variants. Пока превью нет, отдаётся оригинал.
+ *
+ * Очередь ограничена: при переполнении задача отбрасывается (с предупреждением)
+ * — файл просто остаётся без превью, на загрузку это не влияет.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.files;
+
+/**
+ * ! java imports
+ */
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.FileStorageConfig;
+import com.spendi.core.base.BaseClass;
+import com.spendi.core.files.FileStorage;
+import com.spendi.core.files.StoredFile;
+import com.spendi.core.files.UploadedFile;
+import com.spendi.core.files.thumbnail.ThumbnailRenderer;
+import com.spendi.core.files.thumbnail.ThumbnailRenderer.Thumbnail;
+import com.spendi.core.types.EClassType;
+import com.spendi.modules.files.model.FileEntity;
+import com.spendi.modules.files.model.FileVariant;
+
+public final class FileVariantGenerator extends BaseClass {
+
+	/** Сколько задач может ждать в очереди */
+	private static final int QUEUE_CAPACITY = 256;
+
+	private static volatile FileVariantGenerator INSTANCE;
+
+	private final FileRepository repository;
+	private final FileStorage fileStorage = FileStorage.getInstance();
+	private final List<Integer> sizes = FileStorageConfig.getConfig().getThumbnailSizes();
+	private final ThreadPoolExecutor executor;
+
+	private FileVariantGenerator(FileRepository repository) {
+		super(EClassType.SYSTEM, FileVariantGenerator.class.getSimpleName());
+		this.repository = repository;
+
+		int workers = FileStorageConfig.getConfig().getThumbnailWorkers();
+		AtomicInteger seq = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+					Thread t = new Thread(r, "file-thumbnail-" + seq.incrementAndGet());
+					t.setDaemon(true);
+					t.setPriority(Thread.NORM_PRIORITY - 1);
+					return t;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	public static void init(FileRepository repository) {
+		if (INSTANCE == null) {
+			synchronized (FileVariantGenerator.class) {
+				if (INSTANCE == null) {
+					INSTANCE = new FileVariantGenerator(repository);
+				}
+			}
+		}
+	}
+
+	public static FileVariantGenerator getInstance() {
+		if (INSTANCE == null) {
+			throw new IllegalStateException("FileVariantGenerator not initialized. Call init(repo) first.");
+		}
+		return INSTANCE;
+	}
+
+	/**
+	 * Поставить генерацию превью в очередь (для не-изображений и при выключенных превью — no-op).
+	 */
+	public void submit(String requestId, FileEntity file) {
+		if (sizes.isEmpty() || !ThumbnailRenderer.isSupported(file.getContentType())) {
+			return;
+		}
+		try {
+			executor.execute(() -> this.generate(requestId, file));
+		} catch (RejectedExecutionException e) {
+			this.warn("thumbnail queue is full, skipped", requestId, detailsOf("fileId", file.getHexId()), true);
+		}
+	}
+
+	/**
+	 * Построить, сохранить и записать превью. Синхронный вариант, выполняется в пуле.
+	 */
+	void generate(String requestId, FileEntity file) {
+		long started = System.nanoTime();
+		String outType = ThumbnailRenderer.outputType(file.getContentType());
+		String ext = "image/png".equals(outType) ? ".png" : ".jpg";
+		List<FileVariant> variants = new ArrayList<>();
+
+		try {
+			List<Thumbnail> thumbs;
+			try (InputStream in = fileStorage.open(requestId, file.getRelativePath(), 0, file.getSize())) {
+				thumbs = ThumbnailRenderer.render(in, file.getContentType(), sizes);
+			}
+
+			for (Thumbnail t : thumbs) {
+				Path tmp = fileStorage.createIncoming(requestId);
+				StoredFile stored;
+				long bytes;
+				try {
+					try (OutputStream out = Files.newOutputStream(tmp)) {
+						ThumbnailRenderer.write(t.image(), outType, out);
+					}
+					bytes = Files.size(tmp);
+					stored = fileStorage.save(requestId, file.getHexId() + "_" + t.box(),
+							new UploadedFile("thumb" + ext, outType, bytes, tmp));
+				} catch (Exception e) {
+					Files.deleteIfExists(tmp);
+					throw e;
+				}
+				variants.add(FileVariant.builder()
+						.size(t.box())
+						.width(t.image().getWidth())
+						.height(t.image().getHeight())
+						.contentType(outType)
+						.bytes(bytes)
+						.relativePath(stored.getRelative())
+						.build());
+			}
+
+			if (variants.isEmpty()) {
+				return; // исходник не больше самого малого превью — отдаётся как есть
+			}
+			if (!repository.setVariants(file.getId(), variants)) {
+				// файл удалили, пока строились превью
+				deleteQuietly(requestId, variants);
+				return;
+			}
+			// закэшированные метаданные ещё без превью
+			FileCache.getInstance().invalidate(file.getId());
+
+			this.info("thumbnails generated", requestId, detailsOf("fileId", file.getHexId(), "count",
+					variants.size(), "ms", (System.nanoTime() - started) / 1_000_000), false);
+		} catch (Exception e) {
+			deleteQuietly(requestId, variants);
+			this.warn("thumbnail generation failed", requestId,
+					detailsOf("fileId", file.getHexId(), "error", String.valueOf(e.getMessage())), true);
+		}
+	}
+
+	private void deleteQuietly(String requestId, List<FileVariant> variants) {
+		for (FileVariant v : variants) {
+			try {
+				fileStorage.delete(requestId, v.getRelativePath());
+			} catch (RuntimeException ignore) {
+			}
+		}
+	}
+}
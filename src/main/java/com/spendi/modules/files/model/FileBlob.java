@@ -0,0 +1,62 @@
+/**
+ * @file FileBlob.java
+ * @module modules/files/model
+ *
+ * Учёт контентно-адресуемого blob'а: одно физическое содержимое (по SHA-256),
+ * на которое ссылаются несколько записей {@link FileEntity}.
+ *
+ * Хранится в отдельной коллекции, счётчик ссылок меняется атомарно ($inc).
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.files.model;
+
+/**
+ * ! lib imports
+ */
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ! java imports
+ */
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileBlob {
+	/**
+	 * SHA-256 содержимого (hex) — он же _id документа.
+	 */
+	private String sha256;
+
+	/**
+	 * Относительный путь blob'а в хранилище.
+	 * <p>
+	 * Пример: {@code cas/ab/cd/abcd...}
+	 * </p>
+	 */
+	private String relativePath;
+
+	/**
+	 * Размер содержимого в байтах.
+	 */
+	private long size;
+
+	/**
+	 * Сколько записей файлов ссылается на blob.
+	 */
+	private long refs;
+
+	private Instant createdAt;
+
+	/**
+	 * Время последнего изменения счётчика (сверка не трогает «свежие» blob'ы).
+	 */
+	private Instant updatedAt;
+}
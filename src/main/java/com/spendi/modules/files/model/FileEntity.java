@@ -24,6 +24,11 @@ import lombok.Builder;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+/**
+ * ! java imports
+ */
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -73,6 +78,16 @@ public class FileEntity {
 	 */
 	private String relativePath;
 
+	/**
+	 * SHA-256 содержимого (hex), если считался при приёме загрузки.
+	 */
+	private String sha256;
+
+	/**
+	 * Превью (для изображений), по возрастанию {@link FileVariant#getSize()}. Пусто, пока не сгенерированы.
+	 */
+	private List<FileVariant> variants;
+
 	private FileSystem system;
 
 	/**
@@ -81,4 +96,19 @@ public class FileEntity {
 	public String getHexId() {
 		return id != null ? id.toHexString() : null;
 	}
+
+	/**
+	 * Наименьшее превью, не меньшее запрошенного размера (изображение не растягивается).
+	 *
+	 * @return вариант или null — отдавать оригинал (превью ещё нет или запрошено больше самого крупного)
+	 */
+	public FileVariant variantFor(int size) {
+		if (variants == null)
+			return null;
+		for (FileVariant v : variants) {
+			if (v.getSize() >= size)
+				return v;
+		}
+		return null;
+	}
 }
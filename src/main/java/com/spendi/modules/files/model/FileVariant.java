@@ -0,0 +1,45 @@
+/**
+ * @file FileVariant.java
+ * @module modules/files/model
+ *
+ * Производный вариант файла — уменьшенная копия изображения (превью).
+ * Хранится рядом с оригиналом, удаляется вместе с ним.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.files.model;
+
+/**
+ * ! lib imports
+ */
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FileVariant {
+	/**
+	 * Сторона квадрата, в который вписано превью, px (ключ варианта: 64, 128, 256).
+	 */
+	private int size;
+
+	/** Фактические размеры превью, px */
+	private int width;
+	private int height;
+
+	/** MIME-тип превью: image/png или image/jpeg */
+	private String contentType;
+
+	/** Размер файла превью в байтах */
+	private long bytes;
+
+	/** Относительный путь превью в хранилище */
+	private String relativePath;
+}
@@ -24,6 +24,7 @@ import java.util.Map;
 import com.spendi.config.AuthConfig;
 import com.spendi.core.base.database.MongoUpdateBuilder;
 import com.spendi.core.base.service.BaseRepositoryService;
+import com.spendi.core.logger.types.LogOptions;
 import com.spendi.core.response.ServiceResponse;
 import com.spendi.modules.session.cmd.SessionCreateCmd;
 import com.spendi.core.exceptions.UnauthorizedException;
@@ -146,7 +147,7 @@ public class SessionService extends BaseRepositoryService<SessionRepository, Ses
 		updateBuilder.currentDate("lastSeenAt");
 		updateBuilder.set("expiresAt", Instant.now().plusSeconds(authCfg.getSessionTtlSec()));
 		// Лог: обновлено время последнего посещения
-		this.info("session touched", requestId, detailsOf("sessionId", id));
+		this.info("session touched", requestId, detailsOf("sessionId", id), LogOptions.sampled(false));
 		return this.updateById(id, updateBuilder.build());
 	}
 
@@ -18,6 +18,11 @@
 
 package com.spendi.modules.user;
 
+/**
+ * ! lib imports
+ */
+import org.bson.types.ObjectId;
+
 /**
  * ! java imports
  */
@@ -29,17 +34,22 @@ import java.util.Map;
  */
 import com.spendi.core.base.BaseController;
 import com.spendi.core.base.http.HttpContext;
+import com.spendi.core.concurrent.SingleFlight;
 import com.spendi.core.response.ApiSuccessResponse;
 import com.spendi.core.response.ServiceResponse;
 import com.spendi.core.types.ServiceProcessType;
 import com.spendi.modules.files.FileService;
 import com.spendi.modules.session.SessionEntity;
+import com.spendi.modules.user.dto.AvatarFileParams;
+import com.spendi.modules.user.dto.AvatarQuery;
 import com.spendi.modules.user.model.UserEntity;
 import com.spendi.shared.dto.IdParams;
 import com.spendi.shared.dto.PaginationQueryDto;
 import com.spendi.core.files.UploadedFile;
 import com.spendi.core.http.HttpStatusCode;
 import com.spendi.core.files.DownloadedFile;
+import com.spendi.core.files.FileResponder;
+import com.spendi.core.exceptions.EntityNotFoundException;
 import com.spendi.modules.payment.PaymentMethodMapper;
 import com.spendi.modules.payment.PaymentMethodService;
 import com.spendi.modules.payment.cmd.PaymentMethodCreateCmd;
@@ -69,6 +79,15 @@ import com.spendi.modules.payment.model.PaymentMethodEntity;
  */
 public class UserController extends BaseController {
 
+	/** Аватар по URL с id файла: содержимое под URL никогда не меняется */
+	private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+	/** Аватар по URL без id файла (или оригинал вместо неготового превью): кэш только с ревалидацией */
+	private static final String CACHE_REVALIDATE = "no-cache";
+
+	/** Аватар для отдачи: file == null — аватара нет; exact — отдаётся запрошенный размер */
+	private record AvatarRead(UserEntity user, DownloadedFile file, boolean exact) {
+	}
+
 	/** Единственный экземпляр контроллера (Singleton pattern) */
 	protected static UserController INSTANCE = new UserController();
 
@@ -76,11 +95,19 @@ public class UserController extends BaseController {
 	private final UserService userService = UserService.getInstance();
 	/** Сервис для работы с файлами (аватары) */
 	private final FileService fileService = FileService.getInstance();
+	private final FileResponder fileResponder = FileResponder.getInstance();
 	/** Сервис для работы с методами оплаты */
 	private final PaymentMethodService paymentService = PaymentMethodService.getInstance();
 	/** Mapper для преобразования DTO в команды создания методов оплаты */
 	private final PaymentMethodMapper paymentMapper = PaymentMethodMapper.getInstance();
 
+	/**
+	 * Одинаковые одновременные чтения (ключ: маршрут + параметры + область доступа) выполняются один раз.
+	 * Сущности отсюда только читаются; приватные ответы (/me) ключуются id пользователя.
+	 */
+	private final SingleFlight<UserEntity> userReads = new SingleFlight<>("users.read");
+	private final SingleFlight<AvatarRead> avatarReads = new SingleFlight<>("users.avatar");
+
 	/**
 	 * Приватный конструктор для реализации паттерна Singleton. Инициализирует контроллер с именем класса для
 	 * логирования.
@@ -130,11 +157,17 @@ public class UserController extends BaseController {
 	public void getMe(HttpContext ctx) {
 		SessionEntity s = ctx.getAuthSession();
 
-		UserEntity user = this.userService.getById(s.getUserHexId()).getData();
+		UserEntity user = this.userReads.run(SingleFlight.userKey(ctx, s.getUserHexId()),
+				() -> this.userService.getById(s.getUserHexId()).getData());
 
 		// Лог запроса сущности пользователя (несохраненный)
 		this.info("User get me", ctx.getRequestId(), detailsOf("userId", user.getHexId()));
 
+		// Копия клиента актуальна — 304 без построения тела
+		if (ctx.notModified(user.getVersion(), user.getLastModified())) {
+			return;
+		}
+
 		ctx.res().success(ApiSuccessResponse.ok(ctx.getRequestId(), "User " + user.getEmail(), user.getPrivateData()));
 	}
 
@@ -169,8 +202,14 @@ public class UserController extends BaseController {
 		// Лог запроса сущности пользователя (несохраненный)
 		this.info("User get by id", ctx.getRequestId(), detailsOf("userId", p.getId()));
 
-		var resp = this.userService.getById(p.getId());
-		UserEntity user = resp.getData();
+		// публичные данные одинаковы для всех — одновременные запросы делят одно чтение
+		UserEntity user = this.userReads.run(SingleFlight.key(ctx, SingleFlight.PUBLIC),
+				() -> this.userService.getById(p.getId()).getData());
+
+		// Копия клиента актуальна — 304 без построения тела
+		if (ctx.notModified(user.getVersion(), user.getLastModified())) {
+			return;
+		}
 
 		ctx.res().success(ApiSuccessResponse.ok(ctx.getRequestId(), "User " + user.getEmail(), user.getPublicData()));
 	}
@@ -193,6 +232,10 @@ public class UserController extends BaseController {
 	 * </ul>
 	 * 
 	 * <p>
+	 * {@code ?size=N} - отдаёт ближайшее превью не меньше N px (64/128/256 по умолчанию); пока превью не готовы или
+	 * запрошено больше самого крупного - оригинал.
+	 * 
+	 * <p>
 	 * HTTP заголовки ответа:
 	 * <ul>
 	 * <li>{@code Content-Type} - MIME тип файла</li>
@@ -210,23 +253,24 @@ public class UserController extends BaseController {
 		// Извлекаем информацию о текущей сессии для получения ID пользователя
 		SessionEntity s = ctx.getAuthSession();
 
-		// Получаем полные данные пользователя из базы данных по ID из сессии
-		UserEntity u = this.userService.getById(s.getUserHexId()).getData();
+		// Получаем пользователя по ID из сессии и файл аватара (или превью ближайшего размера для ?size=);
+		// одновременные запросы того же пользователя делят одно чтение
+		AvatarQuery q = ctx.getValidQuery(AvatarQuery.class);
+		AvatarRead read = this.avatarReads.run(SingleFlight.userKey(ctx, s.getUserHexId()),
+				() -> this.readAvatar(ctx.getRequestId(), s.getUserHexId(), q.getSize()));
+		UserEntity u = read.user();
 
 		// Логируем запрос для отслеживания активности пользователей
 		this.info("user avatar get requested", ctx.getRequestId(), detailsOf("userId", u.getId().toHexString()));
 
 		// Проверяем, есть ли у пользователя аватар
 		// Если аватар отсутствует, возвращаем HTTP 204 (No Content)
-		if (!u.hasAvatar()) {
+		if (read.file() == null) {
 			this.debug("No avatar found for user");
 			ctx.res().status(HttpStatusCode.NO_CONTENT.getCode());
 			return;
 		}
-
-		// Загружаем файл аватара из файлового хранилища по ID файла
-		var fileResp = this.fileService.downloadOne(ctx.getRequestId(), u.getProfile().getAvatarFileId());
-		DownloadedFile file = fileResp.getData();
+		DownloadedFile file = read.file();
 
 		// Формируем заголовок Content-Disposition для inline отображения
 		// Используем оригинальное имя файла или ID пользователя как fallback
@@ -237,12 +281,44 @@ public class UserController extends BaseController {
 		// Отправляем файл клиенту с правильными заголовками
 		// Content-Type определяет MIME тип для корректного отображения
 		// Content-Disposition: inline позволяет отображать изображение в браузере
-		ctx.res().header("Content-Type", file.getContentType()).header("Content-Disposition", disposition)
-				.sendBytes(file.getContent());
+		// Range/ETag обрабатываются FileResponder (докачка и 304)
+		// URL без id файла: содержимое меняется при замене аватара, поэтому только с ревалидацией
+		this.fileResponder.send(ctx, file, disposition, CACHE_REVALIDATE);
 	}
 
 	/**
-	 * GET /users/{id}/avatar: stream the avatar content inline
+	 * GET /users/{id}/avatar/{fileId}: аватар по неизменяемому URL (см. {@link UserEntity#getAvatarUrl()}).
+	 *
+	 * <p>
+	 * Содержимое файла под id не меняется, поэтому ответ кэшируется на год как immutable; замена аватара даёт новый
+	 * URL. {@code ?size=}, для которого превью ещё не готово, отдаёт оригинал с {@code no-cache}, чтобы клиент
+	 * забрал превью, когда оно появится (у превью другой ETag).
+	 *
+	 * @throws EntityNotFoundException если fileId — не текущий аватар пользователя
+	 */
+	public void getAvatarFile(HttpContext ctx) {
+		AvatarFileParams p = ctx.getValidParams(AvatarFileParams.class);
+
+		this.info("user avatar file get requested", ctx.getRequestId(),
+				detailsOf("userId", p.getId(), "fileId", p.getFileId()));
+
+		// отдаём только текущий аватар: заменённый файл уже удалён или принадлежит не аватару
+		AvatarQuery q = ctx.getValidQuery(AvatarQuery.class);
+		AvatarRead read = this.avatarReads.run(SingleFlight.key(ctx, SingleFlight.PUBLIC),
+				() -> this.readAvatar(ctx.getRequestId(), p.getId(), q.getSize()));
+		ObjectId fileId = new ObjectId(p.getFileId());
+		if (read.file() == null || !fileId.equals(read.user().getProfile().getAvatarFileId())) {
+			throw new EntityNotFoundException("UserAvatar", "fileId", p.getFileId());
+		}
+
+		DownloadedFile file = read.file();
+		String disposition = "inline; filename=\""
+				+ (file.getFilename() == null ? p.getFileId() : file.getFilename()) + "\"";
+		this.fileResponder.send(ctx, file, disposition, read.exact() ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+	}
+
+	/**
+	 * GET /users/{id}/avatar: stream the avatar content inline ({@code ?size=} — nearest thumbnail)
 	 */
 	public void getAvatar(HttpContext ctx) {
 		IdParams p = ctx.getValidParams(IdParams.class);
@@ -250,20 +326,38 @@ public class UserController extends BaseController {
 		// Лог запроса получения аватара (несохраненный)
 		this.info("user avatar get requested", ctx.getRequestId(), detailsOf("userId", p.getId()));
 
-		// read user to get file id
-		var u = this.userService.getById(p.getId()).getData();
-		if (!u.hasAvatar()) {
+		// read user to get file id (shared by identical concurrent requests)
+		AvatarQuery q = ctx.getValidQuery(AvatarQuery.class);
+		AvatarRead read = this.avatarReads.run(SingleFlight.key(ctx, SingleFlight.PUBLIC),
+				() -> this.readAvatar(ctx.getRequestId(), p.getId(), q.getSize()));
+		if (read.file() == null) {
 			this.debug("No avatar");
 			ctx.res().status(HttpStatusCode.NO_CONTENT.getCode());
 			return;
 		}
-		var fileResp = this.fileService.downloadOne(ctx.getRequestId(), u.getProfile().getAvatarFileId());
-		DownloadedFile file = fileResp.getData();
+		DownloadedFile file = read.file();
 
 		String disposition = "inline; filename=\""
 				+ (file.getFilename() == null ? (p.getId() + "") : file.getFilename()) + "\"";
-		ctx.res().header("Content-Type", file.getContentType()).header("Content-Disposition", disposition)
-				.sendBytes(file.getContent());
+		this.fileResponder.send(ctx, file, disposition, CACHE_REVALIDATE);
+	}
+
+	/**
+	 * Пользователь и описание файла его аватара (без аватара — file == null).
+	 * Описание файла неизменяемо: поток открывается заново при каждой отправке.
+	 *
+	 * @param size желаемая сторона превью, px; null — оригинал
+	 */
+	private AvatarRead readAvatar(String requestId, String userId, Integer size) {
+		UserEntity u = this.userService.getById(userId).getData();
+		if (!u.hasAvatar()) {
+			return new AvatarRead(u, null, true);
+		}
+		ObjectId fileId = u.getProfile().getAvatarFileId();
+		DownloadedFile file = this.fileService.openOne(requestId, fileId, size).getData();
+		// превью могло отсутствовать в хранилище — тогда отдан оригинал, и ответ не immutable
+		boolean exact = size == null || file.getVariantSize() != null;
+		return new AvatarRead(u, file, exact);
 	}
 
 	/**
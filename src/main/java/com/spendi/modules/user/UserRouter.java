@@ -8,18 +8,26 @@
 
 package com.spendi.modules.user;
 
+/**
+ * ! java imports
+ */
+import java.time.Duration;
+
 /**
  * ! my imports
  */
 import com.spendi.config.FileValidationConfig;
+import com.spendi.config.RateLimitConfig;
 // core -> base
 import com.spendi.core.base.server.HttpServerAdapter;
-import com.spendi.core.base.server.javalin.middleware.JavalinMultipartParserMiddleware;
+import com.spendi.core.base.server.javalin.middleware.JavalinStreamingMultipartMiddleware;
 // core -> middleware
 import com.spendi.core.middleware.AuthMiddleware;
+import com.spendi.core.middleware.ConditionalGetMiddleware;
 import com.spendi.core.middleware.FileValidationMiddleware;
 import com.spendi.core.middleware.ParamsValidationMiddleware;
 import com.spendi.core.middleware.QueryValidationMiddleware;
+import com.spendi.core.middleware.RateLimitMiddleware;
 import com.spendi.core.middleware.TempFilesCleanupMiddleware;
 import com.spendi.core.middleware.BodyValidationMiddleware;
 import com.spendi.core.middleware.JsonBodyParserMiddleware;
@@ -27,7 +35,12 @@ import com.spendi.core.middleware.JsonBodyParserMiddleware;
 import com.spendi.core.files.validation.FileValidationRules;
 // core -> router
 import com.spendi.core.router.ApiRouter;
+// core -> ratelimit
+import com.spendi.core.ratelimit.RateLimitKey;
+import com.spendi.core.ratelimit.RateLimitPolicy;
 // user -> dto
+import com.spendi.modules.user.dto.AvatarFileParams;
+import com.spendi.modules.user.dto.AvatarQuery;
 import com.spendi.modules.user.dto.UserIdParams;
 import com.spendi.shared.dto.PaginationQueryDto;
 import com.spendi.modules.payment.dto.PaymentMethodIdParams;
@@ -50,15 +63,24 @@ public class UserRouter extends ApiRouter {
 		// Подключаем AuthMiddleware на весь роутер
 		this.use(AuthMiddleware.getInstance());
 
+		// Лимит на пользователя (после AuthMiddleware — сессия уже в контексте)
+		RateLimitConfig rl = RateLimitConfig.getConfig();
+		this.use(RateLimitMiddleware.of(RateLimitPolicy.builder("users")
+				.tokenBucket(rl.getUserPerMinute(), Duration.ofMinutes(1))
+				.burst(rl.getUserBurst())
+				.key(RateLimitKey.USER)
+				.build()));
+
 		/**
 		 * ? === === === Read === === ===
 		 */
 
 		// Получить свои данные
-		this.get("/me", controller::getMe);
+		this.get("/me", controller::getMe, ConditionalGetMiddleware.getInstance());
 
 		// Получить данные о пользователе по id
-		this.get("/{id}", controller::getOneById, ParamsValidationMiddleware.of(UserIdParams.class));
+		this.get("/{id}", controller::getOneById, ParamsValidationMiddleware.of(UserIdParams.class),
+				ConditionalGetMiddleware.getInstance());
 
 		/**
 		 * * === === === Avatar === === ===
@@ -69,7 +91,7 @@ public class UserRouter extends ApiRouter {
 		 */
 
 		// Загрузить аватар для авторизованого пользователе
-		this.post("/me/avatar", controller::uploadMeAvatar, new JavalinMultipartParserMiddleware(),
+		this.post("/me/avatar", controller::uploadMeAvatar, new JavalinStreamingMultipartMiddleware(avatarRules),
 				new FileValidationMiddleware(avatarRules), TempFilesCleanupMiddleware.getInstance());
 
 		/**
@@ -77,10 +99,15 @@ public class UserRouter extends ApiRouter {
 		 */
 
 		// Посмотреть свой аватар
-		this.get("/me/avatar", controller::getMeAvatar);
+		this.get("/me/avatar", controller::getMeAvatar, QueryValidationMiddleware.of(AvatarQuery.class));
 
 		// Посмотреть аватар
-		this.get("/{id}/avatar", controller::getAvatar, ParamsValidationMiddleware.of(UserIdParams.class));
+		this.get("/{id}/avatar", controller::getAvatar, ParamsValidationMiddleware.of(UserIdParams.class),
+				QueryValidationMiddleware.of(AvatarQuery.class));
+
+		// Аватар по неизменяемому URL (profile.avatarUrl): кэшируется как immutable
+		this.get("/{id}/avatar/{fileId}", controller::getAvatarFile,
+				ParamsValidationMiddleware.of(AvatarFileParams.class), QueryValidationMiddleware.of(AvatarQuery.class));
 
 		/**
 		 * ? === === === Delete === === ===
@@ -107,7 +134,7 @@ public class UserRouter extends ApiRouter {
 
 		// Получить все методы оплаты авторизованого пользователя
 		this.get("/me/payment-methods", controller::getMePaymentMethods,
-				QueryValidationMiddleware.of(PaginationQueryDto.class));
+				QueryValidationMiddleware.of(PaginationQueryDto.class), ConditionalGetMiddleware.getInstance());
 
 		/**
 		 * ? === === === Update === === ===
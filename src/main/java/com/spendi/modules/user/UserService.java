@@ -277,8 +277,11 @@ public class UserService extends BaseRepositoryService<UserRepository, UserEntit
 		// store new file
 		FileEntity stored = this.fileService.uploadOne(requestId, uf).getData();
 
-		// build public url
-		String url = user.getAvatarUrl();
+		// превью 64/128/256 строятся в фоне; до готовности отдаётся оригинал
+		this.fileService.requestVariants(requestId, stored);
+
+		// build public url (с id нового файла — прежний URL остаётся за старым содержимым)
+		String url = UserEntity.avatarUrl(user.getId(), stored.getId());
 
 		// update employee (persist only new file id)
 		var updateBuilder = new MongoUpdateBuilder();
@@ -292,6 +295,8 @@ public class UserService extends BaseRepositoryService<UserRepository, UserEntit
 			this.info("user avatar updated", requestId,
 					detailsOf("userId", userId, "oldFileId", oldAvatarId.toHexString(), "newFileId", stored.getHexId()),
 					true);
+			// старый аватар не должен отдаваться из кэша, даже если удалить файл не выйдет
+			this.fileService.invalidateCached(oldAvatarId);
 			// best-effort cleanup of previous avatar
 			try {
 				this.fileService.deleteById(requestId, oldAvatarId);
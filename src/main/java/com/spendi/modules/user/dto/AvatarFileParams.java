@@ -0,0 +1,34 @@
+/**
+ * @file AvatarFileParams.java
+ * @module modules/user/dto
+ *
+ * @description
+ * Path-параметры неизменяемого URL аватара: /users/{id}/avatar/{fileId}.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.user.dto;
+
+/**
+ * ! lib imports
+ */
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvatarFileParams {
+	/** 24-символьный hex как у Mongo ObjectId. */
+	@Pattern(regexp = "^[a-fA-F0-9]{24}$", message = "id must be 24 hex characters")
+	private String id;
+
+	/** id файла аватара (24 hex). */
+	@Pattern(regexp = "^[a-fA-F0-9]{24}$", message = "fileId must be 24 hex characters")
+	private String fileId;
+}
@@ -0,0 +1,31 @@
+/**
+ * @file AvatarQuery.java
+ * @module modules/user/dto
+ *
+ * @description
+ * Query-параметры отдачи аватара.
+ * - size — желаемая сторона в px: отдаётся ближайшее превью не меньше size,
+ *          без параметра (или пока превью не готовы) — оригинал.
+ *
+ * @author Dmytro Shakh
+ */
+
+package com.spendi.modules.user.dto;
+
+/**
+ * ! lib imports
+ */
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvatarQuery {
+	@Min(value = 1, message = "size must be at least 1")
+	@Max(value = 4096, message = "size must be at most 4096")
+	private Integer size;
+}
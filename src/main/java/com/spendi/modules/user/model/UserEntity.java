@@ -23,6 +23,7 @@ import lombok.AllArgsConstructor;
 /**
  * ! java imports
  */
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -119,12 +120,48 @@ public class UserEntity {
 	}
 
 	/**
-	 * Возвращает URL аватара для текущего пользователя.
+	 * Возвращает URL аватара для текущего пользователя. URL содержит id файла аватара: содержимое под ним не
+	 * меняется (кэшируется как immutable), а замена аватара даёт новый URL.
 	 * 
-	 * @return URL аватара или null, если идентификатор пользователя не установлен.
+	 * @return URL аватара или null, если идентификатор пользователя не установлен или аватара нет.
 	 */
 	public String getAvatarUrl() {
-		return (id != null) ? ("/users/" + id.toHexString() + "/avatar") : null;
+		return (id != null && hasAvatar()) ? avatarUrl(id, profile.getAvatarFileId()) : null;
+	}
+
+	/**
+	 * URL конкретного файла аватара пользователя: {@code /users/{userId}/avatar/{fileId}}.
+	 */
+	public static String avatarUrl(ObjectId userId, ObjectId fileId) {
+		return "/users/" + userId.toHexString() + "/avatar/" + fileId.toHexString();
+	}
+
+	/**
+	 * Версия данных пользователя для условных GET (слабый ETag): меняется с каждым обновлением
+	 * (system.meta.updatedAt) и входом (system.lastLoginAt).
+	 * 
+	 * @return строка версии или null, если идентификатор пользователя не установлен.
+	 */
+	public String getVersion() {
+		if (id == null)
+			return null;
+		Instant updated = (system != null && system.getMeta() != null) ? system.getMeta().getUpdatedAt() : null;
+		return id.toHexString() + ":" + updated + ":" + (system != null ? system.getLastLoginAt() : null);
+	}
+
+	/**
+	 * Время последнего изменения данных пользователя (для Last-Modified): позднейшее из updatedAt и lastLoginAt.
+	 * 
+	 * @return момент изменения или null, если неизвестен.
+	 */
+	public Instant getLastModified() {
+		if (system == null)
+			return null;
+		Instant updated = system.getMeta() != null ? system.getMeta().getUpdatedAt() : null;
+		Instant login = system.getLastLoginAt();
+		if (updated == null || login == null)
+			return updated != null ? updated : login;
+		return updated.isAfter(login) ? updated : login;
 	}
 
 	/**
@@ -0,0 +1,84 @@
+package com.spendi.core.admission;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+	private static final long MS = 1_000_000L;
+
+	@Test
+	void rejectsBeyondLimit_priorityGetsReserve() {
+		AdaptiveConcurrencyLimiter l = new AdaptiveConcurrencyLimiter(10, 1, 100, 20, 0);
+
+		for (int i = 0; i < 8; i++)
+			assertTrue(l.tryAcquire(false));
+		assertFalse(l.tryAcquire(false), "обычным маршрутам — 80% лимита");
+		assertTrue(l.tryAcquire(true));
+		assertTrue(l.tryAcquire(true));
+		assertFalse(l.tryAcquire(true));
+		assertEquals(1, l.getRejected());
+		assertEquals(1, l.getRejectedPriority());
+
+		l.release(MS, false, 0);
+		assertTrue(l.tryAcquire(true));
+	}
+
+	@Test
+	void limitShrinksWhenLatencyGrows() {
+		AdaptiveConcurrencyLimiter l = new AdaptiveConcurrencyLimiter(50, 5, 200, 0, 0);
+		long now = 0;
+
+		// стабильная задержка 10 мс при полной загрузке — лимит растёт
+		for (int w = 0; w < 5; w++) {
+			now += AdaptiveConcurrencyLimiter.WINDOW_NANOS;
+			this.window(l, 50, 10 * MS, false, now);
+		}
+		int grown = l.getLimit();
+		assertTrue(grown > 50, "limit=" + grown);
+
+		// задержка выросла в 10 раз — лимит падает
+		for (int w = 0; w < 10; w++) {
+			now += AdaptiveConcurrencyLimiter.WINDOW_NANOS;
+			this.window(l, Math.min(l.getLimit(), 50), 100 * MS, false, now);
+		}
+		assertTrue(l.getLimit() < grown * 2 / 3, "grown=" + grown + ", limit=" + l.getLimit());
+	}
+
+	@Test
+	void serverErrorsBackOff_andLimitStaysInBounds() {
+		AdaptiveConcurrencyLimiter l = new AdaptiveConcurrencyLimiter(20, 8, 200, 0, 0);
+		long now = 0;
+		for (int w = 0; w < 50; w++) {
+			now += AdaptiveConcurrencyLimiter.WINDOW_NANOS;
+			this.window(l, 10, 10 * MS, true, now);
+		}
+		assertEquals(8, l.getLimit());
+		assertEquals(0, l.getInFlight());
+	}
+
+	@Test
+	void idleServerDoesNotGrowLimit() {
+		AdaptiveConcurrencyLimiter l = new AdaptiveConcurrencyLimiter(100, 1, 1000, 0, 0);
+		long now = 0;
+		for (int w = 0; w < 20; w++) {
+			now += AdaptiveConcurrencyLimiter.WINDOW_NANOS;
+			this.window(l, 10, 5 * MS, false, now);
+		}
+		assertEquals(100, l.getLimit());
+	}
+
+	/** n параллельных запросов, завершившихся в момент now. */
+	private void window(AdaptiveConcurrencyLimiter l, int n, long rtt, boolean dropped, long now) {
+		int admitted = 0;
+		for (int i = 0; i < n; i++) {
+			if (l.tryAcquire(false))
+				admitted++;
+		}
+		for (int i = 0; i < admitted; i++)
+			l.release(rtt, dropped, now);
+	}
+}
@@ -0,0 +1,46 @@
+package com.spendi.core.base.http;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.exceptions.EntityNotFoundException;
+
+public class AsyncRouteHandlerTest {
+
+	@Test
+	void blockingHandleWaitsForStage() throws Exception {
+		StringBuilder done = new StringBuilder();
+		AsyncRouteHandler h = ctx -> CompletableFuture.runAsync(() -> done.append("ok"));
+
+		h.handle(null);
+		assertEquals("ok", done.toString());
+	}
+
+	@Test
+	void blockingHandleRethrowsOriginalException() {
+		AsyncRouteHandler h = ctx -> CompletableFuture.supplyAsync(() -> {
+			throw new EntityNotFoundException("User");
+		});
+
+		assertThrows(EntityNotFoundException.class, () -> h.handle(null));
+	}
+
+	@Test
+	void unwrapStripsCompletionWrappers() {
+		var cause = new IllegalStateException("boom");
+		assertSame(cause, AsyncRouteHandler.unwrap(new CompletionException(cause)));
+		assertThrows(AssertionError.class, () -> AsyncRouteHandler.unwrap(new CompletionException(new AssertionError())));
+	}
+}
@@ -0,0 +1,67 @@
+package com.spendi.core.base.router;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.http.Middleware;
+import com.spendi.core.http.HttpMethod;
+
+public class RouteTableTest {
+
+	private static final Middleware AUTH = (ctx, chain) -> chain.next();
+	private static final Middleware ALL = (ctx, chain) -> chain.next();
+
+	private static Route route(HttpMethod m, String path) {
+		return Route.of(m, path, ctx -> {
+		});
+	}
+
+	private static RouteTable table() {
+		RouteTable t = new RouteTable();
+		t.add("/api/v1/users", List.of(AUTH), List.of(route(HttpMethod.GET, "/api/v1/users/me"),
+				route(HttpMethod.GET, "/api/v1/users/{id}/avatar/{size}")));
+		t.add("/api/v1/usersx", List.of(), List.of(route(HttpMethod.GET, "/api/v1/usersx")));
+		t.add("/api/v1", List.of(ALL), List.of(route(HttpMethod.GET, "/api/v1/*")));
+		return t;
+	}
+
+	@Test
+	void firstRegisteredRouteWins() {
+		RouteTable.Match m = table().match(HttpMethod.GET, "/api/v1/users/me/");
+		assertEquals("/api/v1/users/me", m.route().path());
+		assertEquals(List.of(AUTH, ALL), m.routerMiddlewares());
+		assertEquals(Map.of(), m.pathParams());
+	}
+
+	@Test
+	void capturesPathParams() {
+		RouteTable.Match m = table().match(HttpMethod.GET, "/api/v1/users/abc/avatar/64");
+		assertEquals(Map.of("id", "abc", "size", "64"), m.pathParams());
+	}
+
+	@Test
+	void routerMiddlewaresMatchWholeSegments() {
+		RouteTable.Match m = table().match(HttpMethod.GET, "/api/v1/usersx");
+		assertEquals("/api/v1/usersx", m.route().path());
+		assertEquals(List.of(ALL), m.routerMiddlewares());
+	}
+
+	@Test
+	void wildcardAndMethodMismatch() {
+		assertEquals("/api/v1/*", table().match(HttpMethod.GET, "/api/v1/nope/deep").route().path());
+		assertNull(table().match(HttpMethod.POST, "/api/v1/users/me"));
+		assertNull(table().match(HttpMethod.GET, "/other"));
+	}
+}
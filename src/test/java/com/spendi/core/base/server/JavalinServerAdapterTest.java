@@ -0,0 +1,89 @@
+package com.spendi.core.base.server;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.base.http.AsyncRouteHandler;
+import com.spendi.core.base.http.Middleware;
+import com.spendi.core.base.server.local.LocalHttpContext;
+import com.spendi.core.base.server.local.LocalHttpRequest;
+import com.spendi.core.base.server.local.LocalHttpResponse;
+import com.spendi.core.exceptions.EntityNotFoundException;
+import com.spendi.core.http.HttpMethod;
+
+public class JavalinServerAdapterTest {
+
+	private static LocalHttpContext ctx() {
+		return new LocalHttpContext("t", new LocalHttpRequest(HttpMethod.GET, "/t", null, null, null, null),
+				new LocalHttpResponse(0));
+	}
+
+	/** Мидлвара с работой после chain.next() — как возврат буферов multipart */
+	private static Middleware recording(List<String> events) {
+		return (ctx, chain) -> {
+			events.add("before");
+			try {
+				chain.next();
+			} finally {
+				events.add("after");
+			}
+		};
+	}
+
+	@Test
+	void localMiddlewaresFinishAfterStageCompletes() throws Exception {
+		List<String> events = new CopyOnWriteArrayList<>();
+		CompletableFuture<Void> stage = new CompletableFuture<>();
+		AsyncRouteHandler handler = c -> {
+			events.add("handler");
+			return stage;
+		};
+
+		var done = JavalinServerAdapter.runAsyncChain(ctx(), handler, List.of(recording(events)),
+				Executors.newVirtualThreadPerTaskExecutor());
+
+		Thread.sleep(50);
+		assertEquals(List.of("before", "handler"), events, "stage ещё не завершён");
+		assertFalse(done.isDone());
+
+		events.add("complete");
+		stage.complete(null);
+		done.get(1, TimeUnit.SECONDS);
+		assertEquals(List.of("before", "handler", "complete", "after"), events);
+	}
+
+	@Test
+	void failedStageFailsChainWithOriginalException() {
+		List<String> events = new CopyOnWriteArrayList<>();
+		AsyncRouteHandler handler = c -> CompletableFuture.failedFuture(new EntityNotFoundException("User"));
+
+		var done = JavalinServerAdapter.runAsyncChain(ctx(), handler, List.of(recording(events)),
+				Executors.newVirtualThreadPerTaskExecutor());
+
+		var e = assertThrows(ExecutionException.class, () -> done.get(1, TimeUnit.SECONDS));
+		assertInstanceOf(EntityNotFoundException.class, AsyncRouteHandler.unwrap(e));
+		assertEquals(List.of("before", "after"), events);
+	}
+
+	@Test
+	void withoutLocalsStageIsReturnedDirectly() {
+		CompletableFuture<Void> stage = new CompletableFuture<>();
+		assertSame(stage, JavalinServerAdapter.runAsyncChain(ctx(), c -> stage, List.of(), Runnable::run));
+	}
+}
@@ -0,0 +1,65 @@
+package com.spendi.core.cache;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteBoundedCacheTest {
+
+	private static ByteBoundedCache<String, byte[]> cache(long maxBytes) {
+		return new ByteBoundedCache<>(maxBytes, b -> b.length);
+	}
+
+	@Test
+	void evictsLeastRecentlyReadByBytes() {
+		ByteBoundedCache<String, byte[]> c = cache(100);
+		c.put("a", new byte[40]);
+		c.put("b", new byte[40]);
+		assertNotNull(c.get("a")); // "b" теперь самый давний
+
+		c.put("c", new byte[40]);
+		assertNull(c.get("b"));
+		assertNotNull(c.get("a"));
+		assertNotNull(c.get("c"));
+		assertEquals(80, c.getResidentBytes());
+		assertEquals(1, c.getEvictions());
+
+		// одна крупная запись вытесняет несколько мелких
+		c.put("d", new byte[90]);
+		assertEquals(1, c.size());
+		assertEquals(90, c.getResidentBytes());
+	}
+
+	@Test
+	void oversizedRejected_replaceAdjustsWeight() {
+		ByteBoundedCache<String, byte[]> c = cache(100);
+		assertFalse(c.put("big", new byte[101]));
+		assertEquals(0, c.size());
+
+		c.put("a", new byte[60]);
+		c.put("a", new byte[10]);
+		assertEquals(10, c.getResidentBytes());
+		assertEquals(0, c.getEvictions());
+	}
+
+	@Test
+	void invalidate_andHitRate() {
+		ByteBoundedCache<String, byte[]> c = cache(1000);
+		c.put("f1", new byte[10]);
+		c.put("f1/64", new byte[20]);
+		c.put("f2", new byte[30]);
+
+		c.invalidateIf(k -> k.startsWith("f1"));
+		assertEquals(30, c.getResidentBytes());
+		assertNull(c.get("f1/64"));
+		assertNotNull(c.get("f2"));
+		c.invalidate("f2");
+		assertEquals(0, c.getResidentBytes());
+
+		assertEquals(1, c.getHits());
+		assertEquals(1, c.getMisses());
+		assertEquals(0.5, c.getHitRate(), 1e-9);
+	}
+}
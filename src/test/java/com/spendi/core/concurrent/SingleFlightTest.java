@@ -0,0 +1,73 @@
+package com.spendi.core.concurrent;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+	@Test
+	void concurrentCallsShareOneComputation() throws Exception {
+		SingleFlight<String> sf = new SingleFlight<>("test.shared");
+		AtomicInteger calls = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(pool.submit(() -> sf.run("k", () -> {
+					calls.incrementAndGet();
+					await(release);
+					return "v";
+				})));
+			}
+			// ждём, пока лидер начнёт, затем даём остальным время присоединиться
+			while (calls.get() == 0)
+				Thread.onSpinWait();
+			Thread.sleep(100);
+			release.countDown();
+
+			for (Future<String> f : results)
+				assertEquals("v", f.get(5, TimeUnit.SECONDS));
+			assertEquals(1, calls.get());
+			assertEquals(0, sf.inFlight());
+
+			// результат не кэшируется
+			assertEquals("w", sf.run("k", () -> "w"));
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void exceptionReachesEveryCaller_andKeyIsFreed() {
+		SingleFlight<String> sf = new SingleFlight<>("test.error");
+		assertThrows(IllegalStateException.class, () -> sf.run("k", () -> {
+			throw new IllegalStateException("boom");
+		}));
+		assertEquals(0, sf.inFlight());
+		assertEquals("ok", sf.run("k", () -> "ok"));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
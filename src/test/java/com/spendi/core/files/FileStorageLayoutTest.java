@@ -0,0 +1,40 @@
+package com.spendi.core.files;
+
+/**
+ * ! lib imports
+ */
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.util.HashSet;
+import java.util.Set;
+
+public class FileStorageLayoutTest {
+
+	@Test
+	void shardedPath_isDerivedFromIdOnly() {
+		String id = "65a1f0c2e4b0a1b2c3d4e5f6";
+		String p = FileStorage.shardedPath(id + ".png");
+
+		assertTrue(p.matches("[0-9a-f]{2}/[0-9a-f]{2}/" + id + "\\.png"), p);
+		assertEquals(p, FileStorage.shardedPath(id + ".png"));
+		assertEquals(p.substring(0, 6), FileStorage.shardedPath(id + "_128.jpg").substring(0, 6));
+		assertTrue(FileStorage.isSharded(p));
+		assertFalse(FileStorage.isSharded("2025-01-01/10/" + id + ".png"));
+		assertFalse(FileStorage.isSharded(FileStorage.blobPath("ab".repeat(32))));
+	}
+
+	@Test
+	void shardedPath_spreadsSequentialIds() {
+		// ObjectId растут монотонно — шарды всё равно должны расходиться по первому уровню
+		Set<String> top = new HashSet<>();
+		for (int i = 0; i < 2000; i++) {
+			top.add(FileStorage.shardedPath(new ObjectId().toHexString() + ".bin").substring(0, 2));
+		}
+		assertTrue(top.size() > 200, "first-level shards used: " + top.size());
+	}
+}
@@ -0,0 +1,35 @@
+package com.spendi.core.files;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UploadBufferPoolTest {
+
+	@Test
+	void acquire_isBoundedByPoolBytes_andBuffersAreReused() {
+		UploadBufferPool pool = new UploadBufferPool(1024, 2048);
+
+		byte[] a = pool.tryAcquire();
+		byte[] b = pool.tryAcquire();
+		assertNotNull(a);
+		assertNotNull(b);
+		assertEquals(1024, a.length);
+		assertNull(pool.tryAcquire(), "pool is exhausted — part goes to disk");
+		assertEquals(2, pool.inUse());
+
+		pool.release(a);
+		assertSame(a, pool.tryAcquire());
+		pool.release(new byte[10]); // чужой буфер не принимается
+		assertEquals(2, pool.inUse());
+	}
+
+	@Test
+	void disabled_whenThresholdIsZero() {
+		UploadBufferPool pool = new UploadBufferPool(0, 1 << 20);
+		assertNull(pool.tryAcquire());
+		assertEquals(0, pool.inUse());
+	}
+}
@@ -0,0 +1,73 @@
+package com.spendi.core.files;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+public class UploadWorkersTest {
+
+	private final UploadWorkers workers = new UploadWorkers(3);
+
+	private static void sleep(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	void results_keepInputOrder_andRunInParallel() {
+		List<Integer> items = IntStream.range(0, 8).boxed().toList();
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+
+		List<String> out = workers.map(items, (i, v) -> {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			sleep(40L * (8 - v)); // поздние части завершаются раньше
+			inFlight.decrementAndGet();
+			return i + ":" + v;
+		});
+
+		assertEquals(IntStream.range(0, 8).mapToObj(i -> i + ":" + i).toList(), out);
+		assertTrue(maxInFlight.get() > 1, "parts run concurrently");
+		assertTrue(maxInFlight.get() <= 4, "pool + caller thread bound the parallelism");
+	}
+
+	@Test
+	void firstFailingPart_byIndex_isThrown_andSuccessesRolledBack() {
+		Set<Integer> rolledBack = ConcurrentHashMap.newKeySet();
+
+		IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+				() -> workers.map(List.of(0, 1, 2, 3, 4), (i, v) -> {
+					if (i == 1) {
+						sleep(100); // падает позже части 3, но по порядку раньше
+						throw new IllegalArgumentException("part 1");
+					}
+					if (i == 3) {
+						throw new IllegalArgumentException("part 3");
+					}
+					return v;
+				}, rolledBack::add));
+
+		assertEquals("part 1", ex.getMessage());
+		assertEquals(Set.of(0, 2, 4), rolledBack);
+	}
+
+	@Test
+	void singlePart_runsInCallerThread() {
+		Thread caller = Thread.currentThread();
+		assertEquals(List.of(true), workers.map(List.of("a"), (i, v) -> Thread.currentThread() == caller));
+	}
+}
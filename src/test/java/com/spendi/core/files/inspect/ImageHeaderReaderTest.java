@@ -0,0 +1,138 @@
+package com.spendi.core.files.inspect;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.files.UploadedFile;
+import com.spendi.core.files.inspect.ImageHeaderReader.ImageInfo;
+
+public class ImageHeaderReaderTest {
+
+	@TempDir
+	Path dir;
+
+	private Path write(String name, byte[] data) throws IOException {
+		return Files.write(dir.resolve(name), data);
+	}
+
+	private static byte[] encode(String format, int w, int h) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertTrue(ImageIO.write(new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB), format, out));
+		return out.toByteArray();
+	}
+
+	@Test
+	void sniffAndDimensions_pngJpegGif() throws IOException {
+		String[][] cases = { { "png", "image/png" }, { "jpg", "image/jpeg" }, { "gif", "image/gif" } };
+		for (String[] c : cases) {
+			Path p = write("a." + c[0], encode(c[0], 321, 123));
+			assertEquals(c[1], ContentSniffer.sniff(p));
+			assertEquals(new ImageInfo(321, 123), ImageHeaderReader.read(p, c[1]), c[0]);
+		}
+	}
+
+	@Test
+	void sniffAndDimensions_inMemoryUpload() throws IOException {
+		byte[] png = encode("png", 48, 16);
+		byte[] pooled = Arrays.copyOf(png, png.length + 100); // буфер больше содержимого
+		UploadedFile f = new UploadedFile("a.png", "image/png", pooled, png.length, null);
+
+		assertTrue(f.isInMemory());
+		assertNull(f.getTempPath());
+		try (SeekableByteChannel ch = f.openChannel()) {
+			assertEquals("image/png", ContentSniffer.sniff(ch));
+			assertEquals(new ImageInfo(48, 16), ImageHeaderReader.read(ch, "image/png"));
+			assertEquals(png.length, ch.size());
+		}
+		try (InputStream in = f.openStream()) {
+			assertArrayEquals(png, in.readAllBytes());
+		}
+	}
+
+	@Test
+	void dimensions_webpVariants() throws IOException {
+		// VP8X: 24 бита (ширина-1, высота-1) — «бомба» 40000x30000 в 30 байтах
+		byte[] vp8x = webp("VP8X", new byte[] { 0, 0, 0, 0, (byte) 0x3F, (byte) 0x9C, 0, (byte) 0x2F, 0x75, 0 });
+		Path p = write("x.webp", vp8x);
+		assertEquals("image/webp", ContentSniffer.sniff(p));
+		ImageInfo info = ImageHeaderReader.read(p, "image/webp");
+		assertEquals(new ImageInfo(40000, 30000), info);
+		assertEquals(1200.0, info.megapixels(), 1e-9);
+
+		// VP8L: 0x2f + 14 бит (ширина-1) + 14 бит (высота-1)
+		int bits = (100 - 1) | (50 - 1) << 14;
+		byte[] vp8l = webp("VP8L", new byte[] { 0x2F, (byte) bits, (byte) (bits >> 8), (byte) (bits >> 16),
+				(byte) (bits >> 24), 0, 0, 0, 0, 0 });
+		assertEquals(new ImageInfo(100, 50), ImageHeaderReader.read(write("l.webp", vp8l), "image/webp"));
+
+		// VP8: тег кадра, стартовый код 9d 01 2a, 14 бит ширины и высоты
+		byte[] vp8 = webp("VP8 ", new byte[] { 0, 0, 0, (byte) 0x9D, 0x01, 0x2A, (byte) 640, (byte) (640 >> 8),
+				(byte) 480, (byte) (480 >> 8) });
+		assertEquals(new ImageInfo(640, 480), ImageHeaderReader.read(write("v.webp", vp8), "image/webp"));
+	}
+
+	@Test
+	void truncatedHeader_throws() throws IOException {
+		byte[] png = encode("png", 10, 10);
+		Path p = write("t.png", Arrays.copyOf(png, 20));
+		assertThrows(IOException.class, () -> ImageHeaderReader.read(p, "image/png"));
+
+		// JPEG без SOF до конца файла
+		Path j = write("t.jpg", new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 4, 0, 0 });
+		assertThrows(IOException.class, () -> ImageHeaderReader.read(j, "image/jpeg"));
+	}
+
+	@Test
+	void sniff_otherSignatures() {
+		assertEquals("application/pdf", sniff("%PDF-1.7\n"));
+		assertEquals("application/zip", sniff("PK\u0003\u0004rest"));
+		assertEquals("text/html", sniff("  <!DOCTYPE html><html>"));
+		assertEquals("application/x-msdownload", sniff("MZ\u0090\u0000"));
+		assertNull(sniff("just some text"));
+	}
+
+	@Test
+	void canonical_aliases() {
+		assertEquals("image/jpeg", ContentSniffer.canonical("image/JPG"));
+		assertEquals("application/pdf", ContentSniffer.canonical("application/x-pdf; charset=binary"));
+		assertTrue(ContentSniffer.isSniffable("image/pjpeg"));
+		assertFalse(ContentSniffer.isSniffable("text/plain"));
+		assertFalse(ContentSniffer.isSniffable(null));
+	}
+
+	private static String sniff(String head) {
+		byte[] b = head.getBytes(StandardCharsets.ISO_8859_1);
+		return ContentSniffer.sniff(b, b.length);
+	}
+
+	private static byte[] webp(String fourcc, byte[] chunk) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.writeBytes("RIFF".getBytes(StandardCharsets.US_ASCII));
+		out.writeBytes(new byte[] { 0, 0, 0, 0 });
+		out.writeBytes(("WEBP" + fourcc).getBytes(StandardCharsets.US_ASCII));
+		out.writeBytes(new byte[] { (byte) chunk.length, 0, 0, 0 });
+		out.writeBytes(chunk);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,150 @@
+package com.spendi.core.files.inspect;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.files.inspect.PdfInspector.PdfInfo;
+
+public class PdfInspectorTest {
+
+	@TempDir
+	Path dir;
+
+	/** Классическая таблица xref, объекты 1..n подряд */
+	private static byte[] classicPdf(String trailerExtra, String... objects) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ascii(out, "%PDF-1.4\n%âãÏÓ\n");
+		List<Integer> offsets = new ArrayList<>();
+		for (int i = 0; i < objects.length; i++) {
+			offsets.add(out.size());
+			ascii(out, (i + 1) + " 0 obj\n" + objects[i] + "\nendobj\n");
+		}
+		int xref = out.size();
+		ascii(out, "xref\n0 " + (objects.length + 1) + "\n0000000000 65535 f\r\n");
+		for (int off : offsets)
+			ascii(out, String.format("%010d 00000 n\r\n", off));
+		ascii(out, "trailer\n<< /Size " + (objects.length + 1) + " /Root 1 0 R " + trailerExtra + ">>\nstartxref\n"
+				+ xref + "\n%%EOF\n");
+		return out.toByteArray();
+	}
+
+	@Test
+	void classicXref_pagesAndEncryption() throws IOException {
+		String[] objs = {
+				"<< /Type /Catalog /Pages 2 0 R /PageLabels << /Nums [0 << /S /D >>] >> >>",
+				"<< /Type /Pages /Kids [3 0 R 4 0 R 5 0 R] /Count 3 >>",
+				"<< /Type /Page /Parent 2 0 R /Contents (text with >> inside) >>",
+				"<< /Type /Page /Parent 2 0 R >>",
+				"<< /Type /Page /Parent 2 0 R >>" };
+
+		Path plain = Files.write(dir.resolve("a.pdf"), classicPdf("", objs));
+		assertEquals(new PdfInfo(3, false), PdfInspector.inspect(plain));
+
+		Path enc = Files.write(dir.resolve("e.pdf"), classicPdf("/Encrypt 6 0 R /ID [<01><02>] ", objs));
+		assertTrue(PdfInspector.inspect(enc).encrypted());
+	}
+
+	@Test
+	void indirectCount() throws IOException {
+		Path p = Files.write(dir.resolve("c.pdf"), classicPdf("",
+				"<< /Type /Catalog /Pages 2 0 R >>",
+				"<< /Type /Pages /Kids [] /Count 3 0 R >>",
+				"7"));
+		assertEquals(7, PdfInspector.inspect(p).pages());
+	}
+
+	@Test
+	void xrefStream_withObjectStreamAndPngPredictor() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ascii(out, "%PDF-1.7\n");
+
+		// объекты 1 (каталог) и 2 (дерево страниц) лежат в объектном потоке 3
+		String body1 = "<< /Type /Catalog /Pages 2 0 R >>";
+		String body2 = "<< /Type /Pages /Kids [] /Count 12 >>";
+		String header = "1 0 2 " + (body1.length() + 1) + " ";
+		byte[] objstm = deflate((header + body1 + " " + body2).getBytes(StandardCharsets.US_ASCII));
+		int off3 = out.size();
+		ascii(out, "3 0 obj\n<< /Type /ObjStm /N 2 /First " + header.length() + " /Length " + objstm.length
+				+ " /Filter /FlateDecode >>\nstream\n");
+		out.writeBytes(objstm);
+		ascii(out, "\nendstream\nendobj\n");
+
+		int off4 = out.size();
+		// W [1 4 2]: тип, поле2, поле3; строки закодированы PNG-предиктором Up
+		int[][] rows = { { 0, 0, 65535 }, { 2, 3, 0 }, { 2, 3, 1 }, { 1, off3, 0 }, { 1, off4, 0 } };
+		byte[] xref = deflate(pngUp(rows));
+		ascii(out, "4 0 obj\n<< /Type /XRef /Size 5 /W [1 4 2] /Root 1 0 R /Filter /FlateDecode"
+				+ " /DecodeParms << /Columns 7 /Predictor 12 >> /Length " + xref.length + " >>\nstream\r\n");
+		out.writeBytes(xref);
+		ascii(out, "\nendstream\nendobj\nstartxref\n" + off4 + "\n%%EOF\n");
+
+		Path p = Files.write(dir.resolve("s.pdf"), out.toByteArray());
+		assertEquals(new PdfInfo(12, false), PdfInspector.inspect(p));
+	}
+
+	@Test
+	void brokenObjectOffsets_pagesUnknown_garbageThrows() throws IOException {
+		byte[] pdf = classicPdf("", "<< /Type /Catalog /Pages 2 0 R >>", "<< /Type /Pages /Count 1 >>");
+		// портим номер объекта 2 — смещение из xref больше не указывает на него
+		String s = new String(pdf, StandardCharsets.ISO_8859_1).replace("2 0 obj", "9 0 obj");
+		Path p = Files.write(dir.resolve("b.pdf"), s.getBytes(StandardCharsets.ISO_8859_1));
+		assertFalse(PdfInspector.inspect(p).isPagesKnown());
+
+		Path g = Files.write(dir.resolve("g.pdf"), "%PDF-1.4\nno xref here".getBytes(StandardCharsets.US_ASCII));
+		assertThrows(IOException.class, () -> PdfInspector.inspect(g));
+	}
+
+	private static byte[] pngUp(int[][] rows) {
+		int columns = 7;
+		byte[] prev = new byte[columns];
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int[] r : rows) {
+			byte[] row = new byte[columns];
+			row[0] = (byte) r[0];
+			for (int i = 0; i < 4; i++)
+				row[1 + i] = (byte) (r[1] >>> (24 - 8 * i));
+			row[5] = (byte) (r[2] >>> 8);
+			row[6] = (byte) r[2];
+			out.write(2);
+			for (int i = 0; i < columns; i++)
+				out.write(row[i] - prev[i]);
+			prev = row;
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] deflate(byte[] data) {
+		Deflater d = new Deflater();
+		d.setInput(data);
+		d.finish();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[1024];
+		while (!d.finished())
+			out.write(buf, 0, d.deflate(buf));
+		d.end();
+		return out.toByteArray();
+	}
+
+	private static void ascii(ByteArrayOutputStream out, String s) {
+		out.writeBytes(s.getBytes(StandardCharsets.ISO_8859_1));
+	}
+}
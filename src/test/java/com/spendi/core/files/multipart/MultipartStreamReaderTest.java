@@ -0,0 +1,101 @@
+package com.spendi.core.files.multipart;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class MultipartStreamReaderTest {
+
+	private static final String BOUNDARY = "----spendi7MA4YWxkTrZu0gW";
+
+	private static byte[] body(byte[] payload) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(("preamble\r\n--" + BOUNDARY + "\r\n"
+				+ "Content-Disposition: form-data; name=\"note\"\r\n\r\n"
+				+ "hello\r\n--" + BOUNDARY + "\r\n"
+				+ "Content-Disposition: form-data; name=\"file\"; filename=\"C:\\\\tmp\\\\a b.png\"\r\n"
+				+ "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+		out.write(payload);
+		out.write(("\r\n--" + BOUNDARY + "--\r\nepilogue").getBytes(StandardCharsets.UTF_8));
+		return out.toByteArray();
+	}
+
+	/** Поток, отдающий данные по одному-два байта — проверка разрезанного разделителя */
+	private static InputStream trickle(byte[] data) {
+		return new FilterInputStream(new ByteArrayInputStream(data)) {
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				return super.read(b, off, Math.min(len, 2));
+			}
+		};
+	}
+
+	private static byte[] payload(int size) {
+		byte[] p = new byte[size];
+		for (int i = 0; i < size; i++)
+			p[i] = (byte) (i % 251);
+		// содержимое, похожее на разделитель, но не он
+		byte[] fake = ("\r\n--" + BOUNDARY.substring(0, 10)).getBytes(StandardCharsets.UTF_8);
+		System.arraycopy(fake, 0, p, size / 2, fake.length);
+		return p;
+	}
+
+	@Test
+	void readsFieldsAndFiles() throws IOException {
+		byte[] p = payload(200_000);
+		for (InputStream in : new InputStream[] { new ByteArrayInputStream(body(p)), trickle(body(p)) }) {
+			try (MultipartStreamReader r = new MultipartStreamReader(in, BOUNDARY)) {
+				MultipartStreamReader.Part field = r.next();
+				assertFalse(field.isFile());
+				assertEquals("note", field.getName());
+				assertEquals("hello", new String(field.getBody().readAllBytes(), StandardCharsets.UTF_8));
+
+				MultipartStreamReader.Part file = r.next();
+				assertTrue(file.isFile());
+				assertEquals("a b.png", file.getFilename());
+				assertEquals("image/png", file.getContentType());
+				assertArrayEquals(p, file.getBody().readAllBytes());
+
+				assertNull(r.next());
+			}
+		}
+	}
+
+	@Test
+	void skipsUnreadPart() throws IOException {
+		try (MultipartStreamReader r = new MultipartStreamReader(new ByteArrayInputStream(body(payload(1000))),
+				BOUNDARY)) {
+			r.next(); // поле не читаем
+			assertEquals("file", r.next().getName());
+		}
+	}
+
+	@Test
+	void truncatedBody_isMalformed() throws IOException {
+		byte[] full = body(payload(5000));
+		byte[] cut = java.util.Arrays.copyOf(full, full.length / 2);
+		MultipartStreamReader r = new MultipartStreamReader(new ByteArrayInputStream(cut), BOUNDARY);
+		r.next();
+		MultipartStreamReader.Part file = r.next();
+		assertThrows(MultipartStreamReader.MalformedMultipartException.class, () -> file.getBody().readAllBytes());
+	}
+
+	@Test
+	void boundaryOf_parsesQuotedAndPlain() {
+		assertEquals("abc", MultipartStreamReader.boundaryOf("multipart/form-data; boundary=abc"));
+		assertEquals("a;b", MultipartStreamReader.boundaryOf("multipart/form-data; charset=utf-8; boundary=\"a;b\""));
+		assertNull(MultipartStreamReader.boundaryOf("multipart/form-data"));
+	}
+}
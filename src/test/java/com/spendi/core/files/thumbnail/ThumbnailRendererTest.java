@@ -0,0 +1,63 @@
+package com.spendi.core.files.thumbnail;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.files.thumbnail.ThumbnailRenderer.Thumbnail;
+
+public class ThumbnailRendererTest {
+
+	private static byte[] image(String format, int w, int h) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB), format, out);
+		return out.toByteArray();
+	}
+
+	@Test
+	void render_fitsEachBox_keepingAspect() throws IOException {
+		List<Thumbnail> t = ThumbnailRenderer.render(new ByteArrayInputStream(image("jpg", 2000, 1000)),
+				"image/jpeg", List.of(64, 128, 256));
+
+		assertEquals(List.of(64, 128, 256), t.stream().map(Thumbnail::box).toList());
+		assertEquals(256, t.get(2).image().getWidth());
+		assertEquals(128, t.get(2).image().getHeight());
+		assertEquals(64, t.get(0).image().getWidth());
+		assertEquals(32, t.get(0).image().getHeight());
+	}
+
+	@Test
+	void render_skipsBoxesNotSmallerThanSource() throws IOException {
+		List<Thumbnail> t = ThumbnailRenderer.render(new ByteArrayInputStream(image("png", 100, 80)),
+				"image/png", List.of(64, 128, 256));
+		assertEquals(1, t.size());
+		assertEquals(64, t.get(0).box());
+	}
+
+	@Test
+	void write_roundTripsThroughImageIO() throws IOException {
+		BufferedImage img = ThumbnailRenderer.scaleToFit(new BufferedImage(300, 300, BufferedImage.TYPE_INT_ARGB), 64,
+				true);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ThumbnailRenderer.write(img, "image/png", out);
+		BufferedImage back = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(64, back.getWidth());
+		assertEquals("image/png", ThumbnailRenderer.outputType("image/gif"));
+		assertEquals("image/jpeg", ThumbnailRenderer.outputType("image/jpeg"));
+	}
+}
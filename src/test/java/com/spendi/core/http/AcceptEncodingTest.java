@@ -0,0 +1,42 @@
+package com.spendi.core.http;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.util.List;
+
+public class AcceptEncodingTest {
+
+	private static final List<String> SERVER = List.of("br", "gzip", "deflate");
+
+	@Test
+	void select_serverPreferenceOnTie() {
+		assertEquals("br", AcceptEncoding.select("gzip, deflate, br", SERVER));
+		assertEquals("gzip", AcceptEncoding.select("deflate, gzip", List.of("gzip", "deflate")));
+		assertEquals("gzip", AcceptEncoding.select("GZIP", SERVER));
+	}
+
+	@Test
+	void select_qValues() {
+		assertEquals("deflate", AcceptEncoding.select("gzip;q=0.5, deflate", SERVER));
+		assertEquals("gzip", AcceptEncoding.select("br;q=0, gzip;q=0.1", SERVER));
+		assertNull(AcceptEncoding.select("gzip;q=0", SERVER));
+		assertNull(AcceptEncoding.select("gzip;q=oops", SERVER));
+	}
+
+	@Test
+	void select_wildcardAndIdentity() {
+		assertEquals("br", AcceptEncoding.select("*", SERVER));
+		assertEquals("gzip", AcceptEncoding.select("br;q=0, *;q=0.3", SERVER));
+		assertNull(AcceptEncoding.select("*;q=0, identity", SERVER));
+		assertNull(AcceptEncoding.select("identity", SERVER));
+		assertNull(AcceptEncoding.select(null, SERVER));
+		assertNull(AcceptEncoding.select("", SERVER));
+	}
+}
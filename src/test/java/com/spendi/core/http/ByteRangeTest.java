@@ -0,0 +1,61 @@
+package com.spendi.core.http;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.util.List;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.exceptions.RangeNotSatisfiableException;
+
+public class ByteRangeTest {
+
+	@Test
+	void parse_singleForms() {
+		assertEquals(List.of(new ByteRange(0, 99)), ByteRange.parse("bytes=0-99", 1000));
+		assertEquals(List.of(new ByteRange(900, 999)), ByteRange.parse("bytes=900-", 1000));
+		assertEquals(List.of(new ByteRange(500, 999)), ByteRange.parse("bytes=-500", 1000));
+		// конец за пределами файла обрезается, суффикс длиннее файла — весь файл
+		assertEquals(List.of(new ByteRange(990, 999)), ByteRange.parse("bytes=990-5000", 1000));
+		assertEquals(List.of(new ByteRange(0, 999)), ByteRange.parse("bytes=-5000", 1000));
+	}
+
+	@Test
+	void parse_multipleRanges_sortedAndCoalesced() {
+		List<ByteRange> r = ByteRange.parse("bytes=500-599, 0-9, 5-19, 20-29", 1000);
+		assertEquals(List.of(new ByteRange(0, 29), new ByteRange(500, 599)), r);
+		assertEquals(130, r.stream().mapToLong(ByteRange::length).sum());
+	}
+
+	@Test
+	void parse_invalidSyntax_isIgnored() {
+		assertTrue(ByteRange.parse(null, 1000).isEmpty());
+		assertTrue(ByteRange.parse("items=0-10", 1000).isEmpty());
+		assertTrue(ByteRange.parse("bytes=10-5", 1000).isEmpty());
+		assertTrue(ByteRange.parse("bytes=abc", 1000).isEmpty());
+		assertTrue(ByteRange.parse("bytes=-", 1000).isEmpty());
+		assertTrue(ByteRange.parse("bytes=+1-5", 1000).isEmpty());
+		assertTrue(ByteRange.parse("bytes=" + "0-0,".repeat(ByteRange.MAX_RANGES) + "1-1", 1000).isEmpty());
+	}
+
+	@Test
+	void parse_unsatisfiable_throws() {
+		assertThrows(RangeNotSatisfiableException.class, () -> ByteRange.parse("bytes=1000-", 1000));
+		assertThrows(RangeNotSatisfiableException.class, () -> ByteRange.parse("bytes=-0", 1000));
+		// неудовлетворимые части пропускаются, если есть хотя бы одна годная
+		assertEquals(List.of(new ByteRange(0, 0)), ByteRange.parse("bytes=2000-3000,0-0", 1000));
+	}
+
+	@Test
+	void contentRange_format() {
+		assertEquals("bytes 0-99/1000", new ByteRange(0, 99).contentRange(1000));
+	}
+}
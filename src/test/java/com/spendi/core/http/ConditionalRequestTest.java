@@ -0,0 +1,51 @@
+package com.spendi.core.http;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+public class ConditionalRequestTest {
+
+	@Test
+	void weakEtag_stableAndContentSensitive() {
+		byte[] a = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+		String etag = ConditionalRequest.weakEtag(a);
+		assertTrue(etag.startsWith("W/\"") && etag.endsWith("\""));
+		assertEquals(etag, ConditionalRequest.weakEtag(a.clone()));
+		assertNotEquals(etag, ConditionalRequest.weakEtag("{\"a\":2}".getBytes(StandardCharsets.UTF_8)));
+		assertEquals(ConditionalRequest.weakEtag("id:1"), ConditionalRequest.weakEtag("id:1"));
+	}
+
+	@Test
+	void ifNoneMatch_weakComparison_andPrecedence() {
+		String etag = "W/\"abc\"";
+		assertTrue(ConditionalRequest.isNotModified("\"abc\"", null, etag, null));
+		assertTrue(ConditionalRequest.isNotModified("\"x\", W/\"abc\"", null, etag, null));
+		assertTrue(ConditionalRequest.isNotModified("*", null, etag, null));
+		assertFalse(ConditionalRequest.isNotModified("W/\"other\"", null, etag, null));
+		assertFalse(ConditionalRequest.isNotModified("\"abc\"", null, null, null));
+
+		// при If-None-Match дата не учитывается
+		Instant t = Instant.parse("2024-01-01T10:00:00Z");
+		assertFalse(ConditionalRequest.isNotModified("W/\"other\"", ConditionalRequest.formatDate(t), etag, t));
+	}
+
+	@Test
+	void ifModifiedSince_secondPrecision() {
+		Instant t = Instant.parse("2024-01-01T10:00:00.700Z");
+		String since = ConditionalRequest.formatDate(t);
+		assertEquals("Mon, 01 Jan 2024 10:00:00 GMT", since);
+		assertTrue(ConditionalRequest.isNotModified(null, since, null, t));
+		assertFalse(ConditionalRequest.isNotModified(null, since, null, t.plusSeconds(1)));
+		assertFalse(ConditionalRequest.isNotModified(null, "garbage", null, t));
+		assertFalse(ConditionalRequest.isNotModified(null, null, "W/\"abc\"", t));
+	}
+}
@@ -0,0 +1,31 @@
+package com.spendi.core.http;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ForwardedForTest {
+
+	@Test
+	void takesEntryAppendedByTrustedProxy() {
+		// клиент подставил "1.1.1.1", прокси дописал реальный адрес
+		assertEquals("203.0.113.7", ForwardedFor.clientIp("1.1.1.1, 203.0.113.7", 1));
+		assertEquals("203.0.113.7", ForwardedFor.clientIp("203.0.113.7", 1));
+	}
+
+	@Test
+	void skipsConfiguredProxyHops() {
+		// балансировщик -> nginx -> сервер: клиента записал внешний из двух
+		assertEquals("203.0.113.7", ForwardedFor.clientIp("6.6.6.6, 203.0.113.7, 10.0.0.2", 2));
+		assertNull(ForwardedFor.clientIp("10.0.0.2", 2), "записей меньше, чем прокси");
+	}
+
+	@Test
+	void missingOrBlank() {
+		assertNull(ForwardedFor.clientIp(null, 1));
+		assertNull(ForwardedFor.clientIp(" ", 1));
+		assertNull(ForwardedFor.clientIp("1.1.1.1, ", 1));
+	}
+}
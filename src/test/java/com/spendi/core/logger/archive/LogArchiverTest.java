@@ -0,0 +1,40 @@
+package com.spendi.core.logger.archive;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class LogArchiverTest {
+
+	@Test
+	void partIndex_parsesNumberBeforeExtension() {
+		assertEquals(0, LogArchiver.partIndex("00.json"));
+		assertEquals(7, LogArchiver.partIndex("07.cbor"));
+		assertEquals(100, LogArchiver.partIndex("100.json"));
+	}
+
+	@Test
+	void parts_sortNumerically_pastTwoDigits() {
+		List<String> parts = new ArrayList<>(List.of("100.json", "99.json", "09.json", "101.json", "10.json"));
+		parts.sort(Comparator.comparingLong(LogArchiver::partIndex));
+
+		assertEquals(List.of("09.json", "10.json", "99.json", "100.json", "101.json"), parts);
+	}
+
+	@Test
+	void segmentAndPartNames() {
+		assertEquals("07", LogArchiver.segmentHour("07.cbor.gz"));
+		assertNull(LogArchiver.segmentHour("07.json"));
+		assertTrue(LogArchiver.isPart("100.json"));
+		assertFalse(LogArchiver.isPart("07.json.gz"));
+	}
+}
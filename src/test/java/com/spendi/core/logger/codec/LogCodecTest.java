@@ -0,0 +1,120 @@
+package com.spendi.core.logger.codec;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.logger.model.CompressedLog;
+import com.spendi.core.logger.types.ELogFormat;
+import com.spendi.core.logger.types.ELogLevel;
+import com.spendi.core.types.EClassType;
+
+public class LogCodecTest {
+
+	private static CompressedLog sample(int i) {
+		return new CompressedLog(1_755_000_000_000L + i, "Request processed", ELogLevel.INFO,
+				"RequestLifecycleMiddleware", EClassType.MIDDLEWARE, "a1b2c3d4",
+				Map.of("method", "GET", "path", "/users/me", "status", 200, "durationMs", i % 50));
+	}
+
+	private static byte[] encodeAll(ELogFormat format, List<CompressedLog> logs) throws IOException {
+		LogCodec codec = LogCodec.of(format);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		codec.writeHeader(out);
+		for (CompressedLog log : logs) {
+			out.write(codec.encode(log));
+		}
+		return out.toByteArray();
+	}
+
+	private static List<CompressedLog> decodeAll(byte[] bytes, ELogFormat expected) throws IOException {
+		List<CompressedLog> result = new ArrayList<>();
+		try (LogCodec.RecordReader reader = LogCodec.open(new ByteArrayInputStream(bytes), "test")) {
+			assertEquals(expected, reader.format());
+			CompressedLog log;
+			while ((log = reader.next()) != null) {
+				result.add(log);
+			}
+		}
+		return result;
+	}
+
+	@Test
+	void roundTrip_autoDetectsFormat() throws IOException {
+		List<CompressedLog> logs = List.of(sample(1), sample(2), sample(3));
+
+		for (ELogFormat format : ELogFormat.values()) {
+			List<CompressedLog> decoded = decodeAll(encodeAll(format, logs), format);
+			assertEquals(logs.size(), decoded.size());
+			assertEquals(logs.get(0).m(), decoded.get(0).m());
+			assertEquals(logs.get(2).c(), decoded.get(2).c());
+			assertEquals(EClassType.MIDDLEWARE, decoded.get(1).mt());
+			assertEquals("/users/me", decoded.get(1).d().get("path"));
+		}
+	}
+
+	@Test
+	void json_hasNoHeader_cbor_hasHeader() throws IOException {
+		assertEquals(0, LogCodec.of(ELogFormat.JSON).header().length);
+		assertEquals(LogCodec.HEADER_LENGTH, LogCodec.of(ELogFormat.CBOR).header().length);
+	}
+
+	@Test
+	void cbor_isSmallerThanNdjson() throws IOException {
+		List<CompressedLog> logs = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			logs.add(sample(i));
+		}
+
+		int json = encodeAll(ELogFormat.JSON, logs).length;
+		int cbor = encodeAll(ELogFormat.CBOR, logs).length;
+
+		assertTrue(cbor < json, "cbor=" + cbor + " json=" + json);
+	}
+
+	@Test
+	void truncatedBinaryTail_isTreatedAsEnd() throws IOException {
+		byte[] full = encodeAll(ELogFormat.CBOR, List.of(sample(1), sample(2)));
+		byte[] truncated = Arrays.copyOf(full, full.length - 3);
+
+		assertEquals(1, decodeAll(truncated, ELogFormat.CBOR).size());
+	}
+
+	@Test
+	void copyComplete_dropsTruncatedTail_beforeNextSource() throws IOException {
+		for (ELogFormat format : ELogFormat.values()) {
+			// часть 1 оборвана посреди второй записи (аварийное завершение)
+			byte[] part1 = encodeAll(format, List.of(sample(1), sample(2)));
+			byte[] crashed = Arrays.copyOf(part1, part1.length - 5);
+			byte[] part2 = encodeAll(format, List.of(sample(3), sample(4)));
+
+			ByteArrayOutputStream segment = new ByteArrayOutputStream();
+			LogCodec.of(format).writeHeader(segment);
+			for (byte[] part : List.of(crashed, part2)) {
+				BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(part));
+				LogCodec.copyComplete(in, LogCodec.detect(in, "part"), segment, "part");
+			}
+
+			List<CompressedLog> decoded = decodeAll(segment.toByteArray(), format);
+			assertEquals(List.of(1L, 3L, 4L), decoded.stream().map(l -> l.c() - 1_755_000_000_000L).toList(),
+					format.name());
+		}
+	}
+}
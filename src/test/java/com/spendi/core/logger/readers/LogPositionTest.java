@@ -0,0 +1,39 @@
+package com.spendi.core.logger.readers;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogPositionTest {
+
+	@Test
+	void token_roundTrip() {
+		LogPosition p = new LogPosition("2025-08-17", "10", 1234);
+		String token = p.toToken();
+
+		assertTrue(token.matches("[A-Za-z0-9_-]+"));
+		assertEquals(p, LogPosition.fromToken(token));
+	}
+
+	@Test
+	void startOf_pointsToFirstHour() {
+		LogPosition p = LogPosition.startOf("2025-08-17");
+		assertEquals("00", p.hour());
+		assertEquals(0, p.offset());
+	}
+
+	@Test
+	void fromToken_rejectsGarbage() {
+		assertThrows(IllegalArgumentException.class, () -> LogPosition.fromToken("not-a-cursor"));
+		assertThrows(IllegalArgumentException.class, () -> LogPosition.fromToken("!!!"));
+	}
+
+	@Test
+	void constructor_validatesParts() {
+		assertThrows(IllegalArgumentException.class, () -> new LogPosition("2025-8-17", "10", 0));
+		assertThrows(IllegalArgumentException.class, () -> new LogPosition("2025-08-17", "1", 0));
+		assertThrows(IllegalArgumentException.class, () -> new LogPosition("2025-08-17", "10", -1));
+	}
+}
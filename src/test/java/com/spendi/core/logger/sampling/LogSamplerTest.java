@@ -0,0 +1,89 @@
+package com.spendi.core.logger.sampling;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ! my imports
+ */
+import com.spendi.config.LoggerConfig.SamplingConfig;
+import com.spendi.config.LoggerConfig.SamplingLimit;
+import com.spendi.core.logger.model.LogData;
+import com.spendi.core.logger.types.ELogLevel;
+import com.spendi.core.logger.types.LogOptions;
+import com.spendi.core.types.EClassType;
+
+public class LogSamplerTest {
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private LogSampler sampler() {
+		SamplingConfig cfg = new SamplingConfig(true, Map.of(
+				ELogLevel.INFO, new SamplingLimit(1, 3),
+				ELogLevel.ERROR, new SamplingLimit(1, 1)), 60);
+		return new LogSampler(cfg, clock::get);
+	}
+
+	private static LogData hot(String message) {
+		return new LogData(message, null, null, LogOptions.sampled(true), "Test", EClassType.SYSTEM);
+	}
+
+	@Test
+	void burst_thenSuppressed() {
+		LogSampler s = sampler();
+		for (int i = 0; i < 3; i++)
+			assertTrue(s.allow(ELogLevel.INFO, hot("hot")));
+		assertFalse(s.allow(ELogLevel.INFO, hot("hot")));
+		// другое сообщение — своя корзина
+		assertTrue(s.allow(ELogLevel.INFO, hot("other")));
+	}
+
+	@Test
+	void tokens_refillOverTime() {
+		LogSampler s = sampler();
+		for (int i = 0; i < 3; i++)
+			s.allow(ELogLevel.INFO, hot("hot"));
+		assertFalse(s.allow(ELogLevel.INFO, hot("hot")));
+
+		clock.addAndGet(1_000_000_000L);
+		assertTrue(s.allow(ELogLevel.INFO, hot("hot")));
+		assertFalse(s.allow(ELogLevel.INFO, hot("hot")));
+	}
+
+	@Test
+	void errorsAndUnsampled_alwaysPass() {
+		LogSampler s = sampler();
+		LogData plain = new LogData("plain", null, null, new LogOptions(true), "Test", EClassType.SYSTEM);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(s.allow(ELogLevel.ERROR, hot("boom")));
+			assertTrue(s.allow(ELogLevel.INFO, plain));
+			// для DEBUG лимит не задан — без ограничений
+			assertTrue(s.allow(ELogLevel.DEBUG, hot("debug")));
+		}
+	}
+
+	@Test
+	void drainSummaries_countsAndResets() {
+		LogSampler s = sampler();
+		for (int i = 0; i < 8; i++)
+			s.allow(ELogLevel.INFO, hot("hot"));
+
+		List<LogSampler.Summary> summaries = s.drainSummaries();
+		assertEquals(1, summaries.size());
+		assertEquals("hot", summaries.get(0).message());
+		assertEquals(5, summaries.get(0).suppressed());
+		assertTrue(summaries.get(0).save());
+
+		assertTrue(s.drainSummaries().isEmpty());
+	}
+}
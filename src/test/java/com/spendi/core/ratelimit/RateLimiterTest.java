@@ -0,0 +1,79 @@
+package com.spendi.core.ratelimit;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.time.Duration;
+
+public class RateLimiterTest {
+
+	private static final long SEC = 1_000_000_000L;
+
+	@Test
+	void tokenBucket_burstThenRefill() {
+		// 60/мин = 1 токен в секунду, до 3 подряд
+		RateLimiter rl = new RateLimiter(RateLimitPolicy.builder("tb").tokenBucket(60, Duration.ofMinutes(1))
+				.burst(3).build(), 100);
+
+		assertEquals(2, rl.tryAcquire("a", 0).remaining());
+		assertTrue(rl.tryAcquire("a", 0).allowed());
+		assertTrue(rl.tryAcquire("a", 0).allowed());
+
+		RateLimiter.Decision rejected = rl.tryAcquire("a", 0);
+		assertFalse(rejected.allowed());
+		assertEquals(1, rejected.retryAfterSeconds());
+		assertEquals(3, rejected.resetSeconds());
+		assertTrue(rl.tryAcquire("b", 0).allowed(), "ключи независимы");
+
+		assertTrue(rl.tryAcquire("a", SEC).allowed());
+		assertFalse(rl.tryAcquire("a", SEC).allowed());
+		assertEquals(2, rl.rejected());
+	}
+
+	@Test
+	void slidingWindow_weightsPreviousWindow() {
+		RateLimiter rl = new RateLimiter(RateLimitPolicy.builder("sw").slidingWindow(10, Duration.ofSeconds(10))
+				.build(), 100);
+
+		for (int i = 0; i < 10; i++)
+			assertTrue(rl.tryAcquire("a", 5 * SEC).allowed());
+		RateLimiter.Decision d = rl.tryAcquire("a", 5 * SEC);
+		assertFalse(d.allowed());
+		// следующее окно с 10 с, оценка 10 * (1 - e/10) <= 9 при e >= 1 с
+		assertEquals(6 * SEC, d.retryAfterNanos());
+
+		// середина следующего окна: половина прошлых запросов ещё в окне
+		long mid = 15 * SEC;
+		for (int i = 0; i < 5; i++)
+			assertTrue(rl.tryAcquire("a", mid).allowed());
+		assertFalse(rl.tryAcquire("a", mid).allowed());
+
+		// через два окна ключ чист
+		assertEquals(9, rl.tryAcquire("a", 30 * SEC).remaining());
+	}
+
+	@Test
+	void expiredKeysAreSweptWhenFull() {
+		RateLimiter rl = new RateLimiter(RateLimitPolicy.builder("cap").tokenBucket(1, Duration.ofSeconds(1))
+				.build(), 4, 1);
+
+		for (int i = 0; i < 4; i++)
+			rl.tryAcquire("k" + i, 0);
+		assertEquals(4, rl.keys());
+
+		// все заняты и не истекли — новый ключ пропускается без учёта
+		assertTrue(rl.tryAcquire("new", 0).allowed());
+		assertEquals(1, rl.overflow());
+		assertEquals(4, rl.keys());
+
+		// bucket'ы восполнились — чистка освобождает место
+		assertTrue(rl.tryAcquire("new", 2 * SEC).allowed());
+		assertEquals(1, rl.keys());
+	}
+}
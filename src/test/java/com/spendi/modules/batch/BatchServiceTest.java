@@ -0,0 +1,50 @@
+package com.spendi.modules.batch;
+
+/**
+ * ! lib imports
+ */
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.util.Map;
+
+public class BatchServiceTest {
+
+	private static final Map<String, String> PARENT = Map.of("Host", "api.spendi.app", "X-Forwarded-For",
+			"203.0.113.7", "Cookie", "sid=abc", "Content-Type", "application/json", "Content-Length", "512");
+
+	@Test
+	void proxyHeadersKeepParentValues() {
+		Map<String, String> h = BatchService.headersFor(PARENT, Map.of("x-forwarded-for", "1.1.1.1", "Forwarded",
+				"for=1.1.1.1", "HOST", "evil.example", "X-Real-IP", "1.1.1.1", "Content-Length", "0"), false);
+
+		assertEquals("203.0.113.7", h.get("X-Forwarded-For"));
+		assertEquals("api.spendi.app", h.get("Host"));
+		assertNull(h.get("Forwarded"));
+		assertNull(h.get("X-Real-IP"));
+		assertNull(h.get("Content-Length"));
+	}
+
+	@Test
+	void itemHeadersOverrideInheritedOnes() {
+		Map<String, String> h = BatchService.headersFor(PARENT,
+				Map.of("cookie", "sid=other", "Accept-Language", "uk", "If-None-Match", "W/\"1\""), true);
+
+		assertEquals("sid=other", h.get("Cookie"));
+		assertEquals("uk", h.get("accept-language"));
+		assertEquals("W/\"1\"", h.get("If-None-Match"));
+		assertEquals("application/json", h.get("Content-Type"));
+	}
+
+	@Test
+	void notInheritedFromParent() {
+		Map<String, String> h = BatchService.headersFor(PARENT, null, false);
+
+		assertNull(h.get("Content-Type"));
+		assertNull(h.get("Content-Length"));
+		assertEquals("sid=abc", h.get("Cookie"));
+	}
+}
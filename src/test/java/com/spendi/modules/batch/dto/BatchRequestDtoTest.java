@@ -0,0 +1,44 @@
+package com.spendi.modules.batch.dto;
+
+/**
+ * ! lib imports
+ */
+import jakarta.validation.ConstraintViolation;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ! java imports
+ */
+import java.util.Set;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.json.Jsons;
+import com.spendi.core.validation.Validators;
+
+public class BatchRequestDtoTest {
+
+	private static Set<ConstraintViolation<BatchRequestDto>> validate(String json) throws Exception {
+		return Validators.get().validate(Jsons.mapper().readValue(json, BatchRequestDto.class));
+	}
+
+	@Test
+	void nullItemRejected() throws Exception {
+		Set<ConstraintViolation<BatchRequestDto>> v = validate(
+				"{\"requests\":[{\"method\":\"GET\",\"path\":\"/users/me\"},null]}");
+
+		assertEquals(1, v.size());
+		ConstraintViolation<BatchRequestDto> c = v.iterator().next();
+		assertEquals("request must not be null", c.getMessage());
+		assertTrue(c.getPropertyPath().toString().startsWith("requests[1]"), c.getPropertyPath().toString());
+	}
+
+	@Test
+	void validItemsAccepted() throws Exception {
+		assertTrue(validate("{\"requests\":[{\"method\":\"get\",\"path\":\"/users/me\"}]}").isEmpty());
+		assertFalse(validate("{\"requests\":[]}").isEmpty());
+		assertEquals(1, validate("{\"requests\":[{\"method\":\"TRACE\",\"path\":\"/\"}]}").size());
+	}
+}
@@ -0,0 +1,112 @@
+// com/spendi/modules/files/FileGarbageCollectorIT.java
+
+package com.spendi.modules.files;
+
+/**
+ * ! lib imports
+ */
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * ! java imports
+ */
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.files.FileStorage;
+import com.spendi.testutil.RealMongoTest;
+
+class FileGarbageCollectorIT extends RealMongoTest {
+
+	private static final FileTime OLD = FileTime.from(Instant.now().minus(Duration.ofDays(1)));
+
+	@TempDir
+	Path base;
+	@TempDir
+	Path temp;
+
+	private FileRepository repo;
+
+	@BeforeEach
+	void cleanAndInit() {
+		clean();
+		this.repo = new FileRepository(db);
+	}
+
+	@AfterEach
+	void clean() {
+		db.drop();
+	}
+
+	private Path put(String rel, boolean old) throws Exception {
+		Path p = base.resolve(rel);
+		Files.createDirectories(p.getParent());
+		Files.write(p, new byte[] { 1, 2, 3 });
+		if (old)
+			Files.setLastModifiedTime(p, OLD);
+		return p;
+	}
+
+	@Test
+	void orphans_quarantined_referenced_kept_temp_removed() throws Exception {
+		ObjectId kept = new ObjectId();
+		ObjectId gone = new ObjectId();
+		String keptRel = "2024-01-01/10/" + kept.toHexString() + ".png";
+		String variantRel = "2024-01-01/10/" + kept.toHexString() + "_64.png";
+		db.getCollection(FileRepository.COLLECTION).insertOne(new Document("_id", kept)
+				.append("relativePath", keptRel)
+				.append("variants", List.of(new Document("size", 64).append("relativePath", variantRel))));
+
+		String knownSha = "ab".repeat(32);
+		String orphanSha = "cd".repeat(32);
+		repo.acquireBlob(knownSha, FileStorage.blobPath(knownSha), 3);
+
+		Path keptFile = put(keptRel, true);
+		Path variant = put(variantRel, true);
+		Path orphan = put("2024-01-01/10/" + gone.toHexString() + ".jpg", true);
+		Path young = put("2024-01-01/11/" + new ObjectId().toHexString() + ".jpg", false);
+		Path part = put("2024-01-01/10/upload_1.part", true);
+		Path knownBlob = put(FileStorage.blobPath(knownSha), true);
+		Path orphanBlob = put(FileStorage.blobPath(orphanSha), true);
+		Path upload = Files.write(temp.resolve("upload_2.bin"), new byte[] { 1 });
+		Files.setLastModifiedTime(upload, OLD);
+
+		FileGarbageCollector gc = new FileGarbageCollector(repo, base, temp, true);
+		FileGarbageCollector.Result r = gc.collect();
+
+		assertTrue(Files.exists(keptFile));
+		assertTrue(Files.exists(variant));
+		assertTrue(Files.exists(young));
+		assertTrue(Files.exists(knownBlob));
+		assertFalse(Files.exists(orphan));
+		assertFalse(Files.exists(orphanBlob));
+		assertFalse(Files.exists(part));
+		assertFalse(Files.exists(upload));
+
+		Path q = base.resolve(FileGarbageCollector.QUARANTINE_DIR).resolve(LocalDate.now().toString());
+		assertTrue(Files.exists(q.resolve(base.relativize(orphan))));
+		assertTrue(Files.exists(q.resolve(FileStorage.blobPath(orphanSha))));
+
+		assertEquals(2, r.orphans());
+		assertEquals(2, r.tempRemoved());
+		assertEquals(0, r.errors());
+
+		// карантин не обходится повторно
+		assertEquals(0, gc.collect().orphans());
+	}
+}
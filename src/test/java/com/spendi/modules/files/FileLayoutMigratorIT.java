@@ -0,0 +1,187 @@
+// com/spendi/modules/files/FileLayoutMigratorIT.java
+
+package com.spendi.modules.files;
+
+/**
+ * ! lib imports
+ */
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import com.mongodb.client.MongoDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * ! java imports
+ */
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.files.FileStorage;
+import com.spendi.core.files.storage.LocalStorageBackend;
+import com.spendi.testutil.RealMongoTest;
+
+class FileLayoutMigratorIT extends RealMongoTest {
+
+	@TempDir
+	Path base;
+
+	private FileRepository repo;
+	private FileStorage storage;
+
+	@BeforeEach
+	void cleanAndInit() {
+		clean();
+		this.repo = new FileRepository(db);
+		this.storage = new FileStorage(base, new LocalStorageBackend(base), true);
+	}
+
+	@AfterEach
+	void clean() {
+		db.drop();
+	}
+
+	private void put(String rel, String content) throws Exception {
+		Path p = base.resolve(rel);
+		Files.createDirectories(p.getParent());
+		Files.writeString(p, content);
+	}
+
+	@Test
+	void datedFiles_movedToShards_recordsUpdated() throws Exception {
+		ObjectId a = new ObjectId();
+		ObjectId missing = new ObjectId();
+		String aRel = "2024-01-01/10/" + a.toHexString() + ".png";
+		String aVariant = "2024-01-01/10/" + a.toHexString() + "_64.png";
+		String missingRel = "2024-01-01/10/" + missing.toHexString() + ".png";
+
+		db.getCollection(FileRepository.COLLECTION).insertMany(List.of(
+				new Document("_id", a).append("relativePath", aRel).append("filename", a.toHexString() + ".png")
+						.append("variants", List.of(new Document("size", 64).append("relativePath", aVariant))),
+				new Document("_id", missing).append("relativePath", missingRel)
+						.append("filename", missing.toHexString() + ".png")));
+		put(aRel, "original");
+		put(aVariant, "thumb");
+
+		FileLayoutMigrator.Result r = new FileLayoutMigrator(repo, storage, 1, 0).migrate();
+
+		String aTo = FileStorage.shardedPath(a.toHexString() + ".png");
+		String vTo = FileStorage.shardedPath(a.toHexString() + "_64.png");
+		assertEquals(aTo.substring(0, 6), vTo.substring(0, 6), "variant lives next to its original");
+		assertEquals("original", Files.readString(base.resolve(aTo)));
+		assertEquals("thumb", Files.readString(base.resolve(vTo)));
+		assertFalse(Files.exists(base.resolve(aRel)));
+		assertFalse(Files.exists(base.resolve(aVariant)));
+
+		Document d = db.getCollection(FileRepository.COLLECTION).find(new Document("_id", a)).first();
+		assertEquals(aTo, d.getString("relativePath"));
+		assertEquals(vTo, d.getList("variants", Document.class).get(0).getString("relativePath"));
+		assertEquals(missingRel, db.getCollection(FileRepository.COLLECTION)
+				.find(new Document("_id", missing)).first().getString("relativePath"));
+
+		assertEquals(new FileLayoutMigrator.Result(2, 1, 1, 0), r);
+		// повторный проход ничего не трогает, кроме записей без содержимого
+		assertEquals(0, new FileLayoutMigrator(repo, storage, 10, 0).migrate().migrated());
+	}
+
+	@Test
+	void gcPassBetweenCopyAndRelocate_keepsCopies() throws Exception {
+		ObjectId a = new ObjectId();
+		String aRel = "2024-01-01/10/" + a.toHexString() + ".png";
+		String aVariant = "2024-01-01/10/" + a.toHexString() + "_64.png";
+		db.getCollection(FileRepository.COLLECTION).insertOne(new Document("_id", a).append("relativePath", aRel)
+				.append("filename", a.toHexString() + ".png")
+				.append("variants", List.of(new Document("size", 64).append("relativePath", aVariant))));
+		put(aRel, "original");
+		put(aVariant, "thumb");
+		String aTo = FileStorage.shardedPath(a.toHexString() + ".png");
+		String vTo = FileStorage.shardedPath(a.toHexString() + "_64.png");
+
+		// уборка проходит, когда копии уже лежат, а запись ещё на старых путях; перенос
+		// затянулся дольше grace — копии выглядят старыми сиротами
+		FileGarbageCollector[] gc = new FileGarbageCollector[1];
+		FileGarbageCollector.Result[] during = new FileGarbageCollector.Result[1];
+		FileRepository racing = new RacingRepository(db, () -> {
+			FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+			Files.setLastModifiedTime(base.resolve(aTo), old);
+			Files.setLastModifiedTime(base.resolve(vTo), old);
+			during[0] = gc[0].collect();
+		});
+		gc[0] = new FileGarbageCollector(racing, base, base.resolve("tmp"), true);
+
+		FileLayoutMigrator.Result r = new FileLayoutMigrator(racing, storage, 10, 0).migrate();
+
+		assertEquals(1, r.migrated());
+		assertEquals(0, during[0].orphans());
+		assertEquals("original", Files.readString(base.resolve(aTo)));
+		assertEquals("thumb", Files.readString(base.resolve(vTo)));
+		assertFalse(Files.exists(base.resolve(FileGarbageCollector.QUARANTINE_DIR)));
+		assertFalse(FileLayoutMigrator.isMoving(aTo));
+		// и после переноса следующая уборка их не трогает
+		assertEquals(0, gc[0].collect().orphans());
+	}
+
+	@Test
+	void variantAddedDuringMove_notOverwritten() throws Exception {
+		ObjectId a = new ObjectId();
+		String aRel = "2024-01-01/10/" + a.toHexString() + ".png";
+		String aVariant = "2024-01-01/10/" + a.toHexString() + "_64.png";
+		String added = FileStorage.shardedPath(a.toHexString() + "_128.png");
+		db.getCollection(FileRepository.COLLECTION).insertOne(new Document("_id", a).append("relativePath", aRel)
+				.append("filename", a.toHexString() + ".png")
+				.append("variants", List.of(new Document("size", 64).append("relativePath", aVariant))));
+		put(aRel, "original");
+		put(aVariant, "thumb");
+
+		// генерация превью дописала вариант между чтением записи и relocate
+		FileRepository racing = new RacingRepository(db, () -> db.getCollection(FileRepository.COLLECTION)
+				.updateOne(new Document("_id", a), new Document("$push",
+						new Document("variants", new Document("size", 128).append("relativePath", added)))));
+
+		assertEquals(1, new FileLayoutMigrator(racing, storage, 10, 0).migrate().migrated());
+
+		List<Document> variants = db.getCollection(FileRepository.COLLECTION).find(new Document("_id", a)).first()
+				.getList("variants", Document.class);
+		assertEquals(2, variants.size());
+		assertEquals(FileStorage.shardedPath(a.toHexString() + "_64.png"), variants.get(0).getString("relativePath"));
+		assertEquals(added, variants.get(1).getString("relativePath"));
+	}
+
+	@FunctionalInterface
+	private interface Hook {
+		void run() throws Exception;
+	}
+
+	/** Вызывает hook перед каждым relocate. */
+	private static final class RacingRepository extends FileRepository {
+		private final Hook beforeRelocate;
+
+		RacingRepository(MongoDatabase db, Hook beforeRelocate) {
+			super(db);
+			this.beforeRelocate = beforeRelocate;
+		}
+
+		@Override
+		public boolean relocate(ObjectId id, String fromRelativePath, String toRelativePath,
+				Map<String, String> variantPaths) {
+			try {
+				beforeRelocate.run();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+			return super.relocate(id, fromRelativePath, toRelativePath, variantPaths);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+// com/spendi/modules/files/FileRepositoryBlobIT.java
+
+package com.spendi.modules.files;
+
+/**
+ * ! lib imports
+ */
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.files.FileStorage;
+import com.spendi.modules.files.model.FileBlob;
+import com.spendi.testutil.RealMongoTest;
+
+class FileRepositoryBlobIT extends RealMongoTest {
+
+	private static final String SHA = "ab".repeat(32);
+
+	private FileRepository repo;
+
+	@BeforeEach
+	void cleanAndInit() {
+		clean();
+		this.repo = new FileRepository(db);
+	}
+
+	@AfterEach
+	void clean() {
+		db.drop();
+	}
+
+	@Test
+	void release_returns_true_only_for_last_reference() {
+		repo.acquireBlob(SHA, FileStorage.blobPath(SHA), 10);
+		repo.acquireBlob(SHA, FileStorage.blobPath(SHA), 10);
+		assertEquals(2, repo.findBlob(SHA).getRefs());
+
+		assertFalse(repo.releaseBlob(SHA));
+		assertTrue(repo.releaseBlob(SHA));
+		assertNull(repo.findBlob(SHA));
+	}
+
+	@Test
+	void repair_is_compare_and_set() {
+		repo.acquireBlob(SHA, FileStorage.blobPath(SHA), 10);
+		FileBlob seen = repo.findBlob(SHA);
+
+		// счётчик изменился после чтения — исправление не применяется
+		repo.acquireBlob(SHA, FileStorage.blobPath(SHA), 10);
+		assertFalse(repo.repairBlobRefs(seen, 5));
+
+		FileBlob fresh = repo.findBlob(SHA);
+		assertTrue(repo.repairBlobRefs(fresh, 5));
+		assertEquals(5, repo.findBlob(SHA).getRefs());
+	}
+}
@@ -0,0 +1,71 @@
+// com/spendi/modules/files/FileServiceLayoutIT.java
+
+package com.spendi.modules.files;
+
+/**
+ * ! lib imports
+ */
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * ! java imports
+ */
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * ! my imports
+ */
+import com.spendi.core.files.DownloadedFile;
+import com.spendi.core.files.FileStorage;
+import com.spendi.core.files.storage.LocalStorageBackend;
+import com.spendi.testutil.RealMongoTest;
+
+class FileServiceLayoutIT extends RealMongoTest {
+
+	@TempDir
+	Path base;
+
+	private FileService service;
+
+	@BeforeEach
+	void cleanAndInit() {
+		clean();
+		FileStorage storage = new FileStorage(base, new LocalStorageBackend(base), true);
+		this.service = new FileService(new FileRepository(db), storage);
+	}
+
+	@AfterEach
+	void clean() {
+		db.drop();
+	}
+
+	@Test
+	void recordWithDatedPath_readsContentMovedToShard() throws Exception {
+		// запись ещё со старым путём, а файл уже перенесён FileLayoutMigrator'ом
+		ObjectId id = new ObjectId();
+		String name = id.toHexString() + ".txt";
+		db.getCollection(FileRepository.COLLECTION).insertOne(new Document("_id", id)
+				.append("relativePath", "2024-01-01/10/" + name).append("filename", name)
+				.append("originalName", "a.txt").append("contentType", "text/plain").append("size", 5L));
+		Path moved = base.resolve(FileStorage.shardedPath(name));
+		Files.createDirectories(moved.getParent());
+		Files.writeString(moved, "moved");
+
+		assertEquals("moved", new String(service.downloadOne("t", id).getData().getContent(), StandardCharsets.UTF_8));
+
+		DownloadedFile opened = service.openOne("t", id).getData();
+		try (InputStream in = opened.open()) {
+			assertEquals("moved", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+}
@@ -67,4 +67,23 @@ class UserMapperTest {
 		assertThat(back.getSecurity().getPasswordHash()).isEqualTo("h");
 		assertThat(back.getSystem().getMeta().getCreatedAt()).isNotNull();
 	}
-}
\ No newline at end of file
+
+	@Test
+	void avatarUrl_embedsFileId() {
+		ObjectId id = new ObjectId();
+		ObjectId fileId = new ObjectId();
+		UserEntity e = new UserEntity();
+		e.setId(id);
+		var profile = new UserProfile();
+		profile.setAvatarFileId(fileId);
+		e.setProfile(profile);
+
+		assertThat(e.getAvatarUrl()).isEqualTo("/users/" + id.toHexString() + "/avatar/" + fileId.toHexString());
+
+		// новый файл — новый URL; без аватара URL нет
+		e.getProfile().setAvatarFileId(new ObjectId());
+		assertThat(e.getAvatarUrl()).doesNotContain(fileId.toHexString());
+		e.getProfile().setAvatarFileId((ObjectId) null);
+		assertThat(e.getAvatarUrl()).isNull();
+	}
+}